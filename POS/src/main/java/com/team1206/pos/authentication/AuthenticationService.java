@@ -32,7 +32,10 @@ public class AuthenticationService {
         user.setPassword(encodedPass);
         UserResponseDTO response = userService.createUser(user);
         String token = jwtUtil.generateToken(response.getEmail(),
-                                             response.getFirstName() + " " + response.getLastName());
+                                             response.getFirstName() + " " + response.getLastName(),
+                                             response.getId(),
+                                             response.getMerchantId(),
+                                             response.getRole());
         return Collections.singletonMap("jwt-token", token);
     }
 
@@ -45,7 +48,10 @@ public class AuthenticationService {
         UserResponseDTO user = userService.getUserByEmail(body.getEmail());
 
         String token = jwtUtil.generateToken(user.getEmail(),
-                                             user.getFirstName() + " " + user.getLastName());
+                                             user.getFirstName() + " " + user.getLastName(),
+                                             user.getId(),
+                                             user.getMerchantId(),
+                                             user.getRole());
 
         return Collections.singletonMap("jwt-token", token);
     }
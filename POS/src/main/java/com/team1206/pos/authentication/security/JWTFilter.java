@@ -1,12 +1,16 @@
 package com.team1206.pos.authentication.security;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,6 +19,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.UUID;
 
 @Slf4j
 @Component
@@ -22,11 +27,26 @@ public class JWTFilter extends OncePerRequestFilter {
 
     private final POSUserDetailsService userDetailsService;
     private final JWTUtil jwtUtil;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final UserLookupCounter userLookupCounter;
+    private final DistributionSummary userLookupsPerRequest;
+    private final boolean statelessEnabled;
 
     @Autowired
-    public JWTFilter(POSUserDetailsService userDetailsService, JWTUtil jwtUtil) {
+    public JWTFilter(POSUserDetailsService userDetailsService,
+                     JWTUtil jwtUtil,
+                     TokenRevocationCache tokenRevocationCache,
+                     UserLookupCounter userLookupCounter,
+                     MeterRegistry meterRegistry,
+                     @Value("${jwt_stateless_enabled:true}") boolean statelessEnabled) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.userLookupCounter = userLookupCounter;
+        this.statelessEnabled = statelessEnabled;
+        this.userLookupsPerRequest = DistributionSummary.builder("pos.auth.user.lookups")
+                                                        .description("User lookups hitting the database per request")
+                                                        .register(meterRegistry);
     }
 
     @Override
@@ -44,8 +64,8 @@ public class JWTFilter extends OncePerRequestFilter {
             }
             else {
                 try {
-                    String email = jwtUtil.validateTokenAndRetrieveEmail(jwt);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                    DecodedJWT decodedJWT = jwtUtil.validateToken(jwt);
+                    UserDetails userDetails = resolveUser(decodedJWT);
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(userDetails, null,
                                                                     userDetails.getAuthorities());
@@ -59,6 +79,28 @@ public class JWTFilter extends OncePerRequestFilter {
                 }
             }
         }
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            int userLookups = userLookupCounter.getCount(request);
+            userLookupsPerRequest.record(userLookups);
+            log.debug("{} at {} made {} user lookups", request.getMethod(), request.getRequestURI(), userLookups);
+        }
+    }
+
+    // Recent tokens of unchanged users are trusted as is, everything else is checked against the database
+    private UserDetails resolveUser(DecodedJWT decodedJWT) {
+        UUID userId = jwtUtil.getUserId(decodedJWT);
+        if (statelessEnabled
+                && jwtUtil.hasTrustedPrincipalClaims(decodedJWT)
+                && !tokenRevocationCache.isRevoked(userId, decodedJWT.getIssuedAtAsInstant())) {
+            return jwtUtil.toPrincipal(decodedJWT);
+        }
+
+        if (userId != null) {
+            return userDetailsService.loadUserById(userId);
+        }
+        return userDetailsService.loadUserByUsername(decodedJWT.getClaim("email").asString());
     }
 }
@@ -1,45 +1,110 @@
 package com.team1206.pos.authentication.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.team1206.pos.common.enums.UserRoles;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JWTUtil {
+    private static final String USER_ID_CLAIM = "user_id";
+    private static final String MERCHANT_ID_CLAIM = "merchant_id";
+    private static final String ROLE_CLAIM = "role";
+
     @Value("${jwt_secret}")
     private String secret;
 
     @Value("${jwt_issuer}")
     private String issuer;
 
+    // How long the user id, merchant id and role claims are trusted without checking the database
+    @Value("${jwt_claims_ttl_seconds:900}")
+    private long claimsTtlSeconds;
+
+    // Algorithm and verifier are thread-safe, so they are built once instead of per token
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    @PostConstruct
+    void init() {
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm).withIssuer(issuer).build();
+    }
 
     public String generateToken(String email,
-                                String name) throws IllegalArgumentException, JWTCreationException {
-        return JWT.create()
-                  .withSubject("User Details")
-                  .withClaim("email", email)
-                  .withClaim("name", name)
-                  .withIssuedAt(new Date())
-                  .withIssuer(issuer)
-                  .sign(Algorithm.HMAC256(secret));
+                                String name,
+                                UUID userId,
+                                UUID merchantId,
+                                UserRoles role) throws IllegalArgumentException, JWTCreationException {
+        JWTCreator.Builder builder = JWT.create()
+                                        .withSubject("User Details")
+                                        .withClaim("email", email)
+                                        .withClaim("name", name)
+                                        .withClaim(USER_ID_CLAIM, userId.toString())
+                                        .withClaim(ROLE_CLAIM, role.name())
+                                        .withIssuedAt(new Date())
+                                        .withIssuer(issuer);
+
+        if (merchantId != null) {
+            builder.withClaim(MERCHANT_ID_CLAIM, merchantId.toString());
+        }
+
+        return builder.sign(algorithm);
+    }
+
+    public DecodedJWT validateToken(String token) throws JWTVerificationException {
+        return verifier.verify(token);
     }
 
     public String validateTokenAndRetrieveSubject(String token) throws JWTVerificationException {
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(secret)).withIssuer(issuer).build();
-        DecodedJWT jwt = verifier.verify(token);
-        return jwt.getSubject();
+        return validateToken(token).getSubject();
     }
 
     public String validateTokenAndRetrieveEmail(String token) throws JWTVerificationException {
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(secret)).withIssuer(issuer).build();
-        DecodedJWT jwt = verifier.verify(token);
-        return jwt.getClaim("email").asString();
+        return validateToken(token).getClaim("email").asString();
+    }
+
+    public UUID getUserId(DecodedJWT jwt) {
+        String userId = jwt.getClaim(USER_ID_CLAIM).asString();
+        return userId != null ? UUID.fromString(userId) : null;
+    }
+
+    // Claims are trusted only for tokens that carry them and are recent enough
+    public boolean hasTrustedPrincipalClaims(DecodedJWT jwt) {
+        Instant issuedAt = jwt.getIssuedAtAsInstant();
+        return getUserId(jwt) != null
+                && jwt.getClaim(ROLE_CLAIM).asString() != null
+                && issuedAt != null
+                && issuedAt.plus(getClaimsTtl()).isAfter(Instant.now());
+    }
+
+    public POSUserPrincipal toPrincipal(DecodedJWT jwt) {
+        String merchantId = jwt.getClaim(MERCHANT_ID_CLAIM).asString();
+        UserRoles role = UserRoles.valueOf(jwt.getClaim(ROLE_CLAIM).asString());
+
+        return new POSUserPrincipal(getUserId(jwt),
+                                    jwt.getClaim("email").asString(),
+                                    "",
+                                    merchantId != null ? UUID.fromString(merchantId) : null,
+                                    role,
+                                    List.of(new SimpleGrantedAuthority(role.name())));
+    }
+
+    public Duration getClaimsTtl() {
+        return Duration.ofSeconds(claimsTtlSeconds);
     }
 }
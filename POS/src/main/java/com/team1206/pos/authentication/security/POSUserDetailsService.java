@@ -14,15 +14,18 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class POSUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserLookupCounter userLookupCounter;
 
     @Autowired
-    public POSUserDetailsService(UserRepository userRepository) {
+    public POSUserDetailsService(UserRepository userRepository, UserLookupCounter userLookupCounter) {
         this.userRepository = userRepository;
+        this.userLookupCounter = userLookupCounter;
     }
 
     private static List<GrantedAuthority> mapRoleToAuthorities(UserRoles role) {
@@ -32,14 +35,28 @@ public class POSUserDetailsService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String email) {
 
+        userLookupCounter.increment();
         Optional<User> userRes = userRepository.findByEmail(email);
         if (userRes.isEmpty()) {
             throw new ResourceNotFoundException(ResourceType.USER, email);
         }
 
-        User user = userRes.get();
-        return new org.springframework.security.core.userdetails.User(user.getEmail(),
-                                                                      user.getPassword(),
-                                                                      mapRoleToAuthorities(user.getRole()));
+        return mapToPrincipal(userRes.get());
+    }
+
+    public UserDetails loadUserById(UUID userId) {
+        userLookupCounter.increment();
+        User user = userRepository.findById(userId)
+                                  .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, userId.toString()));
+        return mapToPrincipal(user);
+    }
+
+    private static POSUserPrincipal mapToPrincipal(User user) {
+        return new POSUserPrincipal(user.getId(),
+                                    user.getEmail(),
+                                    user.getPassword(),
+                                    user.getMerchant() != null ? user.getMerchant().getId() : null,
+                                    user.getRole(),
+                                    mapRoleToAuthorities(user.getRole()));
     }
 }
@@ -0,0 +1,33 @@
+package com.team1206.pos.authentication.security;
+
+import com.team1206.pos.common.enums.UserRoles;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.UUID;
+
+// Authenticated user resolved once per request, so services don't have to look the user up again
+@Getter
+public class POSUserPrincipal extends User {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final UUID userId;
+    private final UUID merchantId;
+    private final UserRoles role;
+
+    public POSUserPrincipal(UUID userId,
+                            String email,
+                            String password,
+                            UUID merchantId,
+                            UserRoles role,
+                            Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.userId = userId;
+        this.merchantId = merchantId;
+        this.role = role;
+    }
+}
@@ -1,7 +1,10 @@
 package com.team1206.pos.authentication.security;
 
+import com.team1206.pos.common.idempotency.IdempotencyFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -23,10 +26,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 public class SecurityConfiguration {
     private final JWTFilter filter;
+    private final IdempotencyFilter idempotencyFilter;
     private final POSUserDetailsService uds;
 
-    public SecurityConfiguration(JWTFilter filter, POSUserDetailsService uds) {
+    public SecurityConfiguration(JWTFilter filter, IdempotencyFilter idempotencyFilter, POSUserDetailsService uds) {
         this.filter = filter;
+        this.idempotencyFilter = idempotencyFilter;
         this.uds = uds;
     }
 
@@ -46,6 +51,10 @@ public class SecurityConfiguration {
             .httpBasic(AbstractHttpConfigurer::disable)
             .cors(Customizer.withDefaults())
             .authorizeHttpRequests(authorize -> authorize
+                    // Streamed responses finish in an async dispatch of a request that was already authorized,
+                    // the JWT filter only runs on the first dispatch
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                     // Allow all roles, except EMPLOYEE, to access the following user endpoints
                     .requestMatchers(HttpMethod.POST, "/users/**").hasAnyAuthority(
                             "SUPER_ADMIN",
@@ -67,11 +76,20 @@ public class SecurityConfiguration {
             .sessionManagement(sessionManagement -> sessionManagement.sessionCreationPolicy(
                     SessionCreationPolicy.STATELESS))
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(idempotencyFilter, JWTFilter.class);
 
         return http.build();
     }
 
+    // The idempotency filter needs the authenticated user, so it only runs inside the security filter chain
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration() {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(idempotencyFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
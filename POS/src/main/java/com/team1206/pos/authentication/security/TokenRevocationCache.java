@@ -0,0 +1,70 @@
+package com.team1206.pos.authentication.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers users whose role, merchant or account changed, so their older tokens stop being trusted.
+// Entries live as long as token claims are trusted, after that every older token is re-checked anyway.
+@Component
+public class TokenRevocationCache {
+    private final Map<UUID, Instant> changedUsers = new ConcurrentHashMap<>();
+    private final JWTUtil jwtUtil;
+    private final int maxEntries;
+
+    // Tokens issued before this moment are never trusted, it moves forward when entries are dropped early
+    private volatile Instant evictedUpTo = Instant.EPOCH;
+
+    public TokenRevocationCache(JWTUtil jwtUtil, @Value("${jwt_revocation_cache_size:10000}") int maxEntries) {
+        this.jwtUtil = jwtUtil;
+        this.maxEntries = maxEntries;
+    }
+
+    public void markChanged(UUID userId) {
+        Instant now = Instant.now();
+        changedUsers.put(userId, now);
+        evictExpired(now);
+        if (changedUsers.size() > maxEntries) {
+            evictOldest();
+        }
+    }
+
+    public boolean isRevoked(UUID userId, Instant tokenIssuedAt) {
+        if (!tokenIssuedAt.isAfter(evictedUpTo)) {
+            return true;
+        }
+
+        Instant changedAt = changedUsers.get(userId);
+        return changedAt != null && !tokenIssuedAt.isAfter(changedAt);
+    }
+
+    public int size() {
+        return changedUsers.size();
+    }
+
+    private void evictExpired(Instant now) {
+        Instant expiredBefore = now.minus(jwtUtil.getClaimsTtl());
+        changedUsers.values().removeIf(changedAt -> changedAt.isBefore(expiredBefore));
+    }
+
+    private synchronized void evictOldest() {
+        while (changedUsers.size() > maxEntries) {
+            Map.Entry<UUID, Instant> oldest = changedUsers.entrySet()
+                                                          .stream()
+                                                          .min(Map.Entry.comparingByValue())
+                                                          .orElse(null);
+            if (oldest == null) {
+                return;
+            }
+
+            changedUsers.remove(oldest.getKey(), oldest.getValue());
+            if (oldest.getValue().isAfter(evictedUpTo)) {
+                evictedUpTo = oldest.getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.team1206.pos.authentication.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Counts user lookups hitting the database during the current HTTP request
+@Component
+public class UserLookupCounter {
+    private static final String COUNT_ATTRIBUTE = UserLookupCounter.class.getName() + ".count";
+
+    public void increment() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+
+        Integer count = (Integer) attributes.getAttribute(COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        attributes.setAttribute(COUNT_ATTRIBUTE, count == null ? 1 : count + 1, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public int getCount(HttpServletRequest request) {
+        Integer count = (Integer) request.getAttribute(COUNT_ATTRIBUTE);
+        return count == null ? 0 : count;
+    }
+}
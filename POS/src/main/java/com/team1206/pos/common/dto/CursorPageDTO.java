@@ -0,0 +1,34 @@
+package com.team1206.pos.common.dto;
+
+import lombok.AllArgsConstructor;
+import com.team1206.pos.common.pagination.KeysetCursor;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset paginated list, nextCursor is null on the last page
+@AllArgsConstructor
+@Data
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public static <E, T> CursorPageDTO<T> of(Slice<E> slice, Function<E, KeysetCursor> cursorOf, Function<E, T> mapper) {
+        List<E> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorPageDTO<>(content.stream().map(mapper).toList(), nextCursor);
+    }
+
+    // Same as of, but maps the whole page at once, so related rows can be read for all items together
+    public static <E, T> CursorPageDTO<T> ofAll(Slice<E> slice, Function<E, KeysetCursor> cursorOf, Function<List<E>, List<T>> mapper) {
+        List<E> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorPageDTO<>(mapper.apply(content), nextCursor);
+    }
+}
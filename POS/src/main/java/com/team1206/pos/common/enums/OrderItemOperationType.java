@@ -0,0 +1,7 @@
+package com.team1206.pos.common.enums;
+
+public enum OrderItemOperationType {
+    ADD,
+    UPDATE,
+    REMOVE,
+}
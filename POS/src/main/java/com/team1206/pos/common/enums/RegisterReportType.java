@@ -0,0 +1,6 @@
+package com.team1206.pos.common.enums;
+
+public enum RegisterReportType {
+    X,
+    Z,
+}
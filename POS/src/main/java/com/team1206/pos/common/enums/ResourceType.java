@@ -17,7 +17,8 @@ public enum ResourceType {
     ORDER("Order"),
     ORDER_CHARGE("Order Charge"),
     TRANSACTION("Transaction"),
-    ORDER_ITEM("Order Item");
+    ORDER_ITEM("Order Item"),
+    REGISTER_REPORT("Register Report");
 
     private final String displayName;
 
@@ -0,0 +1,55 @@
+package com.team1206.pos.common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+
+// Time-ordered UUIDv7 ids (RFC 9562): 48 bits of Unix milliseconds, a 12 bit counter and 62 random bits.
+// New rows land on the rightmost page of the primary key index instead of a random one, so inserts into large tables
+// touch few index pages. Ids of one instance keep increasing within a millisecond and when the clock steps back.
+public class UuidV7Generator implements BeforeExecutionGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_COUNTER = 0xFFF;
+    private static final Object LOCK = new Object();
+
+    private static long lastMillis;
+    private static int counter;
+
+    public static UUID next() {
+        long millis;
+        int sequence;
+        synchronized (LOCK) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Starting in the lower half leaves room to count up within the millisecond
+                counter = RANDOM.nextInt(MAX_COUNTER / 2);
+            }
+            else if (++counter > MAX_COUNTER) {
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+
+        long mostSignificantBits = (millis << 16) | 0x7000L | sequence;
+        long leastSignificantBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,46 @@
+package com.team1206.pos.common.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Recently finished idempotent requests, so most retries are answered without a database round trip.
+// Entries are dropped when they expire or the cache is full, the table still has them until they expire.
+@Component
+public class IdempotencyCache {
+    private final Cache<String, IdempotentResponse> responses;
+
+    public IdempotencyCache(@Value("${idempotency_cache_size:10000}") long maxEntries,
+                            @Value("${idempotency_ttl_hours:24}") long ttlHours) {
+        this.responses = Caffeine.newBuilder()
+                                 .maximumSize(maxEntries)
+                                 .expireAfterWrite(Duration.ofHours(ttlHours))
+                                 .build();
+    }
+
+    // Responses loaded from the table may expire before the cache drops them, so their own expiry is checked too
+    public IdempotentResponse get(UUID userId, String idempotencyKey) {
+        IdempotentResponse response = responses.getIfPresent(toCacheKey(userId, idempotencyKey));
+        if (response == null || response.isExpired(LocalDateTime.now())) {
+            return null;
+        }
+        return response;
+    }
+
+    public void put(UUID userId, String idempotencyKey, IdempotentResponse response) {
+        responses.put(toCacheKey(userId, idempotencyKey), response);
+    }
+
+    public long size() {
+        return responses.estimatedSize();
+    }
+
+    private static String toCacheKey(UUID userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+}
@@ -0,0 +1,244 @@
+package com.team1206.pos.common.idempotency;
+
+import com.team1206.pos.authentication.security.POSUserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+
+// Honors the Idempotency-Key header on mutating order and payment endpoints.
+// The first request with a key runs and its response is stored, retries with the same key get that response back
+// without running the request again. Client errors are stored too, server errors release the key so a retry runs again. Keys are scoped to the user, reusing one for a different request is rejected.
+// Registered in the security filter chain after JWTFilter, so the user is known.
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final IdempotencyService idempotencyService;
+    private final Counter replayed;
+    private final Counter conflicts;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService, MeterRegistry meterRegistry) {
+        this.idempotencyService = idempotencyService;
+        this.replayed = Counter.builder("pos.idempotency.replayed")
+                               .description("Retries answered with a stored response")
+                               .register(meterRegistry);
+        this.conflicts = Counter.builder("pos.idempotency.conflicts")
+                                .description("Retries rejected because the key was in use or used for another request")
+                                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !MUTATING_METHODS.contains(request.getMethod())
+                || !(path.equals("/orders") || path.startsWith("/orders/"))
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        UUID userId = getUserId();
+        if (userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = hashRequest(cachedRequest);
+
+        IdempotentResponse stored = idempotencyService.findResponse(userId, idempotencyKey);
+        if (stored == null) {
+            LocalDateTime claimedAt = idempotencyService.claim(userId, idempotencyKey, requestHash);
+            if (claimedAt != null) {
+                execute(cachedRequest, response, filterChain, userId, idempotencyKey, claimedAt, requestHash);
+                return;
+            }
+
+            stored = idempotencyService.findResponse(userId, idempotencyKey);
+            if (stored == null) {
+                conflicts.increment();
+                response.sendError(HttpServletResponse.SC_CONFLICT, "A request with this Idempotency-Key is still being processed");
+                return;
+            }
+        }
+
+        if (!stored.requestHash().equals(requestHash)) {
+            conflicts.increment();
+            log.warn("Idempotency-Key reused for a different request for {} at {}", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+            return;
+        }
+
+        replayed.increment();
+        replay(stored, response);
+    }
+
+    // *** Helper methods ***
+
+    private void execute(HttpServletRequest request,
+                         HttpServletResponse response,
+                         FilterChain filterChain,
+                         UUID userId,
+                         String idempotencyKey,
+                         LocalDateTime claimedAt,
+                         String requestHash) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, cachingResponse);
+
+            // A rejected request stays rejected when retried, only a server error may succeed on the next attempt
+            int status = cachingResponse.getStatus();
+            if (status < 500) {
+                completed = true;
+                if (!idempotencyService.complete(userId,
+                                                 idempotencyKey,
+                                                 claimedAt,
+                                                 requestHash,
+                                                 status,
+                                                 cachingResponse.getContentType(),
+                                                 cachingResponse.getContentAsByteArray())) {
+                    log.warn("Idempotency-Key claim ran past the in-progress timeout for {} at {}", request.getMethod(), request.getRequestURI());
+                }
+            }
+        }
+        finally {
+            if (!completed) {
+                idempotencyService.release(userId, idempotencyKey, claimedAt);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotentResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.statusCode());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null && stored.body().length > 0) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private UUID getUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof POSUserPrincipal principal) {
+            return principal.getUserId();
+        }
+        return null;
+    }
+
+    // Same key with the same method, path and body is a retry, anything else is a different request
+    private static String hashRequest(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(request.getBody());
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Request body read up front, so it can be hashed and still be read by the controller
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The body is already in memory, so there is never anything to wait for
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    }
+                    catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(@NonNull byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+}
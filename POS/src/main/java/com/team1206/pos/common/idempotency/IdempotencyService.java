@@ -0,0 +1,95 @@
+package com.team1206.pos.common.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+// Keeps responses of requests made with an Idempotency-Key, in memory and in the idempotent_request table.
+// Every call commits on its own, so a claimed key is visible to other instances before the request runs.
+@Slf4j
+@Service
+public class IdempotencyService {
+    private final IdempotentRequestRepository idempotentRequestRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+
+    public IdempotencyService(IdempotentRequestRepository idempotentRequestRepository,
+                              IdempotencyCache idempotencyCache,
+                              @Value("${idempotency_ttl_hours:24}") long ttlHours,
+                              @Value("${idempotency_in_progress_timeout_ms:1800000}") long inProgressTimeoutMs) {
+        this.idempotentRequestRepository = idempotentRequestRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inProgressTimeout = Duration.ofMillis(inProgressTimeoutMs);
+    }
+
+    // Returns null while the key is unused or its request hasn't finished yet
+    public IdempotentResponse findResponse(UUID userId, String idempotencyKey) {
+        IdempotentResponse cached = idempotencyCache.get(userId, idempotencyKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        IdempotentRequest request = idempotentRequestRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                                                               .orElse(null);
+        if (request == null || request.getStatusCode() == null || request.getExpiresAt().isBefore(LocalDateTime.now())) {
+            return null;
+        }
+
+        IdempotentResponse response = IdempotentResponse.of(request);
+        idempotencyCache.put(userId, idempotencyKey, response);
+        return response;
+    }
+
+    // A request that never finished, e.g. because the instance died, frees its key after the in-progress timeout.
+    // Returns the time of the claim, which completing or releasing it has to name, or null when another request holds the key.
+    public LocalDateTime claim(UUID userId, String idempotencyKey, String requestHash) {
+        // Truncated to what the column stores, so the claim is found again by its time
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int claimed = idempotentRequestRepository.claim(userId,
+                                                        idempotencyKey,
+                                                        requestHash,
+                                                        now,
+                                                        now.plus(ttl),
+                                                        now.minus(inProgressTimeout));
+        return claimed > 0 ? now : null;
+    }
+
+    // Returns false when the claim was taken over after the in-progress timeout, the response is then not stored
+    public boolean complete(UUID userId,
+                            String idempotencyKey,
+                            LocalDateTime claimedAt,
+                            String requestHash,
+                            int statusCode,
+                            String contentType,
+                            byte[] body) {
+        if (idempotentRequestRepository.complete(userId, idempotencyKey, claimedAt, requestHash, statusCode, contentType, body) == 0) {
+            return false;
+        }
+
+        idempotencyCache.put(userId,
+                             idempotencyKey,
+                             new IdempotentResponse(requestHash, statusCode, contentType, body, LocalDateTime.now().plus(ttl)));
+        return true;
+    }
+
+    // Requests that failed on the server changed nothing, releasing the key lets the retry run them again
+    public void release(UUID userId, String idempotencyKey, LocalDateTime claimedAt) {
+        idempotentRequestRepository.release(userId, idempotencyKey, claimedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency_cleanup_interval_ms:3600000}")
+    public void deleteExpired() {
+        int deleted = idempotentRequestRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotent requests", deleted);
+        }
+    }
+}
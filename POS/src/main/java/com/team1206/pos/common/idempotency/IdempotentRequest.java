@@ -0,0 +1,43 @@
+package com.team1206.pos.common.idempotency;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Request made with an Idempotency-Key. The status code stays null while the first request is still running.
+@Getter
+@Setter
+@Entity
+@Table(name = "\"idempotent_request\"")
+public class IdempotentRequest {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "status_code", nullable = true)
+    private Integer statusCode;
+
+    @Column(name = "content_type", nullable = true)
+    private String contentType;
+
+    @Column(name = "response_body", nullable = true)
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
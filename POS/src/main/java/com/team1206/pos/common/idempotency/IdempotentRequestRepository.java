@@ -0,0 +1,65 @@
+package com.team1206.pos.common.idempotency;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotentRequestRepository extends JpaRepository<IdempotentRequest, UUID> {
+    Optional<IdempotentRequest> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    // Inserts the key, or takes over an expired one or one whose request never finished.
+    // Returns 0 when another request holds the key, the unique constraint makes this safe between instances.
+    // Naming the table keeps Hibernate from emptying the second-level cache after the native statement.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "idempotent_request"))
+    @Query(value = "INSERT INTO idempotent_request (id, user_id, idempotency_key, request_hash, created_at, expires_at) " +
+            "VALUES (gen_random_uuid(), :userId, :idempotencyKey, :requestHash, :now, :expiresAt) " +
+            "ON CONFLICT (user_id, idempotency_key) DO UPDATE " +
+            "SET request_hash = EXCLUDED.request_hash, status_code = NULL, content_type = NULL, response_body = NULL, " +
+            "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotent_request.expires_at < :now " +
+            "OR (idempotent_request.status_code IS NULL AND idempotent_request.created_at < :staleBefore)", nativeQuery = true)
+    int claim(@Param("userId") UUID userId,
+              @Param("idempotencyKey") String idempotencyKey,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Only the claim made at claimedAt for the same request is completed, a request whose key was taken over stores nothing
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotentRequest r SET r.statusCode = :statusCode, r.contentType = :contentType, r.responseBody = :responseBody " +
+            "WHERE r.userId = :userId AND r.idempotencyKey = :idempotencyKey AND r.createdAt = :claimedAt " +
+            "AND r.requestHash = :requestHash AND r.statusCode IS NULL")
+    int complete(@Param("userId") UUID userId,
+                 @Param("idempotencyKey") String idempotencyKey,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("requestHash") String requestHash,
+                 @Param("statusCode") int statusCode,
+                 @Param("contentType") String contentType,
+                 @Param("responseBody") byte[] responseBody);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotentRequest r WHERE r.userId = :userId AND r.idempotencyKey = :idempotencyKey " +
+            "AND r.createdAt = :claimedAt AND r.statusCode IS NULL")
+    int release(@Param("userId") UUID userId,
+                @Param("idempotencyKey") String idempotencyKey,
+                @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotentRequest r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
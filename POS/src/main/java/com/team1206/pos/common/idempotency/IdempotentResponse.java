@@ -0,0 +1,18 @@
+package com.team1206.pos.common.idempotency;
+
+import java.time.LocalDateTime;
+
+// Stored response of a finished request, replayed to retries with the same key
+public record IdempotentResponse(String requestHash, int statusCode, String contentType, byte[] body, LocalDateTime expiresAt) {
+    static IdempotentResponse of(IdempotentRequest request) {
+        return new IdempotentResponse(request.getRequestHash(),
+                                      request.getStatusCode(),
+                                      request.getContentType(),
+                                      request.getResponseBody(),
+                                      request.getExpiresAt());
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        return expiresAt.isBefore(now);
+    }
+}
@@ -0,0 +1,49 @@
+package com.team1206.pos.common.pagination;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+// Position after the last returned row of a list ordered by (created_at, id) descending.
+// Sent to clients as an opaque string, so the format can change without breaking them.
+public record KeysetCursor(LocalDateTime createdAt, UUID id) {
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    // Position before the first row, every stored row sorts after it. Keeps the first page on the same indexed query.
+    public static final KeysetCursor START = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59), new UUID(-1L, -1L));
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decodeOrStart(String cursor) {
+        return cursor == null || cursor.isBlank() ? START : decode(cursor);
+    }
+
+    // Rows of one cursor page, Slice queries fetch one extra row themselves to tell whether there is a next page
+    public static Pageable firstRows(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return PageRequest.of(0, limit, NEWEST_FIRST);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.team1206.pos.common.projection;
+
+import java.util.*;
+
+// Id of an entity in a collection of another, list pages read a whole collection for all rows of the page in one query
+public record OwnedId(UUID ownerId, UUID id) {
+
+    // Owners without any ids are left out, callers default them to an empty list
+    public static Map<UUID, List<UUID>> groupByOwner(List<OwnedId> ownedIds) {
+        Map<UUID, List<UUID>> idsByOwner = new HashMap<>();
+        for (OwnedId ownedId : ownedIds) {
+            idsByOwner.computeIfAbsent(ownedId.ownerId(), ownerId -> new ArrayList<>()).add(ownedId.id());
+        }
+        return idsByOwner;
+    }
+}
@@ -1,8 +1,10 @@
 package com.team1206.pos.inventory.inventoryLog;
 
+import com.team1206.pos.common.id.UuidV7;
 import com.team1206.pos.inventory.product.Product;
 import com.team1206.pos.inventory.productVariation.ProductVariation;
 import com.team1206.pos.order.order.Order;
+import com.team1206.pos.user.merchant.Merchant;
 import com.team1206.pos.user.user.User;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -17,7 +19,7 @@ import java.util.UUID;
 @Table(name = "\"inventory_log\"")
 public class InventoryLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID) // Auto-generate UUID
+    @UuidV7
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
@@ -25,22 +27,28 @@ public class InventoryLog {
     @Enumerated(EnumType.STRING)
     private LogType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = true)
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_variation_id", nullable = true)
     private ProductVariation productVariation;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "\"order\"", nullable = true)
     private Order order;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "\"user\"", nullable = false)
     private User user;
 
+    // Merchant of the product, lists and stock history are filtered and ordered by it
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "merchant_id", nullable = true)
+    private Merchant merchant;
+
+    // Signed change of stock on hand
     @Column(name = "adjustment", nullable = false)
     private Integer adjustment;
 
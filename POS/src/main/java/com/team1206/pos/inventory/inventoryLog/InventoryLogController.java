@@ -1,5 +1,6 @@
 package com.team1206.pos.inventory.inventoryLog;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -7,14 +8,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/inventoryLog")
 public class InventoryLogController {
     private final InventoryLogService inventoryLogService;
-    public InventoryLogController(InventoryLogService inventoryLogService) {
+    private final InventoryStockService inventoryStockService;
+    public InventoryLogController(InventoryLogService inventoryLogService, InventoryStockService inventoryStockService) {
         this.inventoryLogService = inventoryLogService;
+        this.inventoryStockService = inventoryStockService;
     }
 
     @Operation(summary = "explicitly create new inventory log")
@@ -24,6 +29,25 @@ public class InventoryLogController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "retrieve stock on hand of products and product variations at a point in time")
+    @GetMapping("/stock")
+    public ResponseEntity<List<StockLevelResponseDTO>> getStock(
+        @RequestParam(value = "at") LocalDateTime at,
+        @RequestParam(value = "product", required = false) UUID product,
+        @RequestParam(value = "productVariation", required = false) UUID productVariation) {
+        return ResponseEntity.ok(inventoryStockService.getStock(at, product, productVariation));
+    }
+
+    @Operation(summary = "retrieve stock added and taken of products and product variations over a period")
+    @GetMapping("/movements")
+    public ResponseEntity<List<StockMovementResponseDTO>> getMovements(
+        @RequestParam(value = "from") LocalDateTime from,
+        @RequestParam(value = "to") LocalDateTime to,
+        @RequestParam(value = "product", required = false) UUID product,
+        @RequestParam(value = "productVariation", required = false) UUID productVariation) {
+        return ResponseEntity.ok(inventoryStockService.getMovements(from, to, product, productVariation));
+    }
+
     @Operation(summary = "retrieve inventory log by ID")
     @GetMapping("/{id}")
     public ResponseEntity<InventoryLogResponseDTO> getInventoryLog(@PathVariable UUID id) {
@@ -53,4 +77,24 @@ public class InventoryLogController {
 
         return ResponseEntity.ok(inventoryLogPage);
     }
+
+    @Operation(summary = "scroll through inventory logs with filters using a cursor")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<InventoryLogResponseDTO>> scrollInventoryLogs(
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "limit", defaultValue = "20") int limit,
+        @Valid @RequestBody(required = false) InventoryLogFilterDTO filter) {
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+
+        if (filter == null) {
+            filter = new InventoryLogFilterDTO();
+        }
+
+        CursorPageDTO<InventoryLogResponseDTO> inventoryLogs = inventoryLogService.scrollInventoryLogs(cursor, limit, filter);
+
+        return ResponseEntity.ok(inventoryLogs);
+    }
 }
@@ -2,6 +2,7 @@ package com.team1206.pos.inventory.inventoryLog;
 
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -10,4 +11,7 @@ public class InventoryLogFilterDTO {
     private UUID productVariationId = null;
     private UUID orderId = null;
     private UUID userId = null;
+    // Inclusive start and exclusive end of the creation time
+    private LocalDateTime from = null;
+    private LocalDateTime to = null;
 }
@@ -1,16 +1,62 @@
 package com.team1206.pos.inventory.inventoryLog;
 
-import com.team1206.pos.inventory.product.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
-public interface InventoryLogRepository extends JpaRepository<InventoryLog, UUID> {
-    @Query("SELECT il FROM InventoryLog il WHERE il.user.merchant.id = :merchantId")
-    Page<InventoryLog> findAllByMerchantId(@Param("merchantId") UUID merchantId, Pageable pageable);
+// Listing queries are built from InventoryLogSpecifications
+public interface InventoryLogRepository extends JpaRepository<InventoryLog, UUID>, JpaSpecificationExecutor<InventoryLog> {
+    // Net change of each product and variation in (after, upTo], read through the (merchant_id, created_at) index
+    @Query("SELECT new com.team1206.pos.inventory.inventoryLog.StockLevel(il.product.id, il.productVariation.id, SUM(il.adjustment)) " +
+            "FROM InventoryLog il WHERE il.merchant.id = :merchantId AND il.createdAt > :after AND il.createdAt <= :upTo " +
+            "AND (:productId IS NULL OR il.product.id = :productId) " +
+            "AND (:productVariationId IS NULL OR il.productVariation.id = :productVariationId) " +
+            "GROUP BY il.product.id, il.productVariation.id")
+    List<StockLevel> sumAdjustments(@Param("merchantId") UUID merchantId,
+                                    @Param("after") LocalDateTime after,
+                                    @Param("upTo") LocalDateTime upTo,
+                                    @Param("productId") UUID productId,
+                                    @Param("productVariationId") UUID productVariationId);
+
+    @Query("SELECT new com.team1206.pos.inventory.inventoryLog.StockMovement(il.product.id, il.productVariation.id, " +
+            "SUM(CASE WHEN il.adjustment > 0 THEN il.adjustment ELSE 0 END), SUM(CASE WHEN il.adjustment < 0 THEN -il.adjustment ELSE 0 END)) " +
+            "FROM InventoryLog il WHERE il.merchant.id = :merchantId AND il.createdAt > :after AND il.createdAt <= :upTo " +
+            "AND (:productId IS NULL OR il.product.id = :productId) " +
+            "AND (:productVariationId IS NULL OR il.productVariation.id = :productVariationId) " +
+            "GROUP BY il.product.id, il.productVariation.id")
+    List<StockMovement> sumMovements(@Param("merchantId") UUID merchantId,
+                                     @Param("after") LocalDateTime after,
+                                     @Param("upTo") LocalDateTime upTo,
+                                     @Param("productId") UUID productId,
+                                     @Param("productVariationId") UUID productVariationId);
+
+    // Logs many sold order lines in one insert, lines are matched by position. Lines with a variation are logged for the variation only.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "inventory_log"))
+    @Query(value = "INSERT INTO inventory_log (id, type, product_id, product_variation_id, \"order\", \"user\", merchant_id, adjustment, created_at) " +
+            "SELECT l.id, CASE WHEN l.product_variation_id IS NULL THEN 'PRODUCT' ELSE 'PRODUCT_VARIATION' END, " +
+            "       CASE WHEN l.product_variation_id IS NULL THEN l.product_id END, l.product_variation_id, " +
+            "       l.order_id, :userId, :merchantId, l.adjustment, :createdAt " +
+            "FROM unnest(CAST(:ids AS uuid[]), CAST(:orderIds AS uuid[]), CAST(:productIds AS uuid[]), " +
+            "            CAST(:productVariationIds AS uuid[]), CAST(:adjustments AS int[])) " +
+            "     AS l(id, order_id, product_id, product_variation_id, adjustment)", nativeQuery = true)
+    int insertOrderLogs(@Param("ids") UUID[] ids,
+                        @Param("orderIds") UUID[] orderIds,
+                        @Param("productIds") UUID[] productIds,
+                        @Param("productVariationIds") UUID[] productVariationIds,
+                        @Param("adjustments") Integer[] adjustments,
+                        @Param("userId") UUID userId,
+                        @Param("merchantId") UUID merchantId,
+                        @Param("createdAt") LocalDateTime createdAt);
 }
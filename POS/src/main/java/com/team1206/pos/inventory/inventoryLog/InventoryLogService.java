@@ -1,5 +1,8 @@
 package com.team1206.pos.inventory.inventoryLog;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
+import com.team1206.pos.common.id.UuidV7Generator;
+import com.team1206.pos.common.pagination.KeysetCursor;
 import com.team1206.pos.exceptions.UnauthorizedActionException;
 import com.team1206.pos.inventory.product.Product;
 import com.team1206.pos.inventory.product.ProductService;
@@ -9,12 +12,15 @@ import com.team1206.pos.order.order.Order;
 import com.team1206.pos.order.order.OrderService;
 import com.team1206.pos.order.orderItem.OrderItem;
 import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,30 +40,26 @@ public class InventoryLogService {
         this.userService = userService;
     }
 
+    // Logs and applies a change to stock on hand, the log has to hold every change for stock history to add up
+    @Transactional
     public InventoryLogResponseDTO createInventoryLog(CreateInventoryLogRequestDTO request) {
-        UUID requestMerchantId;
-        InventoryLog inventoryLog = new InventoryLog();
+        InventoryLog inventoryLog;
 
         if(request.getProduct() != null){
             Product product = productService.getProductEntityById(request.getProduct());
-            requestMerchantId = product.getCategory().getMerchant().getId();
-            userService.verifyLoggedInUserBelongsToMerchant(requestMerchantId, "You are not authorized to create inventory log for this product");
+            userService.verifyLoggedInUserBelongsToMerchant(product.getCategory().getMerchant().getId(), "You are not authorized to create inventory log for this product");
 
-            inventoryLog.setProduct(product);
-            inventoryLog.setProductVariation(null);
-            inventoryLog.setType(InventoryLog.LogType.PRODUCT);
-        } else if(request.getProductVariation() != null){
+            productService.adjustProductQuantity(product.getId(), request.getAdjustment());
+            inventoryLog = buildInventoryLog(product, request.getAdjustment());
+        } else {
             ProductVariation productVariation = productVariationService.getProductVariationEntityById(request.getProductVariation());
-            requestMerchantId = productVariation.getProduct().getCategory().getMerchant().getId();
-            userService.verifyLoggedInUserBelongsToMerchant(requestMerchantId, "You are not authorized to create inventory log for this product variation");
+            userService.verifyLoggedInUserBelongsToMerchant(productVariation.getProduct().getCategory().getMerchant().getId(), "You are not authorized to create inventory log for this product variation");
 
-            inventoryLog.setProductVariation(productVariation);
-            inventoryLog.setProduct(null);
-            inventoryLog.setType(InventoryLog.LogType.PRODUCT_VARIATION);
+            productVariationService.adjustProductVariationQuantity(productVariation.getId(), request.getAdjustment());
+            inventoryLog = buildInventoryLog(productVariation, request.getAdjustment());
         }
 
         inventoryLog.setUser(userService.getCurrentUser());
-        inventoryLog.setAdjustment(request.getAdjustment());
         if(request.getOrder() != null)
             inventoryLog.setOrder(orderService.getOrderEntityById(request.getOrder()));
 
@@ -75,79 +77,134 @@ public class InventoryLogService {
     }
 
     public Page<InventoryLogResponseDTO> getAllInventoryLogs(int offset, int limit, InventoryLogFilterDTO filterDTO) {
-        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        Pageable pageable = PageRequest.of(offset / limit, limit, InventoryLogSpecifications.NEWEST_FIRST);
 
-        Pageable pageable = PageRequest.of(offset / limit, limit); // Create Pageable object
-        Page<InventoryLog> inventoryLogPage;
+        return inventoryLogRepository.findAll(InventoryLogSpecifications.withFilters(getMerchantId(), filterDTO), pageable)
+                                     .map(this::mapToResponse);
+    }
 
-        if(merchantId == null)
-            throw new UnauthorizedActionException("Super-admin has to be assigned to Merchant first");
+    // Keyset paginated variant, the cost of a page does not grow with how deep the client has scrolled
+    public CursorPageDTO<InventoryLogResponseDTO> scrollInventoryLogs(String cursor, int limit, InventoryLogFilterDTO filterDTO) {
+        Specification<InventoryLog> specification = InventoryLogSpecifications.withFilters(getMerchantId(), filterDTO);
+        if (cursor != null) {
+            specification = specification.and(InventoryLogSpecifications.after(KeysetCursor.decode(cursor)));
+        }
 
-        inventoryLogPage = inventoryLogRepository.findAllByMerchantId(merchantId, pageable);
-
-        // Filter the logs based on the DTO
-        List<InventoryLog> filteredLogs = inventoryLogPage
-                .getContent()
-                .stream()
-                .filter(log -> filterDTO.getProductId() == null ||
-                        (log.getProduct() != null && log.getProduct().getId().equals(filterDTO.getProductId())))
-                .filter(log -> filterDTO.getProductVariationId() == null ||
-                        (log.getProductVariation() != null &&
-                                (log.getProductVariation().getId().equals(filterDTO.getProductVariationId()) ||
-                                        log.getProductVariation().getProduct().getId().equals(filterDTO.getProductId()))))
-                .filter(log -> filterDTO.getOrderId() == null ||
-                        (log.getOrder() != null && log.getOrder().getId().equals(filterDTO.getOrderId())))
-                .filter(log -> filterDTO.getUserId() == null ||
-                        (log.getUser() != null && log.getUser().getId().equals(filterDTO.getUserId())))
-                .toList();
-
-        // Map the filtered list to DTOs
-        List<InventoryLogResponseDTO> responseDTOs = filteredLogs.stream()
-                .map(this::mapToResponse)
-                .toList();
-
-        // Create a new Page object for the filtered results
-        return new PageImpl<>(responseDTOs, pageable, filteredLogs.size());
+        // One extra row tells whether there is a next page
+        List<InventoryLog> inventoryLogs = inventoryLogRepository.findBy(specification, query -> query.sortBy(InventoryLogSpecifications.NEWEST_FIRST)
+                                                                                                     .limit(limit + 1)
+                                                                                                     .all());
+        String nextCursor = null;
+        if (inventoryLogs.size() > limit) {
+            inventoryLogs = inventoryLogs.subList(0, limit);
+            InventoryLog last = inventoryLogs.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new CursorPageDTO<>(inventoryLogs.stream().map(this::mapToResponse).toList(), nextCursor);
     }
 
     // Service layer
 
-    public void logOrder(Order order)
+    // Items held by an open order are still on hand, they are logged as taken once the order closes.
+    // The lines come loaded with the order, so the whole order is logged with one insert and nothing is looked up per line.
+    public void logOrder(Order order, List<OrderItem> items)
+    {
+        OrderLogs orderLogs = new OrderLogs();
+        items.forEach(orderLogs::add);
+        if(orderLogs.isEmpty())
+            return;
+
+        // Written in the closing transaction, the order does not close without its logs
+        insertOrderLogs(orderLogs, userService.getCurrentPrincipal().getUserId(), order.getMerchant().getId(), LocalDateTime.now());
+    }
+
+    // Logs sold lines of many orders of the merchant with one insert, the lines come with their order, product and variation loaded
+    public void logOrderItems(UUID merchantId, List<OrderItem> orderItems)
     {
-        for(OrderItem orderItem : order.getItems())
-        {
-            if(orderItem.getProduct() != null){
-                createInventoryLogForProduct(orderItem.getProduct().getId(), orderItem.getProduct().getQuantity(), order.getId());
-            } else if(orderItem.getProductVariation() != null){
-                createInventoryLogForProductVariation(orderItem.getProductVariation().getId(), orderItem.getProductVariation().getQuantity(), order.getId());
-            }
+        OrderLogs orderLogs = new OrderLogs();
+        orderItems.forEach(orderLogs::add);
+        if(orderLogs.isEmpty())
+            return;
+
+        insertOrderLogs(orderLogs, userService.getCurrentPrincipal().getUserId(), merchantId, LocalDateTime.now());
+    }
+
+    // Logs a change of the product quantity, callers pass the change and not the new quantity
+    public void createInventoryLogForProduct(Product product, int adjustment) {
+        if(adjustment == 0)
+            return;
+        InventoryLog inventoryLog = buildInventoryLog(product, adjustment);
+        inventoryLog.setUser(userService.getCurrentUser());
+        inventoryLogRepository.save(inventoryLog);
+    }
+
+    public void createInventoryLogForProductVariation(ProductVariation productVariation, int adjustment) {
+        if(adjustment == 0)
+            return;
+        InventoryLog inventoryLog = buildInventoryLog(productVariation, adjustment);
+        inventoryLog.setUser(userService.getCurrentUser());
+        inventoryLogRepository.save(inventoryLog);
+    }
+
+    // *** Helper methods ***
+
+    private UUID getMerchantId() {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        if (merchantId == null)
+            throw new UnauthorizedActionException("Super-admin has to be assigned to Merchant first");
+        return merchantId;
+    }
+
+    private void insertOrderLogs(OrderLogs orderLogs, UUID userId, UUID merchantId, LocalDateTime loggedAt) {
+        inventoryLogRepository.insertOrderLogs(orderLogs.ids.toArray(UUID[]::new),
+                                               orderLogs.orderIds.toArray(UUID[]::new),
+                                               orderLogs.productIds.toArray(UUID[]::new),
+                                               orderLogs.productVariationIds.toArray(UUID[]::new),
+                                               orderLogs.adjustments.toArray(Integer[]::new),
+                                               userId, merchantId, loggedAt);
+    }
+
+    // Sold lines of products and variations, one array per column of the insert
+    private static class OrderLogs {
+        private final List<UUID> ids = new ArrayList<>();
+        private final List<UUID> orderIds = new ArrayList<>();
+        private final List<UUID> productIds = new ArrayList<>();
+        private final List<UUID> productVariationIds = new ArrayList<>();
+        private final List<Integer> adjustments = new ArrayList<>();
+
+        void add(OrderItem orderItem) {
+            if(orderItem.getProduct() == null && orderItem.getProductVariation() == null)
+                return;
+            ids.add(UuidV7Generator.next());
+            orderIds.add(orderItem.getOrder().getId());
+            productIds.add(orderItem.getProduct() != null ? orderItem.getProduct().getId() : null);
+            productVariationIds.add(orderItem.getProductVariation() != null ? orderItem.getProductVariation().getId() : null);
+            adjustments.add(-orderItem.getQuantity());
+        }
+
+        boolean isEmpty() {
+            return ids.isEmpty();
         }
     }
 
-    public void createInventoryLogForProduct(UUID productId, int adjustment, UUID orderId ) {
-        Product product = productService.getProductEntityById(productId);
+    // Logs belong to the merchant of the product, stock history is summed per merchant
+    private InventoryLog buildInventoryLog(Product product, int adjustment) {
         InventoryLog inventoryLog = new InventoryLog();
-        inventoryLog.setProduct(product);
-        inventoryLog.setProductVariation(null);
         inventoryLog.setType(InventoryLog.LogType.PRODUCT);
-        inventoryLog.setUser(userService.getCurrentUser());
-        if(orderId != null)
-            inventoryLog.setOrder(orderService.getOrderEntityById(orderId));
+        inventoryLog.setProduct(product);
+        inventoryLog.setMerchant(product.getCategory().getMerchant());
         inventoryLog.setAdjustment(adjustment);
-        inventoryLogRepository.save(inventoryLog);
+        return inventoryLog;
     }
 
-    public void createInventoryLogForProductVariation(UUID productVariationId, int adjustment, UUID orderId ) {
-        ProductVariation productVariation = productVariationService.getProductVariationEntityById(productVariationId);
+    private InventoryLog buildInventoryLog(ProductVariation productVariation, int adjustment) {
         InventoryLog inventoryLog = new InventoryLog();
-        inventoryLog.setProductVariation(productVariation);
-        inventoryLog.setProduct(null);
         inventoryLog.setType(InventoryLog.LogType.PRODUCT_VARIATION);
-        inventoryLog.setUser(userService.getCurrentUser());
-        if(orderId != null)
-            inventoryLog.setOrder(orderService.getOrderEntityById(orderId));
+        inventoryLog.setProductVariation(productVariation);
+        inventoryLog.setMerchant(productVariation.getProduct().getCategory().getMerchant());
         inventoryLog.setAdjustment(adjustment);
-        inventoryLogRepository.save(inventoryLog);
+        return inventoryLog;
     }
 
     // Mappers
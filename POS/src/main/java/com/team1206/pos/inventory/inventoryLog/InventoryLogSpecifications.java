@@ -0,0 +1,62 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import com.team1206.pos.common.pagination.KeysetCursor;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Inventory log filters translated to SQL predicates, every filter is served by an index ending in (created_at, id)
+public final class InventoryLogSpecifications {
+    public static final Sort NEWEST_FIRST = KeysetCursor.NEWEST_FIRST;
+
+    private InventoryLogSpecifications() {
+    }
+
+    public static Specification<InventoryLog> withFilters(UUID merchantId, InventoryLogFilterDTO filter) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(criteriaBuilder.equal(root.get("merchant").get("id"), merchantId));
+
+            if (filter.getProductId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("product").get("id"), filter.getProductId()));
+            }
+            if (filter.getProductVariationId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("productVariation").get("id"), filter.getProductVariationId()));
+            }
+            if (filter.getOrderId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("order").get("id"), filter.getOrderId()));
+            }
+            if (filter.getUserId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("user").get("id"), filter.getUserId()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.<LocalDateTime>get("createdAt"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(criteriaBuilder.lessThan(root.<LocalDateTime>get("createdAt"), filter.getTo()));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Rows after the cursor in NEWEST_FIRST order. The extra created_at <= bound lets the index scan
+    // start at the cursor, the OR alone would make it walk every newer row first.
+    public static Specification<InventoryLog> after(KeysetCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            LocalDateTime createdAt = cursor.createdAt();
+            return criteriaBuilder.and(
+                    criteriaBuilder.lessThanOrEqualTo(root.<LocalDateTime>get("createdAt"), createdAt),
+                    criteriaBuilder.or(
+                            criteriaBuilder.lessThan(root.<LocalDateTime>get("createdAt"), createdAt),
+                            criteriaBuilder.lessThan(root.<UUID>get("id"), cursor.id())
+                    )
+            );
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Stock of a merchant at snapshotAt, rows are only written by InventorySnapshotRepository.create and the V45 migration
+@Getter
+@Entity
+@Immutable
+@Table(name = "inventory_snapshot")
+public class InventorySnapshot {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private UUID merchantId;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
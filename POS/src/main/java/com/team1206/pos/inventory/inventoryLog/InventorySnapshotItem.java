@@ -0,0 +1,30 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.util.UUID;
+
+// Stock of one product or product variation in a snapshot, items with no stock are left out
+@Getter
+@Entity
+@Immutable
+@Table(name = "inventory_snapshot_item")
+public class InventorySnapshotItem {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "snapshot_id", nullable = false)
+    private UUID snapshotId;
+
+    @Column(name = "product_id", nullable = true)
+    private UUID productId;
+
+    @Column(name = "product_variation_id", nullable = true)
+    private UUID productVariationId;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+}
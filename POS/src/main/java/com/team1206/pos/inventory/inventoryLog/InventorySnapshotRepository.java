@@ -0,0 +1,67 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, UUID> {
+    Optional<InventorySnapshot> findFirstByMerchantIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(UUID merchantId, LocalDateTime snapshotAt);
+
+    @Query("SELECT MIN(s.snapshotAt) FROM InventorySnapshot s WHERE s.merchantId = :merchantId")
+    Optional<LocalDateTime> findFirstSnapshotAt(@Param("merchantId") UUID merchantId);
+
+    @Query("SELECT new com.team1206.pos.inventory.inventoryLog.StockLevel(i.productId, i.productVariationId, i.quantity) " +
+            "FROM InventorySnapshotItem i WHERE i.snapshotId = :snapshotId " +
+            "AND (:productId IS NULL OR i.productId = :productId) " +
+            "AND (:productVariationId IS NULL OR i.productVariationId = :productVariationId)")
+    List<StockLevel> findItems(@Param("snapshotId") UUID snapshotId,
+                               @Param("productId") UUID productId,
+                               @Param("productVariationId") UUID productVariationId);
+
+    // Merchants with inventory logs between their latest snapshot and snapshotAt, one index probe per merchant
+    @Query(value = "SELECT m.id FROM merchant m WHERE EXISTS (" +
+            "    SELECT 1 FROM inventory_log il WHERE il.merchant_id = m.id AND il.created_at <= :snapshotAt " +
+            "    AND il.created_at > COALESCE((SELECT MAX(s.snapshot_at) FROM inventory_snapshot s WHERE s.merchant_id = m.id), :since))",
+            nativeQuery = true)
+    List<UUID> findMerchantIdsToSnapshot(@Param("snapshotAt") LocalDateTime snapshotAt, @Param("since") LocalDateTime since);
+
+    // Takes the snapshot in one statement: the previous snapshot plus the logs written after it, up to snapshotAt.
+    // Merchants without a previous snapshot are summed from since. A snapshot already taken at snapshotAt is left as it is.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "inventory_snapshot"))
+    @Query(value = "WITH snapshot AS (" +
+            "    INSERT INTO inventory_snapshot (id, merchant_id, snapshot_at, created_at) " +
+            "    VALUES (:id, :merchantId, :snapshotAt, now()) " +
+            "    ON CONFLICT (merchant_id, snapshot_at) DO NOTHING " +
+            "    RETURNING id), " +
+            "previous AS (" +
+            "    SELECT id, snapshot_at FROM inventory_snapshot " +
+            "    WHERE merchant_id = :merchantId AND snapshot_at < :snapshotAt " +
+            "    ORDER BY snapshot_at DESC LIMIT 1) " +
+            "INSERT INTO inventory_snapshot_item (id, snapshot_id, product_id, product_variation_id, quantity) " +
+            "SELECT gen_random_uuid(), sn.id, s.product_id, s.product_variation_id, SUM(s.quantity) " +
+            "FROM snapshot sn, (" +
+            "    SELECT si.product_id, si.product_variation_id, si.quantity " +
+            "    FROM inventory_snapshot_item si JOIN previous p ON p.id = si.snapshot_id " +
+            "    UNION ALL " +
+            "    SELECT il.product_id, il.product_variation_id, il.adjustment FROM inventory_log il " +
+            "    WHERE il.merchant_id = :merchantId AND il.created_at <= :snapshotAt " +
+            "    AND il.created_at > COALESCE((SELECT snapshot_at FROM previous), :since)) s " +
+            "GROUP BY sn.id, s.product_id, s.product_variation_id " +
+            "HAVING SUM(s.quantity) <> 0", nativeQuery = true)
+    int create(@Param("id") UUID id,
+               @Param("merchantId") UUID merchantId,
+               @Param("snapshotAt") LocalDateTime snapshotAt,
+               @Param("since") LocalDateTime since);
+}
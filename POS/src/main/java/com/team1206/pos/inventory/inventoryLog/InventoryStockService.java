@@ -0,0 +1,150 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import com.team1206.pos.common.id.UuidV7Generator;
+import com.team1206.pos.user.user.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// The inventory log is a ledger of signed changes to stock on hand, stock at a moment is the sum of the rows up to it.
+// A snapshot of every merchant is taken daily, so a query only sums the rows since the nearest earlier snapshot.
+// Stock on hand includes the quantities held by open orders, which leave product.quantity as soon as they are added.
+@Slf4j
+@Service
+public class InventoryStockService {
+    // Merchants that have never been snapshotted are summed from here
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final InventoryLogRepository inventoryLogRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final UserService userService;
+    private final Duration snapshotLag;
+
+    public InventoryStockService(InventoryLogRepository inventoryLogRepository,
+                                 InventorySnapshotRepository inventorySnapshotRepository,
+                                 UserService userService,
+                                 @Value("${inventory_snapshot_lag_minutes:60}") long snapshotLagMinutes) {
+        this.inventoryLogRepository = inventoryLogRepository;
+        this.inventorySnapshotRepository = inventorySnapshotRepository;
+        this.userService = userService;
+        this.snapshotLag = Duration.ofMinutes(snapshotLagMinutes);
+    }
+
+    // Snapshots are taken at midnight once the lag has passed, logs of transactions still running at midnight are committed by then
+    @Scheduled(fixedDelayString = "${inventory_snapshot_interval_ms:3600000}",
+               initialDelayString = "${inventory_snapshot_interval_ms:3600000}")
+    public void takeSnapshots() {
+        LocalDateTime snapshotAt = LocalDateTime.now().minus(snapshotLag).truncatedTo(ChronoUnit.DAYS);
+
+        List<UUID> merchantIds = inventorySnapshotRepository.findMerchantIdsToSnapshot(snapshotAt, LEDGER_START);
+        for (UUID merchantId : merchantIds) {
+            takeSnapshot(merchantId, snapshotAt);
+        }
+
+        if (!merchantIds.isEmpty()) {
+            log.info("Took inventory snapshots of {} merchants at {}", merchantIds.size(), snapshotAt);
+        }
+    }
+
+    // Each snapshot is its own statement and transaction, merchants are never snapshotted twice at the same moment
+    public void takeSnapshot(UUID merchantId, LocalDateTime snapshotAt) {
+        inventorySnapshotRepository.create(UuidV7Generator.next(), merchantId, snapshotAt, LEDGER_START);
+    }
+
+    public List<StockLevelResponseDTO> getStock(LocalDateTime at, UUID productId, UUID productVariationId) {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+
+        List<StockLevelResponseDTO> stock = new ArrayList<>();
+        getStockAt(merchantId, at, productId, productVariationId).forEach((item, quantity) -> {
+            if (quantity != 0) {
+                stock.add(mapToStockLevelResponseDTO(item, quantity));
+            }
+        });
+        return stock;
+    }
+
+    public List<StockMovementResponseDTO> getMovements(LocalDateTime from, LocalDateTime to, UUID productId, UUID productVariationId) {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("From has to be before to");
+        }
+
+        Map<StockItem, StockMovementResponseDTO> movements = new LinkedHashMap<>();
+        getStockAt(merchantId, from, productId, productVariationId).forEach((item, quantity) -> {
+            StockMovementResponseDTO movement = movements.computeIfAbsent(item, this::mapToStockMovementResponseDTO);
+            movement.setOpeningQuantity(quantity);
+            movement.setClosingQuantity(quantity);
+        });
+        for (StockMovement stockMovement : inventoryLogRepository.sumMovements(merchantId, from, to, productId, productVariationId)) {
+            StockItem item = new StockItem(stockMovement.productId(), stockMovement.productVariationId());
+            StockMovementResponseDTO movement = movements.computeIfAbsent(item, this::mapToStockMovementResponseDTO);
+            movement.setAdded(stockMovement.added());
+            movement.setTaken(stockMovement.taken());
+            movement.setClosingQuantity(movement.getOpeningQuantity() + stockMovement.added() - stockMovement.taken());
+        }
+
+        return movements.values().stream()
+                        .filter(movement -> movement.getOpeningQuantity() != 0 || movement.getAdded() != 0 || movement.getTaken() != 0)
+                        .toList();
+    }
+
+    // *** Helper methods ***
+
+    private record StockItem(UUID productId, UUID productVariationId) {
+    }
+
+    // Nearest snapshot at or before the moment plus the logs written after it
+    private Map<StockItem, Long> getStockAt(UUID merchantId, LocalDateTime at, UUID productId, UUID productVariationId) {
+        Map<StockItem, Long> stock = new LinkedHashMap<>();
+
+        LocalDateTime after = LEDGER_START;
+        Optional<InventorySnapshot> snapshot = inventorySnapshotRepository.findFirstByMerchantIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(merchantId, at);
+        if (snapshot.isPresent()) {
+            after = snapshot.get().getSnapshotAt();
+            inventorySnapshotRepository.findItems(snapshot.get().getId(), productId, productVariationId)
+                                       .forEach(level -> addQuantity(stock, level));
+        }
+        else {
+            // Logs from before the first snapshot hold stock instead of changes to it
+            inventorySnapshotRepository.findFirstSnapshotAt(merchantId).ifPresent(firstSnapshotAt -> {
+                throw new IllegalArgumentException("Stock history starts at " + firstSnapshotAt);
+            });
+        }
+
+        inventoryLogRepository.sumAdjustments(merchantId, after, at, productId, productVariationId)
+                              .forEach(level -> addQuantity(stock, level));
+        return stock;
+    }
+
+    private static void addQuantity(Map<StockItem, Long> stock, StockLevel level) {
+        stock.merge(new StockItem(level.productId(), level.productVariationId()), level.quantity(), Long::sum);
+    }
+
+    // Mappers
+    private StockLevelResponseDTO mapToStockLevelResponseDTO(StockItem item, long quantity) {
+        StockLevelResponseDTO responseDTO = new StockLevelResponseDTO();
+        responseDTO.setType(getType(item).toString());
+        responseDTO.setProduct(item.productId());
+        responseDTO.setProductVariation(item.productVariationId());
+        responseDTO.setQuantity(quantity);
+        return responseDTO;
+    }
+
+    private StockMovementResponseDTO mapToStockMovementResponseDTO(StockItem item) {
+        StockMovementResponseDTO responseDTO = new StockMovementResponseDTO();
+        responseDTO.setType(getType(item).toString());
+        responseDTO.setProduct(item.productId());
+        responseDTO.setProductVariation(item.productVariationId());
+        return responseDTO;
+    }
+
+    private static InventoryLog.LogType getType(StockItem item) {
+        return item.productVariationId() != null ? InventoryLog.LogType.PRODUCT_VARIATION : InventoryLog.LogType.PRODUCT;
+    }
+}
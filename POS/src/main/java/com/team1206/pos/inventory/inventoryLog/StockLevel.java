@@ -0,0 +1,7 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import java.util.UUID;
+
+// Stock of a product or product variation, or the sum of its log rows, read from a snapshot or the inventory log
+public record StockLevel(UUID productId, UUID productVariationId, Long quantity) {
+}
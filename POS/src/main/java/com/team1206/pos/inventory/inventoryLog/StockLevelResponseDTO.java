@@ -0,0 +1,13 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class StockLevelResponseDTO {
+    private String type;
+    private UUID product;
+    private UUID productVariation;
+    private long quantity;
+}
@@ -0,0 +1,7 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import java.util.UUID;
+
+// Stock added and taken of a product or product variation over a period, summed from the inventory log
+public record StockMovement(UUID productId, UUID productVariationId, Long added, Long taken) {
+}
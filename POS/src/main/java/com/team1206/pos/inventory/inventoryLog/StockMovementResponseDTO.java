@@ -0,0 +1,16 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class StockMovementResponseDTO {
+    private String type;
+    private UUID product;
+    private UUID productVariation;
+    private long openingQuantity;
+    private long added;
+    private long taken;
+    private long closingQuantity;
+}
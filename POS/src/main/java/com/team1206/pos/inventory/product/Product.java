@@ -29,7 +29,8 @@ public class Product {
     @Column(name = "price", nullable = false, precision = 19, scale = 2)
     private BigDecimal price;
 
-    @Column(name = "quantity", nullable = false)
+    // Stock only changes through the conditional adjustQuantity updates, saving the entity never writes back a quantity it read
+    @Column(name = "quantity", nullable = false, updatable = false)
     private Integer quantity = 0;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -1,5 +1,6 @@
 package com.team1206.pos.inventory.product;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -58,6 +59,24 @@ public class ProductController {
         return ResponseEntity.ok(productPage);
     }
 
+    @Operation(summary = "Get products by cursor")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollProducts(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "price", required = false) BigDecimal price,
+            @RequestParam(value = "categoryId", required = false) UUID categoryId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.info("Received scroll products request: name={} price={} categoryId={} cursor={} limit={}",
+                name, price, categoryId, cursor, limit);
+
+        CursorPageDTO<ProductResponseDTO> products = productService.scrollProducts(name, price, categoryId, cursor, limit);
+
+        log.debug("Returning {} to scroll products request (name={} price={} categoryId={} cursor={} limit={})",
+                products, name, price, categoryId, cursor, limit);
+        return ResponseEntity.ok(products);
+    }
+
 
     @Operation(summary = "Get product by ID")
     @GetMapping("/{id}")
@@ -1,21 +1,36 @@
 package com.team1206.pos.inventory.product;
 
+import com.team1206.pos.common.projection.OwnedId;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ProductRepository extends JpaRepository<Product, UUID> {
-
-    @Query("SELECT p FROM Product p WHERE " +
-            ":merchantId IS NULL OR p.category.merchant.id = :merchantId AND " +
+    // Filters of the offset and the cursor query, written once so both page modes return the same rows
+    String FILTERED = "SELECT p FROM Product p WHERE " +
+            "(:merchantId IS NULL OR p.category.merchant.id = :merchantId) AND " +
             "(:name IS NULL OR p.name LIKE %:name%) AND " +
             "(:price IS NULL OR p.price = :price) AND " +
-            "(:categoryId IS NULL OR p.category.id = :categoryId)")
+            "(:categoryId IS NULL OR p.category.id = :categoryId)";
+
+    // The category is joined in the same query, variations and charges are read for the whole page with the find...Ids queries below
+    @EntityGraph(attributePaths = "category")
+    @Query(FILTERED)
     Page<Product> findAllWithFilters(
             @Param("merchantId") UUID merchantId,
             @Param("name") String name,
@@ -23,4 +38,52 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
             @Param("categoryId") UUID categoryId,
             Pageable pageable
     );
+
+    // Cursor variant of findAllWithFilters, rows after the cursor in KeysetCursor.NEWEST_FIRST order without a count query
+    @EntityGraph(attributePaths = "category")
+    @Query(FILTERED + " AND p.createdAt <= :cursorCreatedAt AND (p.createdAt < :cursorCreatedAt OR p.id < :cursorId)")
+    Slice<Product> findAllWithFiltersAfter(
+            @Param("merchantId") UUID merchantId,
+            @Param("name") String name,
+            @Param("price") BigDecimal price,
+            @Param("categoryId") UUID categoryId,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable
+    );
+
+    // Adjusts stock in one statement, the row is left untouched if the quantity would drop below zero
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :adjustment, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.quantity + :adjustment >= 0")
+    int adjustQuantity(@Param("id") UUID id, @Param("adjustment") int adjustment);
+
+    // Adjusts stock of many rows in one statement and returns the ids that had enough stock.
+    // Not @Modifying, RETURNING needs a query execution and clearing the context would detach the caller's order.
+    // Products already loaded keep their old quantity, it is not updatable so a flush never writes it back.
+    @Transactional
+    @Query(value = "UPDATE product t SET quantity = t.quantity + d.adjustment, updated_at = now() " +
+            "FROM unnest(CAST(:ids AS uuid[]), CAST(:adjustments AS int[])) AS d(id, adjustment) " +
+            "WHERE t.id = d.id AND t.quantity + d.adjustment >= 0 " +
+            "RETURNING t.id", nativeQuery = true)
+    List<UUID> adjustQuantities(@Param("ids") UUID[] ids, @Param("adjustments") Integer[] adjustments);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") UUID id);
+
+    // Rows are locked in id order, so two callers locking overlapping products never wait on each other in a cycle
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT new com.team1206.pos.common.projection.OwnedId(v.product.id, v.id) FROM ProductVariation v WHERE v.product.id IN :productIds")
+    List<OwnedId> findVariationIds(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("SELECT new com.team1206.pos.common.projection.OwnedId(p.id, c.id) FROM Product p JOIN p.charges c WHERE p.id IN :productIds")
+    List<OwnedId> findChargeIds(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Integer findQuantityById(@Param("id") UUID id);
 }
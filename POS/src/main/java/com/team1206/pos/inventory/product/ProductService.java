@@ -1,7 +1,9 @@
 package com.team1206.pos.inventory.product;
 
-import com.team1206.pos.common.enums.ChargeType;
+import com.team1206.pos.common.dto.CursorPageDTO;
 import com.team1206.pos.common.enums.ResourceType;
+import com.team1206.pos.common.pagination.KeysetCursor;
+import com.team1206.pos.common.projection.OwnedId;
 import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
 import com.team1206.pos.exceptions.UnauthorizedActionException;
@@ -9,18 +11,20 @@ import com.team1206.pos.inventory.inventoryLog.InventoryLogService;
 import com.team1206.pos.inventory.productCategory.ProductCategory;
 import com.team1206.pos.inventory.productCategory.ProductCategoryService;
 import com.team1206.pos.inventory.productVariation.ProductVariation;
+import com.team1206.pos.order.order.OrderTotalsService;
 import com.team1206.pos.payments.charge.Charge;
 import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 public class ProductService {
@@ -29,15 +33,18 @@ public class ProductService {
     private final ProductCategoryService productCategoryService;
     private final UserService userService;
     private final InventoryLogService inventoryLogService;
+    private final OrderTotalsService orderTotalsService;
 
-    public ProductService(ProductRepository productRepository, ProductCategoryService productCategoryService, UserService userService, @Lazy InventoryLogService inventoryLogService) {
+    public ProductService(ProductRepository productRepository, ProductCategoryService productCategoryService, UserService userService, @Lazy InventoryLogService inventoryLogService, OrderTotalsService orderTotalsService) {
         this.productRepository = productRepository;
         this.productCategoryService = productCategoryService;
         this.userService = userService;
         this.inventoryLogService = inventoryLogService;
+        this.orderTotalsService = orderTotalsService;
     }
 
 
+    @Transactional
     public ProductResponseDTO createProduct(CreateProductRequestDTO requestDTO) {
         ProductCategory category = productCategoryService.getCategoryEntityById(requestDTO.getCategoryId());
 
@@ -50,6 +57,8 @@ public class ProductService {
         product.setCategory(category);
 
         Product savedProduct = productRepository.save(product);
+        // The opening stock is the first change in the inventory log
+        inventoryLogService.createInventoryLogForProduct(savedProduct, savedProduct.getQuantity());
 
         return mapToResponseDTO(savedProduct);
     }
@@ -75,11 +84,24 @@ public class ProductService {
             productPage = productRepository.findAllWithFilters(merchantId, name, price, categoryId, pageable);
 
         // Map Page<Product> to Page<ProductResponseDTO>
-        return productPage.map(this::mapToResponseDTO);
+        return new PageImpl<>(mapToResponseDTOs(productPage.getContent()), pageable, productPage.getTotalElements());
     }
 
+    // Get products page by cursor, without counting all matching products
+    public CursorPageDTO<ProductResponseDTO> scrollProducts(String name, BigDecimal price, UUID categoryId, String cursor, int limit) {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+
+        Slice<Product> products = productRepository.findAllWithFiltersAfter(merchantId, name, price, categoryId,
+                                                                           after.createdAt(), after.id(), KeysetCursor.firstRows(limit));
+
+        return CursorPageDTO.ofAll(products, product -> new KeysetCursor(product.getCreatedAt(), product.getId()), this::mapToResponseDTOs);
+    }
+
+    @Transactional
     public ProductResponseDTO updateProductById(UUID id, UpdateProductRequestDTO updateProductRequestDTO) {
-        Product product = productRepository.findById(id)
+        // Locked, so sales wait for the new quantity instead of being overwritten by it
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT, id.toString()));
         userService.verifyLoggedInUserBelongsToMerchant(product.getCategory().getMerchant().getId(), "You are not authorized to update this product");
 
@@ -87,13 +109,17 @@ public class ProductService {
             product.setName(updateProductRequestDTO.getName());
         }
 
+        boolean priceChanged = updateProductRequestDTO.getPrice() != null && updateProductRequestDTO.getPrice().compareTo(product.getPrice()) != 0;
         if (updateProductRequestDTO.getPrice() != null) {
             product.setPrice(updateProductRequestDTO.getPrice());
         }
 
         if (updateProductRequestDTO.getQuantity() != null && !updateProductRequestDTO.getQuantity().equals(product.getQuantity())) {
+            // Taken from the locked row, so the ledger records exactly the change the update makes
+            int adjustment = updateProductRequestDTO.getQuantity() - product.getQuantity();
+            adjustProductQuantity(id, adjustment);
+            inventoryLogService.createInventoryLogForProduct(product, adjustment);
             product.setQuantity(updateProductRequestDTO.getQuantity());
-            inventoryLogService.createInventoryLogForProduct(id, updateProductRequestDTO.getQuantity(), null);
         }
 
         if (updateProductRequestDTO.getCategoryId() != null) {
@@ -102,6 +128,9 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        if (priceChanged) {
+            orderTotalsService.recalculateOpenOrders(updatedProduct.getCategory().getMerchant().getId());
+        }
 
         return mapToResponseDTO(updatedProduct);
     }
@@ -115,24 +144,22 @@ public class ProductService {
         productRepository.deleteById(id);
     }
 
+    @Transactional
     public ProductResponseDTO adjustProductQuantity(UUID id, AdjustProductQuantityDTO adjustDTO) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT, id.toString()));
 
         userService.verifyLoggedInUserBelongsToMerchant(product.getCategory().getMerchant().getId(), "You are not authorized to adjust this product quantity");
 
-        int newQuantity = product.getQuantity() + adjustDTO.getAdjustment();
-        if (newQuantity < 0) {
-            throw new IllegalStateExceptionWithId("Requested quantity cannot exceed product quantity", id.toString());
-        }
+        adjustProductQuantity(id, adjustDTO.getAdjustment());
+        inventoryLogService.createInventoryLogForProduct(product, adjustDTO.getAdjustment());
 
-        product.setQuantity(newQuantity);
-
-        Product updatedProduct = productRepository.save(product);
+        // The loaded entity still holds the quantity from before the update
+        int quantity = productRepository.findQuantityById(id);
 
-        inventoryLogService.createInventoryLogForProduct(id, product.getQuantity(), null);
-
-        return mapToResponseDTO(updatedProduct);
+        ProductResponseDTO responseDTO = mapToResponseDTO(product);
+        responseDTO.setQuantity(quantity);
+        return responseDTO;
     }
 
     // Service layer methods
@@ -141,71 +168,91 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT, id.toString()));
     }
 
+    // Locks the found products until the transaction ends, ids that don't exist are left out of the map
+    public Map<UUID, Product> getProductEntitiesByIdForUpdate(Collection<UUID> ids) {
+        Map<UUID, Product> products = new HashMap<>();
+        productRepository.findAllByIdForUpdate(ids).forEach(product -> products.put(product.getId(), product));
+        return products;
+    }
+
+    public Map<UUID, Product> getProductEntitiesById(Collection<UUID> ids) {
+        Map<UUID, Product> products = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> products.put(product.getId(), product));
+
+        for (UUID id : ids) {
+            if (!products.containsKey(id)) {
+                throw new ResourceNotFoundException(ResourceType.PRODUCT, id.toString());
+            }
+        }
+        return products;
+    }
+
     // Adjust product quantity
     public void adjustProductQuantity(UUID productId, int adjustment) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT, productId.toString()));
-
-        int newQuantity = product.getQuantity() + adjustment;
-        if (newQuantity < 0) {
+        if (productRepository.adjustQuantity(productId, adjustment) == 0) {
+            if (!productRepository.existsById(productId)) {
+                throw new ResourceNotFoundException(ResourceType.PRODUCT, productId.toString());
+            }
             throw new IllegalStateExceptionWithId("Requested quantity cannot exceed product quantity", productId.toString());
         }
-
-        product.setQuantity(newQuantity);
-
-        productRepository.save(product);
     }
 
-    public BigDecimal getFinalPrice(UUID productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT, productId.toString()));
-
-        BigDecimal finalProductPrice = product.getPrice();
+    // Adjust quantities of many products in one statement.
+    // Callers run it inside their transaction, so a product without enough stock rolls back the others too.
+    public void adjustProductQuantities(Map<UUID, Integer> adjustments) {
+        if (adjustments.isEmpty()) {
+            return;
+        }
 
-        if (product.getCharges() != null) {
-            List<Charge> sortedCharges = product.getCharges().stream()
-                    .sorted((c1, c2) -> c1.getType() == ChargeType.TAX ? -1 : 1)
-                    .toList();
+        UUID[] productIds = adjustments.keySet().toArray(UUID[]::new);
+        Integer[] quantities = Arrays.stream(productIds).map(adjustments::get).toArray(Integer[]::new);
+        Set<UUID> adjusted = new HashSet<>(productRepository.adjustQuantities(productIds, quantities));
 
-            for (Charge charge : sortedCharges) {
-                if (charge.getType() == ChargeType.TAX && charge.getPercent() != null) {
-                    BigDecimal multiplier = BigDecimal.valueOf(100 + charge.getPercent())
-                            .divide(BigDecimal.valueOf(100));
-                    finalProductPrice = finalProductPrice.multiply(multiplier);
-                } else if(charge.getType() == ChargeType.SERVICE && charge.getAmount() != null)
-                    finalProductPrice = finalProductPrice.add(charge.getAmount());
+        for (UUID productId : productIds) {
+            if (!adjusted.contains(productId)) {
+                if (!productRepository.existsById(productId)) {
+                    throw new ResourceNotFoundException(ResourceType.PRODUCT, productId.toString());
+                }
+                throw new IllegalStateExceptionWithId("Requested quantity cannot exceed product quantity", productId.toString());
             }
         }
+    }
+
+    // Mappers
+    ProductResponseDTO mapToResponseDTO(Product product) {
+        return mapToResponseDTO(product,
+                                product.getVariations() == null ? null : product.getVariations().stream().map(ProductVariation::getId).toList(),
+                                product.getCharges() == null ? null : product.getCharges().stream().map(Charge::getId).toList());
+    }
 
-        finalProductPrice = finalProductPrice.setScale(2, RoundingMode.HALF_UP);
+    // Maps a page of products without touching their lazy collections, the ids are read with one query per collection
+    private List<ProductResponseDTO> mapToResponseDTOs(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
 
+        List<UUID> productIds = products.stream().map(Product::getId).toList();
+        Map<UUID, List<UUID>> variationIds = OwnedId.groupByOwner(productRepository.findVariationIds(productIds));
+        Map<UUID, List<UUID>> chargeIds = OwnedId.groupByOwner(productRepository.findChargeIds(productIds));
 
-        return finalProductPrice;
+        return products.stream()
+                       .map(product -> mapToResponseDTO(product,
+                                                        variationIds.getOrDefault(product.getId(), List.of()),
+                                                        chargeIds.getOrDefault(product.getId(), List.of())))
+                       .toList();
     }
 
-    // Mappers
-    private ProductResponseDTO mapToResponseDTO(Product product) {
+    private ProductResponseDTO mapToResponseDTO(Product product, List<UUID> variationIds, List<UUID> chargeIds) {
         ProductResponseDTO responseDTO = new ProductResponseDTO();
         responseDTO.setId(product.getId());
         responseDTO.setName(product.getName());
         responseDTO.setPrice(product.getPrice());
         responseDTO.setQuantity(product.getQuantity());
         responseDTO.setCategoryId(product.getCategory().getId());
-
-        if (product.getVariations() != null) {
-            responseDTO.setVariationIds(product.getVariations().stream()
-                    .map(ProductVariation::getId)
-                    .toList());
-        }
-
-        if (product.getCharges() != null) {
-            responseDTO.setChargeIds(product.getCharges().stream()
-                    .map(Charge::getId)
-                    .toList());
-        }
-
+        responseDTO.setVariationIds(variationIds);
+        responseDTO.setChargeIds(chargeIds);
         responseDTO.setCreatedAt(product.getCreatedAt());
         responseDTO.setUpdatedAt(product.getUpdatedAt());
         return responseDTO;
     }
-}
\ No newline at end of file
+}
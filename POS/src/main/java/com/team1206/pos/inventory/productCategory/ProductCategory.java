@@ -6,6 +6,8 @@ import com.team1206.pos.user.merchant.Merchant;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +17,8 @@ import java.util.UUID;
 @Setter
 @Entity
 @Table(name = "\"product_category\"")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product-category")
 public class ProductCategory {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID) // Auto-generate UUID
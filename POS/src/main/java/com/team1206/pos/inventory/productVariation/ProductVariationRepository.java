@@ -1,10 +1,16 @@
 package com.team1206.pos.inventory.productVariation;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ProductVariationRepository extends JpaRepository<ProductVariation, UUID> {
@@ -14,4 +20,31 @@ public interface ProductVariationRepository extends JpaRepository<ProductVariati
     List<ProductVariation> findAllWithFilters(@Param("productId") UUID productId,
                                               @Param("merchantId") UUID merchantId);
 
+    // Adjusts stock in one statement, the row is left untouched if the quantity would drop below zero
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductVariation pv SET pv.quantity = pv.quantity + :adjustment, pv.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE pv.id = :id AND pv.quantity + :adjustment >= 0")
+    int adjustQuantity(@Param("id") UUID id, @Param("adjustment") int adjustment);
+
+    // Adjusts stock of many rows in one statement and returns the ids that had enough stock.
+    // Loaded variations are left stale like in ProductRepository.adjustQuantities, their quantity is not updatable.
+    @Transactional
+    @Query(value = "UPDATE product_variation t SET quantity = t.quantity + d.adjustment, updated_at = now() " +
+            "FROM unnest(CAST(:ids AS uuid[]), CAST(:adjustments AS int[])) AS d(id, adjustment) " +
+            "WHERE t.id = d.id AND t.quantity + d.adjustment >= 0 " +
+            "RETURNING t.id", nativeQuery = true)
+    List<UUID> adjustQuantities(@Param("ids") UUID[] ids, @Param("adjustments") Integer[] adjustments);
+
+    @Query("SELECT pv.quantity FROM ProductVariation pv WHERE pv.id = :id")
+    Integer findQuantityById(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pv FROM ProductVariation pv WHERE pv.id = :id")
+    Optional<ProductVariation> findByIdForUpdate(@Param("id") UUID id);
+
+    // Rows are locked in id order, so two callers locking overlapping variations never wait on each other in a cycle
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pv FROM ProductVariation pv WHERE pv.id IN :ids ORDER BY pv.id")
+    List<ProductVariation> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
 }
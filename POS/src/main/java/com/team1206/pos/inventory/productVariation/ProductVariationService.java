@@ -1,6 +1,5 @@
 package com.team1206.pos.inventory.productVariation;
 
-import com.team1206.pos.common.enums.ChargeType;
 import com.team1206.pos.common.enums.ResourceType;
 import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
@@ -9,16 +8,14 @@ import com.team1206.pos.inventory.inventoryLog.InventoryLogService;
 import com.team1206.pos.inventory.product.AdjustProductQuantityDTO;
 import com.team1206.pos.inventory.product.Product;
 import com.team1206.pos.inventory.product.ProductService;
-import com.team1206.pos.payments.charge.Charge;
+import com.team1206.pos.order.order.OrderTotalsService;
 import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 public class ProductVariationService {
@@ -26,14 +23,17 @@ public class ProductVariationService {
     private final ProductService productService;
     private final UserService userService;
     private final InventoryLogService inventoryLogService;
+    private final OrderTotalsService orderTotalsService;
 
-    public ProductVariationService(ProductVariationRepository productVariationRepository, ProductService productService, UserService userService, @Lazy InventoryLogService inventoryLogService) {
+    public ProductVariationService(ProductVariationRepository productVariationRepository, ProductService productService, UserService userService, @Lazy InventoryLogService inventoryLogService, OrderTotalsService orderTotalsService) {
         this.productVariationRepository = productVariationRepository;
         this.productService = productService;
         this.userService = userService;
         this.inventoryLogService = inventoryLogService;
+        this.orderTotalsService = orderTotalsService;
     }
 
+    @Transactional
     public ProductVariationResponseDTO createProductVariation(UUID productId, CreateProductVariationBodyDTO productVariationDTO) {
         Product product = productService.getProductEntityById(productId);
 
@@ -47,6 +47,8 @@ public class ProductVariationService {
         productVariation.setCreatedAt(LocalDateTime.now());
 
         productVariationRepository.save(productVariation);
+        // The opening stock is the first change in the inventory log
+        inventoryLogService.createInventoryLogForProductVariation(productVariation, productVariation.getQuantity());
         return mapToResponseDTO(productVariation);
     }
 
@@ -78,9 +80,11 @@ public class ProductVariationService {
                 .toList();
     }
 
+    @Transactional
     public ProductVariationResponseDTO updateProductVariationById (UUID productId, UUID productVariationId, UpdateProductVariationBodyDTO updateProductVariationBodyDTO)
     {
-        ProductVariation productVariation = productVariationRepository.findById(productVariationId)
+        // Locked, so sales wait for the new quantity instead of being overwritten by it
+        ProductVariation productVariation = productVariationRepository.findByIdForUpdate(productVariationId)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT_VARIATION, productVariationId.toString()));
 
         if(!productVariation.getProduct().getId().equals(productId))
@@ -90,13 +94,18 @@ public class ProductVariationService {
 
         if(updateProductVariationBodyDTO.getName() != null && !updateProductVariationBodyDTO.getName().isBlank())
             productVariation.setName(updateProductVariationBodyDTO.getName());
+        boolean priceChanged = updateProductVariationBodyDTO.getPrice() != null && updateProductVariationBodyDTO.getPrice().compareTo(productVariation.getPrice()) != 0;
         if(updateProductVariationBodyDTO.getPrice() != null)
             productVariation.setPrice(updateProductVariationBodyDTO.getPrice());
         if(updateProductVariationBodyDTO.getQuantity() != null && !updateProductVariationBodyDTO.getQuantity().equals(productVariation.getQuantity())) {
+            int adjustment = updateProductVariationBodyDTO.getQuantity() - productVariation.getQuantity();
+            applyQuantityAdjustment(productVariationId, adjustment);
+            inventoryLogService.createInventoryLogForProductVariation(productVariation, adjustment);
             productVariation.setQuantity(updateProductVariationBodyDTO.getQuantity());
-            inventoryLogService.createInventoryLogForProductVariation(productVariationId, updateProductVariationBodyDTO.getQuantity(), null);
         }
         productVariationRepository.save(productVariation);
+        if(priceChanged)
+            orderTotalsService.recalculateOpenOrders(productVariation.getProduct().getCategory().getMerchant().getId());
         return mapToResponseDTO(productVariation);
     }
 
@@ -113,6 +122,7 @@ public class ProductVariationService {
         productVariationRepository.deleteById(productVariationId);
     }
 
+    @Transactional
     public ProductVariationResponseDTO adjustProductVariationQuantity(UUID productId, UUID variationId, AdjustProductQuantityDTO adjustDTO) {
         ProductVariation productVariation = productVariationRepository.findById(variationId)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT, variationId.toString()));
@@ -122,18 +132,15 @@ public class ProductVariationService {
 
         userService.verifyLoggedInUserBelongsToMerchant(productVariation.getProduct().getCategory().getMerchant().getId(), "You are not authorized to adjust this product variation quantity");
 
-        int newQuantity = productVariation.getQuantity() + adjustDTO.getAdjustment();
-        if (newQuantity < 0) {
-            throw new IllegalStateExceptionWithId("Requested quantity cannot exceed product variation quantity", variationId.toString());
-        }
-
-        productVariation.setQuantity(newQuantity);
-
-        ProductVariation updatedProductVariation = productVariationRepository.save(productVariation);
+        applyQuantityAdjustment(variationId, adjustDTO.getAdjustment());
+        inventoryLogService.createInventoryLogForProductVariation(productVariation, adjustDTO.getAdjustment());
 
-        inventoryLogService.createInventoryLogForProductVariation(variationId, productVariation.getQuantity(), null);
+        // The loaded entity still holds the quantity from before the update
+        int quantity = productVariationRepository.findQuantityById(variationId);
 
-        return mapToResponseDTO(updatedProductVariation);
+        ProductVariationResponseDTO responseDTO = mapToResponseDTO(productVariation);
+        responseDTO.setQuantity(quantity);
+        return responseDTO;
     }
 
     // Service layer
@@ -145,50 +152,64 @@ public class ProductVariationService {
 
     }
 
-    // Adjust product variation quantity
-    public void adjustProductVariationQuantity(UUID productVariationId, int adjustment) {
-        ProductVariation productVariation = productVariationRepository.findById(productVariationId)
-                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT_VARIATION, productVariationId.toString()));
+    // Locks the found variations until the transaction ends, ids that don't exist are left out of the map
+    public Map<UUID, ProductVariation> getProductVariationEntitiesByIdForUpdate(Collection<UUID> variationIds) {
+        Map<UUID, ProductVariation> productVariations = new HashMap<>();
+        productVariationRepository.findAllByIdForUpdate(variationIds)
+                                  .forEach(productVariation -> productVariations.put(productVariation.getId(), productVariation));
+        return productVariations;
+    }
 
-        userService.verifyLoggedInUserBelongsToMerchant(productVariation.getProduct().getCategory().getMerchant().getId(), "You are not authorized to adjust this product variation quantity");
+    public Map<UUID, ProductVariation> getProductVariationEntitiesById(Collection<UUID> variationIds) {
+        Map<UUID, ProductVariation> productVariations = new HashMap<>();
+        productVariationRepository.findAllById(variationIds)
+                                  .forEach(productVariation -> productVariations.put(productVariation.getId(), productVariation));
 
-        int newQuantity = productVariation.getQuantity() + adjustment;
-        if (newQuantity < 0) {
-            throw new IllegalStateExceptionWithId("Requested quantity cannot exceed product variation quantity", productVariationId.toString());
+        for (UUID variationId : variationIds) {
+            if (!productVariations.containsKey(variationId)) {
+                throw new ResourceNotFoundException(ResourceType.PRODUCT_VARIATION, variationId.toString());
+            }
         }
-
-        productVariation.setQuantity(newQuantity);
-
-        productVariationRepository.save(productVariation);
+        return productVariations;
     }
 
-    public BigDecimal getFinalPrice(UUID productVariationId) {
+    // Adjust product variation quantity
+    public void adjustProductVariationQuantity(UUID productVariationId, int adjustment) {
         ProductVariation productVariation = productVariationRepository.findById(productVariationId)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.PRODUCT_VARIATION, productVariationId.toString()));
 
-        BigDecimal finalProductVariationPrice = productVariation.getPrice();
+        userService.verifyLoggedInUserBelongsToMerchant(productVariation.getProduct().getCategory().getMerchant().getId(), "You are not authorized to adjust this product variation quantity");
 
-        Product product = productVariation.getProduct();
+        applyQuantityAdjustment(productVariationId, adjustment);
+    }
 
-        if (product.getCharges() != null) {
-            List<Charge> sortedCharges = product.getCharges().stream()
-                    .sorted((c1, c2) -> c1.getType() == ChargeType.TAX ? -1 : 1)
-                    .toList();
+    // Adjust quantities of many product variations in one statement.
+    // Callers run it inside their transaction and verify the merchant, a variation without enough stock rolls back the others too.
+    public void adjustProductVariationQuantities(Map<UUID, Integer> adjustments) {
+        if (adjustments.isEmpty()) {
+            return;
+        }
+
+        UUID[] productVariationIds = adjustments.keySet().toArray(UUID[]::new);
+        Integer[] quantities = Arrays.stream(productVariationIds).map(adjustments::get).toArray(Integer[]::new);
+        Set<UUID> adjusted = new HashSet<>(productVariationRepository.adjustQuantities(productVariationIds, quantities));
 
-            for (Charge charge : sortedCharges) {
-                if (charge.getType() == ChargeType.TAX && charge.getPercent() != null) {
-                    BigDecimal multiplier = BigDecimal.valueOf(100 + charge.getPercent())
-                            .divide(BigDecimal.valueOf(100));
-                    finalProductVariationPrice = finalProductVariationPrice.multiply(multiplier);
-                } else if(charge.getType() == ChargeType.SERVICE && charge.getAmount() != null)
-                    finalProductVariationPrice = finalProductVariationPrice.add(charge.getAmount());
+        for (UUID productVariationId : productVariationIds) {
+            if (!adjusted.contains(productVariationId)) {
+                if (!productVariationRepository.existsById(productVariationId)) {
+                    throw new ResourceNotFoundException(ResourceType.PRODUCT_VARIATION, productVariationId.toString());
+                }
+                throw new IllegalStateExceptionWithId("Requested quantity cannot exceed product variation quantity", productVariationId.toString());
             }
         }
+    }
 
-        finalProductVariationPrice = finalProductVariationPrice.setScale(2, RoundingMode.HALF_UP);
-
+    // *** Helper methods ***
 
-        return finalProductVariationPrice;
+    private void applyQuantityAdjustment(UUID productVariationId, int adjustment) {
+        if (productVariationRepository.adjustQuantity(productVariationId, adjustment) == 0) {
+            throw new IllegalStateExceptionWithId("Requested quantity cannot exceed product variation quantity", productVariationId.toString());
+        }
     }
 
     // Mappers
@@ -0,0 +1,182 @@
+package com.team1206.pos.order.order;
+
+import com.team1206.pos.common.enums.ChargeType;
+import com.team1206.pos.common.enums.OrderChargeType;
+import com.team1206.pos.order.orderCharge.OrderCharge;
+import com.team1206.pos.payments.charge.Charge;
+import com.team1206.pos.payments.charge.ChargeAssignment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Charges and order charges of one merchant, compiled so prices are calculated without touching the database
+public class MerchantPricingRules {
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+    private static final ItemCharges NO_CHARGES = new ItemCharges(BigDecimal.ONE, BigDecimal.ZERO, List.of());
+
+    private final Map<UUID, ItemCharges> productCharges;
+    private final Map<UUID, ItemCharges> serviceCharges;
+    private final Map<UUID, OrderChargeRule> orderCharges;
+
+    private MerchantPricingRules(Map<UUID, ItemCharges> productCharges,
+                                 Map<UUID, ItemCharges> serviceCharges,
+                                 Map<UUID, OrderChargeRule> orderCharges) {
+        this.productCharges = productCharges;
+        this.serviceCharges = serviceCharges;
+        this.orderCharges = orderCharges;
+    }
+
+    static MerchantPricingRules compile(List<ChargeAssignment> productChargeAssignments,
+                                        List<ChargeAssignment> serviceChargeAssignments,
+                                        List<OrderCharge> orderCharges) {
+        Map<UUID, OrderChargeRule> orderChargeRules = orderCharges.stream()
+                                                                  .collect(Collectors.toMap(OrderCharge::getId, OrderChargeRule::of));
+
+        return new MerchantPricingRules(compileItemCharges(productChargeAssignments),
+                                        compileItemCharges(serviceChargeAssignments),
+                                        Map.copyOf(orderChargeRules));
+    }
+
+    public BigDecimal getProductPrice(UUID productId, BigDecimal basePrice) {
+        return productCharges.getOrDefault(productId, NO_CHARGES).apply(basePrice);
+    }
+
+    public BigDecimal getServicePrice(UUID serviceId, BigDecimal basePrice) {
+        return serviceCharges.getOrDefault(serviceId, NO_CHARGES).apply(basePrice);
+    }
+
+    // Tax of one unit per tax charge, unrounded. The amounts add up to the taxes included in getProductPrice.
+    public Map<UUID, BigDecimal> getProductTaxes(UUID productId, BigDecimal basePrice) {
+        return productCharges.getOrDefault(productId, NO_CHARGES).taxesOf(basePrice);
+    }
+
+    public Map<UUID, BigDecimal> getServiceTaxes(UUID serviceId, BigDecimal basePrice) {
+        return serviceCharges.getOrDefault(serviceId, NO_CHARGES).taxesOf(basePrice);
+    }
+
+    // Order charges are added first, discounts are subtracted from the charged total
+    public BigDecimal applyOrderCharges(Order order, BigDecimal total) {
+        return calculateOrderCharges(order, total).amountDue();
+    }
+
+    // Sets the charge total, discount total and amount due of the order from its stored subtotal
+    public void applyOrderTotals(Order order) {
+        OrderChargeTotals totals = calculateOrderCharges(order, order.getSubtotal());
+        order.setChargeTotal(totals.chargeTotal());
+        order.setDiscountTotal(totals.discountTotal());
+        order.setAmountDue(totals.amountDue());
+    }
+
+    public int size() {
+        return productCharges.size() + serviceCharges.size() + orderCharges.size();
+    }
+
+    // *** Helper methods ***
+
+    private OrderChargeTotals calculateOrderCharges(Order order, BigDecimal total) {
+        List<OrderChargeRule> rules = getOrderChargeRules(order);
+
+        BigDecimal chargeTotal = BigDecimal.ZERO;
+        for (OrderChargeRule rule : rules) {
+            if (rule.type() == OrderChargeType.CHARGE) {
+                BigDecimal charge = rule.valueOf(total);
+                chargeTotal = chargeTotal.add(charge);
+                total = total.add(charge);
+            }
+        }
+
+        BigDecimal discountTotal = BigDecimal.ZERO;
+        for (OrderChargeRule rule : rules) {
+            if (rule.type() == OrderChargeType.DISCOUNT) {
+                BigDecimal discount = rule.valueOf(total);
+                discountTotal = discountTotal.add(discount);
+                total = total.subtract(discount);
+            }
+        }
+
+        return new OrderChargeTotals(chargeTotal.setScale(2, RoundingMode.HALF_UP),
+                                     discountTotal.setScale(2, RoundingMode.HALF_UP),
+                                     total.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    // Which order charges apply is read from the order, callers changing them hold the order's lock.
+    // Order charges created after compiling are not in the rules yet and are compiled on the spot.
+    private List<OrderChargeRule> getOrderChargeRules(Order order) {
+        if (order.getCharges() == null) {
+            return List.of();
+        }
+
+        return order.getCharges()
+                    .stream()
+                    .map(orderCharge -> orderCharges.getOrDefault(orderCharge.getId(), OrderChargeRule.of(orderCharge)))
+                    .toList();
+    }
+
+    private static Map<UUID, ItemCharges> compileItemCharges(List<ChargeAssignment> assignments) {
+        Map<UUID, List<Charge>> chargesByOwner = assignments.stream()
+                                                            .collect(Collectors.groupingBy(ChargeAssignment::ownerId,
+                                                                                           Collectors.mapping(ChargeAssignment::charge, Collectors.toList())));
+
+        Map<UUID, ItemCharges> compiled = new HashMap<>();
+        chargesByOwner.forEach((ownerId, charges) -> compiled.put(ownerId, ItemCharges.of(charges)));
+        return Map.copyOf(compiled);
+    }
+
+    // All taxes of an item folded into one multiplier and all service charges into one amount.
+    // Taxes apply to the base price before service charges are added.
+    private record ItemCharges(BigDecimal taxMultiplier, BigDecimal serviceAmount, List<TaxRule> taxes) {
+        static ItemCharges of(List<Charge> charges) {
+            BigDecimal taxMultiplier = BigDecimal.ONE;
+            BigDecimal serviceAmount = BigDecimal.ZERO;
+            List<TaxRule> taxes = new ArrayList<>();
+            for (Charge charge : charges) {
+                if (charge.getType() == ChargeType.TAX && charge.getPercent() != null) {
+                    taxMultiplier = taxMultiplier.multiply(BigDecimal.valueOf(100 + charge.getPercent()).divide(ONE_HUNDRED));
+                    taxes.add(new TaxRule(charge.getId(), BigDecimal.valueOf(charge.getPercent()).divide(ONE_HUNDRED)));
+                }
+                else if (charge.getType() == ChargeType.SERVICE && charge.getAmount() != null) {
+                    serviceAmount = serviceAmount.add(charge.getAmount());
+                }
+            }
+            return new ItemCharges(taxMultiplier, serviceAmount, List.copyOf(taxes));
+        }
+
+        BigDecimal apply(BigDecimal basePrice) {
+            return basePrice.multiply(taxMultiplier).add(serviceAmount).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        // Each tax is charged on the price with the taxes before it, the same way the multiplier compounds them
+        Map<UUID, BigDecimal> taxesOf(BigDecimal basePrice) {
+            Map<UUID, BigDecimal> amounts = new HashMap<>();
+            BigDecimal taxedPrice = basePrice;
+            for (TaxRule tax : taxes) {
+                BigDecimal amount = taxedPrice.multiply(tax.fraction());
+                amounts.merge(tax.chargeId(), amount, BigDecimal::add);
+                taxedPrice = taxedPrice.add(amount);
+            }
+            return amounts;
+        }
+    }
+
+    private record TaxRule(UUID chargeId, BigDecimal fraction) {
+    }
+
+    private record OrderChargeTotals(BigDecimal chargeTotal, BigDecimal discountTotal, BigDecimal amountDue) {
+    }
+
+    private record OrderChargeRule(OrderChargeType type, BigDecimal fraction, BigDecimal amount) {
+        static OrderChargeRule of(OrderCharge orderCharge) {
+            BigDecimal fraction = orderCharge.getPercent() != null
+                    ? BigDecimal.valueOf(orderCharge.getPercent()).divide(ONE_HUNDRED)
+                    : null;
+            BigDecimal amount = orderCharge.getAmount() != null ? orderCharge.getAmount() : BigDecimal.ZERO;
+            return new OrderChargeRule(orderCharge.getType(), fraction, amount);
+        }
+
+        BigDecimal valueOf(BigDecimal total) {
+            return fraction != null ? total.multiply(fraction) : amount;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.team1206.pos.order.order;
 
 import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.common.id.UuidV7;
 import com.team1206.pos.order.orderCharge.OrderCharge;
 import com.team1206.pos.order.orderItem.OrderItem;
 import com.team1206.pos.payments.discount.Discount;
@@ -21,7 +22,7 @@ import java.util.UUID;
 @Table(name = "\"order\"")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
@@ -46,9 +47,37 @@ public class Order {
     @JoinTable(name = "orders_discounts", joinColumns = @JoinColumn(name = "order_id"), inverseJoinColumns = @JoinColumn(name = "discount_id"))
     private List<Discount> discounts;
 
+    // Id given by the till to an order captured offline, a repeated sync of the order is recognised by it
+    @Column(name = "client_order_id", nullable = true, updatable = false)
+    private UUID clientOrderId;
+
     @Column(name = "tip", nullable =  false, precision = 19, scale = 2)
     private BigDecimal tip = BigDecimal.ZERO;
 
+    // Totals are updated with every item, order charge and transaction change, null until first calculated
+    @Column(name = "subtotal", nullable = true, precision = 19, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(name = "charge_total", nullable = true, precision = 19, scale = 2)
+    private BigDecimal chargeTotal;
+
+    @Column(name = "discount_total", nullable = true, precision = 19, scale = 2)
+    private BigDecimal discountTotal;
+
+    // Tax included in the amount due, fixed when the order closes so later price changes don't alter it
+    @Column(name = "tax_total", nullable = true, precision = 19, scale = 2)
+    private BigDecimal taxTotal;
+
+    @Column(name = "amount_due", nullable = true, precision = 19, scale = 2)
+    private BigDecimal amountDue;
+
+    @Column(name = "amount_paid", nullable = true, precision = 19, scale = 2)
+    private BigDecimal amountPaid;
+
+    // Set when the order is closed, register reports count its sale in the period it was closed in
+    @Column(name = "closed_at", nullable = true)
+    private LocalDateTime closedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
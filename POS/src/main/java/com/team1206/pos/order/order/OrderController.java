@@ -1,5 +1,6 @@
 package com.team1206.pos.order.order;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -32,6 +33,18 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrders(offset, limit, status, dateFrom, dateTo));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get orders by cursor")
+    public ResponseEntity<CursorPageDTO<OrderResponseDTO>> scrollOrders(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "dateFrom", required = false) String dateFrom,
+            @RequestParam(value = "dateTo", required = false) String dateTo
+    ) {
+        return ResponseEntity.ok(orderService.scrollOrders(cursor, limit, status, dateFrom, dateTo));
+    }
+
     @PostMapping
     @Operation(summary = "Create order")
     public ResponseEntity<OrderResponseDTO> createOrder() {
@@ -82,6 +95,17 @@ public class OrderController {
         return ResponseEntity.ok(finalCheckoutAmount);
     }
 
+    @GetMapping("{orderId}/quote")
+    @Operation(summary = "Get a priced breakdown of an order")
+    public ResponseEntity<OrderQuoteResponseDTO> getOrderQuote(@PathVariable UUID orderId) {
+        log.debug("Received get order quote request: orderId={}", orderId);
+
+        OrderQuoteResponseDTO quote = orderService.getOrderQuote(orderId);
+
+        log.debug("Returning {} to get order quote request (orderId={})", quote, orderId);
+        return ResponseEntity.ok(quote);
+    }
+
     @PostMapping("{orderId}/setTip")
     @Operation(summary = "Set order tip")
     public ResponseEntity<OrderResponseDTO> setTip(@PathVariable UUID orderId, @RequestBody BigDecimal tipAmount) {
@@ -0,0 +1,112 @@
+package com.team1206.pos.order.order;
+
+import com.team1206.pos.order.orderItem.OrderItem;
+import com.team1206.pos.order.orderItem.OrderItemRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Prices a whole order in memory. Order lines are loaded with one query, charges come from the compiled merchant rules.
+@Service
+public class OrderPricer {
+    private final OrderItemRepository orderItemRepository;
+    private final PricingRuleCache pricingRuleCache;
+
+    public OrderPricer(OrderItemRepository orderItemRepository, PricingRuleCache pricingRuleCache) {
+        this.orderItemRepository = orderItemRepository;
+        this.pricingRuleCache = pricingRuleCache;
+    }
+
+    public OrderQuoteResponseDTO quote(Order order) {
+        return quote(order, pricingRuleCache.getRules(order.getMerchant().getId()));
+    }
+
+    public OrderQuoteResponseDTO quote(Order order, MerchantPricingRules rules) {
+        List<OrderItem> items = orderItemRepository.findAllByOrderIdForPricing(order.getId());
+
+        List<OrderQuoteItemDTO> quotedItems = new ArrayList<>(items.size());
+        BigDecimal itemsTotal = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            OrderQuoteItemDTO quotedItem = quoteItem(item, rules);
+            quotedItems.add(quotedItem);
+            itemsTotal = itemsTotal.add(quotedItem.getTotalPrice());
+        }
+
+        OrderQuoteResponseDTO quote = new OrderQuoteResponseDTO();
+        quote.setOrderId(order.getId());
+        quote.setItems(quotedItems);
+        quote.setItemsTotal(itemsTotal);
+        quote.setFinalAmount(rules.applyOrderCharges(order, itemsTotal));
+        return quote;
+    }
+
+    // Price of one order line as it is counted into the order total
+    public BigDecimal getLineTotal(OrderItem item, MerchantPricingRules rules) {
+        return quoteItem(item, rules).getTotalPrice();
+    }
+
+    // Taxes included in the line total per tax charge, unrounded
+    public Map<UUID, BigDecimal> getLineTaxes(OrderItem item, MerchantPricingRules rules) {
+        Map<UUID, BigDecimal> unitTaxes;
+        BigDecimal quantity = BigDecimal.valueOf(item.getQuantity());
+        if (item.getProductVariation() != null) {
+            unitTaxes = rules.getProductTaxes(item.getProductVariation().getProduct().getId(), item.getProductVariation().getPrice());
+        }
+        else if (item.getProduct() != null) {
+            unitTaxes = rules.getProductTaxes(item.getProduct().getId(), item.getProduct().getPrice());
+        }
+        else if (item.getReservation() != null) {
+            unitTaxes = rules.getServiceTaxes(item.getReservation().getService().getId(), item.getReservation().getService().getPrice());
+            quantity = BigDecimal.ONE;
+        }
+        else {
+            return Map.of();
+        }
+
+        Map<UUID, BigDecimal> lineTaxes = new HashMap<>();
+        for (Map.Entry<UUID, BigDecimal> unitTax : unitTaxes.entrySet()) {
+            lineTaxes.put(unitTax.getKey(), unitTax.getValue().multiply(quantity));
+        }
+        return lineTaxes;
+    }
+
+    // *** Helper methods ***
+
+    private OrderQuoteItemDTO quoteItem(OrderItem item, MerchantPricingRules rules) {
+        OrderQuoteItemDTO quotedItem = new OrderQuoteItemDTO();
+        quotedItem.setOrderItemId(item.getId());
+        quotedItem.setQuantity(item.getQuantity());
+
+        BigDecimal unitPrice = BigDecimal.ZERO;
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        if (item.getProductVariation() != null) {
+            // Variations are charged with the charges of their product
+            UUID productId = item.getProductVariation().getProduct().getId();
+            unitPrice = rules.getProductPrice(productId, item.getProductVariation().getPrice());
+            totalPrice = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+            quotedItem.setProductId(productId);
+            quotedItem.setProductVariationId(item.getProductVariation().getId());
+        }
+        else if (item.getProduct() != null) {
+            unitPrice = rules.getProductPrice(item.getProduct().getId(), item.getProduct().getPrice());
+            totalPrice = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+            quotedItem.setProductId(item.getProduct().getId());
+        }
+        else if (item.getReservation() != null) {
+            // A reservation is always a single service, whatever the quantity says
+            unitPrice = rules.getServicePrice(item.getReservation().getService().getId(),
+                                              item.getReservation().getService().getPrice());
+            totalPrice = unitPrice;
+            quotedItem.setReservationId(item.getReservation().getId());
+        }
+
+        quotedItem.setUnitPrice(unitPrice);
+        quotedItem.setTotalPrice(totalPrice);
+        return quotedItem;
+    }
+}
@@ -0,0 +1,17 @@
+package com.team1206.pos.order.order;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+public class OrderQuoteItemDTO {
+    private UUID orderItemId;
+    private UUID productId;
+    private UUID productVariationId;
+    private UUID reservationId;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+}
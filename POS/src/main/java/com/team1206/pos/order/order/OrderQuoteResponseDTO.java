@@ -0,0 +1,15 @@
+package com.team1206.pos.order.order;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class OrderQuoteResponseDTO {
+    private UUID orderId;
+    private List<OrderQuoteItemDTO> items;
+    private BigDecimal itemsTotal;
+    private BigDecimal finalAmount;
+}
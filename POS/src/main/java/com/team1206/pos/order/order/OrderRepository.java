@@ -1,18 +1,37 @@
 package com.team1206.pos.order.order;
 
 import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.common.projection.OwnedId;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
+    // The WHERE clause of findAllWithFilters and its cursor variant
+    String FILTERED = "SELECT o FROM Order o WHERE (:merchantId IS NULL OR o.merchant.id = :merchantId) AND (:status IS NULL OR o.status = :status) " +
+            "AND (o.createdAt >= :dateFrom) AND (o.createdAt <= :dateTo)";
 
-    @Query("SELECT o FROM Order o WHERE (:merchantId IS NULL OR o.merchant.id = :merchantId) AND (:status IS NULL OR o.status = :status) AND (o.createdAt >= :dateFrom) AND (o.createdAt <= :dateTo)")
+    List<Order> findAllByMerchantIdAndClientOrderIdIn(UUID merchantId, Collection<UUID> clientOrderIds);
+
+    // Held until the transaction ends, so offline syncs of one merchant run one after another and see each other's orders
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended('order_sync:' || CAST(:merchantId AS text), 0))", nativeQuery = true)
+    int lockOrderSync(@Param("merchantId") UUID merchantId);
+
+    // The merchant is joined in the same query, collections are read for the whole page with the find...Ids queries below
+    @EntityGraph(attributePaths = "merchant")
+    @Query(FILTERED)
     Page<Order> findAllWithFilters(
             @Param("merchantId") UUID merchantId,
             @Param("status") OrderStatus status,
@@ -20,4 +39,57 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             @Param("dateTo") LocalDateTime dateTo,
             Pageable pageable
     );
+
+    // Cursor variant of findAllWithFilters, rows after the cursor in KeysetCursor.NEWEST_FIRST order without a count query
+    @EntityGraph(attributePaths = "merchant")
+    @Query(FILTERED + " " +
+            "AND o.createdAt <= :cursorCreatedAt AND (o.createdAt < :cursorCreatedAt OR o.id < :cursorId)")
+    Slice<Order> findAllWithFiltersAfter(
+            @Param("merchantId") UUID merchantId,
+            @Param("status") OrderStatus status,
+            @Param("dateFrom") LocalDateTime dateFrom,
+            @Param("dateTo") LocalDateTime dateTo,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable
+    );
+
+    // Locks the order row, so concurrent changes to its items, charges and transactions update its totals one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") UUID id);
+
+    // Ids of the collections of a page of orders, one query per collection however many orders the page has
+    @Query("SELECT new com.team1206.pos.common.projection.OwnedId(o.id, c.id) FROM Order o JOIN o.charges c WHERE o.id IN :orderIds")
+    List<OwnedId> findChargeIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("SELECT new com.team1206.pos.common.projection.OwnedId(i.order.id, i.id) FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OwnedId> findItemIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("SELECT new com.team1206.pos.common.projection.OwnedId(t.order.id, t.id) FROM Transaction t WHERE t.order.id IN :orderIds ORDER BY t.id")
+    List<OwnedId> findTransactionIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("SELECT new com.team1206.pos.common.projection.OwnedId(o.id, d.id) FROM Order o JOIN o.discounts d WHERE o.id IN :orderIds")
+    List<OwnedId> findDiscountIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("SELECT o.id FROM Order o WHERE o.merchant.id = :merchantId AND o.status = :status ORDER BY o.id")
+    List<UUID> findIdsByMerchantIdAndStatus(@Param("merchantId") UUID merchantId, @Param("status") OrderStatus status);
+
+    // Orders created before totals were stored, they are calculated before the totals are summed in SQL.
+    // An order belongs to the period it was opened or closed in.
+    @Query("SELECT o FROM Order o WHERE o.merchant.id = :merchantId " +
+            "AND (o.subtotal IS NULL OR o.closedAt IS NOT NULL AND o.taxTotal IS NULL) " +
+            "AND (o.createdAt >= :from AND o.createdAt < :to OR o.closedAt >= :from AND o.closedAt < :to)")
+    List<Order> findAllWithoutTotals(@Param("merchantId") UUID merchantId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    // Row count from the planner statistics, close enough to size a sample without counting the table
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('\"order\"' AS regclass)", nativeQuery = true)
+    long estimateCount();
+
+    // Ids of up to :limit orders on randomly picked pages of the table, a cheap sample of all orders.
+    // Ids are time-ordered, so sampling from a random point of the primary key would mostly hit the newest orders.
+    @Query(value = "SELECT o.id FROM \"order\" o TABLESAMPLE SYSTEM (:percent) LIMIT :limit", nativeQuery = true)
+    List<UUID> findSampleIds(@Param("percent") double percent, @Param("limit") int limit);
 }
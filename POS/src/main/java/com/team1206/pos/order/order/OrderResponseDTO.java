@@ -2,6 +2,7 @@ package com.team1206.pos.order.order;
 
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -15,6 +16,11 @@ public class OrderResponseDTO {
     private List<UUID> transactions;
     private UUID merchantId;
     private List<UUID> discounts;
+    private BigDecimal subtotal;
+    private BigDecimal chargeTotal;
+    private BigDecimal discountTotal;
+    private BigDecimal amountDue;
+    private BigDecimal amountPaid;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
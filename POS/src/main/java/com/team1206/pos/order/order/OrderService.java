@@ -1,29 +1,35 @@
 package com.team1206.pos.order.order;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.common.pagination.KeysetCursor;
+import com.team1206.pos.common.projection.OwnedId;
 import com.team1206.pos.common.enums.ResourceType;
 import com.team1206.pos.exceptions.IllegalRequestException;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
 import com.team1206.pos.exceptions.UnauthorizedActionException;
 import com.team1206.pos.inventory.inventoryLog.InventoryLogService;
 import com.team1206.pos.order.orderCharge.OrderCharge;
-import com.team1206.pos.order.orderCharge.OrderChargeService;
 import com.team1206.pos.order.orderItem.OrderItem;
 import com.team1206.pos.order.orderItem.OrderItemService;
 import com.team1206.pos.payments.discount.Discount;
 import com.team1206.pos.payments.transaction.Transaction;
+import com.team1206.pos.report.salesRollup.SalesRollupService;
 import com.team1206.pos.user.merchant.MerchantService;
 import com.team1206.pos.user.user.UserService;
 import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -32,22 +38,28 @@ public class OrderService {
     private final UserService userService;
     private final MerchantService merchantService;
     private final OrderItemService orderItemService;
-    private final OrderChargeService orderChargeService;
+    private final OrderPricer orderPricer;
+    private final OrderTotalsService orderTotalsService;
     private final InventoryLogService inventoryLogService;
+    private final SalesRollupService salesRollupService;
 
     public OrderService(
             OrderRepository orderRepository,
             UserService userService,
             MerchantService merchantService,
             OrderItemService orderItemService,
-            @Lazy OrderChargeService orderChargeService,
-            @Lazy InventoryLogService inventoryLogService) {
+            OrderPricer orderPricer,
+            OrderTotalsService orderTotalsService,
+            @Lazy InventoryLogService inventoryLogService,
+            SalesRollupService salesRollupService) {
         this.orderRepository = orderRepository;
         this.userService = userService;
         this.merchantService = merchantService;
         this.orderItemService = orderItemService;
-        this.orderChargeService = orderChargeService;
+        this.orderPricer = orderPricer;
+        this.orderTotalsService = orderTotalsService;
         this.inventoryLogService = inventoryLogService;
+        this.salesRollupService = salesRollupService;
     }
 
     // Get paged orders
@@ -70,19 +82,9 @@ public class OrderService {
         if(merchantId == null)
             throw new UnauthorizedActionException("Super-admin has to be assigned to Merchant first");
 
-        OrderStatus orderStatus =
-                (status != null && !status.isEmpty()) ? OrderStatus.valueOf(status.toUpperCase()) : null;
-
-        LocalDateTime parsedDateFrom = (dateFrom == null || dateFrom.isEmpty()) ? LocalDateTime.of(1970,
-                                                                                                   1,
-                                                                                                   1,
-                                                                                                   0,
-                                                                                                   0
-        ) : LocalDateTime.parse(dateFrom);
-
-        LocalDateTime parsedDateTo =
-                (dateTo == null || dateTo.isEmpty()) ? LocalDateTime.now() : LocalDateTime.parse(
-                        dateTo);
+        OrderStatus orderStatus = parseOrderStatus(status);
+        LocalDateTime parsedDateFrom = parseDateFrom(dateFrom);
+        LocalDateTime parsedDateTo = parseDateTo(dateTo);
 
         Pageable pageable = PageRequest.of(offset / limit, limit);
 
@@ -94,7 +96,31 @@ public class OrderService {
                 pageable
         );
 
-        return orders.map(this::mapToResponseDTO);
+        return new PageImpl<>(mapToResponseDTOs(orders.getContent()), pageable, orders.getTotalElements());
+    }
+
+    // Get orders page by cursor, without counting all matching orders
+    public CursorPageDTO<OrderResponseDTO> scrollOrders(
+            String cursor,
+            int limit,
+            String status,
+            String dateFrom,
+            String dateTo
+    ) {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+
+        Slice<Order> orders = orderRepository.findAllWithFiltersAfter(
+                merchantId,
+                parseOrderStatus(status),
+                parseDateFrom(dateFrom),
+                parseDateTo(dateTo),
+                after.createdAt(),
+                after.id(),
+                KeysetCursor.firstRows(limit)
+        );
+
+        return CursorPageDTO.ofAll(orders, order -> new KeysetCursor(order.getCreatedAt(), order.getId()), this::mapToResponseDTOs);
     }
 
     // Create order
@@ -105,6 +131,7 @@ public class OrderService {
 
         order.setMerchant(merchantService.getMerchantEntityById(userMerchantId));
         setOrderFields(order);
+        orderTotalsService.initializeTotals(order);
 
         Order savedOrder = orderRepository.save(order);
 
@@ -113,8 +140,9 @@ public class OrderService {
 
 
     // Cancel order
+    @Transactional
     public OrderResponseDTO cancelOrder(UUID orderId) {
-        Order order = getOrderEntityById(orderId);
+        Order order = getOrderEntityByIdForUpdate(orderId);
         userService.verifyLoggedInUserBelongsToMerchant(
                 order.getMerchant().getId(),
                 "You are not authorized to cancel order"
@@ -173,10 +201,16 @@ public class OrderService {
             throw new IllegalStateException("Order has to be open to be closed");
         }
 
+        // All three read the lines loaded here, so closing costs the same number of statements whatever the size of the order
+        List<OrderItem> items = orderItemService.getOrderItemEntitiesWithItems(orderId);
+
         order.setStatus(OrderStatus.CLOSED);
+        order.setClosedAt(LocalDateTime.now());
+        orderTotalsService.calculateTaxTotal(order, items);
         orderRepository.save(order);
 
-        inventoryLogService.logOrder(order);
+        inventoryLogService.logOrder(order, items);
+        salesRollupService.recordClosedOrder(order, items);
 
         return order;
     }
@@ -203,22 +237,37 @@ public class OrderService {
     }
 
     public BigDecimal calculateTotalProductAndServicePrice(UUID orderId) {
+        return getOrderWithTotals(orderId).getSubtotal();
+    }
+
+    public BigDecimal calculateFinalCheckoutAmount(UUID orderId) {
+        return getOrderWithTotals(orderId).getAmountDue();
+    }
+
+    public OrderQuoteResponseDTO getOrderQuote(UUID orderId) {
         Order order = getOrderEntityById(orderId);
         userService.verifyLoggedInUserBelongsToMerchant(order.getMerchant().getId(), "You are not authorized to get total amount of this order");
 
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        return orderPricer.quote(order);
+    }
 
-        for (OrderItem item : order.getItems()) {
-            totalAmount = totalAmount.add(orderItemService.getTotalPrice(item));
-        }
+    private Order getOrderWithTotals(UUID orderId) {
+        Order order = getOrderEntityById(orderId);
+        userService.verifyLoggedInUserBelongsToMerchant(order.getMerchant().getId(), "You are not authorized to get total amount of this order");
 
-        return totalAmount;
+        return orderTotalsService.ensureTotals(order);
     }
 
-    public BigDecimal calculateFinalCheckoutAmount(UUID orderId) {
-        BigDecimal totalOrderItemsPrice = calculateTotalProductAndServicePrice(orderId);
+    private OrderStatus parseOrderStatus(String status) {
+        return (status != null && !status.isEmpty()) ? OrderStatus.valueOf(status.toUpperCase()) : null;
+    }
 
-        return orderChargeService.applyOrderCharges(orderId, totalOrderItemsPrice);
+    private LocalDateTime parseDateFrom(String dateFrom) {
+        return (dateFrom == null || dateFrom.isEmpty()) ? LocalDateTime.of(1970, 1, 1, 0, 0) : LocalDateTime.parse(dateFrom);
+    }
+
+    private LocalDateTime parseDateTo(String dateTo) {
+        return (dateTo == null || dateTo.isEmpty()) ? LocalDateTime.now() : LocalDateTime.parse(dateTo);
     }
 
     private void setOrderFields(Order order) {
@@ -229,24 +278,55 @@ public class OrderService {
     }
 
     public OrderResponseDTO mapToResponseDTO(Order order) {
-        OrderResponseDTO orderResponseDTO = new OrderResponseDTO();
+        List<OrderCharge> charges = order.getCharges();
+        List<OrderItem> orderItems = order.getItems();
+        List<Transaction> transactions = order.getTransactions();
+        List<Discount> discounts = order.getDiscounts();
 
-        orderResponseDTO.setId(order.getId());
-        orderResponseDTO.setStatus(String.valueOf(order.getStatus()));
+        return mapToResponseDTO(order,
+                                charges == null ? List.of() : charges.stream().map(OrderCharge::getId).toList(),
+                                orderItems == null ? List.of() : orderItems.stream().map(OrderItem::getId).toList(),
+                                transactions == null ? List.of() : transactions.stream().map(Transaction::getId).toList(),
+                                discounts == null ? List.of() : discounts.stream().map(Discount::getId).toList());
+    }
 
-        List<OrderCharge> charges = order.getCharges();
-        orderResponseDTO.setCharges(charges == null ? List.of() : charges.stream().map(OrderCharge::getId).toList());
+    // Maps a page of orders without touching their lazy collections, the ids are read with one query per collection
+    private List<OrderResponseDTO> mapToResponseDTOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
 
-        List<OrderItem> orderItems = order.getItems();
-        orderResponseDTO.setItems(orderItems == null ? List.of() : orderItems.stream().map(OrderItem::getId).toList());
+        List<UUID> orderIds = orders.stream().map(Order::getId).toList();
+        Map<UUID, List<UUID>> chargeIds = OwnedId.groupByOwner(orderRepository.findChargeIds(orderIds));
+        Map<UUID, List<UUID>> itemIds = OwnedId.groupByOwner(orderRepository.findItemIds(orderIds));
+        Map<UUID, List<UUID>> transactionIds = OwnedId.groupByOwner(orderRepository.findTransactionIds(orderIds));
+        Map<UUID, List<UUID>> discountIds = OwnedId.groupByOwner(orderRepository.findDiscountIds(orderIds));
+
+        return orders.stream()
+                     .map(order -> mapToResponseDTO(order,
+                                                    chargeIds.getOrDefault(order.getId(), List.of()),
+                                                    itemIds.getOrDefault(order.getId(), List.of()),
+                                                    transactionIds.getOrDefault(order.getId(), List.of()),
+                                                    discountIds.getOrDefault(order.getId(), List.of())))
+                     .toList();
+    }
 
-        List<Transaction> transactions = order.getTransactions();
-        orderResponseDTO.setTransactions(transactions == null ? List.of() : transactions.stream().map(Transaction::getId).toList());
+    private OrderResponseDTO mapToResponseDTO(Order order, List<UUID> chargeIds, List<UUID> itemIds, List<UUID> transactionIds, List<UUID> discountIds) {
+        OrderResponseDTO orderResponseDTO = new OrderResponseDTO();
 
+        orderResponseDTO.setId(order.getId());
+        orderResponseDTO.setStatus(String.valueOf(order.getStatus()));
+        orderResponseDTO.setCharges(chargeIds);
+        orderResponseDTO.setItems(itemIds);
+        orderResponseDTO.setTransactions(transactionIds);
         orderResponseDTO.setMerchantId(order.getMerchant().getId());
+        orderResponseDTO.setDiscounts(discountIds);
 
-        List<Discount> discounts = order.getDiscounts();
-        orderResponseDTO.setDiscounts(discounts == null ? List.of() : discounts.stream().map(Discount::getId).toList());
+        orderResponseDTO.setSubtotal(order.getSubtotal());
+        orderResponseDTO.setChargeTotal(order.getChargeTotal());
+        orderResponseDTO.setDiscountTotal(order.getDiscountTotal());
+        orderResponseDTO.setAmountDue(order.getAmountDue());
+        orderResponseDTO.setAmountPaid(order.getAmountPaid());
 
         orderResponseDTO.setCreatedAt(order.getCreatedAt());
         orderResponseDTO.setUpdatedAt(order.getUpdatedAt());
@@ -260,4 +340,10 @@ public class OrderService {
         return orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.ORDER, orderId.toString()));
     }
+
+    // Has to be the first load of the order in the transaction, an order already loaded is returned without re-reading it
+    public Order getOrderEntityByIdForUpdate(UUID orderId) {
+        return orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.ORDER, orderId.toString()));
+    }
 }
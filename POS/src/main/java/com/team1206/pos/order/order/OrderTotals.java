@@ -0,0 +1,40 @@
+package com.team1206.pos.order.order;
+
+import java.math.BigDecimal;
+
+// Totals stored on an order at one point in time
+record OrderTotals(BigDecimal subtotal,
+                   BigDecimal chargeTotal,
+                   BigDecimal discountTotal,
+                   BigDecimal amountDue,
+                   BigDecimal amountPaid) {
+
+    static OrderTotals of(Order order) {
+        return new OrderTotals(order.getSubtotal(),
+                               order.getChargeTotal(),
+                               order.getDiscountTotal(),
+                               order.getAmountDue(),
+                               order.getAmountPaid());
+    }
+
+    void applyTo(Order order) {
+        order.setSubtotal(subtotal);
+        order.setChargeTotal(chargeTotal);
+        order.setDiscountTotal(discountTotal);
+        order.setAmountDue(amountDue);
+        order.setAmountPaid(amountPaid);
+    }
+
+    // Amounts are compared by value, 5 and 5.00 are the same total
+    boolean matches(OrderTotals other) {
+        return sameAmount(subtotal, other.subtotal)
+                && sameAmount(chargeTotal, other.chargeTotal)
+                && sameAmount(discountTotal, other.discountTotal)
+                && sameAmount(amountDue, other.amountDue)
+                && sameAmount(amountPaid, other.amountPaid);
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
@@ -0,0 +1,246 @@
+package com.team1206.pos.order.order;
+
+import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.common.enums.TransactionStatus;
+import com.team1206.pos.order.orderItem.OrderItem;
+import com.team1206.pos.payments.transaction.TransactionRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps the totals stored on an order in step with its items, order charges and transactions.
+// Changes are applied as differences, so reading a total never re-prices the order.
+// Callers load the order with OrderService.getOrderEntityByIdForUpdate, so concurrent changes of one order are applied in turn.
+@Slf4j
+@Service
+public class OrderTotalsService {
+    private final OrderRepository orderRepository;
+    private final TransactionRepository transactionRepository;
+    private final OrderPricer orderPricer;
+    private final PricingRuleCache pricingRuleCache;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<UUID> pendingRecalculations = ConcurrentHashMap.newKeySet();
+
+    public OrderTotalsService(OrderRepository orderRepository,
+                              TransactionRepository transactionRepository,
+                              OrderPricer orderPricer,
+                              PricingRuleCache pricingRuleCache,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.transactionRepository = transactionRepository;
+        this.orderPricer = orderPricer;
+        this.pricingRuleCache = pricingRuleCache;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Orders created before totals were stored get them calculated once, on first use
+    public Order ensureTotals(Order order) {
+        boolean missingTaxTotal = order.getClosedAt() != null && order.getTaxTotal() == null;
+        if (order.getSubtotal() == null || missingTaxTotal) {
+            if (order.getSubtotal() == null) {
+                recalculate(order);
+            }
+            if (missingTaxTotal) {
+                calculateTaxTotal(order, order.getItems());
+            }
+            return orderRepository.save(order);
+        }
+        return order;
+    }
+
+    // Orders of the period created before totals were stored, so reports can sum the stored totals
+    public void ensureTotals(UUID merchantId, LocalDateTime from, LocalDateTime to) {
+        orderRepository.findAllWithoutTotals(merchantId, from, to).forEach(this::ensureTotals);
+    }
+
+    public void initializeTotals(Order order) {
+        order.setSubtotal(BigDecimal.ZERO);
+        order.setChargeTotal(BigDecimal.ZERO);
+        order.setDiscountTotal(BigDecimal.ZERO);
+        order.setAmountDue(BigDecimal.ZERO);
+        order.setAmountPaid(BigDecimal.ZERO);
+    }
+
+    // Totals of an order built in memory, e.g. synced from a till, from its lines and the payments it came with
+    public void calculateTotals(Order order, BigDecimal amountPaid) {
+        MerchantPricingRules rules = getRules(order);
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            subtotal = subtotal.add(orderPricer.getLineTotal(item, rules));
+        }
+
+        order.setSubtotal(subtotal.setScale(2, RoundingMode.HALF_UP));
+        rules.applyOrderTotals(order);
+        order.setAmountPaid(amountPaid.setScale(2, RoundingMode.HALF_UP));
+        calculateTaxTotal(order, order.getItems());
+    }
+
+    // Set when the order closes, register reports sum it instead of pricing closed orders again
+    public void calculateTaxTotal(Order order, List<OrderItem> items) {
+        MerchantPricingRules rules = getRules(order);
+        BigDecimal taxTotal = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            for (BigDecimal tax : orderPricer.getLineTaxes(item, rules).values()) {
+                taxTotal = taxTotal.add(tax);
+            }
+        }
+        order.setTaxTotal(taxTotal.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    public BigDecimal getLineTotal(Order order, OrderItem item) {
+        return orderPricer.getLineTotal(item, getRules(order));
+    }
+
+    // Quantity changes are applied as removing the line before the change and adding it back after it
+    public void addLine(Order order, OrderItem item) {
+        addToSubtotal(order, getLineTotal(order, item));
+    }
+
+    public void removeLine(Order order, OrderItem item) {
+        addToSubtotal(order, getLineTotal(order, item).negate());
+    }
+
+    public void addToSubtotal(Order order, BigDecimal change) {
+        if (order.getSubtotal() == null || change.signum() == 0) {
+            return;
+        }
+
+        order.setSubtotal(order.getSubtotal().add(change));
+        getRules(order).applyOrderTotals(order);
+    }
+
+    // Order charges of the order were added or removed
+    public void refreshOrderCharges(Order order) {
+        if (order.getSubtotal() == null) {
+            return;
+        }
+
+        getRules(order).applyOrderTotals(order);
+    }
+
+    public void addPayment(Order order, BigDecimal amount) {
+        if (order.getAmountPaid() != null) {
+            order.setAmountPaid(order.getAmountPaid().add(amount));
+        }
+    }
+
+    public void removePayment(Order order, BigDecimal amount) {
+        if (order.getAmountPaid() != null) {
+            order.setAmountPaid(order.getAmountPaid().subtract(amount));
+        }
+    }
+
+    // Prices of products, services or charges changed, so every line of the merchant's open orders may be priced differently.
+    // Closed orders keep the totals they were paid with. The orders are re-priced in the background once the price change
+    // commits, so the request changing the price neither waits for them nor holds their locks.
+    public void recalculateOpenOrders(UUID merchantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRecalculation(merchantId);
+                }
+            });
+        } else {
+            scheduleRecalculation(merchantId);
+        }
+    }
+
+    // Compares the stored totals with totals calculated from scratch, drifted totals are replaced only when repair is set.
+    // Prices of orders that are no longer open are not compared, as they were fixed when the order was paid.
+    @Transactional
+    public boolean verifyTotals(UUID orderId, boolean repair) {
+        Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+        if (order == null || order.getSubtotal() == null) {
+            return false;
+        }
+
+        OrderTotals stored = OrderTotals.of(order);
+        if (order.getStatus() == OrderStatus.OPEN) {
+            recalculate(order);
+        }
+        else {
+            recalculateAmountPaid(order);
+        }
+
+        OrderTotals calculated = OrderTotals.of(order);
+        if (stored.matches(calculated)) {
+            return false;
+        }
+
+        log.warn("Totals of order {} drifted, stored {}, calculated {}", orderId, stored, calculated);
+        if (!repair) {
+            stored.applyTo(order);
+        }
+        return true;
+    }
+
+    // *** Helper methods ***
+
+    // Changes arriving while a merchant is still queued are covered by the queued run
+    private void scheduleRecalculation(UUID merchantId) {
+        if (!pendingRecalculations.add(merchantId)) {
+            return;
+        }
+
+        taskExecutor.execute(() -> {
+            pendingRecalculations.remove(merchantId);
+            try {
+                recalculateOpenOrdersNow(merchantId);
+            }
+            catch (RuntimeException e) {
+                log.error("Failed to recalculate open orders of merchant {}", merchantId, e);
+            }
+        });
+    }
+
+    // Each order is locked and re-priced in its own transaction, so tills working on other orders are not held up
+    // The rules are compiled once from the database, the cache may still hold the ones from before the change
+    private void recalculateOpenOrdersNow(UUID merchantId) {
+        MerchantPricingRules rules = pricingRuleCache.getUncachedRules(merchantId);
+        List<UUID> openOrderIds = orderRepository.findIdsByMerchantIdAndStatus(merchantId, OrderStatus.OPEN);
+        for (UUID orderId : openOrderIds) {
+            transactionTemplate.executeWithoutResult(status -> orderRepository.findByIdForUpdate(orderId)
+                                                                              .filter(order -> order.getStatus() == OrderStatus.OPEN)
+                                                                              .ifPresent(order -> recalculate(order, rules)));
+        }
+
+        log.debug("Recalculated totals of {} open orders of merchant {}", openOrderIds.size(), merchantId);
+    }
+
+    private void recalculate(Order order) {
+        recalculate(order, getRules(order));
+    }
+
+    private void recalculate(Order order, MerchantPricingRules rules) {
+        order.setSubtotal(orderPricer.quote(order, rules).getItemsTotal().setScale(2, RoundingMode.HALF_UP));
+        rules.applyOrderTotals(order);
+        recalculateAmountPaid(order);
+    }
+
+    private void recalculateAmountPaid(Order order) {
+        order.setAmountPaid(transactionRepository.sumAmountByOrderIdAndStatus(order.getId(), TransactionStatus.COMPLETED)
+                                                 .setScale(2, RoundingMode.HALF_UP));
+    }
+
+    private MerchantPricingRules getRules(Order order) {
+        return pricingRuleCache.getRules(order.getMerchant().getId());
+    }
+}
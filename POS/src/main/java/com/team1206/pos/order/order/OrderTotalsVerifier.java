@@ -0,0 +1,75 @@
+package com.team1206.pos.order.order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+// Recalculates the totals of a random sample of orders from scratch and reports the ones that drifted from the stored totals
+@Slf4j
+@Component
+public class OrderTotalsVerifier {
+    private final OrderRepository orderRepository;
+    private final OrderTotalsService orderTotalsService;
+    private final int sampleSize;
+    private final boolean repair;
+
+    private final Counter verified;
+    private final Counter drifted;
+
+    public OrderTotalsVerifier(OrderRepository orderRepository,
+                               OrderTotalsService orderTotalsService,
+                               MeterRegistry meterRegistry,
+                               @Value("${order_totals_verify_sample_size:100}") int sampleSize,
+                               @Value("${order_totals_repair_drift:false}") boolean repair) {
+        this.orderRepository = orderRepository;
+        this.orderTotalsService = orderTotalsService;
+        this.sampleSize = sampleSize;
+        this.repair = repair;
+
+        this.verified = Counter.builder("pos.order.totals.verified").register(meterRegistry);
+        this.drifted = Counter.builder("pos.order.totals.drifted").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order_totals_verify_interval_ms:3600000}",
+               initialDelayString = "${order_totals_verify_interval_ms:3600000}")
+    public void verify() {
+        verifySample(sampleSize);
+    }
+
+    // Each order is verified in its own transaction, so the sample never holds more than one order lock
+    public int verifySample(int size) {
+        List<UUID> orderIds = orderRepository.findSampleIds(getSamplePercent(size), size);
+
+        int driftedOrders = 0;
+        for (UUID orderId : orderIds) {
+            if (orderTotalsService.verifyTotals(orderId, repair)) {
+                driftedOrders++;
+            }
+        }
+
+        verified.increment(orderIds.size());
+        drifted.increment(driftedOrders);
+        if (driftedOrders > 0) {
+            log.warn("Totals of {} out of {} sampled orders drifted", driftedOrders, orderIds.size());
+        }
+        return driftedOrders;
+    }
+
+    // *** Helper methods ***
+
+    // Twice the share of pages the sample needs, as pages hold different numbers of orders.
+    // Tables never analyzed have no estimate and are sampled whole.
+    private double getSamplePercent(int size) {
+        long estimatedCount = orderRepository.estimateCount();
+        if (estimatedCount <= 0) {
+            return 100;
+        }
+        return Math.min(100, size * 200.0 / estimatedCount);
+    }
+}
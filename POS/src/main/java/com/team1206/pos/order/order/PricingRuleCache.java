@@ -0,0 +1,99 @@
+package com.team1206.pos.order.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.team1206.pos.order.orderCharge.OrderChargeRepository;
+import com.team1206.pos.payments.charge.ChargeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Compiled pricing rules of the most recently used merchants. Services changing charges have to invalidate the merchant.
+@Slf4j
+@Component
+public class PricingRuleCache {
+    private final Cache<UUID, MerchantPricingRules> rulesByMerchant;
+    // Bumped whenever the merchant is invalidated, one counter per merchant
+    private final Map<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final ChargeRepository chargeRepository;
+    private final OrderChargeRepository orderChargeRepository;
+
+    public PricingRuleCache(ChargeRepository chargeRepository,
+                            OrderChargeRepository orderChargeRepository,
+                            @Value("${pricing_rules_cache_size:1000}") long maxEntries,
+                            @Value("${pricing_rules_cache_ttl_minutes:60}") long ttlMinutes) {
+        this.chargeRepository = chargeRepository;
+        this.orderChargeRepository = orderChargeRepository;
+        this.rulesByMerchant = Caffeine.newBuilder()
+                                       .maximumSize(maxEntries)
+                                       .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                                       .build();
+    }
+
+    public MerchantPricingRules getRules(UUID merchantId) {
+        MerchantPricingRules rules = rulesByMerchant.getIfPresent(merchantId);
+        if (rules != null) {
+            return rules;
+        }
+
+        AtomicLong version = getVersion(merchantId);
+        long compiledAtVersion = version.get();
+        rules = compile(merchantId);
+        rulesByMerchant.asMap().putIfAbsent(merchantId, rules);
+
+        // The merchant was invalidated while compiling, the rules may be stale so they are not kept
+        if (version.get() != compiledAtVersion) {
+            rulesByMerchant.asMap().remove(merchantId, rules);
+        }
+        return rules;
+    }
+
+    public void invalidate(UUID merchantId) {
+        evict(merchantId);
+
+        // Until the change commits other requests can still compile the old rules, so evict again as soon as it has
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(merchantId);
+                }
+            });
+        }
+    }
+
+    // Compiled from the database every time, for work that has to see a change that just committed
+    public MerchantPricingRules getUncachedRules(UUID merchantId) {
+        return compile(merchantId);
+    }
+
+    // *** Helper methods ***
+
+    private void evict(UUID merchantId) {
+        getVersion(merchantId).incrementAndGet();
+        rulesByMerchant.invalidate(merchantId);
+    }
+
+    private AtomicLong getVersion(UUID merchantId) {
+        return versions.computeIfAbsent(merchantId, id -> new AtomicLong());
+    }
+
+    private MerchantPricingRules compile(UUID merchantId) {
+        MerchantPricingRules rules = MerchantPricingRules.compile(
+                chargeRepository.findAllProductAssignmentsByMerchantId(merchantId),
+                chargeRepository.findAllServiceAssignmentsByMerchantId(merchantId),
+                orderChargeRepository.findAllByMerchantId(merchantId)
+        );
+
+        log.debug("Compiled {} pricing rules for merchant {}", rules.size(), merchantId);
+        return rules;
+    }
+}
@@ -7,6 +7,8 @@ import com.team1206.pos.user.merchant.Merchant;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,6 +19,8 @@ import java.util.UUID;
 @Setter
 @Entity
 @Table(name = "\"order_charge\"")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "order-charge")
 @OneOf(fields = {"percent", "amount"})
 public class OrderCharge {
     @Id
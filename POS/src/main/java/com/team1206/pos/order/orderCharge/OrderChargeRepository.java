@@ -1,10 +1,14 @@
 package com.team1206.pos.order.orderCharge;
 
 import com.team1206.pos.common.enums.OrderChargeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -21,4 +25,15 @@ public interface OrderChargeRepository extends JpaRepository<OrderCharge, UUID>
     // Filter by orderId and type
     @Query("SELECT oc FROM OrderCharge oc JOIN oc.orders o WHERE o.id = :orderId AND oc.type = :type")
     List<OrderCharge> findAllByOrderIdAndType(@Param("orderId") UUID orderId, @Param("type") OrderChargeType type);
+
+    @Query("SELECT oc FROM OrderCharge oc WHERE oc.merchant.id = :merchantId")
+    List<OrderCharge> findAllByMerchantId(@Param("merchantId") UUID merchantId);
+
+    // Applies order charges to many orders in one insert, pairs are matched by position.
+    // The affected table is named, otherwise Hibernate empties every second-level cache region after a native statement.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_charges_orders"))
+    @Query(value = "INSERT INTO order_charges_orders (order_charge_id, order_id) " +
+            "SELECT * FROM unnest(CAST(:orderChargeIds AS uuid[]), CAST(:orderIds AS uuid[]))", nativeQuery = true)
+    int addToOrders(@Param("orderChargeIds") UUID[] orderChargeIds, @Param("orderIds") UUID[] orderIds);
 }
@@ -7,6 +7,7 @@ import com.team1206.pos.exceptions.ResourceNotFoundException;
 import com.team1206.pos.exceptions.UnauthorizedActionException;
 import com.team1206.pos.order.order.Order;
 import com.team1206.pos.order.order.OrderService;
+import com.team1206.pos.order.order.OrderTotalsService;
 import com.team1206.pos.user.merchant.Merchant;
 import com.team1206.pos.user.user.UserService;
 import jakarta.transaction.Transactional;
@@ -15,8 +16,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,14 +24,17 @@ public class OrderChargeService {
     private final OrderChargeRepository orderChargeRepository;
     private final OrderService orderService;
     private final UserService userService;
+    private final OrderTotalsService orderTotalsService;
 
     public OrderChargeService(
             OrderChargeRepository orderChargeRepository,
             OrderService orderService,
-            UserService userService) {
+            UserService userService,
+            OrderTotalsService orderTotalsService) {
         this.orderChargeRepository = orderChargeRepository;
         this.orderService = orderService;
         this.userService = userService;
+        this.orderTotalsService = orderTotalsService;
     }
 
     // Get order charges
@@ -89,7 +91,7 @@ public class OrderChargeService {
         userService.verifyLoggedInUserBelongsToMerchant(merchantId,
                 "You are not authorized to add order charges to this order");
 
-        Order order = orderService.getOrderEntityById(orderId);
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
         if (!order.getMerchant().getId().equals(merchantId))
             throw new IllegalArgumentException("Order and order charge merchants differ");
 
@@ -100,7 +102,10 @@ public class OrderChargeService {
             throw new IllegalArgumentException("Order charge is already applied to this order");
 
         orderCharge.getOrders().add(order);
+        // The order side is kept in step, its totals are priced from it
+        order.getCharges().add(orderCharge);
         orderChargeRepository.save(orderCharge);
+        orderTotalsService.refreshOrderCharges(order);
     }
 
     @Transactional
@@ -110,7 +115,7 @@ public class OrderChargeService {
         userService.verifyLoggedInUserBelongsToMerchant(merchantId,
                 "You are not authorized to remove order charges from this order");
 
-        Order order = orderService.getOrderEntityById(orderId);
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
         if (!order.getMerchant().getId().equals(merchantId))
             throw new IllegalArgumentException("Order and order charge merchants differ");
 
@@ -120,7 +125,9 @@ public class OrderChargeService {
         if (!orderCharge.getOrders().remove(order))
             throw new IllegalArgumentException("Order charge is not applied to order");
 
+        order.getCharges().remove(orderCharge);
         orderChargeRepository.save(orderCharge);
+        orderTotalsService.refreshOrderCharges(order);
     }
 
     // *** Helper methods ***
@@ -132,47 +139,6 @@ public class OrderChargeService {
                         orderChargeId.toString()));
     }
 
-    public BigDecimal applyOrderCharges(UUID orderId, BigDecimal totalOrderItemsPrice) {
-        Order order = orderService.getOrderEntityById(orderId);
-        userService.verifyLoggedInUserBelongsToMerchant(
-                order.getMerchant().getId(),
-                "You are not authorized to calculate total order charge"
-        );
-
-        List<OrderCharge> chargeCharges = orderChargeRepository.findAllByOrderIdAndType(
-                orderId,
-                OrderChargeType.CHARGE
-        );
-        List<OrderCharge> discountCharges = orderChargeRepository.findAllByOrderIdAndType(
-                orderId,
-                OrderChargeType.DISCOUNT
-        );
-
-        for (OrderCharge charge : chargeCharges) {
-            if (charge.getPercent() != null) {
-                totalOrderItemsPrice =
-                        totalOrderItemsPrice.add(totalOrderItemsPrice.multiply(new BigDecimal(charge.getPercent()).divide(
-                                new BigDecimal(100))));
-            }
-            else {
-                totalOrderItemsPrice = totalOrderItemsPrice.add(charge.getAmount());
-            }
-        }
-
-        for (OrderCharge discount : discountCharges) {
-            if (discount.getPercent() != null) {
-                totalOrderItemsPrice =
-                        totalOrderItemsPrice.subtract(totalOrderItemsPrice.multiply(new BigDecimal(discount.getPercent()).divide(
-                                new BigDecimal(100))));
-            }
-            else {
-                totalOrderItemsPrice = totalOrderItemsPrice.subtract(discount.getAmount());
-            }
-        }
-
-        return totalOrderItemsPrice.setScale(2, RoundingMode.HALF_UP);
-    }
-
     private void setOrderChargeFields(OrderCharge orderCharge, OrderChargeRequestDTO requestBody) {
         orderCharge.setType(OrderChargeType.valueOf(requestBody.getType().toUpperCase()));
         orderCharge.setName(requestBody.getName());
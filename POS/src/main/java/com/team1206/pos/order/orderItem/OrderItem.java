@@ -1,5 +1,6 @@
 package com.team1206.pos.order.orderItem;
 
+import com.team1206.pos.common.id.UuidV7;
 import com.team1206.pos.inventory.product.Product;
 import com.team1206.pos.inventory.productVariation.ProductVariation;
 import com.team1206.pos.order.order.Order;
@@ -21,7 +22,7 @@ import java.util.UUID;
 @Table(name = "\"order_item\"")
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
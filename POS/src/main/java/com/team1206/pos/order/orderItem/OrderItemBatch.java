@@ -0,0 +1,174 @@
+package com.team1206.pos.order.orderItem;
+
+import com.team1206.pos.common.enums.ResourceType;
+import com.team1206.pos.exceptions.IllegalRequestException;
+import com.team1206.pos.exceptions.ResourceNotFoundException;
+import com.team1206.pos.inventory.product.Product;
+import com.team1206.pos.inventory.productVariation.ProductVariation;
+import com.team1206.pos.order.order.Order;
+import com.team1206.pos.service.reservation.Reservation;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+
+// Lines of one order while a batch of operations is applied in memory.
+// Stock changes are summed per product and product variation, so each is adjusted once at the end, and so is the subtotal.
+class OrderItemBatch {
+    private final Order order;
+    private final Function<OrderItem, BigDecimal> lineTotal;
+    private final Map<UUID, OrderItem> itemsById = new HashMap<>();
+    private final Map<UUID, OrderItem> itemsByProductId = new HashMap<>();
+    private final Map<UUID, OrderItem> itemsByProductVariationId = new HashMap<>();
+
+    private final Set<OrderItem> changedItems = new LinkedHashSet<>();
+    private final List<OrderItem> removedItems = new ArrayList<>();
+    private final Map<UUID, Integer> productAdjustments = new HashMap<>();
+    private final Map<UUID, Integer> productVariationAdjustments = new HashMap<>();
+    private BigDecimal subtotalChange = BigDecimal.ZERO;
+
+    OrderItemBatch(Order order, Function<OrderItem, BigDecimal> lineTotal) {
+        this.order = order;
+        this.lineTotal = lineTotal;
+        for (OrderItem orderItem : order.getItems()) {
+            itemsById.put(orderItem.getId(), orderItem);
+            indexByStockItem(orderItem);
+        }
+    }
+
+    void addProduct(Product product, int quantity) {
+        OrderItem orderItem = itemsByProductId.get(product.getId());
+        if (orderItem == null) {
+            orderItem = newItem();
+            orderItem.setProduct(product);
+            orderItem.setQuantity(0);
+            itemsByProductId.put(product.getId(), orderItem);
+        }
+
+        setQuantity(orderItem, orderItem.getQuantity() + quantity);
+        changedItems.add(orderItem);
+        productAdjustments.merge(product.getId(), -quantity, Integer::sum);
+    }
+
+    void addProductVariation(ProductVariation productVariation, int quantity) {
+        OrderItem orderItem = itemsByProductVariationId.get(productVariation.getId());
+        if (orderItem == null) {
+            orderItem = newItem();
+            orderItem.setProduct(productVariation.getProduct());
+            orderItem.setProductVariation(productVariation);
+            orderItem.setQuantity(0);
+            itemsByProductVariationId.put(productVariation.getId(), orderItem);
+        }
+
+        setQuantity(orderItem, orderItem.getQuantity() + quantity);
+        changedItems.add(orderItem);
+        productVariationAdjustments.merge(productVariation.getId(), -quantity, Integer::sum);
+    }
+
+    void addReservation(Reservation reservation) {
+        OrderItem orderItem = newItem();
+        orderItem.setReservation(reservation);
+        orderItem.setQuantity(1);
+        subtotalChange = subtotalChange.add(lineTotal.apply(orderItem));
+        changedItems.add(orderItem);
+    }
+
+    void update(UUID orderItemId, int quantity) {
+        OrderItem orderItem = getItem(orderItemId);
+        if (orderItem.getReservation() != null) {
+            throw new IllegalRequestException("Cannot update reservation order item quantity");
+        }
+
+        adjustStock(orderItem, orderItem.getQuantity() - quantity);
+        setQuantity(orderItem, quantity);
+        changedItems.add(orderItem);
+    }
+
+    // Returns the removed line, its reservation (if any) has to be cancelled by the caller
+    OrderItem remove(UUID orderItemId) {
+        OrderItem orderItem = getItem(orderItemId);
+        adjustStock(orderItem, orderItem.getQuantity());
+        subtotalChange = subtotalChange.subtract(lineTotal.apply(orderItem));
+
+        itemsById.remove(orderItemId);
+        if (orderItem.getProductVariation() != null) {
+            itemsByProductVariationId.remove(orderItem.getProductVariation().getId());
+        }
+        else if (orderItem.getProduct() != null) {
+            itemsByProductId.remove(orderItem.getProduct().getId());
+        }
+
+        order.getItems().remove(orderItem);
+        changedItems.remove(orderItem);
+        removedItems.add(orderItem);
+        return orderItem;
+    }
+
+    List<OrderItem> getChangedItems() {
+        return List.copyOf(changedItems);
+    }
+
+    List<OrderItem> getRemovedItems() {
+        return removedItems;
+    }
+
+    BigDecimal getSubtotalChange() {
+        return subtotalChange;
+    }
+
+    Map<UUID, Integer> getProductAdjustments() {
+        return withoutZeroAdjustments(productAdjustments);
+    }
+
+    Map<UUID, Integer> getProductVariationAdjustments() {
+        return withoutZeroAdjustments(productVariationAdjustments);
+    }
+
+    // *** Helper methods ***
+
+    private OrderItem getItem(UUID orderItemId) {
+        OrderItem orderItem = itemsById.get(orderItemId);
+        if (orderItem == null) {
+            throw new ResourceNotFoundException(ResourceType.ORDER_ITEM, orderItemId.toString());
+        }
+        return orderItem;
+    }
+
+    private void setQuantity(OrderItem orderItem, int quantity) {
+        BigDecimal previousLineTotal = lineTotal.apply(orderItem);
+        orderItem.setQuantity(quantity);
+        subtotalChange = subtotalChange.add(lineTotal.apply(orderItem).subtract(previousLineTotal));
+    }
+
+    private OrderItem newItem() {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrder(order);
+        order.getItems().add(orderItem);
+        return orderItem;
+    }
+
+    // Lines are combined the same way as single adds, by product variation or by product without a variation
+    private void indexByStockItem(OrderItem orderItem) {
+        if (orderItem.getProductVariation() != null) {
+            itemsByProductVariationId.putIfAbsent(orderItem.getProductVariation().getId(), orderItem);
+        }
+        else if (orderItem.getProduct() != null) {
+            itemsByProductId.putIfAbsent(orderItem.getProduct().getId(), orderItem);
+        }
+    }
+
+    private void adjustStock(OrderItem orderItem, int adjustment) {
+        if (orderItem.getProductVariation() != null) {
+            productVariationAdjustments.merge(orderItem.getProductVariation().getId(), adjustment, Integer::sum);
+        }
+        else if (orderItem.getProduct() != null) {
+            productAdjustments.merge(orderItem.getProduct().getId(), adjustment, Integer::sum);
+        }
+    }
+
+    private static Map<UUID, Integer> withoutZeroAdjustments(Map<UUID, Integer> adjustments) {
+        Map<UUID, Integer> nonZero = new HashMap<>(adjustments);
+        nonZero.values().removeIf(adjustment -> adjustment == 0);
+        return nonZero;
+    }
+}
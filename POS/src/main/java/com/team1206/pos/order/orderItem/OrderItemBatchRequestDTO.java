@@ -0,0 +1,15 @@
+package com.team1206.pos.order.orderItem;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderItemBatchRequestDTO {
+    @NotEmpty(message = "operations must not be empty")
+    @Size(max = 200, message = "operations must not exceed 200 entries")
+    private List<@Valid OrderItemOperationDTO> operations;
+}
@@ -35,6 +35,15 @@ public class OrderItemController {
         return ResponseEntity.ok(orderItemService.addItemToOrder(orderId, requestDTO));
     }
 
+    @PostMapping("/{orderId}/items/batch")
+    @Operation(summary = "Add, update and remove many order items at once")
+    public ResponseEntity<OrderResponseDTO> applyItemOperations(
+            @PathVariable UUID orderId,
+            @Valid @RequestBody OrderItemBatchRequestDTO requestDTO
+    ) {
+        return ResponseEntity.ok(orderItemService.applyItemOperations(orderId, requestDTO));
+    }
+
     @PutMapping("/{orderId}/items/{orderItemId}")
     @Operation(summary = "Update order item")
     public ResponseEntity<OrderResponseDTO> updateOrderItem(
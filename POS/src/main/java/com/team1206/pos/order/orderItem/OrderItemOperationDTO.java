@@ -0,0 +1,24 @@
+package com.team1206.pos.order.orderItem;
+
+import com.team1206.pos.common.enums.OrderItemOperationType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+// ADD takes one of productId, productVariationId or reservationId, UPDATE and REMOVE take orderItemId
+@Data
+public class OrderItemOperationDTO {
+    @NotNull(message = "type must not be null")
+    private OrderItemOperationType type;
+
+    private UUID orderItemId;
+
+    private UUID productId;
+    private UUID productVariationId;
+    private UUID reservationId;
+
+    @Min(value = 1, message = "quantity must be greater than or equal to 1")
+    private Integer quantity;
+}
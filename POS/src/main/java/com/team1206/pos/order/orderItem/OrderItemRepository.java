@@ -11,4 +11,16 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
 
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId")
     List<OrderItem> findByOrderId(@Param("orderId") UUID orderId);
+
+    // Loads everything needed to price the order lines in a single query
+    @Query("SELECT oi FROM OrderItem oi " +
+            "LEFT JOIN FETCH oi.product " +
+            "LEFT JOIN FETCH oi.productVariation pv " +
+            "LEFT JOIN FETCH pv.product " +
+            "LEFT JOIN FETCH oi.reservation r " +
+            "LEFT JOIN FETCH r.service " +
+            "WHERE oi.order.id = :orderId")
+    List<OrderItem> findAllByOrderIdForPricing(@Param("orderId") UUID orderId);
+
+    boolean existsByReservationId(UUID reservationId);
 }
@@ -1,8 +1,10 @@
 package com.team1206.pos.order.orderItem;
 
+import com.team1206.pos.common.enums.OrderItemOperationType;
 import com.team1206.pos.common.enums.OrderStatus;
 import com.team1206.pos.common.enums.ResourceType;
 import com.team1206.pos.exceptions.IllegalRequestException;
+import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
 import com.team1206.pos.inventory.product.Product;
 import com.team1206.pos.inventory.product.ProductService;
@@ -12,17 +14,18 @@ import com.team1206.pos.inventory.productVariation.ProductVariationService;
 import com.team1206.pos.order.order.Order;
 import com.team1206.pos.order.order.OrderResponseDTO;
 import com.team1206.pos.order.order.OrderService;
+import com.team1206.pos.order.order.OrderTotalsService;
 import com.team1206.pos.service.reservation.Reservation;
 import com.team1206.pos.service.reservation.ReservationService;
-import com.team1206.pos.service.service.ServiceService;
 import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OrderItemService {
@@ -33,7 +36,7 @@ public class OrderItemService {
     private final ReservationService reservationService;
     private final UserService userService;
     private final ProductVariationService productVariationService;
-    private final ServiceService serviceService;
+    private final OrderTotalsService orderTotalsService;
 
     public OrderItemService(
             OrderItemRepository orderItemRepository,
@@ -43,7 +46,7 @@ public class OrderItemService {
             ReservationService reservationService,
             UserService userService,
             ProductVariationService productVariationService,
-            ServiceService serviceService) {
+            OrderTotalsService orderTotalsService) {
         this.orderItemRepository = orderItemRepository;
         this.productVariationRepository = productVariationRepository;
         this.productService = productService;
@@ -51,7 +54,7 @@ public class OrderItemService {
         this.reservationService = reservationService;
         this.userService = userService;
         this.productVariationService = productVariationService;
-        this.serviceService = serviceService;
+        this.orderTotalsService = orderTotalsService;
     }
 
     // Get order items by order id
@@ -69,8 +72,9 @@ public class OrderItemService {
     }
 
     // Add item to order
+    @Transactional
     public OrderResponseDTO addItemToOrder(UUID orderId, CreateOrderItemRequestDTO requestDTO) {
-        Order order = orderService.getOrderEntityById(orderId);
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
         userService.verifyLoggedInUserBelongsToMerchant(
                 order.getMerchant().getId(),
                 "You are not authorized to add items to this order"
@@ -98,18 +102,20 @@ public class OrderItemService {
         setOrderItemFields(orderItem, requestDTO);
         orderItem.setOrder(order);
         orderItem = orderItemRepository.save(orderItem);
+        orderTotalsService.addLine(order, orderItem);
         Order updatedOrder = orderService.addOrderItemToOrder(order, orderItem);
 
         return orderService.mapToResponseDTO(updatedOrder);
     }
 
     // Update order item
+    @Transactional
     public OrderResponseDTO updateOrderItem(
             UUID orderId,
             UUID orderItemId,
             UpdateOrderItemRequestDTO requestDTO
     ) {
-        Order order = orderService.getOrderEntityById(orderId);
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
         userService.verifyLoggedInUserBelongsToMerchant(
                 order.getMerchant().getId(),
                 "You are not authorized to update items in this order"
@@ -136,7 +142,9 @@ public class OrderItemService {
         int quantityDiff = orderItem.getQuantity() - requestDTO.getQuantity();
         adjustQuantityOrderItemUpdate(orderItem, quantityDiff);
 
+        orderTotalsService.removeLine(order, orderItem);
         orderItem.setQuantity(requestDTO.getQuantity());
+        orderTotalsService.addLine(order, orderItem);
         orderItemRepository.save(orderItem);
         Order updatedOrder = orderService.replaceOrderItemInOrder(order, orderItem);
 
@@ -144,8 +152,9 @@ public class OrderItemService {
     }
 
     // Delete order item
+    @Transactional
     public OrderResponseDTO removeOrderItem(UUID orderId, UUID orderItemId) {
-        Order order = orderService.getOrderEntityById(orderId);
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
         userService.verifyLoggedInUserBelongsToMerchant(
                 order.getMerchant().getId(),
                 "You are not authorized to remove items from this order"
@@ -160,6 +169,7 @@ public class OrderItemService {
         }
 
         adjustQuantityOrderItemRemove(orderItem);
+        orderTotalsService.removeLine(order, orderItem);
 
         Order updatedOrder = orderService.removeOrderItemFromOrder(order, orderItem);
         orderItemRepository.delete(orderItem);
@@ -167,9 +177,77 @@ public class OrderItemService {
         return orderService.mapToResponseDTO(updatedOrder);
     }
 
+    // Apply many item changes at once, the order is loaded and stock is adjusted once for the whole batch
+    @Transactional
+    public OrderResponseDTO applyItemOperations(UUID orderId, OrderItemBatchRequestDTO requestDTO) {
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
+        userService.verifyLoggedInUserBelongsToMerchant(
+                order.getMerchant().getId(),
+                "You are not authorized to change items in this order"
+        );
+
+        if (order.getStatus() != OrderStatus.OPEN) {
+            throw new IllegalStateException("Order is not open");
+        }
+
+        List<OrderItemOperationDTO> operations = requestDTO.getOperations();
+        operations.forEach(this::verifyOperation);
+
+        Map<UUID, Product> products = productService.getProductEntitiesById(collectIds(operations, OrderItemOperationDTO::getProductId));
+        Map<UUID, ProductVariation> productVariations = productVariationService.getProductVariationEntitiesById(
+                collectIds(operations, OrderItemOperationDTO::getProductVariationId)
+        );
+        products.values().forEach(product -> userService.verifyLoggedInUserBelongsToMerchant(
+                product.getCategory().getMerchant().getId(),
+                "You are not authorized to add this product to the order"
+        ));
+        productVariations.values().forEach(productVariation -> userService.verifyLoggedInUserBelongsToMerchant(
+                productVariation.getProduct().getCategory().getMerchant().getId(),
+                "You are not authorized to add this product variation to the order"
+        ));
+
+        OrderItemBatch batch = new OrderItemBatch(order, orderItem -> orderTotalsService.getLineTotal(order, orderItem));
+        Set<UUID> addedReservationIds = new HashSet<>();
+        for (OrderItemOperationDTO operation : operations) {
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (operation.getProductVariationId() != null) {
+                        batch.addProductVariation(productVariations.get(operation.getProductVariationId()), operation.getQuantity());
+                    }
+                    else if (operation.getProductId() != null) {
+                        batch.addProduct(products.get(operation.getProductId()), operation.getQuantity());
+                    }
+                    else {
+                        if (!addedReservationIds.add(operation.getReservationId())) {
+                            throw new IllegalRequestException("A reservation can only be added once");
+                        }
+                        batch.addReservation(getReservationForOrder(operation.getReservationId()));
+                    }
+                }
+                case UPDATE -> batch.update(operation.getOrderItemId(), operation.getQuantity());
+                case REMOVE -> {
+                    OrderItem removedItem = batch.remove(operation.getOrderItemId());
+                    if (removedItem.getReservation() != null) {
+                        reservationService.cancelReservation(removedItem.getReservation().getId(), false);
+                    }
+                }
+            }
+        }
+
+        productService.adjustProductQuantities(batch.getProductAdjustments());
+        productVariationService.adjustProductVariationQuantities(batch.getProductVariationAdjustments());
+        orderTotalsService.addToSubtotal(order, batch.getSubtotalChange());
+
+        orderItemRepository.saveAll(batch.getChangedItems());
+        orderItemRepository.deleteAll(batch.getRemovedItems());
+
+        return orderService.mapToResponseDTO(order);
+    }
+
     // Cancel order item
+    @Transactional
     public void cancelOrderItem(UUID orderId, UUID orderItemId) {
-        Order order = orderService.getOrderEntityById(orderId);
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
         userService.verifyLoggedInUserBelongsToMerchant(
                 order.getMerchant().getId(),
                 "You are not authorized to cancel items in this order"
@@ -186,7 +264,9 @@ public class OrderItemService {
 
         adjustQuantityOrderItemRemove(orderItem);
 
+        orderTotalsService.removeLine(order, orderItem);
         orderItem.setQuantity(0);
+        orderTotalsService.addLine(order, orderItem);
         orderItemRepository.save(orderItem);
     }
 
@@ -196,13 +276,17 @@ public class OrderItemService {
     private OrderResponseDTO adjustQuantityOrderItemCombine(Order order, CreateOrderItemRequestDTO requestDTO) {
         for (OrderItem orderItem : order.getItems()) {
             if (orderItem.getProduct() != null && orderItem.getProduct().getId().equals(requestDTO.getProductId())) {
+                orderTotalsService.removeLine(order, orderItem);
                 orderItem.setQuantity(orderItem.getQuantity() + requestDTO.getQuantity());
+                orderTotalsService.addLine(order, orderItem);
                 orderItemRepository.save(orderItem);
                 Order updatedOrder = orderService.replaceOrderItemInOrder(order, orderItem);
                 return orderService.mapToResponseDTO(updatedOrder);
             }
             else if (orderItem.getProductVariation() != null && orderItem.getProductVariation().getId().equals(requestDTO.getProductVariationId())) {
+                orderTotalsService.removeLine(order, orderItem);
                 orderItem.setQuantity(orderItem.getQuantity() + requestDTO.getQuantity());
+                orderTotalsService.addLine(order, orderItem);
                 orderItemRepository.save(orderItem);
                 Order updatedOrder = orderService.replaceOrderItemInOrder(order, orderItem);
                 return orderService.mapToResponseDTO(updatedOrder);
@@ -212,25 +296,55 @@ public class OrderItemService {
         return null;
     }
 
-    public void deleteOrderItem(OrderItem orderItem) {
-        orderItemRepository.delete(orderItem);
+    private void verifyOperation(OrderItemOperationDTO operation) {
+        switch (operation.getType()) {
+            case ADD -> {
+                long references = Stream.of(operation.getProductId(), operation.getProductVariationId(), operation.getReservationId())
+                                        .filter(Objects::nonNull)
+                                        .count();
+                if (references != 1) {
+                    throw new IllegalRequestException("Only one of productId, productVariationId or reservationId must be provided");
+                }
+                if (operation.getReservationId() == null && operation.getQuantity() == null) {
+                    throw new IllegalRequestException("quantity must not be null");
+                }
+            }
+            case UPDATE -> {
+                if (operation.getOrderItemId() == null || operation.getQuantity() == null) {
+                    throw new IllegalRequestException("orderItemId and quantity must not be null");
+                }
+            }
+            case REMOVE -> {
+                if (operation.getOrderItemId() == null) {
+                    throw new IllegalRequestException("orderItemId must not be null");
+                }
+            }
+        }
     }
 
-    public BigDecimal getTotalPrice(OrderItem orderItem) {
-        if (orderItem.getProductVariation() != null) {
-            return productVariationService.getFinalPrice(orderItem.getProductVariation().getId())
-                    .multiply(BigDecimal.valueOf(orderItem.getQuantity()));
-        }
-        else if (orderItem.getProduct() != null) {
-            return productService.getFinalPrice(orderItem.getProduct().getId())
-                            .multiply(BigDecimal.valueOf(orderItem.getQuantity()));
-        }
-        else if (orderItem.getReservation() != null) {
-            return serviceService.getFinalPrice(orderItem.getReservation().getService().getId());
+    // The reservation has to belong to the merchant and must not be a line of any order yet
+    private Reservation getReservationForOrder(UUID reservationId) {
+        Reservation reservation = reservationService.getReservationEntityById(reservationId);
+        userService.verifyLoggedInUserBelongsToMerchant(
+                reservation.getService().getMerchant().getId(),
+                "You are not authorized to add this reservation to the order"
+        );
+        if (orderItemRepository.existsByReservationId(reservationId)) {
+            throw new IllegalStateExceptionWithId("Reservation is already part of an order", reservationId.toString());
         }
+        return reservation;
+    }
 
-        return BigDecimal.ZERO;
+    private Set<UUID> collectIds(List<OrderItemOperationDTO> operations, Function<OrderItemOperationDTO, UUID> idGetter) {
+        return operations.stream()
+                         .filter(operation -> operation.getType() == OrderItemOperationType.ADD)
+                         .map(idGetter)
+                         .filter(Objects::nonNull)
+                         .collect(Collectors.toSet());
+    }
 
+    public void deleteOrderItem(OrderItem orderItem) {
+        orderItemRepository.delete(orderItem);
     }
 
     private void adjustQuantityOrderItemAdd(CreateOrderItemRequestDTO orderItem) {
@@ -282,6 +396,11 @@ public class OrderItemService {
         ));
     }
 
+    // Lines of an order with their products, variations and reservations, loaded in one query
+    public List<OrderItem> getOrderItemEntitiesWithItems(UUID orderId) {
+        return orderItemRepository.findAllByOrderIdForPricing(orderId);
+    }
+
     private void setOrderItemFields(OrderItem orderItem, CreateOrderItemRequestDTO requestDTO) {
         if (requestDTO.getProductId() != null) {
             orderItem.setProduct(productService.getProductEntityById(requestDTO.getProductId()));
@@ -295,7 +414,7 @@ public class OrderItemService {
             orderItem.setQuantity(requestDTO.getQuantity());
         }
         else {
-            orderItem.setReservation(reservationService.getReservationEntityById(requestDTO.getReservationId()));
+            orderItem.setReservation(getReservationForOrder(requestDTO.getReservationId()));
             orderItem.setQuantity(1);
         }
 
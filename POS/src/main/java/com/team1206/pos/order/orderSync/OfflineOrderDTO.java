@@ -0,0 +1,35 @@
+package com.team1206.pos.order.orderSync;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Order captured by a till while it was offline, already paid for and handed over to the customer
+@Data
+public class OfflineOrderDTO {
+    @NotNull(message = "clientOrderId must not be null")
+    private UUID clientOrderId;
+
+    @NotNull(message = "createdAt must not be null")
+    private LocalDateTime createdAt;
+
+    @NotEmpty(message = "items must not be empty")
+    @Size(max = 200, message = "items must not exceed 200 entries")
+    private List<@Valid OfflineOrderItemDTO> items;
+
+    private List<UUID> orderChargeIds;
+
+    @NotNull(message = "transactions must not be null")
+    private List<@Valid OfflineTransactionDTO> transactions;
+
+    @DecimalMin(value = "0.00", message = "tip must not be negative")
+    private BigDecimal tip;
+}
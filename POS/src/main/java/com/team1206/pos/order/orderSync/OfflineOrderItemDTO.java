@@ -0,0 +1,18 @@
+package com.team1206.pos.order.orderSync;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+// Takes one of productId or productVariationId
+@Data
+public class OfflineOrderItemDTO {
+    private UUID productId;
+    private UUID productVariationId;
+
+    @NotNull(message = "quantity must not be null")
+    @Min(value = 1, message = "quantity must be greater than or equal to 1")
+    private Integer quantity;
+}
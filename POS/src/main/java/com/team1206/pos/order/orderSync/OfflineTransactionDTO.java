@@ -0,0 +1,24 @@
+package com.team1206.pos.order.orderSync;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class OfflineTransactionDTO {
+    @NotBlank
+    @Pattern(regexp = "^(cash|payment_card|gift_card)$", message = "paymentMethod must be either 'cash', 'payment_card' or 'gift_card'")
+    private String paymentMethodType;
+
+    @NotNull
+    @DecimalMin(value = "0.01", inclusive = false, message = "Price must be greater than 0.01")
+    private BigDecimal amount;
+
+    // Time of the payment on the till, the order's time when missing
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.team1206.pos.order.orderSync;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/orders")
+public class OrderSyncController {
+    private final OrderSyncService orderSyncService;
+
+    public OrderSyncController(OrderSyncService orderSyncService) {
+        this.orderSyncService = orderSyncService;
+    }
+
+    @PostMapping("/sync")
+    @Operation(summary = "Upload orders captured while the till was offline")
+    public ResponseEntity<List<OrderSyncResultDTO>> syncOrders(@Valid @RequestBody OrderSyncRequestDTO requestDTO) {
+        return ResponseEntity.ok(orderSyncService.syncOrders(requestDTO));
+    }
+}
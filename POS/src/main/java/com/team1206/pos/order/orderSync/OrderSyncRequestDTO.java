@@ -0,0 +1,15 @@
+package com.team1206.pos.order.orderSync;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderSyncRequestDTO {
+    @NotEmpty(message = "orders must not be empty")
+    @Size(max = 500, message = "orders must not exceed 500 entries")
+    private List<@Valid OfflineOrderDTO> orders;
+}
@@ -0,0 +1,13 @@
+package com.team1206.pos.order.orderSync;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class OrderSyncResultDTO {
+    private UUID clientOrderId;
+    private String status;
+    private UUID orderId;
+    private String message;
+}
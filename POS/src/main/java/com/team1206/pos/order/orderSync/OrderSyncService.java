@@ -0,0 +1,341 @@
+package com.team1206.pos.order.orderSync;
+
+import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.common.enums.OrderSyncStatus;
+import com.team1206.pos.common.enums.PaymentMethodType;
+import com.team1206.pos.common.enums.TransactionStatus;
+import com.team1206.pos.exceptions.IllegalRequestException;
+import com.team1206.pos.exceptions.UnauthorizedActionException;
+import com.team1206.pos.inventory.inventoryLog.InventoryLogService;
+import com.team1206.pos.inventory.product.Product;
+import com.team1206.pos.inventory.product.ProductService;
+import com.team1206.pos.inventory.productVariation.ProductVariation;
+import com.team1206.pos.inventory.productVariation.ProductVariationService;
+import com.team1206.pos.order.order.Order;
+import com.team1206.pos.order.order.OrderRepository;
+import com.team1206.pos.order.order.OrderTotalsService;
+import com.team1206.pos.order.orderCharge.OrderCharge;
+import com.team1206.pos.order.orderCharge.OrderChargeRepository;
+import com.team1206.pos.order.orderItem.OrderItem;
+import com.team1206.pos.payments.transaction.Transaction;
+import com.team1206.pos.report.salesRollup.SalesRollupService;
+import com.team1206.pos.user.merchant.Merchant;
+import com.team1206.pos.user.merchant.MerchantService;
+import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Takes in orders a till captured while offline. Every order is checked on its own and rejected orders don't stop the others,
+// the accepted ones are then written together: orders, items and transactions in batched inserts, stock in one statement per table.
+@Slf4j
+@Service
+public class OrderSyncService {
+    private final OrderRepository orderRepository;
+    private final OrderChargeRepository orderChargeRepository;
+    private final OrderTotalsService orderTotalsService;
+    private final ProductService productService;
+    private final ProductVariationService productVariationService;
+    private final MerchantService merchantService;
+    private final UserService userService;
+    private final InventoryLogService inventoryLogService;
+    private final SalesRollupService salesRollupService;
+
+    public OrderSyncService(OrderRepository orderRepository,
+                            OrderChargeRepository orderChargeRepository,
+                            OrderTotalsService orderTotalsService,
+                            ProductService productService,
+                            ProductVariationService productVariationService,
+                            MerchantService merchantService,
+                            UserService userService,
+                            @Lazy InventoryLogService inventoryLogService,
+                            SalesRollupService salesRollupService) {
+        this.orderRepository = orderRepository;
+        this.orderChargeRepository = orderChargeRepository;
+        this.orderTotalsService = orderTotalsService;
+        this.productService = productService;
+        this.productVariationService = productVariationService;
+        this.merchantService = merchantService;
+        this.userService = userService;
+        this.inventoryLogService = inventoryLogService;
+        this.salesRollupService = salesRollupService;
+    }
+
+    // Results come back in the order of the request. Orders synced before are reported as duplicates with their order id,
+    // so a till that lost the response can send the same batch again.
+    @Transactional
+    public List<OrderSyncResultDTO> syncOrders(OrderSyncRequestDTO requestDTO) {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        if (merchantId == null)
+            throw new UnauthorizedActionException("Super-admin has to be assigned to Merchant first");
+
+        List<OfflineOrderDTO> offlineOrders = requestDTO.getOrders();
+        SyncContext context = new SyncContext(merchantService.getMerchantEntityById(merchantId), offlineOrders);
+
+        // Stock is handed out in the order the sales happened, so the last sales are the ones rejected when it runs out
+        List<Integer> byCreatedAt = new ArrayList<>();
+        for (int i = 0; i < offlineOrders.size(); i++) {
+            byCreatedAt.add(i);
+        }
+        byCreatedAt.sort(Comparator.comparing(i -> offlineOrders.get(i).getCreatedAt()));
+
+        OrderSyncResultDTO[] results = new OrderSyncResultDTO[offlineOrders.size()];
+        for (int i : byCreatedAt) {
+            OfflineOrderDTO offlineOrder = offlineOrders.get(i);
+            if (context.isDuplicate(offlineOrder.getClientOrderId())) {
+                results[i] = mapToResultDTO(offlineOrder.getClientOrderId(), OrderSyncStatus.DUPLICATE, null);
+                continue;
+            }
+
+            try {
+                buildOrder(offlineOrder, context);
+                results[i] = mapToResultDTO(offlineOrder.getClientOrderId(), OrderSyncStatus.SYNCED, null);
+            }
+            catch (IllegalRequestException e) {
+                results[i] = mapToResultDTO(offlineOrder.getClientOrderId(), OrderSyncStatus.REJECTED, e.getMessage());
+            }
+        }
+
+        saveOrders(context);
+
+        for (OrderSyncResultDTO result : results) {
+            if (!result.getStatus().equals(OrderSyncStatus.REJECTED.name())) {
+                result.setOrderId(context.getOrderId(result.getClientOrderId()));
+            }
+        }
+
+        log.info("Synced {} of {} offline orders for merchant {}", context.synced.size(), offlineOrders.size(), merchantId);
+        return Arrays.asList(results);
+    }
+
+    // *** Helper methods ***
+
+    // Builds the closed order in memory and takes its stock, nothing is taken if the order is rejected
+    private void buildOrder(OfflineOrderDTO offlineOrder, SyncContext context) {
+        Order order = new Order();
+        order.setMerchant(context.merchant);
+        order.setStatus(OrderStatus.CLOSED);
+        order.setClientOrderId(offlineOrder.getClientOrderId());
+        order.setCreatedAt(offlineOrder.getCreatedAt());
+        // Closed as it is synced, so register reports count it in the period still open instead of one already closed
+        order.setClosedAt(context.syncedAt);
+        order.setTip(offlineOrder.getTip() != null ? offlineOrder.getTip() : BigDecimal.ZERO);
+        order.setItems(new ArrayList<>());
+        order.setTransactions(new ArrayList<>());
+        order.setCharges(getOrderCharges(offlineOrder, context));
+
+        Map<UUID, Integer> productDemand = new HashMap<>();
+        Map<UUID, Integer> productVariationDemand = new HashMap<>();
+        for (OfflineOrderItemDTO offlineItem : offlineOrder.getItems()) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setQuantity(offlineItem.getQuantity());
+            orderItem.setCreatedAt(offlineOrder.getCreatedAt());
+
+            if (offlineItem.getProductId() != null && offlineItem.getProductVariationId() == null) {
+                Product product = context.getProduct(offlineItem.getProductId());
+                orderItem.setProduct(product);
+                productDemand.merge(product.getId(), offlineItem.getQuantity(), Integer::sum);
+            }
+            else if (offlineItem.getProductVariationId() != null && offlineItem.getProductId() == null) {
+                ProductVariation productVariation = context.getProductVariation(offlineItem.getProductVariationId());
+                orderItem.setProduct(productVariation.getProduct());
+                orderItem.setProductVariation(productVariation);
+                productVariationDemand.merge(productVariation.getId(), offlineItem.getQuantity(), Integer::sum);
+            }
+            else {
+                throw new IllegalRequestException("Order item takes one of productId or productVariationId");
+            }
+            order.getItems().add(orderItem);
+        }
+
+        context.verifyStock(productDemand, context.productStock, "product");
+        context.verifyStock(productVariationDemand, context.productVariationStock, "product variation");
+
+        BigDecimal amountPaid = BigDecimal.ZERO;
+        for (OfflineTransactionDTO offlineTransaction : offlineOrder.getTransactions()) {
+            Transaction transaction = new Transaction();
+            transaction.setOrder(order);
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setPaymentMethod(PaymentMethodType.valueOf(offlineTransaction.getPaymentMethodType().toUpperCase()));
+            transaction.setAmount(offlineTransaction.getAmount());
+            transaction.setCreatedAt(offlineTransaction.getCreatedAt() != null ? offlineTransaction.getCreatedAt() : offlineOrder.getCreatedAt());
+            transaction.setCompletedAt(context.syncedAt);
+            order.getTransactions().add(transaction);
+            amountPaid = amountPaid.add(offlineTransaction.getAmount());
+        }
+
+        // The status is set first, so order charges are read from the order itself
+        orderTotalsService.calculateTotals(order, amountPaid);
+        if (order.getAmountPaid().compareTo(order.getAmountDue()) < 0)
+            throw new IllegalRequestException("Transactions of " + order.getAmountPaid() + " do not cover the amount due of " + order.getAmountDue());
+
+        context.take(order);
+    }
+
+    private List<OrderCharge> getOrderCharges(OfflineOrderDTO offlineOrder, SyncContext context) {
+        if (offlineOrder.getOrderChargeIds() == null) {
+            return new ArrayList<>();
+        }
+
+        List<OrderCharge> orderCharges = new ArrayList<>();
+        for (UUID orderChargeId : new LinkedHashSet<>(offlineOrder.getOrderChargeIds())) {
+            OrderCharge orderCharge = context.orderCharges.get(orderChargeId);
+            if (orderCharge == null || !orderCharge.getMerchant().getId().equals(context.merchant.getId()))
+                throw new IllegalRequestException("Order charge " + orderChargeId + " not found");
+            orderCharges.add(orderCharge);
+        }
+        return orderCharges;
+    }
+
+    private void saveOrders(SyncContext context) {
+        if (context.synced.isEmpty()) {
+            return;
+        }
+
+        orderRepository.saveAll(context.synced);
+
+        List<UUID> orderChargeIds = new ArrayList<>();
+        List<UUID> orderIds = new ArrayList<>();
+        for (Order order : context.synced) {
+            for (OrderCharge orderCharge : order.getCharges()) {
+                orderChargeIds.add(orderCharge.getId());
+                orderIds.add(order.getId());
+            }
+        }
+        if (!orderChargeIds.isEmpty()) {
+            orderChargeRepository.addToOrders(orderChargeIds.toArray(UUID[]::new), orderIds.toArray(UUID[]::new));
+        }
+
+        // Stock is locked, so the adjustments can't fail on quantities checked above
+        productService.adjustProductQuantities(negate(context.productTaken));
+        productVariationService.adjustProductVariationQuantities(negate(context.productVariationTaken));
+        inventoryLogService.logOrderItems(context.merchant.getId(), context.soldItems);
+        salesRollupService.recordSyncedOrders(context.synced);
+    }
+
+    private static Map<UUID, Integer> negate(Map<UUID, Integer> quantities) {
+        Map<UUID, Integer> adjustments = new HashMap<>();
+        quantities.forEach((id, quantity) -> adjustments.put(id, -quantity));
+        return adjustments;
+    }
+
+    private OrderSyncResultDTO mapToResultDTO(UUID clientOrderId, OrderSyncStatus status, String message) {
+        OrderSyncResultDTO resultDTO = new OrderSyncResultDTO();
+        resultDTO.setClientOrderId(clientOrderId);
+        resultDTO.setStatus(status.name());
+        resultDTO.setMessage(message);
+        return resultDTO;
+    }
+
+    // Everything the orders of one sync share, loaded once up front: earlier synced orders, locked stock and order charges
+    private class SyncContext {
+        private final Merchant merchant;
+        private final LocalDateTime syncedAt = LocalDateTime.now();
+        private final Map<UUID, UUID> orderIdsByClientOrderId = new HashMap<>();
+        private final Map<UUID, Order> syncedByClientOrderId = new HashMap<>();
+        private final List<Order> synced = new ArrayList<>();
+
+        private final Map<UUID, Product> products;
+        private final Map<UUID, ProductVariation> productVariations;
+        private final Map<UUID, OrderCharge> orderCharges = new HashMap<>();
+
+        private final Map<UUID, Integer> productStock = new HashMap<>();
+        private final Map<UUID, Integer> productVariationStock = new HashMap<>();
+        private final Map<UUID, Integer> productTaken = new HashMap<>();
+        private final Map<UUID, Integer> productVariationTaken = new HashMap<>();
+        private final List<OrderItem> soldItems = new ArrayList<>();
+
+        SyncContext(Merchant merchant, List<OfflineOrderDTO> offlineOrders) {
+            this.merchant = merchant;
+
+            Set<UUID> clientOrderIds = new HashSet<>();
+            Set<UUID> productIds = new HashSet<>();
+            Set<UUID> productVariationIds = new HashSet<>();
+            Set<UUID> orderChargeIds = new HashSet<>();
+            for (OfflineOrderDTO offlineOrder : offlineOrders) {
+                clientOrderIds.add(offlineOrder.getClientOrderId());
+                for (OfflineOrderItemDTO offlineItem : offlineOrder.getItems()) {
+                    if (offlineItem.getProductId() != null) {
+                        productIds.add(offlineItem.getProductId());
+                    }
+                    if (offlineItem.getProductVariationId() != null) {
+                        productVariationIds.add(offlineItem.getProductVariationId());
+                    }
+                }
+                if (offlineOrder.getOrderChargeIds() != null) {
+                    orderChargeIds.addAll(offlineOrder.getOrderChargeIds());
+                }
+            }
+
+            // A replay of the same batch running at the same time waits here, then finds these orders as duplicates
+            orderRepository.lockOrderSync(merchant.getId());
+            orderRepository.findAllByMerchantIdAndClientOrderIdIn(merchant.getId(), clientOrderIds)
+                           .forEach(order -> orderIdsByClientOrderId.put(order.getClientOrderId(), order.getId()));
+
+            products = productService.getProductEntitiesByIdForUpdate(productIds);
+            productVariations = productVariationService.getProductVariationEntitiesByIdForUpdate(productVariationIds);
+            products.values().forEach(product -> productStock.put(product.getId(), product.getQuantity()));
+            productVariations.values().forEach(productVariation -> productVariationStock.put(productVariation.getId(), productVariation.getQuantity()));
+
+            orderChargeRepository.findAllById(orderChargeIds)
+                                 .forEach(orderCharge -> orderCharges.put(orderCharge.getId(), orderCharge));
+        }
+
+        // Synced before, or earlier in this batch
+        boolean isDuplicate(UUID clientOrderId) {
+            return orderIdsByClientOrderId.containsKey(clientOrderId) || syncedByClientOrderId.containsKey(clientOrderId);
+        }
+
+        UUID getOrderId(UUID clientOrderId) {
+            Order order = syncedByClientOrderId.get(clientOrderId);
+            return order != null ? order.getId() : orderIdsByClientOrderId.get(clientOrderId);
+        }
+
+        Product getProduct(UUID productId) {
+            Product product = products.get(productId);
+            if (product == null || !product.getCategory().getMerchant().getId().equals(merchant.getId()))
+                throw new IllegalRequestException("Product " + productId + " not found");
+            return product;
+        }
+
+        ProductVariation getProductVariation(UUID productVariationId) {
+            ProductVariation productVariation = productVariations.get(productVariationId);
+            if (productVariation == null || !productVariation.getProduct().getCategory().getMerchant().getId().equals(merchant.getId()))
+                throw new IllegalRequestException("Product variation " + productVariationId + " not found");
+            return productVariation;
+        }
+
+        void verifyStock(Map<UUID, Integer> demand, Map<UUID, Integer> stock, String stockName) {
+            demand.forEach((id, quantity) -> {
+                if (stock.get(id) < quantity)
+                    throw new IllegalRequestException("Not enough stock of " + stockName + " " + id);
+            });
+        }
+
+        // Stock left is tracked for the orders later in the batch, each line is logged as taken
+        void take(Order order) {
+            for (OrderItem orderItem : order.getItems()) {
+                if (orderItem.getProductVariation() != null) {
+                    UUID productVariationId = orderItem.getProductVariation().getId();
+                    productVariationStock.merge(productVariationId, -orderItem.getQuantity(), Integer::sum);
+                    productVariationTaken.merge(productVariationId, orderItem.getQuantity(), Integer::sum);
+                }
+                else {
+                    UUID productId = orderItem.getProduct().getId();
+                    productStock.merge(productId, -orderItem.getQuantity(), Integer::sum);
+                    productTaken.merge(productId, orderItem.getQuantity(), Integer::sum);
+                }
+                soldItems.add(orderItem);
+            }
+
+            synced.add(order);
+            syncedByClientOrderId.put(order.getClientOrderId(), order);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.team1206.pos.user.merchant.Merchant;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,6 +19,8 @@ import java.util.UUID;
 @Setter
 @Entity
 @Table(name = "\"charge\"")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "charge")
 public class Charge {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID) // Auto-generate UUID
@@ -46,11 +50,13 @@ public class Charge {
     private Boolean isActive = true;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "charge-products")
     @JoinTable(name = "charges_products", joinColumns = @JoinColumn(name = "charge_id"),
             inverseJoinColumns = @JoinColumn(name = "product_id"))
     private List<Product> products;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "charge-services")
     @JoinTable(name = "charges_services", joinColumns = @JoinColumn(name = "charge_id"),
             inverseJoinColumns = @JoinColumn(name = "service_id"))
     private List<Service> services;
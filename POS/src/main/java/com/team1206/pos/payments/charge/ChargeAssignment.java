@@ -0,0 +1,7 @@
+package com.team1206.pos.payments.charge;
+
+import java.util.UUID;
+
+// Charge together with the id of the product or service it is assigned to
+public record ChargeAssignment(UUID ownerId, Charge charge) {
+}
@@ -1,6 +1,7 @@
 package com.team1206.pos.payments.charge;
 
 import com.team1206.pos.common.validation.OneOf;
+import com.team1206.pos.common.dto.CursorPageDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +39,20 @@ public class ChargeController {
         return response;
     }
 
+    @GetMapping("/charges/scroll")
+    @Operation(summary = "Get charges by cursor")
+    public ResponseEntity<CursorPageDTO<ChargeResponseDTO>> scrollCharges(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "chargeType", required = false) String chargeType) {
+        log.info("Received scroll charges request: cursor={} limit={} chargeType={}", cursor, limit, chargeType);
+
+        CursorPageDTO<ChargeResponseDTO> response = chargeService.scrollCharges(cursor, limit, chargeType);
+
+        log.debug("Returning {} to scroll charges request (cursor={} limit={} chargeType={})", response, cursor, limit, chargeType);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/charges")
     @Operation(summary = "Create a new charge")
     public ResponseEntity<ChargeResponseDTO> createCharge(@Valid @RequestBody ChargeRequestDTO request) {
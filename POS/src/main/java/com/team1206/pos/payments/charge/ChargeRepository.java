@@ -3,21 +3,43 @@ package com.team1206.pos.payments.charge;
 import com.team1206.pos.common.enums.ChargeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface ChargeRepository extends JpaRepository<Charge, UUID> {
-    @Query("SELECT c FROM Charge c WHERE " +
+    // The WHERE clause of findAllWithFilters and its cursor variant
+    String FILTERED = "SELECT c FROM Charge c WHERE " +
             "(:chargeType IS NULL OR c.type = :chargeType) AND " +
-            "(:merchantId IS NULL OR c.merchant.id = :merchantId)")
+            "(:merchantId IS NULL OR c.merchant.id = :merchantId)";
+
+    @Query(FILTERED)
     Page<Charge> findAllWithFilters(@Param("chargeType") ChargeType chargeType,
                                     @Param("merchantId") UUID merchantId,
                                     Pageable pageable);
 
     @Query("SELECT c FROM Charge c WHERE (:merchantId IS NULL OR c.merchant.id = :merchantId)")
     Page<Charge> findAllWithFilters(@Param("merchantId") UUID merchantId, Pageable pageable);
+
+    // Cursor variant of findAllWithFilters, rows after the cursor in KeysetCursor.NEWEST_FIRST order without a count query
+    @Query(FILTERED + " " +
+            "AND c.createdAt <= :cursorCreatedAt AND (c.createdAt < :cursorCreatedAt OR c.id < :cursorId)")
+    Slice<Charge> findAllWithFiltersAfter(@Param("chargeType") ChargeType chargeType,
+                                          @Param("merchantId") UUID merchantId,
+                                          @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                          @Param("cursorId") UUID cursorId,
+                                          Pageable pageable);
+
+    @Query("SELECT new com.team1206.pos.payments.charge.ChargeAssignment(p.id, c) " +
+            "FROM Charge c JOIN c.products p WHERE c.merchant.id = :merchantId")
+    List<ChargeAssignment> findAllProductAssignmentsByMerchantId(@Param("merchantId") UUID merchantId);
+
+    @Query("SELECT new com.team1206.pos.payments.charge.ChargeAssignment(s.id, c) " +
+            "FROM Charge c JOIN c.services s WHERE c.merchant.id = :merchantId")
+    List<ChargeAssignment> findAllServiceAssignmentsByMerchantId(@Param("merchantId") UUID merchantId);
 }
@@ -1,11 +1,15 @@
 package com.team1206.pos.payments.charge;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import com.team1206.pos.common.enums.ChargeType;
 import com.team1206.pos.common.enums.ResourceType;
+import com.team1206.pos.common.pagination.KeysetCursor;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
 import com.team1206.pos.exceptions.UnauthorizedActionException;
 import com.team1206.pos.inventory.product.Product;
 import com.team1206.pos.inventory.product.ProductService;
+import com.team1206.pos.order.order.OrderTotalsService;
+import com.team1206.pos.order.order.PricingRuleCache;
 import com.team1206.pos.service.service.Service;
 import com.team1206.pos.service.service.ServiceService;
 import com.team1206.pos.user.merchant.Merchant;
@@ -15,6 +19,7 @@ import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDateTime;
@@ -30,17 +35,23 @@ public class ChargeService {
     private final UserService userService;
     private final ProductService productService;
     private final ServiceService serviceService;
+    private final PricingRuleCache pricingRuleCache;
+    private final OrderTotalsService orderTotalsService;
 
     public ChargeService(ChargeRepository chargeRepository,
                          MerchantService merchantService,
                          UserService userService,
                          ProductService productService,
-                         ServiceService serviceService) {
+                         ServiceService serviceService,
+                         PricingRuleCache pricingRuleCache,
+                         OrderTotalsService orderTotalsService) {
         this.chargeRepository = chargeRepository;
         this.merchantService = merchantService;
         this.userService = userService;
         this.productService = productService;
         this.serviceService = serviceService;
+        this.pricingRuleCache = pricingRuleCache;
+        this.orderTotalsService = orderTotalsService;
     }
 
     // Get charges by merchantId paginated
@@ -69,6 +80,18 @@ public class ChargeService {
         return chargePage.map(this::mapToResponseDTO);
     }
 
+    // Get charges page by cursor, chargeType is optional
+    public CursorPageDTO<ChargeResponseDTO> scrollCharges(String cursor, int limit, String chargeType) {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        ChargeType type = chargeType != null ? ChargeType.valueOf(chargeType.toUpperCase()) : null;
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+
+        Slice<Charge> charges = chargeRepository.findAllWithFiltersAfter(type, merchantId, after.createdAt(), after.id(),
+                                                                         KeysetCursor.firstRows(limit));
+
+        return CursorPageDTO.of(charges, charge -> new KeysetCursor(charge.getCreatedAt(), charge.getId()), this::mapToResponseDTO);
+    }
+
     // Create charge
     public ChargeResponseDTO createCharge(ChargeRequestDTO request) {
         UUID merchantId = userService.getMerchantIdFromLoggedInUser();
@@ -78,6 +101,7 @@ public class ChargeService {
 
         Charge charge = mapToEntity(request, merchant);
         Charge savedCharge = chargeRepository.save(charge);
+        pricingRuleCache.invalidate(merchantId);
 
         return mapToResponseDTO(savedCharge);
     }
@@ -100,6 +124,8 @@ public class ChargeService {
         setChargeFieldsFromRequestDTO(charge, request);
 
         Charge updatedCharge = chargeRepository.save(charge);
+        pricingRuleCache.invalidate(updatedCharge.getMerchant().getId());
+        orderTotalsService.recalculateOpenOrders(updatedCharge.getMerchant().getId());
 
         return mapToResponseDTO(updatedCharge);
     }
@@ -156,6 +182,8 @@ public class ChargeService {
 
         charge.getProducts().add(product);
         chargeRepository.save(charge);
+        pricingRuleCache.invalidate(merchantId);
+        orderTotalsService.recalculateOpenOrders(merchantId);
     }
 
     // Remove charge from product
@@ -175,6 +203,8 @@ public class ChargeService {
             throw new IllegalArgumentException("Charge is not applied to product");
 
         chargeRepository.save(charge);
+        pricingRuleCache.invalidate(merchantId);
+        orderTotalsService.recalculateOpenOrders(merchantId);
     }
 
     // Get charges of a service
@@ -205,6 +235,8 @@ public class ChargeService {
 
         charge.getServices().add(service);
         chargeRepository.save(charge);
+        pricingRuleCache.invalidate(merchantId);
+        orderTotalsService.recalculateOpenOrders(merchantId);
     }
 
     // Remove charge from service
@@ -224,6 +256,8 @@ public class ChargeService {
             throw new IllegalArgumentException("Charge is not applied to service");
 
         chargeRepository.save(charge);
+        pricingRuleCache.invalidate(merchantId);
+        orderTotalsService.recalculateOpenOrders(merchantId);
     }
 
     // Service layer
@@ -289,7 +323,7 @@ public class ChargeService {
         return charge;
     }
 
-    private ChargeResponseDTO mapToResponseDTO(Charge charge) {
+    ChargeResponseDTO mapToResponseDTO(Charge charge) {
         ChargeResponseDTO responseDTO = new ChargeResponseDTO();
         responseDTO.setId(charge.getId());
         responseDTO.setChargeType(charge.getType().name());
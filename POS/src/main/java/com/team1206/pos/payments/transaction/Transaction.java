@@ -2,6 +2,7 @@ package com.team1206.pos.payments.transaction;
 
 import com.team1206.pos.common.enums.PaymentMethodType;
 import com.team1206.pos.common.enums.TransactionStatus;
+import com.team1206.pos.common.id.UuidV7;
 import com.team1206.pos.order.order.Order;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
@@ -18,7 +19,7 @@ import java.util.UUID;
 @Table(name = "\"transaction\"")
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
@@ -37,6 +38,13 @@ public class Transaction {
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    // Set when the payment is completed and when it is refunded, register reports count it in those periods
+    @Column(name = "completed_at", nullable = true)
+    private LocalDateTime completedAt;
+
+    @Column(name = "refunded_at", nullable = true)
+    private LocalDateTime refundedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
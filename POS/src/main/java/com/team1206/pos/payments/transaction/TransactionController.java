@@ -1,5 +1,6 @@
 package com.team1206.pos.payments.transaction;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -56,6 +57,24 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/transactions/scroll")
+    @Operation(summary = "Get transactions by cursor")
+    public ResponseEntity<CursorPageDTO<TransactionResponseDTO>> scrollTransactions(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "orderId") UUID orderId,
+            @RequestParam(value = "paymentMethodType", required = false) String paymentMethodType,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "amount", required = false) BigDecimal amount
+    ) {
+        log.info("Received scroll transactions request: cursor={} limit={} orderId={}", cursor, limit, orderId);
+
+        CursorPageDTO<TransactionResponseDTO> transactions = transactionService.scrollTransactions(cursor, limit, orderId, paymentMethodType, status, amount);
+
+        log.debug("Returning {} to scroll transactions request (cursor={} limit={} orderId={})", transactions, cursor, limit, orderId);
+        return ResponseEntity.ok(transactions);
+    }
+
     @PostMapping("/{orderId}/transactions")
     @Operation(summary = "Create transaction for order")
     public ResponseEntity<TransactionResponseDTO> createTransaction(
@@ -4,19 +4,27 @@ import com.team1206.pos.common.enums.PaymentMethodType;
 import com.team1206.pos.common.enums.TransactionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+    // The WHERE clause of the filtered offset query and its cursor variant
+    String FILTERED = "SELECT t FROM Transaction t WHERE " +
+            "(:orderId IS NULL OR t.order.id = :orderId) AND " +
+            "(:paymentMethodType IS NULL OR t.paymentMethod = :paymentMethodType) AND " +
+            "(:status IS NULL OR t.status = :status) AND " +
+            "(:amount IS NULL OR t.amount = :amount)";
 
     @Query("SELECT t FROM Transaction t WHERE " + "(:orderId IS NULL OR t.order.id = :orderId)")
     Page<Transaction> findAllWithFilters(@Param("orderId") UUID orderId, Pageable pageable);
 
-    @Query("SELECT t FROM Transaction t WHERE " + "(:orderId IS NULL OR t.order.id = :orderId) AND " + "(:paymentMethodType IS NULL OR t.paymentMethod = :paymentMethodType) AND " + "(:status IS NULL OR t.status = :status) AND " + "(:amount IS NULL OR t.amount = :amount)")
+    @Query(FILTERED)
     Page<Transaction> findAllWithFilters(
             @Param("orderId") UUID orderId,
             @Param("paymentMethodType") PaymentMethodType paymentMethod,
@@ -25,4 +33,19 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
             Pageable pageable
     );
 
+    // Cursor variant of findAllWithFilters, rows after the cursor in KeysetCursor.NEWEST_FIRST order without a count query
+    @Query(FILTERED + " " +
+            "AND t.createdAt <= :cursorCreatedAt AND (t.createdAt < :cursorCreatedAt OR t.id < :cursorId)")
+    Slice<Transaction> findAllWithFiltersAfter(
+            @Param("orderId") UUID orderId,
+            @Param("paymentMethodType") PaymentMethodType paymentMethod,
+            @Param("status") TransactionStatus status,
+            @Param("amount") BigDecimal amount,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable
+    );
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.order.id = :orderId AND t.status = :status")
+    BigDecimal sumAmountByOrderIdAndStatus(@Param("orderId") UUID orderId, @Param("status") TransactionStatus status);
 }
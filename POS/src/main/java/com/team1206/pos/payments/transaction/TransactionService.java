@@ -1,34 +1,47 @@
 package com.team1206.pos.payments.transaction;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import com.team1206.pos.common.enums.PaymentMethodType;
 import com.team1206.pos.common.enums.ResourceType;
 import com.team1206.pos.common.enums.TransactionStatus;
+import com.team1206.pos.common.pagination.KeysetCursor;
 import com.team1206.pos.exceptions.InvalidPaymentMethod;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
 import com.team1206.pos.order.order.Order;
 import com.team1206.pos.order.order.OrderService;
+import com.team1206.pos.order.order.OrderTotalsService;
+import com.team1206.pos.report.salesRollup.SalesRollupService;
 import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Service
 public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final OrderService orderService;
+    private final OrderTotalsService orderTotalsService;
     private final UserService userService;
+    private final SalesRollupService salesRollupService;
 
     public TransactionService(
             TransactionRepository transactionRepository,
             OrderService orderService,
-            UserService userService) {
+            OrderTotalsService orderTotalsService,
+            UserService userService,
+            SalesRollupService salesRollupService) {
         this.transactionRepository = transactionRepository;
         this.orderService = orderService;
+        this.orderTotalsService = orderTotalsService;
         this.userService = userService;
+        this.salesRollupService = salesRollupService;
     }
 
     // Get paged transactions
@@ -94,20 +107,45 @@ public class TransactionService {
         return transactionPage.map(this::mapToResponseDTO);
     }
 
+    // Get transactions page by cursor, without counting all matching transactions
+    public CursorPageDTO<TransactionResponseDTO> scrollTransactions(
+            String cursor,
+            int limit,
+            UUID orderId,
+            String paymentMethodType,
+            String status,
+            BigDecimal amount
+    ) {
+        Order order = orderService.getOrderEntityById(orderId);
+        userService.verifyLoggedInUserBelongsToMerchant(order.getMerchant().getId(), "You are not authorized to process this order");
+
+        PaymentMethodType paymentMethod =
+                (paymentMethodType != null && !paymentMethodType.isEmpty()) ? PaymentMethodType.valueOf(
+                        paymentMethodType.toUpperCase()) : null;
+
+        TransactionStatus transactionStatus =
+                (status != null && !status.isEmpty()) ? TransactionStatus.valueOf(status.toUpperCase()) : null;
+
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+        Slice<Transaction> transactions = transactionRepository.findAllWithFiltersAfter(
+                orderId,
+                paymentMethod,
+                transactionStatus,
+                amount,
+                after.createdAt(),
+                after.id(),
+                KeysetCursor.firstRows(limit)
+        );
+
+        return CursorPageDTO.of(transactions, transaction -> new KeysetCursor(transaction.getCreatedAt(), transaction.getId()), this::mapToResponseDTO);
+    }
+
     public BigDecimal getTotalPaidByOrder(UUID orderId)
     {
         Order order = orderService.getOrderEntityById(orderId);
         userService.verifyLoggedInUserBelongsToMerchant(order.getMerchant().getId(), "You are not authorized to process this order");
 
-        BigDecimal totalPaid = BigDecimal.ZERO;
-        for(Transaction transaction : transactionRepository.findAllWithFilters(orderId, null, null, null, null))
-        {
-            if(transaction.getStatus().equals(TransactionStatus.COMPLETED))
-            {
-                totalPaid = totalPaid.add(transaction.getAmount());
-            }
-        }
-        return totalPaid;
+        return orderTotalsService.ensureTotals(order).getAmountPaid();
     }
 
     // Create transaction
@@ -149,7 +187,11 @@ public class TransactionService {
     }
 
     // Mark transaction as completed
+    @Transactional
     public TransactionResponseDTO completeTransaction(UUID orderId, UUID transactionId) {
+        // The order is locked before the transaction loads it, so payments of one order are counted one at a time
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
+
         Transaction transaction = transactionRepository.findById(transactionId)
                                                        .orElseThrow(() -> new ResourceNotFoundException(
                                                                ResourceType.TRANSACTION,
@@ -158,42 +200,65 @@ public class TransactionService {
 
         userService.verifyLoggedInUserBelongsToMerchant(transaction.getOrder().getMerchant().getId(), "You are not authorized to process this order");
 
-
-        checkIfOrderExists(orderId);
-
         if (!transaction.getOrder().getId().equals(orderId)) {
             throw new ResourceNotFoundException(ResourceType.TRANSACTION, transactionId.toString());
         }
 
+        orderTotalsService.ensureTotals(order);
+        boolean newlyCompleted = transaction.getStatus() != TransactionStatus.COMPLETED;
+        if (newlyCompleted) {
+            orderTotalsService.addPayment(order, transaction.getAmount());
+            transaction.setCompletedAt(LocalDateTime.now());
+        }
+
         transaction.setStatus(TransactionStatus.COMPLETED);
 
 
         Transaction updatedTransaction = transactionRepository.save(transaction);
 
-        BigDecimal totalPaid = getTotalPaidByOrder(orderId);
         // Uzdaro Order jei uzmoketa suma >= reikiamos
-        if(totalPaid.compareTo(orderService.calculateFinalCheckoutAmount(orderId)) >= 0)
+        if(order.getAmountPaid().compareTo(order.getAmountDue()) >= 0)
             orderService.closeOrder(orderId);
 
+        // Recorded after the close, so the sales rollups are always written in the same order
+        if (newlyCompleted)
+            salesRollupService.recordPayment(updatedTransaction);
+
         return mapToResponseDTO(updatedTransaction);
     }
 
     // Refund transaction
+    @Transactional
     public TransactionResponseDTO refundTransaction(UUID orderId, UUID transactionId) {
+        Order order = orderService.getOrderEntityByIdForUpdate(orderId);
+
         Transaction transaction = transactionRepository.findById(transactionId)
                                                        .orElseThrow(() -> new ResourceNotFoundException(
                                                                ResourceType.TRANSACTION,
                                                                transactionId.toString()
                                                        ));
-        checkIfOrderExists(orderId);
 
         userService.verifyLoggedInUserBelongsToMerchant(transaction.getOrder().getMerchant().getId(), "You are not authorized to process this order");
 
+        if (!transaction.getOrder().getId().equals(orderId)) {
+            throw new ResourceNotFoundException(ResourceType.TRANSACTION, transactionId.toString());
+        }
+
         Transaction savedTransaction;
         if (transaction.getPaymentMethod().equals(PaymentMethodType.CASH)) {
+            orderTotalsService.ensureTotals(order);
+            boolean wasCompleted = transaction.getStatus() == TransactionStatus.COMPLETED;
+            if (wasCompleted) {
+                orderTotalsService.removePayment(order, transaction.getAmount());
+            }
+
             transaction.setStatus(TransactionStatus.REFUNDED);
+            transaction.setRefundedAt(LocalDateTime.now());
 
             savedTransaction = transactionRepository.save(transaction);
+            if (wasCompleted) {
+                salesRollupService.recordRefund(savedTransaction);
+            }
         }
         else {
             throw new InvalidPaymentMethod("Currently, only cash transactions can be refunded");
@@ -0,0 +1,45 @@
+package com.team1206.pos.report.export;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+// One column of an export, read from the current row by position. Null values are written as empty fields or JSON nulls.
+record ExportColumn(String name, boolean numeric, ValueReader reader) {
+    @FunctionalInterface
+    interface ValueReader {
+        String read(ResultSet resultSet, int index) throws SQLException;
+    }
+
+    static ExportColumn text(String name) {
+        return new ExportColumn(name, false, ResultSet::getString);
+    }
+
+    static ExportColumn number(String name) {
+        return new ExportColumn(name, true, (resultSet, index) -> {
+            BigDecimal value = resultSet.getBigDecimal(index);
+            return value != null ? value.toPlainString() : null;
+        });
+    }
+
+    static ExportColumn timestamp(String name) {
+        return new ExportColumn(name, false, (resultSet, index) -> {
+            Timestamp value = resultSet.getTimestamp(index);
+            return value != null ? value.toLocalDateTime().toString() : null;
+        });
+    }
+
+    // Enums stored by ordinal are exported by name
+    static <E extends Enum<E>> ExportColumn ordinal(String name, Class<E> enumType) {
+        E[] constants = enumType.getEnumConstants();
+        return new ExportColumn(name, false, (resultSet, index) -> {
+            int ordinal = resultSet.getInt(index);
+            return resultSet.wasNull() ? null : constants[ordinal].name();
+        });
+    }
+
+    String read(ResultSet resultSet, int index) throws SQLException {
+        return reader.read(resultSet, index);
+    }
+}
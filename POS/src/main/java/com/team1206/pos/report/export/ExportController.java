@@ -0,0 +1,60 @@
+package com.team1206.pos.report.export;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/exports")
+public class ExportController {
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/orders")
+    @Operation(summary = "Export orders created in the date range as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(value = "from") LocalDate from,
+            @RequestParam(value = "to") LocalDate to,
+            @RequestParam(value = "format", defaultValue = "CSV") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return toResponse(exportService.exportOrders(from, to, format, gzip));
+    }
+
+    @GetMapping("/transactions")
+    @Operation(summary = "Export transactions made in the date range as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(value = "from") LocalDate from,
+            @RequestParam(value = "to") LocalDate to,
+            @RequestParam(value = "format", defaultValue = "CSV") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return toResponse(exportService.exportTransactions(from, to, format, gzip));
+    }
+
+    @GetMapping("/inventoryLogs")
+    @Operation(summary = "Export inventory logs written in the date range as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportInventoryLogs(
+            @RequestParam(value = "from") LocalDate from,
+            @RequestParam(value = "to") LocalDate to,
+            @RequestParam(value = "format", defaultValue = "CSV") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return toResponse(exportService.exportInventoryLogs(from, to, format, gzip));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> toResponse(ExportFile file) {
+        return ResponseEntity.ok()
+                             .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(file.fileName()).build().toString())
+                             .contentType(file.contentType())
+                             .body(file.body());
+    }
+}
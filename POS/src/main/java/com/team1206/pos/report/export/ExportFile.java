@@ -0,0 +1,8 @@
+package com.team1206.pos.report.export;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// An export ready to stream, the rows are only read once the body is written
+public record ExportFile(String fileName, MediaType contentType, StreamingResponseBody body) {
+}
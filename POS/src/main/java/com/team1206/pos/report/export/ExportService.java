@@ -0,0 +1,145 @@
+package com.team1206.pos.report.export;
+
+import com.team1206.pos.common.enums.ExportFormat;
+import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.common.enums.PaymentMethodType;
+import com.team1206.pos.common.enums.TransactionStatus;
+import com.team1206.pos.user.user.UserService;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+// Streams a merchant's rows of a date range straight from the database to the response.
+// The driver reads through a cursor FETCH_SIZE rows at a time and every row is written as soon as it is read,
+// so memory use does not depend on how many rows are exported. Postgres only uses a cursor inside a transaction.
+@Service
+public class ExportService {
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private static final String ORDERS_SQL = "SELECT o.id, o.status, o.client_order_id, o.subtotal, o.charge_total, o.discount_total, " +
+            "o.tip, o.amount_due, o.amount_paid, o.created_at, o.updated_at FROM \"order\" o " +
+            "WHERE o.merchant_id = ? AND o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, o.id";
+    private static final List<ExportColumn> ORDER_COLUMNS = List.of(
+            ExportColumn.text("id"),
+            ExportColumn.ordinal("status", OrderStatus.class),
+            ExportColumn.text("clientOrderId"),
+            ExportColumn.number("subtotal"),
+            ExportColumn.number("chargeTotal"),
+            ExportColumn.number("discountTotal"),
+            ExportColumn.number("tip"),
+            ExportColumn.number("amountDue"),
+            ExportColumn.number("amountPaid"),
+            ExportColumn.timestamp("createdAt"),
+            ExportColumn.timestamp("updatedAt"));
+
+    private static final String TRANSACTIONS_SQL = "SELECT t.id, t.order_id, t.status, t.payment_method, t.amount, t.created_at, t.updated_at " +
+            "FROM transaction t JOIN \"order\" o ON o.id = t.order_id " +
+            "WHERE o.merchant_id = ? AND t.created_at >= ? AND t.created_at < ? ORDER BY t.created_at, t.id";
+    private static final List<ExportColumn> TRANSACTION_COLUMNS = List.of(
+            ExportColumn.text("id"),
+            ExportColumn.text("orderId"),
+            ExportColumn.ordinal("status", TransactionStatus.class),
+            ExportColumn.ordinal("paymentMethod", PaymentMethodType.class),
+            ExportColumn.number("amount"),
+            ExportColumn.timestamp("createdAt"),
+            ExportColumn.timestamp("updatedAt"));
+
+    private static final String INVENTORY_LOGS_SQL = "SELECT il.id, il.type, il.product_id, il.product_variation_id, il.\"order\", il.\"user\", " +
+            "il.adjustment, il.created_at FROM inventory_log il " +
+            "WHERE il.merchant_id = ? AND il.created_at >= ? AND il.created_at < ? ORDER BY il.created_at, il.id";
+    private static final List<ExportColumn> INVENTORY_LOG_COLUMNS = List.of(
+            ExportColumn.text("id"),
+            ExportColumn.text("type"),
+            ExportColumn.text("productId"),
+            ExportColumn.text("productVariationId"),
+            ExportColumn.text("orderId"),
+            ExportColumn.text("userId"),
+            ExportColumn.number("adjustment"),
+            ExportColumn.timestamp("createdAt"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserService userService;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager, UserService userService) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.userService = userService;
+    }
+
+    public ExportFile exportOrders(LocalDate from, LocalDate to, String format, boolean gzip) {
+        return export("orders", ORDERS_SQL, ORDER_COLUMNS, from, to, format, gzip);
+    }
+
+    public ExportFile exportTransactions(LocalDate from, LocalDate to, String format, boolean gzip) {
+        return export("transactions", TRANSACTIONS_SQL, TRANSACTION_COLUMNS, from, to, format, gzip);
+    }
+
+    public ExportFile exportInventoryLogs(LocalDate from, LocalDate to, String format, boolean gzip) {
+        return export("inventory-logs", INVENTORY_LOGS_SQL, INVENTORY_LOG_COLUMNS, from, to, format, gzip);
+    }
+
+    // *** Helper methods ***
+
+    // Everything that needs the logged in user is read here, the body is written later on another thread
+    private ExportFile export(String name, String sql, List<ExportColumn> columns,
+                              LocalDate from, LocalDate to, String format, boolean gzip) {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        ExportFormat exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start date must not be after the end date");
+        }
+
+        // The end date is included
+        Object[] args = {merchantId, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())};
+        String fileName = name + "-" + from + "-" + to + "." + exportFormat.name().toLowerCase() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? APPLICATION_GZIP : exportFormat == ExportFormat.CSV ? TEXT_CSV : APPLICATION_NDJSON;
+
+        return new ExportFile(fileName, contentType,
+                              outputStream -> transactionTemplate.executeWithoutResult(status -> write(outputStream, sql, args, columns, exportFormat, gzip)));
+    }
+
+    private void write(OutputStream outputStream, String sql, Object[] args, List<ExportColumn> columns, ExportFormat format, boolean gzip) {
+        try {
+            GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            ExportWriter exportWriter = ExportWriter.of(format, writer, columns);
+
+            exportWriter.writeHeader();
+            jdbcTemplate.query(sql, resultSet -> {
+                try {
+                    exportWriter.writeRow(resultSet);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args);
+            exportWriter.finish();
+
+            writer.flush();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
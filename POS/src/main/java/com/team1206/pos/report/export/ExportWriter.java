@@ -0,0 +1,128 @@
+package com.team1206.pos.report.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.team1206.pos.common.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Writes result set rows one at a time, nothing is kept between rows
+abstract class ExportWriter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    protected final Writer writer;
+    protected final List<ExportColumn> columns;
+
+    protected ExportWriter(Writer writer, List<ExportColumn> columns) {
+        this.writer = writer;
+        this.columns = columns;
+    }
+
+    static ExportWriter of(ExportFormat format, Writer writer, List<ExportColumn> columns) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvWriter(writer, columns);
+            case NDJSON -> new NdjsonWriter(writer, columns);
+        };
+    }
+
+    abstract void writeHeader() throws IOException;
+
+    abstract void writeRow(ResultSet resultSet) throws IOException, SQLException;
+
+    abstract void finish() throws IOException;
+
+    // RFC 4180: fields with a separator, quote or line break are quoted, quotes inside are doubled
+    private static class CsvWriter extends ExportWriter {
+        CsvWriter(Writer writer, List<ExportColumn> columns) {
+            super(writer, columns);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                writeField(i, columns.get(i).name());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRow(ResultSet resultSet) throws IOException, SQLException {
+            for (int i = 0; i < columns.size(); i++) {
+                writeField(i, columns.get(i).read(resultSet, i + 1));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(int index, String value) throws IOException {
+            if (index > 0) {
+                writer.write(',');
+            }
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    // One JSON object per line, numbers are written as numbers
+    private static class NdjsonWriter extends ExportWriter {
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        NdjsonWriter(Writer writer, List<ExportColumn> columns) throws IOException {
+            super(writer, columns);
+            this.generator = JSON_FACTORY.createGenerator(writer);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        void writeHeader() {
+            // Every line carries its own field names
+        }
+
+        @Override
+        void writeRow(ResultSet resultSet) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                ExportColumn column = columns.get(i);
+                String value = column.read(resultSet, i + 1);
+                generator.writeFieldName(column.name());
+                if (value == null) {
+                    generator.writeNull();
+                }
+                else if (column.numeric()) {
+                    generator.writeNumber(value);
+                }
+                else {
+                    generator.writeString(value);
+                }
+            }
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
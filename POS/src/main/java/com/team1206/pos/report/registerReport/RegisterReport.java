@@ -0,0 +1,107 @@
+package com.team1206.pos.report.registerReport;
+
+import com.team1206.pos.common.enums.RegisterReportType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Totals of a register period as they were when the report was taken, rows are only written by RegisterReportRepository.create.
+// Sales figures count closed orders, payment figures count transactions made in the period by their current status.
+@Getter
+@Entity
+@Immutable
+@Table(name = "register_report")
+public class RegisterReport {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private UUID merchantId;
+
+    @Column(name = "type", nullable = false)
+    @Enumerated(EnumType.ORDINAL)
+    private RegisterReportType type;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Column(name = "created_by", nullable = true)
+    private UUID createdBy;
+
+    @Column(name = "order_count", nullable = false)
+    private int orderCount;
+
+    @Column(name = "open_order_count", nullable = false)
+    private int openOrderCount;
+
+    @Column(name = "closed_order_count", nullable = false)
+    private int closedOrderCount;
+
+    @Column(name = "refunded_order_count", nullable = false)
+    private int refundedOrderCount;
+
+    @Column(name = "cancelled_order_count", nullable = false)
+    private int cancelledOrderCount;
+
+    @Column(name = "items_sold", nullable = false)
+    private int itemsSold;
+
+    @Column(name = "subtotal", nullable = false, precision = 19, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(name = "tax_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal taxTotal;
+
+    @Column(name = "charge_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal chargeTotal;
+
+    @Column(name = "discount_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal discountTotal;
+
+    @Column(name = "tip_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal tipTotal;
+
+    @Column(name = "amount_due", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amountDue;
+
+    @Column(name = "open_amount_due", nullable = false, precision = 19, scale = 2)
+    private BigDecimal openAmountDue;
+
+    @Column(name = "completed_count", nullable = false)
+    private int completedCount;
+
+    @Column(name = "completed_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal completedAmount;
+
+    @Column(name = "refunded_count", nullable = false)
+    private int refundedCount;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal refundedAmount;
+
+    @Column(name = "pending_count", nullable = false)
+    private int pendingCount;
+
+    @Column(name = "pending_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal pendingAmount;
+
+    @Column(name = "cash_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal cashAmount;
+
+    @Column(name = "card_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal cardAmount;
+
+    @Column(name = "gift_card_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal giftCardAmount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,41 @@
+package com.team1206.pos.report.registerReport;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reports/register")
+public class RegisterReportController {
+    private final RegisterReportService registerReportService;
+
+    public RegisterReportController(RegisterReportService registerReportService) {
+        this.registerReportService = registerReportService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Take an X-report of the open register period or a Z-report closing it")
+    public ResponseEntity<RegisterReportResponseDTO> createRegisterReport(
+            @RequestParam(value = "type", defaultValue = "X") String type) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(registerReportService.createRegisterReport(type));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get paged register reports, newest first")
+    public ResponseEntity<Page<RegisterReportResponseDTO>> getRegisterReports(
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "type", required = false) String type) {
+        return ResponseEntity.ok(registerReportService.getRegisterReports(limit, offset, type));
+    }
+
+    @GetMapping("/{reportId}")
+    @Operation(summary = "Get a stored register report")
+    public ResponseEntity<RegisterReportResponseDTO> getRegisterReport(@PathVariable UUID reportId) {
+        return ResponseEntity.ok(registerReportService.getRegisterReport(reportId));
+    }
+}
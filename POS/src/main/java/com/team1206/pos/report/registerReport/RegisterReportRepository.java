@@ -0,0 +1,102 @@
+package com.team1206.pos.report.registerReport;
+
+import com.team1206.pos.common.enums.RegisterReportType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RegisterReportRepository extends JpaRepository<RegisterReport, UUID> {
+    @Query("SELECT r FROM RegisterReport r WHERE r.merchantId = :merchantId AND (:type IS NULL OR r.type = :type) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    Page<RegisterReport> findAllWithFilters(@Param("merchantId") UUID merchantId,
+                                            @Param("type") RegisterReportType type,
+                                            Pageable pageable);
+
+    // The type is written as a literal, so the partial index on Z-reports can serve the query
+    @Query("SELECT MAX(r.periodEnd) FROM RegisterReport r " +
+            "WHERE r.merchantId = :merchantId AND r.type = com.team1206.pos.common.enums.RegisterReportType.Z")
+    Optional<LocalDateTime> findLastZPeriodEnd(@Param("merchantId") UUID merchantId);
+
+    // Sums the period and stores the report in one statement, so the totals are read from a single snapshot of the tables.
+    // Sales count in the period their order was closed in and payments in the periods they were completed and refunded in,
+    // so consecutive Z-reports add up to the takings. Orders not closed yet count in the period they were opened in.
+    // Ordinals: order status OPEN 0, CLOSED 1, REFUNDED 2, CANCELLED 3; transaction status PENDING 0;
+    // payment method CASH 0, PAYMENT_CARD 1, GIFT_CARD 2; charge type TAX 0.
+    // Tax is the total stored on each order when it was closed, so later price changes don't alter past reports.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "register_report"))
+    @Query(value = "WITH orders AS (" +
+            "    SELECT o.id, o.status, o.closed_at, o.subtotal, o.tax_total, o.charge_total, o.discount_total, o.tip, o.amount_due " +
+            "    FROM \"order\" o " +
+            "    WHERE o.merchant_id = :merchantId " +
+            "      AND (o.closed_at >= :periodStart AND o.closed_at < :periodEnd " +
+            "           OR o.closed_at IS NULL AND o.created_at >= :periodStart AND o.created_at < :periodEnd)), " +
+            "order_totals AS (" +
+            "    SELECT COUNT(*) AS order_count, " +
+            "           COUNT(*) FILTER (WHERE status = 0) AS open_order_count, " +
+            "           COUNT(*) FILTER (WHERE closed_at IS NOT NULL) AS closed_order_count, " +
+            "           COUNT(*) FILTER (WHERE status = 2) AS refunded_order_count, " +
+            "           COUNT(*) FILTER (WHERE status = 3) AS cancelled_order_count, " +
+            "           COALESCE(SUM(subtotal) FILTER (WHERE closed_at IS NOT NULL), 0) AS subtotal, " +
+            "           COALESCE(SUM(tax_total) FILTER (WHERE closed_at IS NOT NULL), 0) AS tax_total, " +
+            "           COALESCE(SUM(charge_total) FILTER (WHERE closed_at IS NOT NULL), 0) AS charge_total, " +
+            "           COALESCE(SUM(discount_total) FILTER (WHERE closed_at IS NOT NULL), 0) AS discount_total, " +
+            "           COALESCE(SUM(tip) FILTER (WHERE closed_at IS NOT NULL), 0) AS tip_total, " +
+            "           COALESCE(SUM(amount_due) FILTER (WHERE closed_at IS NOT NULL), 0) AS amount_due, " +
+            "           COALESCE(SUM(amount_due) FILTER (WHERE status = 0), 0) AS open_amount_due " +
+            "    FROM orders), " +
+            "item_totals AS (" +
+            "    SELECT COALESCE(SUM(CASE WHEN oi.reservation_id IS NOT NULL THEN 1 ELSE oi.quantity END), 0) AS items_sold " +
+            "    FROM orders o JOIN order_item oi ON oi.order_id = o.id " +
+            "    WHERE o.closed_at IS NOT NULL), " +
+            "transactions AS (" +
+            "    SELECT t.payment_method, t.amount, " +
+            "           t.completed_at >= :periodStart AND t.completed_at < :periodEnd AS completed, " +
+            "           t.completed_at IS NOT NULL AND t.refunded_at >= :periodStart AND t.refunded_at < :periodEnd AS refunded, " +
+            "           t.status = 0 AND t.created_at >= :periodStart AND t.created_at < :periodEnd AS pending " +
+            "    FROM transaction t JOIN \"order\" o ON o.id = t.order_id " +
+            "    WHERE o.merchant_id = :merchantId " +
+            "      AND (t.completed_at >= :periodStart AND t.completed_at < :periodEnd " +
+            "           OR t.refunded_at >= :periodStart AND t.refunded_at < :periodEnd " +
+            "           OR t.created_at >= :periodStart AND t.created_at < :periodEnd)), " +
+            "transaction_totals AS (" +
+            "    SELECT COUNT(*) FILTER (WHERE completed) AS completed_count, " +
+            "           COALESCE(SUM(amount) FILTER (WHERE completed), 0) AS completed_amount, " +
+            "           COUNT(*) FILTER (WHERE refunded) AS refunded_count, " +
+            "           COALESCE(SUM(amount) FILTER (WHERE refunded), 0) AS refunded_amount, " +
+            "           COUNT(*) FILTER (WHERE pending) AS pending_count, " +
+            "           COALESCE(SUM(amount) FILTER (WHERE pending), 0) AS pending_amount, " +
+            "           COALESCE(SUM(amount) FILTER (WHERE completed AND payment_method = 0), 0) AS cash_amount, " +
+            "           COALESCE(SUM(amount) FILTER (WHERE completed AND payment_method = 1), 0) AS card_amount, " +
+            "           COALESCE(SUM(amount) FILTER (WHERE completed AND payment_method = 2), 0) AS gift_card_amount " +
+            "    FROM transactions) " +
+            "INSERT INTO register_report (id, merchant_id, type, period_start, period_end, created_by, " +
+            "    order_count, open_order_count, closed_order_count, refunded_order_count, cancelled_order_count, items_sold, " +
+            "    subtotal, tax_total, charge_total, discount_total, tip_total, amount_due, open_amount_due, " +
+            "    completed_count, completed_amount, refunded_count, refunded_amount, pending_count, pending_amount, " +
+            "    cash_amount, card_amount, gift_card_amount, created_at) " +
+            "SELECT :id, :merchantId, :type, :periodStart, :periodEnd, CAST(:createdBy AS uuid), " +
+            "    ot.order_count, ot.open_order_count, ot.closed_order_count, ot.refunded_order_count, ot.cancelled_order_count, it.items_sold, " +
+            "    ot.subtotal, ot.tax_total, ot.charge_total, ot.discount_total, ot.tip_total, ot.amount_due, ot.open_amount_due, " +
+            "    tt.completed_count, tt.completed_amount, tt.refunded_count, tt.refunded_amount, tt.pending_count, tt.pending_amount, " +
+            "    tt.cash_amount, tt.card_amount, tt.gift_card_amount, :periodEnd " +
+            "FROM order_totals ot, item_totals it, transaction_totals tt", nativeQuery = true)
+    int create(@Param("id") UUID id,
+               @Param("merchantId") UUID merchantId,
+               @Param("type") int type,
+               @Param("periodStart") LocalDateTime periodStart,
+               @Param("periodEnd") LocalDateTime periodEnd,
+               @Param("createdBy") UUID createdBy);
+}
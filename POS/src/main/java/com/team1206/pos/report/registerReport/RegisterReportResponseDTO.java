@@ -0,0 +1,39 @@
+package com.team1206.pos.report.registerReport;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class RegisterReportResponseDTO {
+    private UUID id;
+    private String type;
+    private LocalDateTime periodStart;
+    private LocalDateTime periodEnd;
+    private UUID createdBy;
+    private int orderCount;
+    private int openOrderCount;
+    private int closedOrderCount;
+    private int refundedOrderCount;
+    private int cancelledOrderCount;
+    private int itemsSold;
+    private BigDecimal subtotal;
+    private BigDecimal taxTotal;
+    private BigDecimal chargeTotal;
+    private BigDecimal discountTotal;
+    private BigDecimal tipTotal;
+    private BigDecimal amountDue;
+    private BigDecimal openAmountDue;
+    private int completedCount;
+    private BigDecimal completedAmount;
+    private int refundedCount;
+    private BigDecimal refundedAmount;
+    private int pendingCount;
+    private BigDecimal pendingAmount;
+    private BigDecimal cashAmount;
+    private BigDecimal cardAmount;
+    private BigDecimal giftCardAmount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,137 @@
+package com.team1206.pos.report.registerReport;
+
+import com.team1206.pos.common.enums.RegisterReportType;
+import com.team1206.pos.common.enums.ResourceType;
+import com.team1206.pos.common.id.UuidV7Generator;
+import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
+import com.team1206.pos.exceptions.ResourceNotFoundException;
+import com.team1206.pos.exceptions.UnauthorizedActionException;
+import com.team1206.pos.order.order.OrderTotalsService;
+import com.team1206.pos.user.merchant.MerchantService;
+import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+// X-reports show the totals of the open register period, a Z-report closes it and the next period starts where it ended.
+// Both are stored, reprinting one reads its row instead of summing orders again.
+@Service
+public class RegisterReportService {
+    private final RegisterReportRepository registerReportRepository;
+    private final OrderTotalsService orderTotalsService;
+    private final MerchantService merchantService;
+    private final UserService userService;
+
+    public RegisterReportService(RegisterReportRepository registerReportRepository,
+                                 OrderTotalsService orderTotalsService,
+                                 MerchantService merchantService,
+                                 UserService userService) {
+        this.registerReportRepository = registerReportRepository;
+        this.orderTotalsService = orderTotalsService;
+        this.merchantService = merchantService;
+        this.userService = userService;
+    }
+
+    @Transactional
+    public RegisterReportResponseDTO createRegisterReport(String type) {
+        UUID merchantId = getMerchantId();
+        RegisterReportType reportType = RegisterReportType.valueOf(type.toUpperCase());
+
+        // The first period of a merchant starts when the merchant was created
+        LocalDateTime periodStart = registerReportRepository.findLastZPeriodEnd(merchantId)
+                                                            .orElseGet(() -> merchantService.getMerchantEntityById(merchantId).getCreatedAt());
+        // Postgres keeps microseconds, the next period has to start exactly where this one is stored to end
+        LocalDateTime periodEnd = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        orderTotalsService.ensureTotals(merchantId, periodStart, periodEnd);
+
+        UUID reportId = UuidV7Generator.next();
+        try {
+            registerReportRepository.create(reportId, merchantId, reportType.ordinal(), periodStart, periodEnd,
+                                            userService.getCurrentPrincipal().getUserId());
+        }
+        catch (DataIntegrityViolationException e) {
+            throw new IllegalStateExceptionWithId("Z-report for this period has already been taken", merchantId.toString());
+        }
+
+        return mapToResponseDTO(getRegisterReportEntityById(reportId));
+    }
+
+    public RegisterReportResponseDTO getRegisterReport(UUID reportId) {
+        RegisterReport registerReport = getRegisterReportEntityById(reportId);
+        userService.verifyLoggedInUserBelongsToMerchant(registerReport.getMerchantId(), "You are not authorized to view this register report");
+
+        return mapToResponseDTO(registerReport);
+    }
+
+    public Page<RegisterReportResponseDTO> getRegisterReports(int limit, int offset, String type) {
+        UUID merchantId = getMerchantId();
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must be greater than or equal to 0");
+        }
+
+        RegisterReportType reportType = (type != null && !type.isEmpty()) ? RegisterReportType.valueOf(type.toUpperCase()) : null;
+        Pageable pageable = PageRequest.of(offset / limit, limit);
+
+        return registerReportRepository.findAllWithFilters(merchantId, reportType, pageable)
+                                       .map(this::mapToResponseDTO);
+    }
+
+    // *** Helper methods ***
+
+    private UUID getMerchantId() {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        if (merchantId == null)
+            throw new UnauthorizedActionException("Super-admin has to be assigned to Merchant first");
+        return merchantId;
+    }
+
+    private RegisterReport getRegisterReportEntityById(UUID reportId) {
+        return registerReportRepository.findById(reportId)
+                                       .orElseThrow(() -> new ResourceNotFoundException(ResourceType.REGISTER_REPORT, reportId.toString()));
+    }
+
+    private RegisterReportResponseDTO mapToResponseDTO(RegisterReport registerReport) {
+        RegisterReportResponseDTO responseDTO = new RegisterReportResponseDTO();
+        responseDTO.setId(registerReport.getId());
+        responseDTO.setType(registerReport.getType().name());
+        responseDTO.setPeriodStart(registerReport.getPeriodStart());
+        responseDTO.setPeriodEnd(registerReport.getPeriodEnd());
+        responseDTO.setCreatedBy(registerReport.getCreatedBy());
+        responseDTO.setOrderCount(registerReport.getOrderCount());
+        responseDTO.setOpenOrderCount(registerReport.getOpenOrderCount());
+        responseDTO.setClosedOrderCount(registerReport.getClosedOrderCount());
+        responseDTO.setRefundedOrderCount(registerReport.getRefundedOrderCount());
+        responseDTO.setCancelledOrderCount(registerReport.getCancelledOrderCount());
+        responseDTO.setItemsSold(registerReport.getItemsSold());
+        responseDTO.setSubtotal(registerReport.getSubtotal());
+        responseDTO.setTaxTotal(registerReport.getTaxTotal());
+        responseDTO.setChargeTotal(registerReport.getChargeTotal());
+        responseDTO.setDiscountTotal(registerReport.getDiscountTotal());
+        responseDTO.setTipTotal(registerReport.getTipTotal());
+        responseDTO.setAmountDue(registerReport.getAmountDue());
+        responseDTO.setOpenAmountDue(registerReport.getOpenAmountDue());
+        responseDTO.setCompletedCount(registerReport.getCompletedCount());
+        responseDTO.setCompletedAmount(registerReport.getCompletedAmount());
+        responseDTO.setRefundedCount(registerReport.getRefundedCount());
+        responseDTO.setRefundedAmount(registerReport.getRefundedAmount());
+        responseDTO.setPendingCount(registerReport.getPendingCount());
+        responseDTO.setPendingAmount(registerReport.getPendingAmount());
+        responseDTO.setCashAmount(registerReport.getCashAmount());
+        responseDTO.setCardAmount(registerReport.getCardAmount());
+        responseDTO.setGiftCardAmount(registerReport.getGiftCardAmount());
+        responseDTO.setCreatedAt(registerReport.getCreatedAt());
+        return responseDTO;
+    }
+}
@@ -0,0 +1,15 @@
+package com.team1206.pos.report.salesReport;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+public class ItemSalesDTO {
+    private String itemType;
+    private UUID itemId;
+    private long quantity;
+    private BigDecimal grossAmount;
+    private BigDecimal taxAmount;
+}
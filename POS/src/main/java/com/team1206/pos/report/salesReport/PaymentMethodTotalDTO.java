@@ -0,0 +1,14 @@
+package com.team1206.pos.report.salesReport;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class PaymentMethodTotalDTO {
+    private String paymentMethod;
+    private int completedCount;
+    private BigDecimal completedAmount;
+    private int refundedCount;
+    private BigDecimal refundedAmount;
+}
@@ -0,0 +1,20 @@
+package com.team1206.pos.report.salesReport;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class SalesPeriodDTO {
+    private LocalDate periodStart;
+    private int orderCount;
+    private BigDecimal subtotal;
+    private BigDecimal chargeTotal;
+    private BigDecimal discountTotal;
+    private BigDecimal tips;
+    private BigDecimal amountDue;
+    private BigDecimal taxTotal;
+    private List<PaymentMethodTotalDTO> payments;
+}
@@ -0,0 +1,47 @@
+package com.team1206.pos.report.salesReport;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+public class SalesReportController {
+    private final SalesReportService salesReportService;
+
+    public SalesReportController(SalesReportService salesReportService) {
+        this.salesReportService = salesReportService;
+    }
+
+    @GetMapping("/sales")
+    @Operation(summary = "Get sales and payments per day, week or month")
+    public ResponseEntity<List<SalesPeriodDTO>> getSales(
+            @RequestParam(value = "from") LocalDate from,
+            @RequestParam(value = "to") LocalDate to,
+            @RequestParam(value = "period", defaultValue = "DAY") String period) {
+        return ResponseEntity.ok(salesReportService.getSales(from, to, period));
+    }
+
+    @GetMapping("/sales/items")
+    @Operation(summary = "Get sales per product, product variation and service")
+    public ResponseEntity<List<ItemSalesDTO>> getItemSales(
+            @RequestParam(value = "from") LocalDate from,
+            @RequestParam(value = "to") LocalDate to) {
+        return ResponseEntity.ok(salesReportService.getItemSales(from, to));
+    }
+
+    @GetMapping("/taxes")
+    @Operation(summary = "Get tax collected per tax charge and day, week or month")
+    public ResponseEntity<List<TaxPeriodDTO>> getTaxes(
+            @RequestParam(value = "from") LocalDate from,
+            @RequestParam(value = "to") LocalDate to,
+            @RequestParam(value = "period", defaultValue = "DAY") String period) {
+        return ResponseEntity.ok(salesReportService.getTaxes(from, to, period));
+    }
+}
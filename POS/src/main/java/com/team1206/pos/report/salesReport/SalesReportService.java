@@ -0,0 +1,167 @@
+package com.team1206.pos.report.salesReport;
+
+import com.team1206.pos.common.enums.PaymentMethodType;
+import com.team1206.pos.common.enums.ReportPeriod;
+import com.team1206.pos.exceptions.UnauthorizedActionException;
+import com.team1206.pos.report.salesRollup.*;
+import com.team1206.pos.user.user.UserService;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+// Reports are summed from the daily rollups, so they read one row per day and item, however many orders there were
+@Service
+public class SalesReportService {
+    private final SalesDailyRepository salesDailyRepository;
+    private final SalesItemDailyRepository salesItemDailyRepository;
+    private final SalesTaxDailyRepository salesTaxDailyRepository;
+    private final SalesPaymentDailyRepository salesPaymentDailyRepository;
+    private final UserService userService;
+
+    public SalesReportService(SalesDailyRepository salesDailyRepository,
+                              SalesItemDailyRepository salesItemDailyRepository,
+                              SalesTaxDailyRepository salesTaxDailyRepository,
+                              SalesPaymentDailyRepository salesPaymentDailyRepository,
+                              UserService userService) {
+        this.salesDailyRepository = salesDailyRepository;
+        this.salesItemDailyRepository = salesItemDailyRepository;
+        this.salesTaxDailyRepository = salesTaxDailyRepository;
+        this.salesPaymentDailyRepository = salesPaymentDailyRepository;
+        this.userService = userService;
+    }
+
+    // Sales and payments per day, week (starting on Monday) or month. Periods without sales or payments are left out.
+    public List<SalesPeriodDTO> getSales(LocalDate from, LocalDate to, String period) {
+        UUID merchantId = getMerchantId();
+        ReportPeriod reportPeriod = parseReportPeriod(period);
+        verifyDateRange(from, to);
+
+        Map<LocalDate, SalesPeriodDTO> periods = new TreeMap<>();
+        for (SalesDaily day : salesDailyRepository.findAllByMerchantIdAndSalesDateBetween(merchantId, from, to)) {
+            SalesPeriodDTO sales = periods.computeIfAbsent(getPeriodStart(day.getSalesDate(), reportPeriod), this::emptySalesPeriod);
+            sales.setOrderCount(sales.getOrderCount() + day.getOrderCount());
+            sales.setSubtotal(sales.getSubtotal().add(day.getSubtotal()));
+            sales.setChargeTotal(sales.getChargeTotal().add(day.getChargeTotal()));
+            sales.setDiscountTotal(sales.getDiscountTotal().add(day.getDiscountTotal()));
+            sales.setTips(sales.getTips().add(day.getTip()));
+            sales.setAmountDue(sales.getAmountDue().add(day.getAmountDue()));
+        }
+
+        for (SalesTaxDaily tax : salesTaxDailyRepository.findAllByMerchantIdAndSalesDateBetween(merchantId, from, to)) {
+            SalesPeriodDTO sales = periods.computeIfAbsent(getPeriodStart(tax.getSalesDate(), reportPeriod), this::emptySalesPeriod);
+            sales.setTaxTotal(sales.getTaxTotal().add(tax.getTaxAmount()));
+        }
+
+        Map<LocalDate, Map<PaymentMethodType, PaymentMethodTotalDTO>> payments = new HashMap<>();
+        for (SalesPaymentDaily payment : salesPaymentDailyRepository.findAllByMerchantIdAndSalesDateBetween(merchantId, from, to)) {
+            LocalDate periodStart = getPeriodStart(payment.getSalesDate(), reportPeriod);
+            periods.computeIfAbsent(periodStart, this::emptySalesPeriod);
+
+            PaymentMethodTotalDTO total = payments.computeIfAbsent(periodStart, start -> new EnumMap<>(PaymentMethodType.class))
+                                                  .computeIfAbsent(payment.getPaymentMethod(), this::emptyPaymentMethodTotal);
+            total.setCompletedCount(total.getCompletedCount() + payment.getCompletedCount());
+            total.setCompletedAmount(total.getCompletedAmount().add(payment.getCompletedAmount()));
+            total.setRefundedCount(total.getRefundedCount() + payment.getRefundedCount());
+            total.setRefundedAmount(total.getRefundedAmount().add(payment.getRefundedAmount()));
+        }
+
+        periods.forEach((periodStart, sales) ->
+                sales.setPayments(List.copyOf(payments.getOrDefault(periodStart, Map.of()).values())));
+        return List.copyOf(periods.values());
+    }
+
+    // Items sold in the date range, best selling by gross amount first
+    public List<ItemSalesDTO> getItemSales(LocalDate from, LocalDate to) {
+        UUID merchantId = getMerchantId();
+        verifyDateRange(from, to);
+
+        return salesItemDailyRepository.sumByItem(merchantId, from, to)
+                                       .stream()
+                                       .map(this::mapToItemSalesDTO)
+                                       .toList();
+    }
+
+    // Tax collected per tax charge and period
+    public List<TaxPeriodDTO> getTaxes(LocalDate from, LocalDate to, String period) {
+        UUID merchantId = getMerchantId();
+        ReportPeriod reportPeriod = parseReportPeriod(period);
+        verifyDateRange(from, to);
+
+        Map<LocalDate, Map<UUID, BigDecimal>> taxes = new TreeMap<>();
+        for (SalesTaxDaily tax : salesTaxDailyRepository.findAllByMerchantIdAndSalesDateBetween(merchantId, from, to)) {
+            taxes.computeIfAbsent(getPeriodStart(tax.getSalesDate(), reportPeriod), start -> new LinkedHashMap<>())
+                 .merge(tax.getChargeId(), tax.getTaxAmount(), BigDecimal::add);
+        }
+
+        List<TaxPeriodDTO> taxPeriods = new ArrayList<>();
+        taxes.forEach((periodStart, amounts) -> amounts.forEach((chargeId, amount) -> {
+            TaxPeriodDTO taxPeriod = new TaxPeriodDTO();
+            taxPeriod.setPeriodStart(periodStart);
+            taxPeriod.setChargeId(chargeId);
+            taxPeriod.setTaxAmount(amount);
+            taxPeriods.add(taxPeriod);
+        }));
+        return taxPeriods;
+    }
+
+    // *** Helper methods ***
+
+    private UUID getMerchantId() {
+        UUID merchantId = userService.getMerchantIdFromLoggedInUser();
+        if (merchantId == null)
+            throw new UnauthorizedActionException("Super-admin has to be assigned to Merchant first");
+        return merchantId;
+    }
+
+    private ReportPeriod parseReportPeriod(String period) {
+        return (period == null || period.isEmpty()) ? ReportPeriod.DAY : ReportPeriod.valueOf(period.toUpperCase());
+    }
+
+    private void verifyDateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start date must not be after the end date");
+        }
+    }
+
+    private LocalDate getPeriodStart(LocalDate date, ReportPeriod period) {
+        return switch (period) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private SalesPeriodDTO emptySalesPeriod(LocalDate periodStart) {
+        SalesPeriodDTO sales = new SalesPeriodDTO();
+        sales.setPeriodStart(periodStart);
+        sales.setSubtotal(BigDecimal.ZERO);
+        sales.setChargeTotal(BigDecimal.ZERO);
+        sales.setDiscountTotal(BigDecimal.ZERO);
+        sales.setTips(BigDecimal.ZERO);
+        sales.setAmountDue(BigDecimal.ZERO);
+        sales.setTaxTotal(BigDecimal.ZERO);
+        sales.setPayments(List.of());
+        return sales;
+    }
+
+    private PaymentMethodTotalDTO emptyPaymentMethodTotal(PaymentMethodType paymentMethod) {
+        PaymentMethodTotalDTO total = new PaymentMethodTotalDTO();
+        total.setPaymentMethod(paymentMethod.name());
+        total.setCompletedAmount(BigDecimal.ZERO);
+        total.setRefundedAmount(BigDecimal.ZERO);
+        return total;
+    }
+
+    private ItemSalesDTO mapToItemSalesDTO(SalesItemTotal total) {
+        ItemSalesDTO dto = new ItemSalesDTO();
+        dto.setItemType(total.itemType().name());
+        dto.setItemId(total.itemId());
+        dto.setQuantity(total.quantity());
+        dto.setGrossAmount(total.grossAmount());
+        dto.setTaxAmount(total.taxAmount());
+        return dto;
+    }
+}
@@ -0,0 +1,14 @@
+package com.team1206.pos.report.salesReport;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+public class TaxPeriodDTO {
+    private LocalDate periodStart;
+    private UUID chargeId;
+    private BigDecimal taxAmount;
+}
@@ -0,0 +1,44 @@
+package com.team1206.pos.report.salesRollup;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Orders closed by a merchant on one day, rows are only written by the upserts in SalesDailyRepository
+@Getter
+@Entity
+@Immutable
+@Table(name = "\"sales_daily\"")
+public class SalesDaily {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private UUID merchantId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "order_count", nullable = false)
+    private int orderCount;
+
+    @Column(name = "subtotal", nullable = false, precision = 19, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(name = "charge_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal chargeTotal;
+
+    @Column(name = "discount_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal discountTotal;
+
+    @Column(name = "tip", nullable = false, precision = 19, scale = 2)
+    private BigDecimal tip;
+
+    @Column(name = "amount_due", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amountDue;
+}
@@ -0,0 +1,44 @@
+package com.team1206.pos.report.salesRollup;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, UUID> {
+    @Query("SELECT s FROM SalesDaily s WHERE s.merchantId = :merchantId AND s.salesDate BETWEEN :from AND :to ORDER BY s.salesDate")
+    List<SalesDaily> findAllByMerchantIdAndSalesDateBetween(@Param("merchantId") UUID merchantId,
+                                                            @Param("from") LocalDate from,
+                                                            @Param("to") LocalDate to);
+
+    // Adds the amounts to the day, the first order of the day inserts its row
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_daily"))
+    @Query(value = "INSERT INTO sales_daily (id, merchant_id, sales_date, order_count, subtotal, charge_total, discount_total, tip, amount_due) " +
+            "VALUES (gen_random_uuid(), :merchantId, :salesDate, :orderCount, :subtotal, :chargeTotal, :discountTotal, :tip, :amountDue) " +
+            "ON CONFLICT (merchant_id, sales_date) DO UPDATE " +
+            "SET order_count = sales_daily.order_count + EXCLUDED.order_count, " +
+            "subtotal = sales_daily.subtotal + EXCLUDED.subtotal, " +
+            "charge_total = sales_daily.charge_total + EXCLUDED.charge_total, " +
+            "discount_total = sales_daily.discount_total + EXCLUDED.discount_total, " +
+            "tip = sales_daily.tip + EXCLUDED.tip, " +
+            "amount_due = sales_daily.amount_due + EXCLUDED.amount_due", nativeQuery = true)
+    int add(@Param("merchantId") UUID merchantId,
+            @Param("salesDate") LocalDate salesDate,
+            @Param("orderCount") int orderCount,
+            @Param("subtotal") BigDecimal subtotal,
+            @Param("chargeTotal") BigDecimal chargeTotal,
+            @Param("discountTotal") BigDecimal discountTotal,
+            @Param("tip") BigDecimal tip,
+            @Param("amountDue") BigDecimal amountDue);
+}
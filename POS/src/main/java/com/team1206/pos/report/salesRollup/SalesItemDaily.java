@@ -0,0 +1,43 @@
+package com.team1206.pos.report.salesRollup;
+
+import com.team1206.pos.common.enums.SalesItemType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Sales of one product, product variation or service on one day. The gross amount includes taxes and service charges.
+@Getter
+@Entity
+@Immutable
+@Table(name = "\"sales_item_daily\"")
+public class SalesItemDaily {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private UUID merchantId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "item_type", nullable = false)
+    @Enumerated(EnumType.ORDINAL)
+    private SalesItemType itemType;
+
+    @Column(name = "item_id", nullable = false)
+    private UUID itemId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Column(name = "gross_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal grossAmount;
+
+    @Column(name = "tax_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal taxAmount;
+}
@@ -0,0 +1,44 @@
+package com.team1206.pos.report.salesRollup;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface SalesItemDailyRepository extends JpaRepository<SalesItemDaily, UUID> {
+    @Query("SELECT new com.team1206.pos.report.salesRollup.SalesItemTotal(s.itemType, s.itemId, SUM(s.quantity), SUM(s.grossAmount), SUM(s.taxAmount)) " +
+            "FROM SalesItemDaily s WHERE s.merchantId = :merchantId AND s.salesDate BETWEEN :from AND :to " +
+            "GROUP BY s.itemType, s.itemId ORDER BY SUM(s.grossAmount) DESC")
+    List<SalesItemTotal> sumByItem(@Param("merchantId") UUID merchantId,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+
+    // Adds many items to the day in one statement, arrays are matched by position and may not repeat an item
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_item_daily"))
+    @Query(value = "INSERT INTO sales_item_daily (id, merchant_id, sales_date, item_type, item_id, quantity, gross_amount, tax_amount) " +
+            "SELECT gen_random_uuid(), :merchantId, :salesDate, d.item_type, d.item_id, d.quantity, d.gross_amount, d.tax_amount " +
+            "FROM unnest(CAST(:itemTypes AS smallint[]), CAST(:itemIds AS uuid[]), CAST(:quantities AS int[]), " +
+            "CAST(:grossAmounts AS numeric[]), CAST(:taxAmounts AS numeric[])) AS d(item_type, item_id, quantity, gross_amount, tax_amount) " +
+            "ON CONFLICT (merchant_id, sales_date, item_type, item_id) DO UPDATE " +
+            "SET quantity = sales_item_daily.quantity + EXCLUDED.quantity, " +
+            "gross_amount = sales_item_daily.gross_amount + EXCLUDED.gross_amount, " +
+            "tax_amount = sales_item_daily.tax_amount + EXCLUDED.tax_amount", nativeQuery = true)
+    int addAll(@Param("merchantId") UUID merchantId,
+               @Param("salesDate") LocalDate salesDate,
+               @Param("itemTypes") Integer[] itemTypes,
+               @Param("itemIds") UUID[] itemIds,
+               @Param("quantities") Integer[] quantities,
+               @Param("grossAmounts") BigDecimal[] grossAmounts,
+               @Param("taxAmounts") BigDecimal[] taxAmounts);
+}
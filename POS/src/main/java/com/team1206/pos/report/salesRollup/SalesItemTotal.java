@@ -0,0 +1,10 @@
+package com.team1206.pos.report.salesRollup;
+
+import com.team1206.pos.common.enums.SalesItemType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Sales of one item summed over a date range
+public record SalesItemTotal(SalesItemType itemType, UUID itemId, Long quantity, BigDecimal grossAmount, BigDecimal taxAmount) {
+}
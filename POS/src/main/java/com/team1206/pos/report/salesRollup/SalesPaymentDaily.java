@@ -0,0 +1,43 @@
+package com.team1206.pos.report.salesRollup;
+
+import com.team1206.pos.common.enums.PaymentMethodType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Payments completed and refunded with one payment method on one day
+@Getter
+@Entity
+@Immutable
+@Table(name = "\"sales_payment_daily\"")
+public class SalesPaymentDaily {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private UUID merchantId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "payment_method", nullable = false)
+    @Enumerated(EnumType.ORDINAL)
+    private PaymentMethodType paymentMethod;
+
+    @Column(name = "completed_count", nullable = false)
+    private int completedCount;
+
+    @Column(name = "completed_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal completedAmount;
+
+    @Column(name = "refunded_count", nullable = false)
+    private int refundedCount;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal refundedAmount;
+}
@@ -0,0 +1,41 @@
+package com.team1206.pos.report.salesRollup;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface SalesPaymentDailyRepository extends JpaRepository<SalesPaymentDaily, UUID> {
+    @Query("SELECT s FROM SalesPaymentDaily s WHERE s.merchantId = :merchantId AND s.salesDate BETWEEN :from AND :to ORDER BY s.salesDate")
+    List<SalesPaymentDaily> findAllByMerchantIdAndSalesDateBetween(@Param("merchantId") UUID merchantId,
+                                                                   @Param("from") LocalDate from,
+                                                                   @Param("to") LocalDate to);
+
+    // Adds completed and refunded payments of one method to the day, the payment method is stored by its ordinal
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_payment_daily"))
+    @Query(value = "INSERT INTO sales_payment_daily (id, merchant_id, sales_date, payment_method, completed_count, completed_amount, refunded_count, refunded_amount) " +
+            "VALUES (gen_random_uuid(), :merchantId, :salesDate, :paymentMethod, :completedCount, :completedAmount, :refundedCount, :refundedAmount) " +
+            "ON CONFLICT (merchant_id, sales_date, payment_method) DO UPDATE " +
+            "SET completed_count = sales_payment_daily.completed_count + EXCLUDED.completed_count, " +
+            "completed_amount = sales_payment_daily.completed_amount + EXCLUDED.completed_amount, " +
+            "refunded_count = sales_payment_daily.refunded_count + EXCLUDED.refunded_count, " +
+            "refunded_amount = sales_payment_daily.refunded_amount + EXCLUDED.refunded_amount", nativeQuery = true)
+    int add(@Param("merchantId") UUID merchantId,
+            @Param("salesDate") LocalDate salesDate,
+            @Param("paymentMethod") int paymentMethod,
+            @Param("completedCount") int completedCount,
+            @Param("completedAmount") BigDecimal completedAmount,
+            @Param("refundedCount") int refundedCount,
+            @Param("refundedAmount") BigDecimal refundedAmount);
+}
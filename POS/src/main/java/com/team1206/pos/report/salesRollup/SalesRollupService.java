@@ -0,0 +1,159 @@
+package com.team1206.pos.report.salesRollup;
+
+import com.team1206.pos.common.enums.SalesItemType;
+import com.team1206.pos.common.enums.TransactionStatus;
+import com.team1206.pos.order.order.MerchantPricingRules;
+import com.team1206.pos.order.order.Order;
+import com.team1206.pos.order.order.OrderPricer;
+import com.team1206.pos.order.order.PricingRuleCache;
+import com.team1206.pos.order.orderItem.OrderItem;
+import com.team1206.pos.payments.transaction.Transaction;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+// Adds closed orders and payment changes to the daily sales rollups.
+// Runs in the caller's transaction, so a close or payment that rolls back leaves the rollups as they were.
+// Tables are always written in the same order (days, items, taxes, payments) and rows in key order,
+// so transactions adding to the same day wait for each other instead of deadlocking.
+@Service
+public class SalesRollupService {
+    private static final Comparator<SalesItemKey> ITEM_ORDER = Comparator.comparing(SalesItemKey::type)
+                                                                          .thenComparing(SalesItemKey::itemId);
+
+    private final SalesDailyRepository salesDailyRepository;
+    private final SalesItemDailyRepository salesItemDailyRepository;
+    private final SalesTaxDailyRepository salesTaxDailyRepository;
+    private final SalesPaymentDailyRepository salesPaymentDailyRepository;
+    private final OrderPricer orderPricer;
+    private final PricingRuleCache pricingRuleCache;
+
+    public SalesRollupService(SalesDailyRepository salesDailyRepository,
+                              SalesItemDailyRepository salesItemDailyRepository,
+                              SalesTaxDailyRepository salesTaxDailyRepository,
+                              SalesPaymentDailyRepository salesPaymentDailyRepository,
+                              OrderPricer orderPricer,
+                              PricingRuleCache pricingRuleCache) {
+        this.salesDailyRepository = salesDailyRepository;
+        this.salesItemDailyRepository = salesItemDailyRepository;
+        this.salesTaxDailyRepository = salesTaxDailyRepository;
+        this.salesPaymentDailyRepository = salesPaymentDailyRepository;
+        this.orderPricer = orderPricer;
+        this.pricingRuleCache = pricingRuleCache;
+    }
+
+    // The order was closed today, its lines are priced as they were paid
+    public void recordClosedOrder(Order order, List<OrderItem> items) {
+        recordOrder(order, items, LocalDate.now());
+    }
+
+    // Orders synced from a till count on the day they were taken, and so do the payments they came with
+    public void recordSyncedOrders(List<Order> orders) {
+        for (Order order : orders) {
+            recordOrder(order, order.getItems(), order.getCreatedAt().toLocalDate());
+        }
+        for (Order order : orders) {
+            for (Transaction transaction : order.getTransactions()) {
+                if (transaction.getStatus() == TransactionStatus.COMPLETED) {
+                    addPayment(transaction, transaction.getCreatedAt().toLocalDate(), 1, transaction.getAmount(), 0, BigDecimal.ZERO);
+                }
+            }
+        }
+    }
+
+    // Called when a transaction becomes completed, not when a completed one is saved again
+    public void recordPayment(Transaction transaction) {
+        addPayment(transaction, LocalDate.now(), 1, transaction.getAmount(), 0, BigDecimal.ZERO);
+    }
+
+    // Called when a completed transaction is refunded, the refund counts on the day it is made
+    public void recordRefund(Transaction transaction) {
+        addPayment(transaction, LocalDate.now(), 0, BigDecimal.ZERO, 1, transaction.getAmount());
+    }
+
+    // *** Helper methods ***
+
+    private void recordOrder(Order order, List<OrderItem> items, LocalDate salesDate) {
+        UUID merchantId = order.getMerchant().getId();
+        MerchantPricingRules rules = pricingRuleCache.getRules(merchantId);
+
+        Map<SalesItemKey, SalesItemAmounts> itemSales = new TreeMap<>(ITEM_ORDER);
+        Map<UUID, BigDecimal> taxes = new TreeMap<>();
+        for (OrderItem item : items) {
+            SalesItemKey key = SalesItemKey.of(item);
+            if (key == null) {
+                continue;
+            }
+
+            Map<UUID, BigDecimal> lineTaxes = orderPricer.getLineTaxes(item, rules);
+            BigDecimal lineTax = lineTaxes.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            int quantity = item.getReservation() != null ? 1 : item.getQuantity();
+            itemSales.merge(key, new SalesItemAmounts(quantity, orderPricer.getLineTotal(item, rules), lineTax), SalesItemAmounts::add);
+            lineTaxes.forEach((chargeId, amount) -> taxes.merge(chargeId, amount, BigDecimal::add));
+        }
+
+        salesDailyRepository.add(merchantId, salesDate, 1,
+                                 orZero(order.getSubtotal()),
+                                 orZero(order.getChargeTotal()),
+                                 orZero(order.getDiscountTotal()),
+                                 orZero(order.getTip()),
+                                 orZero(order.getAmountDue()));
+
+        if (!itemSales.isEmpty()) {
+            List<SalesItemKey> keys = List.copyOf(itemSales.keySet());
+            salesItemDailyRepository.addAll(merchantId, salesDate,
+                                            keys.stream().map(key -> key.type().ordinal()).toArray(Integer[]::new),
+                                            keys.stream().map(SalesItemKey::itemId).toArray(UUID[]::new),
+                                            keys.stream().map(key -> itemSales.get(key).quantity()).toArray(Integer[]::new),
+                                            keys.stream().map(key -> round(itemSales.get(key).grossAmount())).toArray(BigDecimal[]::new),
+                                            keys.stream().map(key -> round(itemSales.get(key).taxAmount())).toArray(BigDecimal[]::new));
+        }
+
+        if (!taxes.isEmpty()) {
+            salesTaxDailyRepository.addAll(merchantId, salesDate,
+                                           taxes.keySet().toArray(UUID[]::new),
+                                           taxes.values().stream().map(SalesRollupService::round).toArray(BigDecimal[]::new));
+        }
+    }
+
+    private void addPayment(Transaction transaction, LocalDate salesDate,
+                            int completedCount, BigDecimal completedAmount,
+                            int refundedCount, BigDecimal refundedAmount) {
+        salesPaymentDailyRepository.add(transaction.getOrder().getMerchant().getId(), salesDate,
+                                        transaction.getPaymentMethod().ordinal(),
+                                        completedCount, completedAmount, refundedCount, refundedAmount);
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal round(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record SalesItemKey(SalesItemType type, UUID itemId) {
+        // Lines with neither a product nor a reservation are not counted
+        static SalesItemKey of(OrderItem item) {
+            if (item.getProductVariation() != null) {
+                return new SalesItemKey(SalesItemType.PRODUCT_VARIATION, item.getProductVariation().getId());
+            }
+            if (item.getProduct() != null) {
+                return new SalesItemKey(SalesItemType.PRODUCT, item.getProduct().getId());
+            }
+            if (item.getReservation() != null) {
+                return new SalesItemKey(SalesItemType.SERVICE, item.getReservation().getService().getId());
+            }
+            return null;
+        }
+    }
+
+    private record SalesItemAmounts(int quantity, BigDecimal grossAmount, BigDecimal taxAmount) {
+        SalesItemAmounts add(SalesItemAmounts other) {
+            return new SalesItemAmounts(quantity + other.quantity, grossAmount.add(other.grossAmount), taxAmount.add(other.taxAmount));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.team1206.pos.report.salesRollup;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Tax collected with one tax charge on one day
+@Getter
+@Entity
+@Immutable
+@Table(name = "\"sales_tax_daily\"")
+public class SalesTaxDaily {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private UUID merchantId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "charge_id", nullable = false)
+    private UUID chargeId;
+
+    @Column(name = "tax_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal taxAmount;
+}
@@ -0,0 +1,36 @@
+package com.team1206.pos.report.salesRollup;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface SalesTaxDailyRepository extends JpaRepository<SalesTaxDaily, UUID> {
+    @Query("SELECT s FROM SalesTaxDaily s WHERE s.merchantId = :merchantId AND s.salesDate BETWEEN :from AND :to ORDER BY s.salesDate")
+    List<SalesTaxDaily> findAllByMerchantIdAndSalesDateBetween(@Param("merchantId") UUID merchantId,
+                                                               @Param("from") LocalDate from,
+                                                               @Param("to") LocalDate to);
+
+    // Adds the tax of many charges to the day in one statement, arrays are matched by position and may not repeat a charge
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_tax_daily"))
+    @Query(value = "INSERT INTO sales_tax_daily (id, merchant_id, sales_date, charge_id, tax_amount) " +
+            "SELECT gen_random_uuid(), :merchantId, :salesDate, d.charge_id, d.tax_amount " +
+            "FROM unnest(CAST(:chargeIds AS uuid[]), CAST(:taxAmounts AS numeric[])) AS d(charge_id, tax_amount) " +
+            "ON CONFLICT (merchant_id, sales_date, charge_id) DO UPDATE " +
+            "SET tax_amount = sales_tax_daily.tax_amount + EXCLUDED.tax_amount", nativeQuery = true)
+    int addAll(@Param("merchantId") UUID merchantId,
+               @Param("salesDate") LocalDate salesDate,
+               @Param("chargeIds") UUID[] chargeIds,
+               @Param("taxAmounts") BigDecimal[] taxAmounts);
+}
@@ -0,0 +1,8 @@
+package com.team1206.pos.service.reservation;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Time an employee is taken by one reservation, read without loading the reservation or its service
+public record BookedInterval(UUID employeeId, UUID reservationId, LocalDateTime start, LocalDateTime end) {
+}
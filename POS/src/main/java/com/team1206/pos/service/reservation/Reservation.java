@@ -32,6 +32,10 @@ public class Reservation {
     @Column(name = "appointed_at", nullable = false)
     private LocalDateTime appointedAt;
 
+    // Appointment end at booking time, the database uses it to reject overlapping reservations of an employee
+    @Column(name = "ends_at", nullable = false)
+    private LocalDateTime endsAt;
+
     @ManyToOne
     @JoinColumn(name = "service_id", nullable = false)
     private Service service;
@@ -1,5 +1,6 @@
 package com.team1206.pos.service.reservation;
 
+import com.team1206.pos.common.dto.CursorPageDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -64,6 +65,26 @@ public class ReservationController {
         return ResponseEntity.ok(response);
     }
 
+    // GET: Get reservation list by cursor
+    @GetMapping("/scroll")
+    @Operation(summary = "Get reservation list by cursor")
+    public ResponseEntity<CursorPageDTO<ReservationResponseDTO>> scrollReservations(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "service-name", required = false) String serviceName,
+            @RequestParam(value = "customer-name", required = false) String customerName,
+            @RequestParam(value = "customer-email", required = false) String customerEmail,
+            @RequestParam(value = "customer-phone", required = false) String customerPhone,
+            @RequestParam(value = "appointedAt", required = false) LocalDateTime appointedAt) {
+        log.info("Received scroll reservation list request: cursor={} limit={} serviceName={} customerName={} customerEmail={} customerPhone={} appointedAt={}",
+                cursor, limit, serviceName, customerName, customerEmail, customerPhone, appointedAt);
+
+        CursorPageDTO<ReservationResponseDTO> response = reservationService.scrollReservations(cursor, limit, serviceName, customerName, customerEmail, customerPhone, appointedAt);
+
+        log.debug("Returning {} to scroll reservation list request (cursor={} limit={})", response, cursor, limit);
+        return ResponseEntity.ok(response);
+    }
+
     // PATCH: Update a reservation by ID
     @PatchMapping("/{reservationId}")
     @Operation(summary = "Update a reservation")
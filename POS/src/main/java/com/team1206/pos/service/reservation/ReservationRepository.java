@@ -2,22 +2,30 @@ package com.team1206.pos.service.reservation;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
-    @Query("SELECT r FROM Reservation r " +
+    // The WHERE clause of findAllWithFilters and its cursor variant
+    String FILTERED = "SELECT r FROM Reservation r " +
             "WHERE (r.service.merchant.id = :merchantId) " +
             "AND (:serviceName IS NULL OR r.service.name LIKE %:serviceName%) " +
             "AND (:customerName IS NULL OR CONCAT(r.firstName, ' ', r.lastName) LIKE %:customerName%) " +
             "AND (:customerEmail IS NULL OR r.employee.email LIKE %:customerEmail%) " +
             "AND (:customerPhone IS NULL OR r.phone LIKE %:customerPhone%) " +
-            "AND (cast(:appointedAt as timestamp) IS NULL OR r.appointedAt = :appointedAt)")
+            "AND (cast(:appointedAt as timestamp) IS NULL OR r.appointedAt = :appointedAt)";
+
+    // Service and employee are joined in the same query instead of being loaded for every reservation
+    @EntityGraph(attributePaths = {"service", "employee"})
+    @Query(FILTERED)
     Page<Reservation> findAllWithFilters(
             @Param("serviceName") String serviceName,
             @Param("customerName") String customerName,
@@ -27,13 +35,31 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
             @Param("merchantId") UUID merchantId,
             Pageable pageable);
 
-    @Query("SELECT r FROM Reservation r " +
-            "WHERE (r.service.merchant.id = :merchantId) " +
-            "AND r.employee.id = :userId " +
-            "AND r.appointedAt >= :startOfDay " +
-            "AND r.appointedAt < :endOfDay")
-    List<Reservation> findReservationsByEmployeeAndDate(@Param("userId") UUID userId,
-                                                        @Param("startOfDay") LocalDateTime startOfDay,
-                                                        @Param("endOfDay") LocalDateTime endOfDay,
-                                                        @Param("merchantId") UUID merchantId);
+    // Cursor variant of findAllWithFilters, rows after the cursor in KeysetCursor.NEWEST_FIRST order without a count query
+    @EntityGraph(attributePaths = {"service", "employee"})
+    @Query(FILTERED + " " +
+            "AND r.createdAt <= :cursorCreatedAt AND (r.createdAt < :cursorCreatedAt OR r.id < :cursorId)")
+    Slice<Reservation> findAllWithFiltersAfter(
+            @Param("serviceName") String serviceName,
+            @Param("customerName") String customerName,
+            @Param("customerEmail") String customerEmail,
+            @Param("customerPhone") String customerPhone,
+            @Param("appointedAt") LocalDateTime appointedAt,
+            @Param("merchantId") UUID merchantId,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
+
+    // Reservations reduced to employee and time span. The stored end is used, so a later change to the service
+    // duration does not move the end of reservations already booked.
+    @Query("SELECT new com.team1206.pos.service.reservation.BookedInterval(r.employee.id, r.id, r.appointedAt, r.endsAt) " +
+            "FROM Reservation r JOIN r.service s " +
+            "WHERE s.merchant.id = :merchantId " +
+            "AND r.employee.id IN :employeeIds " +
+            "AND r.appointedAt >= :from " +
+            "AND r.appointedAt < :to")
+    List<BookedInterval> findBookedIntervals(@Param("employeeIds") Collection<UUID> employeeIds,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("merchantId") UUID merchantId);
 }
@@ -1,25 +1,32 @@
 package com.team1206.pos.service.reservation;
 
-import com.team1206.pos.service.service.AvailableSlotsResponseDTO;
 import com.team1206.pos.sns.SNSService;
+import com.team1206.pos.common.dto.CursorPageDTO;
 import com.team1206.pos.common.enums.ResourceType;
 import com.team1206.pos.common.enums.UserRoles;
+import com.team1206.pos.common.pagination.KeysetCursor;
+import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
 import com.team1206.pos.service.service.Service;
 import com.team1206.pos.service.service.ServiceService;
 import com.team1206.pos.user.user.User;
 import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @org.springframework.stereotype.Service
 public class ReservationService {
+    private static final String OVERLAP_CONSTRAINT = "ex_reservation_employee_overlap";
+
     private final ReservationRepository reservationRepository;
     private final UserService userService;
     private final ServiceService serviceService;
@@ -54,6 +61,26 @@ public class ReservationService {
         return reservationsPage.map(this::mapToResponseDTO);
     }
 
+    // Get reservations page by cursor, without counting all matching reservations
+    public CursorPageDTO<ReservationResponseDTO> scrollReservations(
+            String cursor,
+            int limit,
+            String serviceName,
+            String customerName,
+            String customerEmail,
+            String customerPhone,
+            LocalDateTime appointedAt) {
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+
+        Slice<Reservation> reservations = reservationRepository.findAllWithFiltersAfter(
+                serviceName, customerName, customerEmail, customerPhone, appointedAt, userService.getMerchantIdFromLoggedInUser(),
+                after.createdAt(), after.id(), KeysetCursor.firstRows(limit));
+
+        return CursorPageDTO.of(reservations, reservation -> new KeysetCursor(reservation.getCreatedAt(), reservation.getId()), this::mapToResponseDTO);
+    }
+
+    // The confirmation SMS is queued in the same transaction, so it is only sent if the reservation is saved
+    @Transactional
     public ReservationResponseDTO createReservation(ReservationRequestDTO requestDTO) {
         validateReservationServiceId(requestDTO.getServiceId());
         Service service = serviceService.getServiceEntityById(requestDTO.getServiceId());
@@ -61,23 +88,9 @@ public class ReservationService {
         User employee = userService.getUserEntityById(requestDTO.getEmployeeId());
         userService.verifyUserRole(employee, UserRoles.EMPLOYEE);
 
-        // Fetch available slots for the employee and service
+        // Validate that the requested time is within working hours and free
         validateReservationDateTime(requestDTO.getAppointedAt());
-        LocalDate appointmentDate = requestDTO.getAppointedAt().toLocalDate();
-        AvailableSlotsResponseDTO availableSlots = serviceService.getAvailableSlots(
-                requestDTO.getServiceId(),
-                appointmentDate,
-                requestDTO.getEmployeeId()
-        );
-
-        // Validate that the requested time fits into one of the available slots
-        LocalDateTime requestedStartTime = requestDTO.getAppointedAt();
-        LocalDateTime requestedEndTime = requestedStartTime.plusSeconds(service.getDuration());
-        boolean fitsIntoSlot = availableSlots.getItems().stream().anyMatch(slot ->
-                !requestedStartTime.isBefore(slot.getStartTime()) && !requestedEndTime.isAfter(slot.getEndTime())
-        );
-
-        if (!fitsIntoSlot) {
+        if (!serviceService.isSlotAvailable(service, employee.getId(), requestDTO.getAppointedAt(), null)) {
             throw new IllegalArgumentException("The requested time slot is not available.");
         }
 
@@ -86,8 +99,9 @@ public class ReservationService {
         mapRequestToReservation(requestDTO, reservation);
         reservation.setService(service);
         reservation.setEmployee(employee);
+        reservation.setEndsAt(reservation.getAppointedAt().plusSeconds(service.getDuration()));
 
-        Reservation savedReservation = reservationRepository.save(reservation);
+        Reservation savedReservation = saveReservation(reservation);
 
         snsService.sendSms(savedReservation.getPhone(),
                 String.format("Hey, %s, Your reservation at %s for %s with %s %s is confirmed for %tF at %tR. Thank you for choosing us!",
@@ -99,6 +113,7 @@ public class ReservationService {
     }
 
     // Update a reservation
+    @Transactional
     public ReservationResponseDTO updateReservation(UUID reservationId, ReservationRequestDTO requestDTO) {
         validateReservationServiceId(requestDTO.getServiceId());
         Reservation reservation = reservationRepository.findById(reservationId)
@@ -109,25 +124,9 @@ public class ReservationService {
         User employee = userService.getUserEntityById(requestDTO.getEmployeeId());
         userService.verifyUserRole(employee, UserRoles.EMPLOYEE);
 
-        // Validate the updated appointment date and time
+        // Validate the updated appointment date and time, the reservation's own current time does not block it
         validateReservationDateTime(requestDTO.getAppointedAt());
-        LocalDate appointmentDate = requestDTO.getAppointedAt().toLocalDate();
-
-        // Fetch available slots for the employee and service
-        AvailableSlotsResponseDTO availableSlots = serviceService.getAvailableSlots(
-                requestDTO.getServiceId(),
-                appointmentDate,
-                requestDTO.getEmployeeId()
-        );
-
-        // Validate that the requested time fits into one of the available slots
-        LocalDateTime requestedStartTime = requestDTO.getAppointedAt();
-        LocalDateTime requestedEndTime = requestedStartTime.plusSeconds(service.getDuration());
-        boolean fitsIntoSlot = availableSlots.getItems().stream().anyMatch(slot ->
-                !requestedStartTime.isBefore(slot.getStartTime()) && !requestedEndTime.isAfter(slot.getEndTime())
-        );
-
-        if (!fitsIntoSlot) {
+        if (!serviceService.isSlotAvailable(service, employee.getId(), requestDTO.getAppointedAt(), reservationId)) {
             throw new IllegalArgumentException("The requested time slot is not available.");
         }
 
@@ -135,9 +134,10 @@ public class ReservationService {
         mapRequestToReservation(requestDTO, reservation);
         reservation.setService(service);
         reservation.setEmployee(employee);
+        reservation.setEndsAt(reservation.getAppointedAt().plusSeconds(service.getDuration()));
 
         // Save the updated reservation
-        Reservation updatedReservation = reservationRepository.save(reservation);
+        Reservation updatedReservation = saveReservation(reservation);
 
         // Send confirmation SMS to the customer
         snsService.sendSms(updatedReservation.getPhone(),
@@ -159,6 +159,7 @@ public class ReservationService {
     }
 
     // Cancel (delete) a reservation
+    @Transactional
     public void cancelReservation(UUID reservationId, boolean sendSms) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.RESERVATION, reservationId.toString()));
@@ -176,16 +177,11 @@ public class ReservationService {
         }
     }
 
-    public List<Reservation> findReservationsByEmployeeAndDate(UUID userId, LocalDate date) {
-        // Convert the LocalDate to LocalDateTime for start and end of the day
-        LocalDateTime startOfDay = date.atStartOfDay();  // 00:00:00 of the given date
-        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();  // 00:00:00 of the next day
-
-        // Call the repository method to fetch reservations for the given date
-        return reservationRepository.findReservationsByEmployeeAndDate(userId, startOfDay, endOfDay, userService.getMerchantIdFromLoggedInUser());
+    // Booked time of the given employees for reservations starting in [from, to)
+    public List<BookedInterval> findBookedIntervals(Collection<UUID> employeeIds, LocalDateTime from, LocalDateTime to) {
+        return reservationRepository.findBookedIntervals(employeeIds, from, to, userService.getMerchantIdFromLoggedInUser());
     }
 
-
     public Reservation getReservationEntityById(UUID reservationId) {
         return reservationRepository.findById(reservationId)
                                     .orElseThrow(() -> new ResourceNotFoundException(
@@ -195,6 +191,22 @@ public class ReservationService {
     }
 
     // Helpers
+
+    // The availability check above is only a fast path, two bookings racing for the same time can both pass it.
+    // The exclusion constraint lets one of them through, the other one is reported as a conflict.
+    private Reservation saveReservation(Reservation reservation) {
+        try {
+            return reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            if (cause != null && cause.contains(OVERLAP_CONSTRAINT)) {
+                throw new IllegalStateExceptionWithId("The requested time slot was booked by someone else.",
+                                                      reservation.getEmployee().getId().toString());
+            }
+            throw e;
+        }
+    }
+
     private void validateReservationDateTime (LocalDateTime time) {
         if (!time.isAfter(LocalDateTime.now())) {
             throw new IllegalArgumentException("The reservation start time must not be in the past.");
@@ -5,6 +5,8 @@ import com.team1206.pos.user.merchant.Merchant;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
@@ -15,6 +17,8 @@ import java.util.UUID;
 @Setter
 @Entity
 @Table(name = "\"schedule\"")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "schedule")
 public class Schedule {
 
     @Id
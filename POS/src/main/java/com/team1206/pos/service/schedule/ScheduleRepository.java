@@ -1,20 +1,29 @@
 package com.team1206.pos.service.schedule;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, UUID> {
-    // Find schedules for a specific user and day
+    // Find schedules for a specific user and day, results are kept in the query cache until a schedule changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Schedule> findByUserIdAndDayOfWeek(UUID userId, DayOfWeek dayOfWeek);
 
-    // Find schedules for a specific merchant and day
+    // Find schedules for a specific merchant and day, results are kept in the query cache until a schedule changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Schedule> findByMerchantIdAndDayOfWeek(UUID merchantId, DayOfWeek dayOfWeek);
 
     List<Schedule> findByUserId(UUID userId);
 
+    // Find all schedules for several users at once
+    List<Schedule> findByUserIdIn(Collection<UUID> userIds);
+
     // Find all schedules for a specific merchant
     List<Schedule> findByMerchantId(UUID merchantId);
 }
@@ -90,6 +90,11 @@ public class ScheduleService {
         return schedules;
     }
 
+    // Get work hours (schedule) for all days for several users
+    public List<Schedule> getUserSchedules(Collection<UUID> userIds) {
+        return scheduleRepository.findByUserIdIn(userIds);
+    }
+
     // Get work hours (schedule) for a specific day for a merchant
     public List<Schedule> getMerchantScheduleByDay(UUID merchantId, DayOfWeek dayOfWeek) {
         List<Schedule> schedules = scheduleRepository.findByMerchantIdAndDayOfWeek(merchantId, dayOfWeek);
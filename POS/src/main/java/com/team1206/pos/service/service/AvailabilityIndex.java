@@ -0,0 +1,99 @@
+package com.team1206.pos.service.service;
+
+import com.team1206.pos.service.reservation.BookedInterval;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Busy time of one employee as sorted, merged intervals. Overlapping reservations are merged when building,
+// so the intervals are disjoint and checking a slot is a single binary search.
+public class AvailabilityIndex {
+    public static final AvailabilityIndex EMPTY = new AvailabilityIndex(new LocalDateTime[0], new LocalDateTime[0]);
+
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+
+    private AvailabilityIndex(LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static AvailabilityIndex of(List<BookedInterval> bookings) {
+        List<BookedInterval> sorted = bookings.stream()
+                                              .sorted(Comparator.comparing(BookedInterval::start))
+                                              .toList();
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+        for (BookedInterval booking : sorted) {
+            int last = ends.size() - 1;
+            if (last >= 0 && !booking.start().isAfter(ends.get(last))) {
+                if (booking.end().isAfter(ends.get(last))) {
+                    ends.set(last, booking.end());
+                }
+            }
+            else {
+                starts.add(booking.start());
+                ends.add(booking.end());
+            }
+        }
+
+        return new AvailabilityIndex(starts.toArray(LocalDateTime[]::new), ends.toArray(LocalDateTime[]::new));
+    }
+
+    public boolean isFree(LocalDateTime start, LocalDateTime end) {
+        // Only the last interval starting before the slot ends can reach into the slot, earlier ones end before it starts
+        int candidate = findLastStartingBefore(end);
+        return candidate < 0 || !ends[candidate].isAfter(start);
+    }
+
+    // Slots of the given length laid back to back from the window start, slots overlapping a reservation are left out
+    public List<AvailableSlotsResponseDTO.Slot> getFreeSlots(LocalDateTime windowStart,
+                                                            LocalDateTime windowEnd,
+                                                            long durationSeconds) {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Service duration must be positive");
+        }
+
+        List<AvailableSlotsResponseDTO.Slot> slots = new ArrayList<>();
+        LocalDateTime slotStartTime = windowStart;
+        LocalDateTime slotEndTime = slotStartTime.plusSeconds(durationSeconds);
+        while (!slotEndTime.isAfter(windowEnd)) {
+            if (isFree(slotStartTime, slotEndTime)) {
+                AvailableSlotsResponseDTO.Slot slot = new AvailableSlotsResponseDTO.Slot();
+                slot.setStartTime(slotStartTime);
+                slot.setEndTime(slotEndTime);
+                slots.add(slot);
+            }
+
+            slotStartTime = slotEndTime;
+            slotEndTime = slotStartTime.plusSeconds(durationSeconds);
+        }
+        return slots;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    // *** Helper methods ***
+
+    private int findLastStartingBefore(LocalDateTime time) {
+        int low = 0;
+        int high = starts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle].isBefore(time)) {
+                found = middle;
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+}
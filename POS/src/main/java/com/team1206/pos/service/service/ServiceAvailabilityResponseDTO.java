@@ -0,0 +1,19 @@
+package com.team1206.pos.service.service;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class ServiceAvailabilityResponseDTO {
+    private List<EmployeeSlots> items = new ArrayList<>();
+
+    @Data
+    public static class EmployeeSlots {
+        private UUID employeeId;
+        private String employeeFullName;
+        private List<AvailableSlotsResponseDTO.Slot> slots = new ArrayList<>();
+    }
+}
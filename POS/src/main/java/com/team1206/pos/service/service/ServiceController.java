@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -111,4 +112,20 @@ public class ServiceController {
         log.debug("Returning {} to get available reservation slots request (serviceId={} date={} userId={})", response, serviceId, date, userId);
         return ResponseEntity.ok(response);
     }
+
+    // GET: Get available reservation slots of several employees over several days
+    @GetMapping("/{serviceId}/availability")
+    @Operation(summary = "Get available reservation slots for given service per employee over a range of days")
+    public ResponseEntity<ServiceAvailabilityResponseDTO> getAvailability(
+            @PathVariable UUID serviceId,
+            @RequestParam(value = "from") LocalDate from,
+            @RequestParam(value = "to") LocalDate to,
+            @RequestParam(value = "employeeIds", required = false) List<UUID> employeeIds) {
+        log.info("Received get service availability request: serviceId={} from={} to={} employeeIds={}", serviceId, from, to, employeeIds);
+
+        ServiceAvailabilityResponseDTO response = serviceService.getAvailability(serviceId, from, to, employeeIds);
+
+        log.debug("Returning {} to get service availability request (serviceId={} from={} to={} employeeIds={})", response, serviceId, from, to, employeeIds);
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,10 @@
+package com.team1206.pos.service.service;
+
+import java.util.UUID;
+
+// Name of an employee providing a service, all that a service list shows of its employees
+public record ServiceEmployeeName(UUID serviceId, String firstName, String lastName) {
+    public String fullName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -2,15 +2,20 @@ package com.team1206.pos.service.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface ServiceRepository extends JpaRepository<Service, UUID> {
 
+    // The merchant is joined in the same query, employee names are read for the whole page with findEmployeeNames
+    @EntityGraph(attributePaths = "merchant")
     @Query("SELECT s FROM Service s " +
             "WHERE (s.merchant.id = :merchantId) " +
             "AND (:name IS NULL OR s.name LIKE %:name%) " +
@@ -21,4 +26,8 @@ public interface ServiceRepository extends JpaRepository<Service, UUID> {
                                      @Param("duration") Long duration,
                                      @Param("merchantId") UUID merchantId,
                                      Pageable pageable);
+
+    @Query("SELECT new com.team1206.pos.service.service.ServiceEmployeeName(s.id, e.firstName, e.lastName) " +
+            "FROM Service s JOIN s.employees e WHERE s.id IN :serviceIds")
+    List<ServiceEmployeeName> findEmployeeNames(@Param("serviceIds") Collection<UUID> serviceIds);
 }
@@ -1,11 +1,10 @@
 package com.team1206.pos.service.service;
 
-import com.team1206.pos.common.enums.ChargeType;
 import com.team1206.pos.common.enums.ResourceType;
 import com.team1206.pos.common.enums.UserRoles;
 import com.team1206.pos.exceptions.ResourceNotFoundException;
-import com.team1206.pos.payments.charge.Charge;
-import com.team1206.pos.service.reservation.Reservation;
+import com.team1206.pos.order.order.OrderTotalsService;
+import com.team1206.pos.service.reservation.BookedInterval;
 import com.team1206.pos.service.reservation.ReservationService;
 import com.team1206.pos.service.schedule.Schedule;
 import com.team1206.pos.service.schedule.ScheduleService;
@@ -13,40 +12,53 @@ import com.team1206.pos.user.merchant.Merchant;
 import com.team1206.pos.user.merchant.MerchantService;
 import com.team1206.pos.user.user.User;
 import com.team1206.pos.user.user.UserService;
+import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ServiceService {
+    private static final int MAX_AVAILABILITY_DAYS = 31;
+    private static final Duration BOOKING_LOOKBACK = Duration.ofDays(1);
+
     private final ServiceRepository serviceRepository;
     private final UserService userService;
     private final MerchantService merchantService;
     private final ScheduleService scheduleService;
     @Lazy
     private final ReservationService reservationService;
+    private final OrderTotalsService orderTotalsService;
 
     public ServiceService(ServiceRepository serviceRepository,
                           UserService userService,
                           MerchantService merchantService,
                           ScheduleService scheduleService,
-                          @Lazy ReservationService reservationService) {
+                          @Lazy ReservationService reservationService,
+                          OrderTotalsService orderTotalsService) {
         this.serviceRepository = serviceRepository;
         this.userService = userService;
         this.merchantService = merchantService;
         this.scheduleService = scheduleService;
         this.reservationService = reservationService;
+        this.orderTotalsService = orderTotalsService;
     }
 
     // Get services paginated
@@ -57,7 +69,7 @@ public class ServiceService {
         // Fetch the filtered results
         Page<com.team1206.pos.service.service.Service> servicePage = serviceRepository.findAllWithFilters(name, price, duration, merchantId, pageable);
 
-        return servicePage.map(this::mapToResponseDTO);
+        return new PageImpl<>(mapToResponseDTOs(servicePage.getContent()), pageable, servicePage.getTotalElements());
     }
 
 
@@ -79,11 +91,15 @@ public class ServiceService {
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.SERVICE, serviceId.toString()));
 
         Merchant merchant = merchantService.findById(userService.getMerchantIdFromLoggedInUser());
+        boolean priceChanged = service.getPrice().compareTo(requestDTO.getPrice()) != 0;
 
         SetServiceFieldsFromRequestDTO(service, requestDTO);
         service.setMerchant(merchant);
 
         com.team1206.pos.service.service.Service updatedService = serviceRepository.save(service);
+        if (priceChanged) {
+            orderTotalsService.recalculateOpenOrders(merchant.getId());
+        }
         return mapToResponseDTO(updatedService);
     }
 
@@ -106,71 +122,87 @@ public class ServiceService {
 
     // Get available slots for a service on a given date
     public AvailableSlotsResponseDTO getAvailableSlots(UUID serviceId, LocalDate date, UUID userId) {
-        if (!date.isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException("The date must not be in the past");
-        }
-        // Get the day of the week for the given date
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        verifyDateInFuture(date);
 
         // Fetch employee's schedule for the given day
-        List<Schedule> schedules = scheduleService.getUserScheduleByDay(userId, dayOfWeek);
-
-        // Create the response DTO
-        AvailableSlotsResponseDTO responseDTO = new AvailableSlotsResponseDTO();
+        List<Schedule> schedules = scheduleService.getUserScheduleByDay(userId, date.getDayOfWeek());
+        verifyWorkingDay(schedules);
 
-        // Get service duration (in seconds) from the service entity
         com.team1206.pos.service.service.Service service = getServiceEntityById(serviceId);
-        Long serviceDurationInSeconds = service.getDuration();  // Service duration in seconds
+        AvailabilityIndex availability = loadAvailability(List.of(userId), date.atStartOfDay(), date.plusDays(1).atStartOfDay(), null)
+                .getOrDefault(userId, AvailabilityIndex.EMPTY);
 
-        // Fetch existing reservations for the given date and employee
-        List<Reservation> existingReservations = reservationService.findReservationsByEmployeeAndDate(userId, date);
+        AvailableSlotsResponseDTO responseDTO = new AvailableSlotsResponseDTO();
+        responseDTO.getItems().addAll(getFreeSlots(availability, schedules, date, service.getDuration()));
+        return responseDTO;
+    }
 
-        // If there are no reservations, consider all slots within the schedule as available
-        existingReservations = (existingReservations == null) ? List.of() : existingReservations;
+    // Get available slots of several employees over several days. Service employees are used when none are given.
+    @Transactional
+    public ServiceAvailabilityResponseDTO getAvailability(UUID serviceId, LocalDate from, LocalDate to, List<UUID> employeeIds) {
+        verifyDateInFuture(from);
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The end date must not be before the start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+            throw new IllegalArgumentException("Availability can be requested for at most " + MAX_AVAILABILITY_DAYS + " days");
+        }
 
-        // Iterate through each schedule (employee's work time)
-        for (Schedule schedule : schedules) {
-            if (schedule.getStartTime() == null || schedule.getEndTime() == null) {
-                throw new IllegalArgumentException("This employee is not working today!");
-            }
-            // Convert LocalTime to LocalDateTime based on the given date
-            LocalDateTime scheduleStartTime;
-            if (date.isEqual(LocalDate.now())) {
-                scheduleStartTime = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
-            } else {
-                scheduleStartTime = LocalDateTime.of(date, schedule.getStartTime());
+        com.team1206.pos.service.service.Service service = getServiceEntityById(serviceId);
+        userService.verifyLoggedInUserBelongsToMerchant(service.getMerchant().getId(), "You are not authorized to view this service");
+        List<User> employees = employeeIds == null || employeeIds.isEmpty()
+                ? service.getEmployees()
+                : getServiceEmployees(service, employeeIds);
+        List<UUID> ids = employees.stream().map(User::getId).toList();
+
+        Map<UUID, Map<DayOfWeek, List<Schedule>>> schedulesByEmployee = scheduleService.getUserSchedules(ids)
+                .stream()
+                .filter(schedule -> schedule.getStartTime() != null && schedule.getEndTime() != null)
+                .collect(Collectors.groupingBy(schedule -> schedule.getUser().getId(),
+                                               Collectors.groupingBy(Schedule::getDayOfWeek)));
+        Map<UUID, AvailabilityIndex> availabilityByEmployee = loadAvailability(ids, from.atStartOfDay(), to.plusDays(1).atStartOfDay(), null);
+
+        ServiceAvailabilityResponseDTO responseDTO = new ServiceAvailabilityResponseDTO();
+        for (User employee : employees) {
+            ServiceAvailabilityResponseDTO.EmployeeSlots employeeSlots = new ServiceAvailabilityResponseDTO.EmployeeSlots();
+            employeeSlots.setEmployeeId(employee.getId());
+            employeeSlots.setEmployeeFullName(employee.getFirstName() + " " + employee.getLastName());
+
+            Map<DayOfWeek, List<Schedule>> schedules = schedulesByEmployee.getOrDefault(employee.getId(), Map.of());
+            AvailabilityIndex availability = availabilityByEmployee.getOrDefault(employee.getId(), AvailabilityIndex.EMPTY);
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                List<Schedule> daySchedules = schedules.getOrDefault(date.getDayOfWeek(), List.of());
+                employeeSlots.getSlots().addAll(getFreeSlots(availability, daySchedules, date, service.getDuration()));
             }
+            responseDTO.getItems().add(employeeSlots);
+        }
+        return responseDTO;
+    }
 
-            LocalDateTime scheduleEndTime = LocalDateTime.of(date, schedule.getEndTime());
-
-            // Calculate the available slots based on the service duration
-            LocalDateTime slotStartTime = scheduleStartTime;
-            while (slotStartTime.plusSeconds(serviceDurationInSeconds).isBefore(scheduleEndTime)) {
-                LocalDateTime slotEndTime = slotStartTime.plusSeconds(serviceDurationInSeconds);
-
-                // Check if the slot is already occupied by an existing reservation
-                LocalDateTime finalSlotStartTime = slotStartTime;
-                boolean isSlotOccupied = existingReservations.stream().anyMatch(reservation ->
-                        !finalSlotStartTime.isBefore(reservation.getAppointedAt()) &&
-                                slotEndTime.isAfter(reservation.getAppointedAt()) &&
-                                finalSlotStartTime.isBefore(reservation.getAppointedAt().plusSeconds(reservation.getService().getDuration()))
-                );
-
-                // If the slot is not occupied, add it to the available slots list
-                if (!isSlotOccupied) {
-                    AvailableSlotsResponseDTO.Slot slot = new AvailableSlotsResponseDTO.Slot();
-                    slot.setStartTime(slotStartTime);
-                    slot.setEndTime(slotEndTime);
-                    responseDTO.getItems().add(slot);
-                }
-
-                // Move to the next available time slot
-                slotStartTime = slotEndTime;
-            }
+    // Check that a reservation of the service fits into the employee's working hours without overlapping another one.
+    // The reservation being moved is passed as ignoredReservationId, so its current time does not block the new one.
+    public boolean isSlotAvailable(com.team1206.pos.service.service.Service service,
+                                   UUID employeeId,
+                                   LocalDateTime startTime,
+                                   UUID ignoredReservationId) {
+        LocalDate date = startTime.toLocalDate();
+        verifyDateInFuture(date);
+
+        List<Schedule> schedules = scheduleService.getUserScheduleByDay(employeeId, date.getDayOfWeek());
+        verifyWorkingDay(schedules);
+
+        LocalDateTime endTime = startTime.plusSeconds(service.getDuration());
+        boolean withinSchedule = schedules.stream().anyMatch(schedule ->
+                !startTime.isBefore(LocalDateTime.of(date, schedule.getStartTime()))
+                        && !endTime.isAfter(LocalDateTime.of(date, schedule.getEndTime()))
+        );
+        if (!withinSchedule) {
+            return false;
         }
 
-        // Return the response DTO with the available slots
-        return responseDTO;
+        return loadAvailability(List.of(employeeId), startTime, endTime, ignoredReservationId)
+                .getOrDefault(employeeId, AvailabilityIndex.EMPTY)
+                .isFree(startTime, endTime);
     }
 
 
@@ -180,43 +212,106 @@ public class ServiceService {
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.SERVICE, serviceId.toString()));
     }
 
-    public BigDecimal getFinalPrice(UUID serviceId) {
-        com.team1206.pos.service.service.Service service = serviceRepository.findById(serviceId)
-                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.SERVICE, serviceId.toString()));
+    // *** Helper methods ***
+
+    // Loads booked time of the employees in one query. Reservations starting up to a day earlier are included,
+    // because they can still run into the window.
+    private Map<UUID, AvailabilityIndex> loadAvailability(List<UUID> employeeIds,
+                                                          LocalDateTime from,
+                                                          LocalDateTime to,
+                                                          UUID ignoredReservationId) {
+        if (employeeIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, List<BookedInterval>> bookingsByEmployee = reservationService.findBookedIntervals(employeeIds, from.minus(BOOKING_LOOKBACK), to)
+                .stream()
+                .filter(booking -> !booking.reservationId().equals(ignoredReservationId))
+                .collect(Collectors.groupingBy(BookedInterval::employeeId));
 
-        BigDecimal finalServicePrice = service.getPrice();
-
-        if (service.getCharges() != null) {
-            // Sort charges so that TAX types come first
-            List<Charge> sortedCharges = service.getCharges().stream()
-                    .sorted((c1, c2) -> c1.getType() == ChargeType.TAX ? -1 : 1)
-                    .toList();
-
-            for (Charge charge : sortedCharges) {
-                if (charge.getType() == ChargeType.TAX && charge.getPercent() != null) {
-                    BigDecimal multiplier = BigDecimal.valueOf(100 + charge.getPercent())
-                            .divide(BigDecimal.valueOf(100));
-                    finalServicePrice = finalServicePrice.multiply(multiplier);
-                } else if(charge.getType() == ChargeType.SERVICE && charge.getAmount() != null)
-                    finalServicePrice = finalServicePrice.add(charge.getAmount());
+        Map<UUID, AvailabilityIndex> availability = new HashMap<>();
+        bookingsByEmployee.forEach((employeeId, bookings) -> availability.put(employeeId, AvailabilityIndex.of(bookings)));
+        return availability;
+    }
+
+    // Only employees assigned to the service can be asked for, which also keeps other merchants' staff out
+    private List<User> getServiceEmployees(com.team1206.pos.service.service.Service service, List<UUID> employeeIds) {
+        Map<UUID, User> serviceEmployees = service.getEmployees()
+                .stream()
+                .collect(Collectors.toMap(User::getId, employee -> employee));
+
+        List<User> employees = new ArrayList<>();
+        for (UUID employeeId : new LinkedHashSet<>(employeeIds)) {
+            User employee = serviceEmployees.get(employeeId);
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee " + employeeId + " does not provide this service");
             }
+            employees.add(employee);
         }
+        return employees;
+    }
 
-        finalServicePrice = finalServicePrice.setScale(2, RoundingMode.HALF_UP);
+    List<AvailableSlotsResponseDTO.Slot> getFreeSlots(AvailabilityIndex availability,
+                                                     List<Schedule> schedules,
+                                                     LocalDate date,
+                                                     long durationSeconds) {
+        List<AvailableSlotsResponseDTO.Slot> slots = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            if (schedule.getStartTime() == null || schedule.getEndTime() == null) {
+                continue;
+            }
+            slots.addAll(availability.getFreeSlots(LocalDateTime.of(date, schedule.getStartTime()),
+                                                   LocalDateTime.of(date, schedule.getEndTime()),
+                                                   durationSeconds));
+        }
+        return slots;
+    }
 
-        return finalServicePrice;
+    private void verifyDateInFuture(LocalDate date) {
+        if (!date.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("The date must not be in the past");
+        }
+    }
+
+    private void verifyWorkingDay(List<Schedule> schedules) {
+        boolean notWorking = schedules.stream()
+                                      .anyMatch(schedule -> schedule.getStartTime() == null || schedule.getEndTime() == null);
+        if (notWorking) {
+            throw new IllegalArgumentException("This employee is not working today!");
+        }
     }
 
     // Mappers
-    private ServiceResponseDTO mapToResponseDTO(com.team1206.pos.service.service.Service service) {
+    ServiceResponseDTO mapToResponseDTO(com.team1206.pos.service.service.Service service) {
+        return mapToResponseDTO(service, service.getEmployees().stream()
+                .map(employee -> employee.getFirstName() + " " + employee.getLastName())
+                .toList());
+    }
+
+    // Maps a page of services without loading their employees, the names are read for all services in one query
+    private List<ServiceResponseDTO> mapToResponseDTOs(List<com.team1206.pos.service.service.Service> services) {
+        if (services.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> serviceIds = services.stream().map(com.team1206.pos.service.service.Service::getId).toList();
+        Map<UUID, List<String>> employeeFullNames = serviceRepository.findEmployeeNames(serviceIds)
+                                                                     .stream()
+                                                                     .collect(Collectors.groupingBy(ServiceEmployeeName::serviceId,
+                                                                                                    Collectors.mapping(ServiceEmployeeName::fullName, Collectors.toList())));
+
+        return services.stream()
+                       .map(service -> mapToResponseDTO(service, employeeFullNames.getOrDefault(service.getId(), List.of())))
+                       .toList();
+    }
+
+    private ServiceResponseDTO mapToResponseDTO(com.team1206.pos.service.service.Service service, List<String> employeeFullNames) {
         ServiceResponseDTO dto = new ServiceResponseDTO();
         dto.setId(service.getId());
         dto.setName(service.getName());
         dto.setPrice(service.getPrice());
         dto.setDuration(service.getDuration());
-        dto.setEmployeeFullNames(service.getEmployees().stream()
-                .map(employee -> employee.getFirstName() + " " + employee.getLastName())
-                .toList());
+        dto.setEmployeeFullNames(employeeFullNames);
         dto.setMerchantId(service.getMerchant().getId());
         dto.setCreatedAt(service.getCreatedAt());
         return dto;
@@ -0,0 +1,16 @@
+package com.team1206.pos.sns;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Default sender for development and tests, messages are only written to the log
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sms_sender", havingValue = "log", matchIfMissing = true)
+public class LoggingSmsSender implements SmsSender {
+    @Override
+    public void send(String phoneNumber, String message) {
+        log.info("SMS to {}: {}", phoneNumber, message);
+    }
+}
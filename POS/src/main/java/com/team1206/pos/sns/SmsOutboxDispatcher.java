@@ -0,0 +1,121 @@
+package com.team1206.pos.sns;
+
+import com.team1206.pos.common.enums.SmsStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Drains the SMS outbox in batches. Failed sends are retried with exponential backoff until sms_max_attempts.
+// A batch is leased in a short transaction and sent outside of it, so no row lock is held while SNS answers.
+@Slf4j
+@Component
+public class SmsOutboxDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final SmsOutboxRepository smsOutboxRepository;
+    private final SmsSender smsSender;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private final Timer sendLatency;
+    private final Timer deliveryDelay;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public SmsOutboxDispatcher(SmsOutboxRepository smsOutboxRepository,
+                               SmsSender smsSender,
+                               MeterRegistry meterRegistry,
+                               @Value("${sms_batch_size:50}") int batchSize,
+                               @Value("${sms_max_attempts:5}") int maxAttempts,
+                               @Value("${sms_initial_backoff_ms:2000}") long initialBackoffMs,
+                               @Value("${sms_max_backoff_ms:600000}") long maxBackoffMs,
+                               @Value("${sms_lease_ms:60000}") long leaseMs) {
+        this.smsOutboxRepository = smsOutboxRepository;
+        this.smsSender = smsSender;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = Duration.ofMillis(leaseMs);
+
+        // Counted when the metric is read rather than on every dispatch
+        Gauge.builder("pos.sms.outbox.pending", smsOutboxRepository, repository -> repository.countByStatus(SmsStatus.PENDING))
+             .description("SMS waiting in the outbox")
+             .register(meterRegistry);
+        this.sendLatency = Timer.builder("pos.sms.send.latency")
+                                .description("Time spent handing one SMS to the sender")
+                                .publishPercentiles(0.5, 0.95, 0.99)
+                                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("pos.sms.delivery.delay")
+                                  .description("Time from queueing an SMS until it was sent")
+                                  .register(meterRegistry);
+        this.sent = Counter.builder("pos.sms.sent").register(meterRegistry);
+        this.retried = Counter.builder("pos.sms.retried").register(meterRegistry);
+        this.failed = Counter.builder("pos.sms.failed").register(meterRegistry);
+    }
+
+    // A leased message is sent at most once per lease. If the dispatcher dies mid-batch the lease runs out and the
+    // message is sent again, so delivery is at least once.
+    @Scheduled(fixedDelayString = "${sms_dispatch_interval_ms:1000}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SmsOutbox> batch = smsOutboxRepository.claimPendingBatch(now, now.plus(lease), batchSize);
+
+        for (SmsOutbox sms : batch) {
+            try {
+                sendLatency.record(() -> smsSender.send(sms.getPhone(), sms.getMessage()));
+                LocalDateTime sentAt = LocalDateTime.now();
+                smsOutboxRepository.markSent(sms.getId(), sentAt);
+                deliveryDelay.record(Duration.between(sms.getCreatedAt(), sentAt));
+                sent.increment();
+            } catch (Exception e) {
+                scheduleRetry(sms, e);
+            }
+        }
+    }
+
+    // *** Helper methods ***
+
+    private void scheduleRetry(SmsOutbox sms, Exception e) {
+        int attempts = sms.getAttempts() + 1;
+        String error = truncate(e.getMessage());
+
+        if (attempts >= maxAttempts) {
+            smsOutboxRepository.markFailed(sms.getId(), SmsStatus.FAILED, attempts, sms.getNextAttemptAt(), error);
+            failed.increment();
+            log.error("Giving up on SMS {} after {} attempts: {}", sms.getId(), attempts, e.getMessage());
+            return;
+        }
+
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(getBackoff(attempts));
+        smsOutboxRepository.markFailed(sms.getId(), SmsStatus.PENDING, attempts, nextAttemptAt, error);
+        retried.increment();
+        log.warn("SMS {} failed on attempt {}, retrying at {}", sms.getId(), attempts, nextAttemptAt);
+    }
+
+    // Doubles with every attempt, capped at the maximum backoff
+    private Duration getBackoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
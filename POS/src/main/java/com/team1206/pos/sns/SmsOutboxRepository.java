@@ -0,0 +1,50 @@
+package com.team1206.pos.sns;
+
+import com.team1206.pos.common.enums.SmsStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface SmsOutboxRepository extends JpaRepository<SmsOutbox, UUID> {
+    // Leases a batch by moving its next attempt past the send, the rows are only locked while this statement runs.
+    // Rows locked by another dispatcher are skipped, and a lease left by a crashed dispatcher runs out on its own.
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sms_outbox"))
+    @Query(value = "UPDATE sms_outbox SET next_attempt_at = :leaseUntil, updated_at = :now " +
+            "WHERE id IN (SELECT id FROM sms_outbox " +
+            "             WHERE status = 0 AND next_attempt_at <= :now " +
+            "             ORDER BY next_attempt_at " +
+            "             LIMIT :batchSize " +
+            "             FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *", nativeQuery = true)
+    List<SmsOutbox> claimPendingBatch(@Param("now") LocalDateTime now,
+                                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                                      @Param("batchSize") int batchSize);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SmsOutbox s SET s.status = com.team1206.pos.common.enums.SmsStatus.SENT, s.sentAt = :sentAt, " +
+            "s.lastError = NULL, s.updatedAt = :sentAt WHERE s.id = :id")
+    int markSent(@Param("id") UUID id, @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SmsOutbox s SET s.status = :status, s.attempts = :attempts, s.nextAttemptAt = :nextAttemptAt, " +
+            "s.lastError = :lastError, s.updatedAt = CURRENT_TIMESTAMP WHERE s.id = :id")
+    int markFailed(@Param("id") UUID id,
+                   @Param("status") SmsStatus status,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    long countByStatus(SmsStatus status);
+}
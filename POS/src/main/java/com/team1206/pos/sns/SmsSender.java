@@ -0,0 +1,6 @@
+package com.team1206.pos.sns;
+
+// Delivers a single SMS, picked with the sms_sender property. Failures are thrown as SnsServiceException.
+public interface SmsSender {
+    void send(String phoneNumber, String message);
+}
@@ -0,0 +1,45 @@
+package com.team1206.pos.sns;
+
+import com.team1206.pos.exceptions.SnsServiceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+// Publishes through the shared SnsClient bean, which keeps its HTTP connections open between sends
+// Only used where sms_sender=sns is set explicitly, so development and test runs never reach real phones
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sms_sender", havingValue = "sns")
+public class SnsSmsSender implements SmsSender {
+    private final SnsClient snsClient;
+
+    public SnsSmsSender(SnsClient snsClient) {
+        this.snsClient = snsClient;
+    }
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        PublishRequest request = PublishRequest.builder()
+                .message(message)                 // Message body
+                .phoneNumber(phoneNumber)         // Phone number (in E.164 format, e.g., "+15551234567")
+                .build();
+
+        try {
+            PublishResponse response = snsClient.publish(request);
+            log.info("Message sent with ID: {}", response.messageId());
+        } catch (SnsException snsException) {
+            // Extract details from the AWS exception
+            log.error("AWS SNS Error: {}\nAWS SNS Error Code: {}\nAWS SNS Service Name: {}",
+                    snsException.awsErrorDetails().errorMessage(), snsException.awsErrorDetails().errorCode(), snsException.awsErrorDetails().serviceName());
+
+            throw new SnsServiceException("Failed to send SMS via AWS SNS", snsException);
+        } catch (Exception e) {
+            log.error("Unexpected error while sending SMS: {}", e.toString());
+            throw new SnsServiceException("An unexpected error occurred", e);
+        }
+    }
+}
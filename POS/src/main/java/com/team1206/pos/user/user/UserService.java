@@ -1,5 +1,8 @@
 package com.team1206.pos.user.user;
 
+import com.team1206.pos.authentication.security.POSUserPrincipal;
+import com.team1206.pos.authentication.security.TokenRevocationCache;
+import com.team1206.pos.authentication.security.UserLookupCounter;
 import com.team1206.pos.common.dto.WorkHoursDTO;
 import com.team1206.pos.common.enums.ResourceType;
 import com.team1206.pos.common.enums.UserRoles;
@@ -13,6 +16,8 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.time.DayOfWeek;
 import java.util.*;
@@ -20,15 +25,20 @@ import java.util.stream.Collectors;
 
 @Service
 public class UserService {
+    private static final String CURRENT_USER_ATTRIBUTE = UserService.class.getName() + ".currentUser";
 
     private final UserRepository userRepository;
     private final MerchantRepository merchantRepository;
     private final ScheduleService scheduleService;
+    private final UserLookupCounter userLookupCounter;
+    private final TokenRevocationCache tokenRevocationCache;
 
-    public UserService(UserRepository userRepository, MerchantRepository merchantRepository, ScheduleService scheduleService) {
+    public UserService(UserRepository userRepository, MerchantRepository merchantRepository, ScheduleService scheduleService, UserLookupCounter userLookupCounter, TokenRevocationCache tokenRevocationCache) {
         this.userRepository = userRepository;
         this.merchantRepository = merchantRepository;
         this.scheduleService = scheduleService;
+        this.userLookupCounter = userLookupCounter;
+        this.tokenRevocationCache = tokenRevocationCache;
     }
 
     public UserResponseDTO createUser(UserRequestDTO request) {
@@ -82,6 +92,8 @@ public class UserService {
 
         setUserUpdateFieldsFromRequest(targetUser, request);
         User updatedUser = userRepository.save(targetUser);
+        tokenRevocationCache.markChanged(userId);
+        evictCurrentUser();
         return mapToResponseDTO(updatedUser);
     }
 
@@ -92,6 +104,8 @@ public class UserService {
 
         verifySameMerchantIfOwner(targetUser);
         userRepository.delete(targetUser);
+        tokenRevocationCache.markChanged(userId);
+        evictCurrentUser();
     }
 
     public UserResponseDTO assignMerchantToUser(UUID userId, UUID merchantId) {
@@ -108,6 +122,8 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(targetUser);
+        tokenRevocationCache.markChanged(userId);
+        evictCurrentUser();
         return mapToResponseDTO(updatedUser);
     }
 
@@ -132,6 +148,8 @@ public class UserService {
 
         // Save the changes
         User updatedUser = userRepository.save(currentUser);
+        tokenRevocationCache.markChanged(updatedUser.getId());
+        evictCurrentUser();
 
         return mapToResponseDTO(updatedUser);
     }
@@ -165,21 +183,18 @@ public class UserService {
     }
 
     public UUID getMerchantIdFromLoggedInUser() {
-        String email =
-                ((org.springframework.security.core.userdetails.User) SecurityContextHolder.getContext()
-                        .getAuthentication()
-                        .getPrincipal()).getUsername();
-
-        return userRepository.findByEmail(email)
-                .map(User::getMerchant)
-                .map(Merchant::getId)
-                .orElseThrow(() -> new UnauthorizedActionException("User has to have a Merchant assigned"));
+        UUID merchantId = getCurrentPrincipal().getMerchantId();
+        if (merchantId == null) {
+            throw new UnauthorizedActionException("User has to have a Merchant assigned");
+        }
+        return merchantId;
     }
 
     // MAIN VALIDATION METHOD
     public void verifyLoggedInUserBelongsToMerchant(UUID merchantId, String messageIfInvalid) {
+        POSUserPrincipal principal = getCurrentPrincipal();
         // If User is assigned to a different Merchant or the super-admin didn't choose the Merchant yet (or regular user, which hasn't been assigned a merchant yet)
-        if ((getCurrentUser().getRole() == UserRoles.SUPER_ADMIN && getCurrentUser().getMerchant() == null) || !getMerchantIdFromLoggedInUser().equals(merchantId)) {
+        if ((principal.getRole() == UserRoles.SUPER_ADMIN && principal.getMerchantId() == null) || !getMerchantIdFromLoggedInUser().equals(merchantId)) {
             throw new UnauthorizedActionException(messageIfInvalid);
         }
     }
@@ -190,18 +205,40 @@ public class UserService {
         }
     }
 
+    // Loaded at most once per request, later calls reuse the same entity
     public User getCurrentUser() {
-        String email =
-                ((org.springframework.security.core.userdetails.User) SecurityContextHolder.getContext()
-                        .getAuthentication()
-                        .getPrincipal()).getUsername();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cachedUser) {
+            return cachedUser;
+        }
 
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, email));
+        POSUserPrincipal principal = getCurrentPrincipal();
+        userLookupCounter.increment();
+        User currentUser = userRepository.findById(principal.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, principal.getUsername()));
+
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return currentUser;
+    }
+
+    // Called after writes to users, so the rest of the request reloads the current user with its new merchant and role
+    private void evictCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public POSUserPrincipal getCurrentPrincipal() {
+        return (POSUserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
     }
 
     private UserRoles getCurrentUserRole() {
-        return getCurrentUser().getRole();
+        return getCurrentPrincipal().getRole();
     }
 
     public boolean isCurrentUserRole(UserRoles role) {
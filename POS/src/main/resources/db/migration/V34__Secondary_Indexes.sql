@@ -0,0 +1,86 @@
+CREATE INDEX idx_order_merchant_created_at ON "order" (merchant_id, created_at);
+
+CREATE INDEX idx_order_merchant_status_created_at ON "order" (merchant_id, status, created_at);
+
+CREATE INDEX idx_order_item_order ON order_item (order_id);
+
+CREATE INDEX idx_order_item_product ON order_item (product_id);
+
+CREATE INDEX idx_order_item_product_variation ON order_item (product_variation_id);
+
+CREATE INDEX idx_order_charge_merchant ON order_charge (merchant_id);
+
+CREATE INDEX idx_order_charges_orders_order ON order_charges_orders (order_id, order_charge_id);
+
+CREATE INDEX idx_order_charges_orders_order_charge ON order_charges_orders (order_charge_id);
+
+CREATE INDEX idx_orders_discounts_order ON orders_discounts (order_id);
+
+CREATE INDEX idx_order_items_discounts_order_item ON order_items_discounts (order_item_id);
+
+CREATE INDEX idx_transaction_order_status ON transaction (order_id, status);
+
+CREATE INDEX idx_reservation_employee_appointed_at ON reservation (employee_id, appointed_at);
+
+CREATE INDEX idx_reservation_service_appointed_at ON reservation (service_id, appointed_at);
+
+CREATE INDEX idx_service_merchant ON service (merchant_id);
+
+CREATE INDEX idx_services_users_service ON services_users (service_id);
+
+CREATE INDEX idx_services_users_user ON services_users (user_id);
+
+CREATE INDEX idx_user_merchant ON "user" (merchant_id);
+
+CREATE INDEX idx_schedule_user_day_of_week ON schedule (user_id, day_of_week);
+
+CREATE INDEX idx_schedule_merchant_day_of_week ON schedule (merchant_id, day_of_week);
+
+CREATE INDEX idx_product_category_merchant ON product_category (merchant_id);
+
+CREATE INDEX idx_product_category ON product (category);
+
+CREATE INDEX idx_product_variation_product ON product_variation (product);
+
+CREATE INDEX idx_charge_merchant_type ON charge (merchant_id, type);
+
+CREATE INDEX idx_charges_products_product ON charges_products (product_id);
+
+CREATE INDEX idx_charges_products_charge ON charges_products (charge_id);
+
+CREATE INDEX idx_charges_services_service ON charges_services (service_id);
+
+CREATE INDEX idx_charges_services_charge ON charges_services (charge_id);
+
+CREATE INDEX idx_discount_merchant ON discount (merchant_id);
+
+CREATE INDEX idx_discounts_products_product ON discounts_products (product_id);
+
+CREATE INDEX idx_discounts_product_variations_product_variation ON discounts_product_variations (product_variation_id);
+
+CREATE INDEX idx_discounts_product_categories_product_category ON discounts_product_categories (product_category_id);
+
+CREATE INDEX idx_discounts_services_service ON discounts_services (service_id);
+
+-- Logs are listed per merchant, storing the merchant lets one index serve both the filter and the ordering
+ALTER TABLE inventory_log
+    ADD merchant_id UUID;
+
+UPDATE inventory_log il
+SET merchant_id = u.merchant_id
+FROM "user" u
+WHERE u.id = il."user";
+
+ALTER TABLE inventory_log
+    ADD CONSTRAINT FK_INVENTORYLOG_ON_MERCHANT FOREIGN KEY (merchant_id) REFERENCES merchant (id);
+
+-- Every filter is combined with the keyset order (created_at, id), so each index ends with it
+CREATE INDEX idx_inventory_log_merchant_created_at ON inventory_log (merchant_id, created_at DESC, id DESC);
+
+CREATE INDEX idx_inventory_log_user_created_at ON inventory_log ("user", created_at DESC, id DESC);
+
+CREATE INDEX idx_inventory_log_product_created_at ON inventory_log (product_id, created_at DESC, id DESC);
+
+CREATE INDEX idx_inventory_log_product_variation_created_at ON inventory_log (product_variation_id, created_at DESC, id DESC);
+
+CREATE INDEX idx_inventory_log_order_created_at ON inventory_log ("order", created_at DESC, id DESC);
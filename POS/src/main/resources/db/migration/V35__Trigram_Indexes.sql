@@ -0,0 +1,11 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_product_name_trgm ON product USING gin (name gin_trgm_ops);
+
+CREATE INDEX idx_service_name_trgm ON service USING gin (name gin_trgm_ops);
+
+CREATE INDEX idx_reservation_customer_name_trgm ON reservation USING gin ((first_name || ' ' || last_name) gin_trgm_ops);
+
+CREATE INDEX idx_reservation_phone_trgm ON reservation USING gin (phone gin_trgm_ops);
+
+CREATE INDEX idx_user_email_trgm ON "user" USING gin (email gin_trgm_ops);
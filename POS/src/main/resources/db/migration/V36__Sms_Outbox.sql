@@ -0,0 +1,17 @@
+CREATE TABLE sms_outbox
+(
+    id              UUID                        NOT NULL,
+    phone           VARCHAR(20)                 NOT NULL,
+    message         VARCHAR(1600)               NOT NULL,
+    status          SMALLINT                    NOT NULL,
+    attempts        INTEGER                     NOT NULL,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    last_error      VARCHAR(1000),
+    sent_at         TIMESTAMP WITHOUT TIME ZONE,
+    created_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    updated_at      TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_sms_outbox PRIMARY KEY (id)
+);
+
+-- Only pending messages are ever polled, so the index stays small as sent messages pile up
+CREATE INDEX idx_sms_outbox_pending ON sms_outbox (next_attempt_at) WHERE status = 0;
@@ -0,0 +1,18 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- The booked end is stored on the reservation, an exclusion constraint can not look up the service duration
+ALTER TABLE reservation
+    ADD ends_at TIMESTAMP WITHOUT TIME ZONE;
+
+UPDATE reservation r
+SET ends_at = r.appointed_at + s.duration * INTERVAL '1 second'
+FROM service s
+WHERE s.id = r.service_id;
+
+ALTER TABLE reservation
+    ALTER COLUMN ends_at SET NOT NULL;
+
+-- An employee can not be booked twice at the same time. Ranges are half-open, so back to back bookings are allowed.
+ALTER TABLE reservation
+    ADD CONSTRAINT ex_reservation_employee_overlap
+        EXCLUDE USING gist (employee_id WITH =, tsrange(appointed_at, ends_at) WITH &&);
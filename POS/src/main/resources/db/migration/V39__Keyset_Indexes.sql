@@ -0,0 +1,20 @@
+-- Cursor pages are ordered by (created_at, id) descending, so the id is added as a tie-breaker to the list indexes.
+-- Backward scans serve the descending order.
+DROP INDEX idx_order_merchant_created_at;
+DROP INDEX idx_order_merchant_status_created_at;
+
+CREATE INDEX idx_order_merchant_created_at ON "order" (merchant_id, created_at, id);
+
+CREATE INDEX idx_order_merchant_status_created_at ON "order" (merchant_id, status, created_at, id);
+
+CREATE INDEX idx_transaction_order_created_at ON transaction (order_id, created_at, id);
+
+CREATE INDEX idx_reservation_created_at ON reservation (created_at, id);
+
+CREATE INDEX idx_product_created_at ON product (created_at, id);
+
+CREATE INDEX idx_product_category_created_at ON product (category, created_at, id);
+
+CREATE INDEX idx_charge_merchant_created_at ON charge (merchant_id, created_at, id);
+
+CREATE INDEX idx_charge_merchant_type_created_at ON charge (merchant_id, type, created_at, id);
@@ -0,0 +1,16 @@
+-- Totals kept up to date by every change to the order's items, order charges and transactions.
+-- They stay NULL for existing orders until the order is first priced again.
+ALTER TABLE "order"
+    ADD subtotal DECIMAL(19, 2);
+
+ALTER TABLE "order"
+    ADD charge_total DECIMAL(19, 2);
+
+ALTER TABLE "order"
+    ADD discount_total DECIMAL(19, 2);
+
+ALTER TABLE "order"
+    ADD amount_due DECIMAL(19, 2);
+
+ALTER TABLE "order"
+    ADD amount_paid DECIMAL(19, 2);
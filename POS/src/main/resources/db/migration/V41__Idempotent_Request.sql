@@ -0,0 +1,17 @@
+CREATE TABLE idempotent_request
+(
+    id              UUID                        NOT NULL,
+    user_id         UUID                        NOT NULL,
+    idempotency_key VARCHAR(255)                NOT NULL,
+    request_hash    VARCHAR(64)                 NOT NULL,
+    status_code     INTEGER,
+    content_type    VARCHAR(255),
+    response_body   BYTEA,
+    created_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    expires_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotent_request PRIMARY KEY (id),
+    CONSTRAINT uc_idempotent_request_user_key UNIQUE (user_id, idempotency_key)
+);
+
+-- Expired requests are deleted in bulk by expiry
+CREATE INDEX idx_idempotent_request_expires_at ON idempotent_request (expires_at);
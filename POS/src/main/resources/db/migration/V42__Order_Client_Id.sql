@@ -0,0 +1,5 @@
+ALTER TABLE "order"
+    ADD COLUMN client_order_id UUID;
+
+-- Orders synced from a till are looked up by the id the till gave them, other orders have none
+CREATE UNIQUE INDEX uc_order_merchant_client_order_id ON "order" (merchant_id, client_order_id) WHERE client_order_id IS NOT NULL;
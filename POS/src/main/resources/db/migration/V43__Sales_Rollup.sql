@@ -0,0 +1,67 @@
+-- Sales summed per merchant and day as orders close and payments change, reports read these instead of orders.
+-- Item and charge ids have no foreign keys, so deleting a product or charge keeps its past sales.
+CREATE TABLE sales_daily
+(
+    id             UUID           NOT NULL,
+    merchant_id    UUID           NOT NULL,
+    sales_date     DATE           NOT NULL,
+    order_count    INTEGER        NOT NULL,
+    subtotal       NUMERIC(19, 2) NOT NULL,
+    charge_total   NUMERIC(19, 2) NOT NULL,
+    discount_total NUMERIC(19, 2) NOT NULL,
+    tip            NUMERIC(19, 2) NOT NULL,
+    amount_due     NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_sales_daily PRIMARY KEY (id),
+    CONSTRAINT uc_sales_daily_merchant_date UNIQUE (merchant_id, sales_date)
+);
+
+CREATE TABLE sales_item_daily
+(
+    id           UUID           NOT NULL,
+    merchant_id  UUID           NOT NULL,
+    sales_date   DATE           NOT NULL,
+    item_type    SMALLINT       NOT NULL,
+    item_id      UUID           NOT NULL,
+    quantity     INTEGER        NOT NULL,
+    gross_amount NUMERIC(19, 2) NOT NULL,
+    tax_amount   NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_sales_item_daily PRIMARY KEY (id),
+    CONSTRAINT uc_sales_item_daily_merchant_date_item UNIQUE (merchant_id, sales_date, item_type, item_id)
+);
+
+CREATE TABLE sales_tax_daily
+(
+    id          UUID           NOT NULL,
+    merchant_id UUID           NOT NULL,
+    sales_date  DATE           NOT NULL,
+    charge_id   UUID           NOT NULL,
+    tax_amount  NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_sales_tax_daily PRIMARY KEY (id),
+    CONSTRAINT uc_sales_tax_daily_merchant_date_charge UNIQUE (merchant_id, sales_date, charge_id)
+);
+
+CREATE TABLE sales_payment_daily
+(
+    id               UUID           NOT NULL,
+    merchant_id      UUID           NOT NULL,
+    sales_date       DATE           NOT NULL,
+    payment_method   SMALLINT       NOT NULL,
+    completed_count  INTEGER        NOT NULL,
+    completed_amount NUMERIC(19, 2) NOT NULL,
+    refunded_count   INTEGER        NOT NULL,
+    refunded_amount  NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_sales_payment_daily PRIMARY KEY (id),
+    CONSTRAINT uc_sales_payment_daily_merchant_date_method UNIQUE (merchant_id, sales_date, payment_method)
+);
+
+ALTER TABLE sales_daily
+    ADD CONSTRAINT FK_SALES_DAILY_ON_MERCHANT FOREIGN KEY (merchant_id) REFERENCES merchant (id) ON DELETE CASCADE;
+
+ALTER TABLE sales_item_daily
+    ADD CONSTRAINT FK_SALES_ITEM_DAILY_ON_MERCHANT FOREIGN KEY (merchant_id) REFERENCES merchant (id) ON DELETE CASCADE;
+
+ALTER TABLE sales_tax_daily
+    ADD CONSTRAINT FK_SALES_TAX_DAILY_ON_MERCHANT FOREIGN KEY (merchant_id) REFERENCES merchant (id) ON DELETE CASCADE;
+
+ALTER TABLE sales_payment_daily
+    ADD CONSTRAINT FK_SALES_PAYMENT_DAILY_ON_MERCHANT FOREIGN KEY (merchant_id) REFERENCES merchant (id) ON DELETE CASCADE;
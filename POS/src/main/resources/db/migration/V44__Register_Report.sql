@@ -0,0 +1,51 @@
+-- X- and Z-reports of a merchant's register. Each row is written once with the totals of its period and never updated,
+-- so printing a past report again reads one row. A Z-report closes the period, the next one starts where it ended.
+CREATE TABLE register_report
+(
+    id                    UUID           NOT NULL,
+    merchant_id           UUID           NOT NULL,
+    type                  SMALLINT       NOT NULL,
+    period_start          TIMESTAMP      NOT NULL,
+    period_end            TIMESTAMP      NOT NULL,
+    created_by            UUID,
+    order_count           INTEGER        NOT NULL,
+    open_order_count      INTEGER        NOT NULL,
+    closed_order_count    INTEGER        NOT NULL,
+    refunded_order_count  INTEGER        NOT NULL,
+    cancelled_order_count INTEGER        NOT NULL,
+    items_sold            INTEGER        NOT NULL,
+    subtotal              NUMERIC(19, 2) NOT NULL,
+    tax_total             NUMERIC(19, 2) NOT NULL,
+    charge_total          NUMERIC(19, 2) NOT NULL,
+    discount_total        NUMERIC(19, 2) NOT NULL,
+    tip_total             NUMERIC(19, 2) NOT NULL,
+    amount_due            NUMERIC(19, 2) NOT NULL,
+    open_amount_due       NUMERIC(19, 2) NOT NULL,
+    completed_count       INTEGER        NOT NULL,
+    completed_amount      NUMERIC(19, 2) NOT NULL,
+    refunded_count        INTEGER        NOT NULL,
+    refunded_amount       NUMERIC(19, 2) NOT NULL,
+    pending_count         INTEGER        NOT NULL,
+    pending_amount        NUMERIC(19, 2) NOT NULL,
+    cash_amount           NUMERIC(19, 2) NOT NULL,
+    card_amount           NUMERIC(19, 2) NOT NULL,
+    gift_card_amount      NUMERIC(19, 2) NOT NULL,
+    created_at            TIMESTAMP      NOT NULL,
+    CONSTRAINT pk_register_report PRIMARY KEY (id)
+);
+
+ALTER TABLE register_report
+    ADD CONSTRAINT FK_REGISTER_REPORT_ON_MERCHANT FOREIGN KEY (merchant_id) REFERENCES merchant (id) ON DELETE CASCADE;
+
+ALTER TABLE register_report
+    ADD CONSTRAINT FK_REGISTER_REPORT_ON_CREATED_BY FOREIGN KEY (created_by) REFERENCES "user" (id) ON DELETE SET NULL;
+
+CREATE INDEX idx_register_report_merchant_created_at ON register_report (merchant_id, created_at, id);
+
+-- Two Z-reports taken at once would close the same period twice, the second insert fails here instead
+CREATE UNIQUE INDEX uc_register_report_merchant_z_period ON register_report (merchant_id, period_start) WHERE type = 1;
+
+CREATE INDEX idx_register_report_merchant_z_period_end ON register_report (merchant_id, period_end) WHERE type = 1;
+
+-- Reports select the transactions of a period by when they were made, not by order
+CREATE INDEX idx_transaction_created_at ON transaction (created_at);
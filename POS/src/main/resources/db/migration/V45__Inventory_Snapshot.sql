@@ -0,0 +1,55 @@
+-- Stock of every product and variation of a merchant at a point in time, taken periodically from the inventory log.
+-- Stock at any moment is the nearest earlier snapshot plus the log rows after it.
+CREATE TABLE inventory_snapshot
+(
+    id          UUID                        NOT NULL,
+    merchant_id UUID                        NOT NULL,
+    snapshot_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    created_at  TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_inventory_snapshot PRIMARY KEY (id),
+    CONSTRAINT uc_inventory_snapshot_merchant_snapshot_at UNIQUE (merchant_id, snapshot_at)
+);
+
+-- Product and variation ids have no foreign keys, so deleting a product keeps its past stock
+CREATE TABLE inventory_snapshot_item
+(
+    id                   UUID   NOT NULL,
+    snapshot_id          UUID   NOT NULL,
+    product_id           UUID,
+    product_variation_id UUID,
+    quantity             BIGINT NOT NULL,
+    CONSTRAINT pk_inventory_snapshot_item PRIMARY KEY (id)
+);
+
+ALTER TABLE inventory_snapshot
+    ADD CONSTRAINT FK_INVENTORY_SNAPSHOT_ON_MERCHANT FOREIGN KEY (merchant_id) REFERENCES merchant (id) ON DELETE CASCADE;
+
+ALTER TABLE inventory_snapshot_item
+    ADD CONSTRAINT FK_INVENTORY_SNAPSHOT_ITEM_ON_SNAPSHOT FOREIGN KEY (snapshot_id) REFERENCES inventory_snapshot (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_inventory_snapshot_item_snapshot ON inventory_snapshot_item (snapshot_id);
+
+-- Older log rows hold the stock after the change instead of the change, so history starts with a snapshot of today's stock.
+-- The log tracks stock on hand, which includes what open orders hold back from product.quantity.
+WITH baseline AS (
+    INSERT INTO inventory_snapshot (id, merchant_id, snapshot_at, created_at)
+    SELECT gen_random_uuid(), m.id, now(), now() FROM merchant m
+    RETURNING id, merchant_id),
+held AS (
+    SELECT oi.product_id, oi.product_variation_id, SUM(oi.quantity) AS quantity
+    FROM order_item oi JOIN "order" o ON o.id = oi.order_id
+    WHERE o.status = 0 AND (oi.product_id IS NOT NULL OR oi.product_variation_id IS NOT NULL)
+    GROUP BY oi.product_id, oi.product_variation_id)
+INSERT INTO inventory_snapshot_item (id, snapshot_id, product_id, product_variation_id, quantity)
+SELECT gen_random_uuid(), b.id, s.product_id, s.product_variation_id, s.quantity
+FROM baseline b JOIN (
+    SELECT pc.merchant_id, p.id AS product_id, CAST(NULL AS UUID) AS product_variation_id,
+           p.quantity + COALESCE(h.quantity, 0) AS quantity
+    FROM product p JOIN product_category pc ON pc.id = p.category
+    LEFT JOIN held h ON h.product_id = p.id AND h.product_variation_id IS NULL
+    UNION ALL
+    SELECT pc.merchant_id, NULL, pv.id, pv.quantity + COALESCE(h.quantity, 0)
+    FROM product_variation pv JOIN product p ON p.id = pv.product JOIN product_category pc ON pc.id = p.category
+    LEFT JOIN held h ON h.product_variation_id = pv.id
+) s ON s.merchant_id = b.merchant_id
+WHERE s.quantity <> 0;
@@ -0,0 +1,173 @@
+-- Fills the sales rollups with the orders and payments from before V43, later ones were recorded as they happened.
+-- Close, completion and refund times are not stored, so they are taken from the last update: a closed order or a
+-- completed transaction was last updated when it changed state, a refunded order counts on the day it was opened and a
+-- refunded transaction was completed on the day it was created. Synced orders and their payments count on the day
+-- they were taken, the same as SalesRollupService records them.
+-- Lines are priced with the item charges as they are now, taxes compound in the order of their charge ids.
+CREATE TEMPORARY TABLE backfill_order ON COMMIT DROP AS
+SELECT o.id,
+       o.merchant_id,
+       CAST(CASE
+                WHEN o.client_order_id IS NOT NULL OR o.status = 2 THEN o.created_at
+                ELSE COALESCE(o.updated_at, o.created_at)
+            END AS DATE) AS sales_date,
+       o.subtotal,
+       o.charge_total,
+       o.discount_total,
+       o.tip,
+       o.amount_due
+FROM "order" o
+WHERE o.status IN (1, 2)
+  AND CASE
+          WHEN o.client_order_id IS NOT NULL OR o.status = 2 THEN o.created_at
+          ELSE COALESCE(o.updated_at, o.created_at)
+      END < (SELECT installed_on FROM flyway_schema_history WHERE version = '43');
+
+-- Item types are the SalesItemType ordinals: product, product variation, service
+CREATE TEMPORARY TABLE backfill_line ON COMMIT DROP AS
+SELECT oi.id,
+       bo.id                                                       AS order_id,
+       bo.merchant_id,
+       bo.sales_date,
+       CASE WHEN pv.id IS NOT NULL THEN 1 WHEN p.id IS NOT NULL THEN 0 ELSE 2 END AS item_type,
+       COALESCE(pv.id, p.id, s.id)                                 AS item_id,
+       p.id                                                        AS product_id,
+       s.id                                                        AS service_id,
+       CASE WHEN p.id IS NOT NULL THEN oi.quantity ELSE 1 END      AS quantity,
+       CASE WHEN pv.id IS NOT NULL THEN pv.price WHEN p.id IS NOT NULL THEN p.price ELSE s.price END AS base_price
+FROM backfill_order bo
+         JOIN order_item oi ON oi.order_id = bo.id
+         LEFT JOIN product_variation pv ON pv.id = oi.product_variation_id
+         LEFT JOIN product p ON p.id = COALESCE(pv.product, oi.product_id)
+         LEFT JOIN reservation r ON r.id = oi.reservation_id AND p.id IS NULL
+         LEFT JOIN service s ON s.id = r.service_id
+WHERE p.id IS NOT NULL
+   OR s.id IS NOT NULL;
+
+-- Each tax is charged on the base price with the taxes before it
+CREATE TEMPORARY TABLE backfill_line_tax ON COMMIT DROP AS
+SELECT t.line_id,
+       t.charge_id,
+       t.base_price * t.compounded * t.fraction * t.quantity AS tax_amount,
+       t.base_price * t.compounded * (1 + t.fraction)        AS taxed_price,
+       t.tax_position,
+       t.tax_count
+FROM (SELECT bl.id                                                                         AS line_id,
+             c.id                                                                          AS charge_id,
+             bl.base_price,
+             bl.quantity,
+             c.percent / 100.0                                                             AS fraction,
+             EXP(COALESCE(SUM(LN(1 + c.percent / 100.0))
+                          OVER (PARTITION BY bl.id ORDER BY c.id ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0)) AS compounded,
+             ROW_NUMBER() OVER (PARTITION BY bl.id ORDER BY c.id)                          AS tax_position,
+             COUNT(*) OVER (PARTITION BY bl.id)                                            AS tax_count
+      FROM backfill_line bl
+               JOIN (SELECT cp.product_id AS owner_id, cp.charge_id FROM charges_products cp
+                     UNION ALL
+                     SELECT cs.service_id, cs.charge_id FROM charges_services cs) assigned
+                    ON assigned.owner_id = COALESCE(bl.product_id, bl.service_id)
+               JOIN charge c ON c.id = assigned.charge_id
+      WHERE c.type = 0
+        -- -100% and below have no logarithm, the API only accepts 0 to 100
+        AND c.percent > -100) t;
+
+-- A line costs its rounded unit price, the taxed base price plus the service charges, times its quantity
+CREATE TEMPORARY TABLE backfill_line_total ON COMMIT DROP AS
+SELECT bl.*,
+       ROUND(COALESCE(taxed.taxed_price, bl.base_price) + COALESCE(service_charge.amount, 0), 2) * bl.quantity AS gross_amount,
+       COALESCE(taxed.tax_amount, 0)                                                             AS tax_amount
+FROM backfill_line bl
+         LEFT JOIN (SELECT line_id,
+                           MAX(taxed_price) FILTER (WHERE tax_position = tax_count) AS taxed_price,
+                           SUM(tax_amount)                                          AS tax_amount
+                    FROM backfill_line_tax
+                    GROUP BY line_id) taxed ON taxed.line_id = bl.id
+         LEFT JOIN (SELECT owner_id, SUM(c.amount) AS amount
+                    FROM (SELECT cp.product_id AS owner_id, cp.charge_id FROM charges_products cp
+                          UNION ALL
+                          SELECT cs.service_id, cs.charge_id FROM charges_services cs) assigned
+                             JOIN charge c ON c.id = assigned.charge_id
+                    WHERE c.type = 1
+                      AND c.amount IS NOT NULL
+                    GROUP BY owner_id) service_charge ON service_charge.owner_id = COALESCE(bl.product_id, bl.service_id);
+
+-- Orders priced before their totals were stored fall back to the sum of their lines
+INSERT INTO sales_daily (id, merchant_id, sales_date, order_count, subtotal, charge_total, discount_total, tip, amount_due)
+SELECT gen_random_uuid(), bo.merchant_id, bo.sales_date, COUNT(*),
+       SUM(COALESCE(bo.subtotal, lines.total, 0)),
+       SUM(COALESCE(bo.charge_total, 0)),
+       SUM(COALESCE(bo.discount_total, 0)),
+       SUM(COALESCE(bo.tip, 0)),
+       SUM(COALESCE(bo.amount_due, bo.subtotal, lines.total, 0))
+FROM backfill_order bo
+         LEFT JOIN (SELECT order_id, SUM(gross_amount) AS total FROM backfill_line_total GROUP BY order_id) lines
+                   ON lines.order_id = bo.id
+GROUP BY bo.merchant_id, bo.sales_date
+ON CONFLICT (merchant_id, sales_date) DO UPDATE
+    SET order_count    = sales_daily.order_count + EXCLUDED.order_count,
+        subtotal       = sales_daily.subtotal + EXCLUDED.subtotal,
+        charge_total   = sales_daily.charge_total + EXCLUDED.charge_total,
+        discount_total = sales_daily.discount_total + EXCLUDED.discount_total,
+        tip            = sales_daily.tip + EXCLUDED.tip,
+        amount_due     = sales_daily.amount_due + EXCLUDED.amount_due;
+
+INSERT INTO sales_item_daily (id, merchant_id, sales_date, item_type, item_id, quantity, gross_amount, tax_amount)
+SELECT gen_random_uuid(), merchant_id, sales_date, item_type, item_id,
+       SUM(quantity), ROUND(SUM(gross_amount), 2), ROUND(SUM(tax_amount), 2)
+FROM backfill_line_total
+GROUP BY merchant_id, sales_date, item_type, item_id
+ON CONFLICT (merchant_id, sales_date, item_type, item_id) DO UPDATE
+    SET quantity     = sales_item_daily.quantity + EXCLUDED.quantity,
+        gross_amount = sales_item_daily.gross_amount + EXCLUDED.gross_amount,
+        tax_amount   = sales_item_daily.tax_amount + EXCLUDED.tax_amount;
+
+INSERT INTO sales_tax_daily (id, merchant_id, sales_date, charge_id, tax_amount)
+SELECT gen_random_uuid(), bl.merchant_id, bl.sales_date, blt.charge_id, ROUND(SUM(blt.tax_amount), 2)
+FROM backfill_line_tax blt
+         JOIN backfill_line bl ON bl.id = blt.line_id
+GROUP BY bl.merchant_id, bl.sales_date, blt.charge_id
+ON CONFLICT (merchant_id, sales_date, charge_id) DO UPDATE
+    SET tax_amount = sales_tax_daily.tax_amount + EXCLUDED.tax_amount;
+
+-- Transaction statuses are the TransactionStatus ordinals: completed 1, refunded 3
+CREATE TEMPORARY TABLE backfill_payment ON COMMIT DROP AS
+SELECT o.merchant_id,
+       CAST(CASE
+                WHEN o.client_order_id IS NOT NULL OR t.status = 3 THEN t.created_at
+                ELSE COALESCE(t.updated_at, t.created_at)
+            END AS DATE) AS sales_date,
+       t.payment_method,
+       1                 AS completed_count,
+       t.amount          AS completed_amount,
+       0                 AS refunded_count,
+       0                 AS refunded_amount
+FROM transaction t
+         JOIN "order" o ON o.id = t.order_id
+WHERE t.status IN (1, 3)
+  AND CASE
+          WHEN o.client_order_id IS NOT NULL OR t.status = 3 THEN t.created_at
+          ELSE COALESCE(t.updated_at, t.created_at)
+      END < (SELECT installed_on FROM flyway_schema_history WHERE version = '43')
+UNION ALL
+SELECT o.merchant_id,
+       CAST(COALESCE(t.updated_at, t.created_at) AS DATE),
+       t.payment_method,
+       0,
+       0,
+       1,
+       t.amount
+FROM transaction t
+         JOIN "order" o ON o.id = t.order_id
+WHERE t.status = 3
+  AND COALESCE(t.updated_at, t.created_at) < (SELECT installed_on FROM flyway_schema_history WHERE version = '43');
+
+INSERT INTO sales_payment_daily (id, merchant_id, sales_date, payment_method, completed_count, completed_amount, refunded_count, refunded_amount)
+SELECT gen_random_uuid(), merchant_id, sales_date, payment_method,
+       SUM(completed_count), SUM(completed_amount), SUM(refunded_count), SUM(refunded_amount)
+FROM backfill_payment
+GROUP BY merchant_id, sales_date, payment_method
+ON CONFLICT (merchant_id, sales_date, payment_method) DO UPDATE
+    SET completed_count  = sales_payment_daily.completed_count + EXCLUDED.completed_count,
+        completed_amount = sales_payment_daily.completed_amount + EXCLUDED.completed_amount,
+        refunded_count   = sales_payment_daily.refunded_count + EXCLUDED.refunded_count,
+        refunded_amount  = sales_payment_daily.refunded_amount + EXCLUDED.refunded_amount;
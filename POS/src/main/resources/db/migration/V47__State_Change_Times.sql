@@ -0,0 +1,33 @@
+-- When an order was closed and a transaction completed or refunded, register reports count them in the period they
+-- changed state in. Earlier rows take the times V46 read from their last update.
+ALTER TABLE "order"
+    ADD closed_at TIMESTAMP;
+
+ALTER TABLE transaction
+    ADD completed_at TIMESTAMP;
+
+ALTER TABLE transaction
+    ADD refunded_at TIMESTAMP;
+
+UPDATE "order"
+SET closed_at = CASE
+                    WHEN client_order_id IS NOT NULL OR status = 2 THEN created_at
+                    ELSE COALESCE(updated_at, created_at)
+                END
+WHERE status IN (1, 2);
+
+UPDATE transaction t
+SET completed_at = CASE
+                       WHEN o.client_order_id IS NOT NULL OR t.status = 3 THEN t.created_at
+                       ELSE COALESCE(t.updated_at, t.created_at)
+                   END,
+    refunded_at  = CASE WHEN t.status = 3 THEN COALESCE(t.updated_at, t.created_at) END
+FROM "order" o
+WHERE o.id = t.order_id
+  AND t.status IN (1, 3);
+
+CREATE INDEX idx_order_merchant_closed_at ON "order" (merchant_id, closed_at);
+
+CREATE INDEX idx_transaction_completed_at ON transaction (completed_at);
+
+CREATE INDEX idx_transaction_refunded_at ON transaction (refunded_at);
@@ -0,0 +1,39 @@
+-- Tax included in an order's amount due, stored when the order closes so register reports don't price closed orders
+-- again with today's prices. Orders closed earlier take it from the current prices and tax charges, compounded the
+-- way MerchantPricingRules does.
+ALTER TABLE "order"
+    ADD tax_total NUMERIC(19, 2);
+
+-- -100% and below have no logarithm. Existing rows are not checked, the backfill below skips them instead.
+ALTER TABLE charge
+    ADD CONSTRAINT CHK_CHARGE_PERCENT CHECK (percent > -100) NOT VALID;
+
+UPDATE "order" o
+SET tax_total = line_taxes.tax_total
+FROM (SELECT oi.order_id,
+             ROUND(SUM(CASE
+                           WHEN oi.reservation_id IS NOT NULL THEN s.price * (taxes.multiplier - 1)
+                           ELSE oi.quantity * COALESCE(pv.price, p.price) * (taxes.multiplier - 1)
+                       END), 2) AS tax_total
+      FROM order_item oi
+               LEFT JOIN product_variation pv ON pv.id = oi.product_variation_id
+               LEFT JOIN product p ON p.id = oi.product_id
+               LEFT JOIN reservation r ON r.id = oi.reservation_id
+               LEFT JOIN service s ON s.id = r.service_id
+               JOIN (SELECT assigned.owner_id, EXP(SUM(LN(1 + c.percent / 100.0))) AS multiplier
+                     FROM (SELECT cp.product_id AS owner_id, cp.charge_id FROM charges_products cp
+                           UNION ALL
+                           SELECT cs.service_id, cs.charge_id FROM charges_services cs) assigned
+                              JOIN charge c ON c.id = assigned.charge_id
+                     WHERE c.type = 0
+                       AND c.percent > -100
+                     GROUP BY assigned.owner_id) taxes
+                    ON taxes.owner_id = COALESCE(pv.product, oi.product_id, r.service_id)
+      GROUP BY oi.order_id) line_taxes
+WHERE o.id = line_taxes.order_id
+  AND o.closed_at IS NOT NULL;
+
+UPDATE "order"
+SET tax_total = 0
+WHERE closed_at IS NOT NULL
+  AND tax_total IS NULL;
@@ -0,0 +1,509 @@
+package com.team1206.pos;
+
+import com.team1206.pos.authentication.security.POSUserPrincipal;
+import com.team1206.pos.common.enums.ChargeType;
+import com.team1206.pos.common.enums.OrderChargeType;
+import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.common.enums.PaymentMethodType;
+import com.team1206.pos.common.enums.RegisterReportType;
+import com.team1206.pos.common.enums.TransactionStatus;
+import com.team1206.pos.common.enums.UserRoles;
+import com.team1206.pos.common.pagination.KeysetCursor;
+import com.team1206.pos.inventory.inventoryLog.InventoryLogFilterDTO;
+import com.team1206.pos.inventory.inventoryLog.InventoryLogRepository;
+import com.team1206.pos.inventory.inventoryLog.InventoryLogSpecifications;
+import com.team1206.pos.inventory.inventoryLog.InventorySnapshotRepository;
+import com.team1206.pos.inventory.product.ProductRepository;
+import com.team1206.pos.inventory.productCategory.ProductCategoryRepository;
+import com.team1206.pos.inventory.productVariation.ProductVariationRepository;
+import com.team1206.pos.order.order.OrderRepository;
+import com.team1206.pos.order.orderCharge.OrderChargeRepository;
+import com.team1206.pos.order.orderItem.OrderItemRepository;
+import com.team1206.pos.payments.charge.ChargeRepository;
+import com.team1206.pos.payments.transaction.TransactionRepository;
+import com.team1206.pos.report.export.ExportFile;
+import com.team1206.pos.report.export.ExportService;
+import com.team1206.pos.report.registerReport.RegisterReportRepository;
+import com.team1206.pos.report.salesRollup.SalesDailyRepository;
+import com.team1206.pos.report.salesRollup.SalesItemDailyRepository;
+import com.team1206.pos.report.salesRollup.SalesPaymentDailyRepository;
+import com.team1206.pos.report.salesRollup.SalesTaxDailyRepository;
+import com.team1206.pos.service.reservation.ReservationRepository;
+import com.team1206.pos.service.schedule.ScheduleRepository;
+import com.team1206.pos.service.service.ServiceRepository;
+import com.team1206.pos.user.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Calls every repository query against seeded data, captures the statements it sends with their parameters
+// and fails when the EXPLAIN of any of them has a sequential scan.
+// Seq scans are disabled for the session, so the planner only picks one when no index can serve the query.
+@SpringBootTest
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+    private static final UUID MERCHANT_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private OrderChargeRepository orderChargeRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductVariationRepository productVariationRepository;
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+    @Autowired
+    private ChargeRepository chargeRepository;
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    @Autowired
+    private InventoryLogRepository inventoryLogRepository;
+    @Autowired
+    private InventorySnapshotRepository inventorySnapshotRepository;
+    @Autowired
+    private RegisterReportRepository registerReportRepository;
+    @Autowired
+    private SalesDailyRepository salesDailyRepository;
+    @Autowired
+    private SalesItemDailyRepository salesItemDailyRepository;
+    @Autowired
+    private SalesTaxDailyRepository salesTaxDailyRepository;
+    @Autowired
+    private SalesPaymentDailyRepository salesPaymentDailyRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ExportService exportService;
+
+    // Seeded rows of MERCHANT_ID passed to the queries
+    private List<UUID> orderIds;
+    private UUID productId;
+    private UUID productVariationId;
+    private UUID serviceId;
+    private UUID snapshotId;
+
+    Stream<Arguments> repositoryQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = LocalDate.now();
+        return Stream.of(
+                query("OrderRepository.findAllWithFilters",
+                      () -> orderRepository.findAllWithFilters(MERCHANT_ID, OrderStatus.OPEN, now.minusDays(7), now, PageRequest.of(0, 20))),
+                query("OrderRepository.findAllWithFiltersAfter",
+                      () -> orderRepository.findAllWithFiltersAfter(MERCHANT_ID, null, null, null, now.minusHours(10), orderIds.get(0),
+                                                                    KeysetCursor.firstRows(20))),
+                query("OrderRepository.findByIdForUpdate", () -> orderRepository.findByIdForUpdate(orderIds.get(0))),
+                query("OrderRepository.findIdsByMerchantIdAndStatus", () -> orderRepository.findIdsByMerchantIdAndStatus(MERCHANT_ID, OrderStatus.OPEN)),
+                query("OrderRepository.findSampleIds", () -> orderRepository.findSampleIds(5, 100)),
+                query("OrderRepository.findAllByMerchantIdAndClientOrderIdIn",
+                      () -> orderRepository.findAllByMerchantIdAndClientOrderIdIn(MERCHANT_ID, List.of(UUID.randomUUID()))),
+                query("OrderRepository.findChargeIds", () -> orderRepository.findChargeIds(orderIds)),
+                query("OrderRepository.findItemIds", () -> orderRepository.findItemIds(orderIds)),
+                query("OrderRepository.findTransactionIds", () -> orderRepository.findTransactionIds(orderIds)),
+                query("OrderRepository.findDiscountIds", () -> orderRepository.findDiscountIds(orderIds)),
+                query("OrderRepository.findAllWithoutTotals", () -> orderRepository.findAllWithoutTotals(MERCHANT_ID, now.minusDays(1), now)),
+                query("OrderItemRepository.findByOrderId", () -> orderItemRepository.findByOrderId(orderIds.get(0))),
+                query("OrderItemRepository.findAllByOrderIdForPricing", () -> orderItemRepository.findAllByOrderIdForPricing(orderIds.get(0))),
+                query("OrderChargeRepository.findAllByMerchantId", () -> orderChargeRepository.findAllByMerchantId(MERCHANT_ID, PageRequest.of(0, 20))),
+                query("OrderChargeRepository.findAllByOrderId", () -> orderChargeRepository.findAllByOrderId(orderIds.get(0))),
+                query("OrderChargeRepository.findAllByOrderIdAndType",
+                      () -> orderChargeRepository.findAllByOrderIdAndType(orderIds.get(0), OrderChargeType.CHARGE)),
+                query("TransactionRepository.findAllWithFilters",
+                      () -> transactionRepository.findAllWithFilters(orderIds.get(0), PaymentMethodType.CASH, TransactionStatus.COMPLETED, null,
+                                                                     PageRequest.of(0, 20))),
+                query("TransactionRepository.findAllWithFiltersAfter",
+                      () -> transactionRepository.findAllWithFiltersAfter(orderIds.get(0), null, null, null, KeysetCursor.START.createdAt(),
+                                                                          KeysetCursor.START.id(), KeysetCursor.firstRows(20))),
+                query("TransactionRepository.sumAmountByOrderIdAndStatus",
+                      () -> transactionRepository.sumAmountByOrderIdAndStatus(orderIds.get(0), TransactionStatus.COMPLETED)),
+                query("ReservationRepository.findBookedIntervals",
+                      () -> reservationRepository.findBookedIntervals(List.of(USER_ID), today.minusDays(1).atStartOfDay(),
+                                                                      today.plusDays(1).atStartOfDay(), MERCHANT_ID)),
+                query("ReservationRepository.findAllWithFilters",
+                      () -> reservationRepository.findAllWithFilters(null, "Customer 12", null, null, null, MERCHANT_ID, PageRequest.of(0, 20))),
+                query("ReservationRepository.findAllWithFiltersAfter (phone)",
+                      () -> reservationRepository.findAllWithFiltersAfter(null, null, null, "+3706", null, MERCHANT_ID, KeysetCursor.START.createdAt(),
+                                                                          KeysetCursor.START.id(), KeysetCursor.firstRows(20))),
+                query("ServiceRepository.findAllWithFilters",
+                      () -> serviceRepository.findAllWithFilters("Service 1", null, null, MERCHANT_ID, PageRequest.of(0, 20))),
+                query("ServiceRepository.findEmployeeNames", () -> serviceRepository.findEmployeeNames(List.of(serviceId))),
+                query("ProductRepository.findAllWithFilters",
+                      () -> productRepository.findAllWithFilters(MERCHANT_ID, "Product 12", null, null, PageRequest.of(0, 20))),
+                query("ProductRepository.findAllWithFiltersAfter",
+                      () -> productRepository.findAllWithFiltersAfter(MERCHANT_ID, null, null, null, KeysetCursor.START.createdAt(),
+                                                                      KeysetCursor.START.id(), KeysetCursor.firstRows(20))),
+                query("ProductRepository.findAllByIdForUpdate", () -> productRepository.findAllByIdForUpdate(List.of(productId))),
+                query("ProductRepository.findVariationIds", () -> productRepository.findVariationIds(List.of(productId))),
+                query("ProductRepository.findChargeIds", () -> productRepository.findChargeIds(List.of(productId))),
+                query("ProductRepository.findQuantityById", () -> productRepository.findQuantityById(productId)),
+                query("ProductVariationRepository.findAllWithFilters", () -> productVariationRepository.findAllWithFilters(productId, MERCHANT_ID)),
+                query("ProductVariationRepository.findAllByIdForUpdate",
+                      () -> productVariationRepository.findAllByIdForUpdate(List.of(productVariationId))),
+                query("ProductVariationRepository.findQuantityById", () -> productVariationRepository.findQuantityById(productVariationId)),
+                query("ProductCategoryRepository.findAllByMerchantId", () -> productCategoryRepository.findAllByMerchantId(MERCHANT_ID)),
+                query("ChargeRepository.findAllWithFilters", () -> chargeRepository.findAllWithFilters(ChargeType.TAX, MERCHANT_ID, PageRequest.of(0, 20))),
+                query("ChargeRepository.findAllWithFiltersAfter",
+                      () -> chargeRepository.findAllWithFiltersAfter(null, MERCHANT_ID, KeysetCursor.START.createdAt(), KeysetCursor.START.id(),
+                                                                     KeysetCursor.firstRows(20))),
+                query("ChargeRepository.findAllProductAssignmentsByMerchantId", () -> chargeRepository.findAllProductAssignmentsByMerchantId(MERCHANT_ID)),
+                query("ChargeRepository.findAllServiceAssignmentsByMerchantId", () -> chargeRepository.findAllServiceAssignmentsByMerchantId(MERCHANT_ID)),
+                query("ScheduleRepository.findByUserIdAndDayOfWeek", () -> scheduleRepository.findByUserIdAndDayOfWeek(USER_ID, DayOfWeek.MONDAY)),
+                query("ScheduleRepository.findByMerchantIdAndDayOfWeek",
+                      () -> scheduleRepository.findByMerchantIdAndDayOfWeek(MERCHANT_ID, DayOfWeek.MONDAY)),
+                query("ScheduleRepository.findByUserIdIn", () -> scheduleRepository.findByUserIdIn(List.of(USER_ID))),
+                query("InventoryLogSpecifications.withFilters",
+                      () -> inventoryLogRepository.findAll(InventoryLogSpecifications.withFilters(MERCHANT_ID, inventoryLogFilter(null, now.minusDays(30))),
+                                                           PageRequest.of(0, 20, InventoryLogSpecifications.NEWEST_FIRST))),
+                query("InventoryLogSpecifications.withFilters (product, after cursor)",
+                      () -> inventoryLogRepository.findBy(InventoryLogSpecifications.withFilters(MERCHANT_ID, inventoryLogFilter(productId, null))
+                                                                                    .and(InventoryLogSpecifications.after(new KeysetCursor(now, orderIds.get(0)))),
+                                                          fluentQuery -> fluentQuery.sortBy(InventoryLogSpecifications.NEWEST_FIRST).limit(21).all())),
+                query("InventoryLogRepository.sumAdjustments",
+                      () -> inventoryLogRepository.sumAdjustments(MERCHANT_ID, now.minusDays(1), now, null, null)),
+                query("InventoryLogRepository.sumMovements",
+                      () -> inventoryLogRepository.sumMovements(MERCHANT_ID, now.minusDays(1), now, productId, null)),
+                query("InventorySnapshotRepository.findFirstByMerchantIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc",
+                      () -> inventorySnapshotRepository.findFirstByMerchantIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(MERCHANT_ID, now)),
+                query("InventorySnapshotRepository.findFirstSnapshotAt", () -> inventorySnapshotRepository.findFirstSnapshotAt(MERCHANT_ID)),
+                query("InventorySnapshotRepository.findItems", () -> inventorySnapshotRepository.findItems(snapshotId, null, null)),
+                query("InventorySnapshotRepository.findMerchantIdsToSnapshot",
+                      () -> inventorySnapshotRepository.findMerchantIdsToSnapshot(now, LocalDateTime.of(1970, 1, 1, 0, 0))),
+                query("RegisterReportRepository.findAllWithFilters",
+                      () -> registerReportRepository.findAllWithFilters(MERCHANT_ID, RegisterReportType.Z, PageRequest.of(0, 20))),
+                query("RegisterReportRepository.findLastZPeriodEnd", () -> registerReportRepository.findLastZPeriodEnd(MERCHANT_ID)),
+                query("RegisterReportRepository.create",
+                      () -> registerReportRepository.create(UUID.randomUUID(), MERCHANT_ID, RegisterReportType.Z.ordinal(), now.minusDays(1), now, USER_ID)),
+                query("SalesDailyRepository.findAllByMerchantIdAndSalesDateBetween",
+                      () -> salesDailyRepository.findAllByMerchantIdAndSalesDateBetween(MERCHANT_ID, today.minusDays(30), today)),
+                query("SalesItemDailyRepository.sumByItem", () -> salesItemDailyRepository.sumByItem(MERCHANT_ID, today.minusDays(30), today)),
+                query("SalesTaxDailyRepository.findAllByMerchantIdAndSalesDateBetween",
+                      () -> salesTaxDailyRepository.findAllByMerchantIdAndSalesDateBetween(MERCHANT_ID, today.minusDays(30), today)),
+                query("SalesPaymentDailyRepository.findAllByMerchantIdAndSalesDateBetween",
+                      () -> salesPaymentDailyRepository.findAllByMerchantIdAndSalesDateBetween(MERCHANT_ID, today.minusDays(30), today)),
+                query("ExportService.exportOrders", () -> writeBody(exportService.exportOrders(today.minusYears(1), today, "csv", false))),
+                query("ExportService.exportTransactions", () -> writeBody(exportService.exportTransactions(today.minusYears(1), today, "csv", false))),
+                query("ExportService.exportInventoryLogs", () -> writeBody(exportService.exportInventoryLogs(today.minusYears(1), today, "csv", false))),
+                query("UserRepository.findByEmail", () -> userRepository.findByEmail("employee@example.com"))
+        );
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO merchant (id, name, email, currency, country, created_at)
+                SELECT CASE WHEN n = 1 THEN '%s'::uuid ELSE gen_random_uuid() END,
+                       'Merchant ' || n, 'merchant' || n || '@example.com', 'EUR', 'Lithuania', now()
+                FROM generate_series(1, 50) n
+                """.formatted(MERCHANT_ID));
+        jdbcTemplate.update("""
+                INSERT INTO "user" (id, first_name, last_name, email, password, merchant_id, role, created_at)
+                VALUES ('%s', 'Seed', 'Employee', 'employee@example.com', 'password', '%s', 'EMPLOYEE', now())
+                """.formatted(USER_ID, MERCHANT_ID));
+        jdbcTemplate.update("""
+                INSERT INTO schedule (id, user_id, merchant_id, day_of_week, start_time, end_time, created_at)
+                SELECT gen_random_uuid(), '%s', '%s', d, '08:00', '17:00', now()
+                FROM unnest(ARRAY['MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY']) d
+                """.formatted(USER_ID, MERCHANT_ID));
+        jdbcTemplate.update("""
+                INSERT INTO product_category (id, name, merchant_id, created_at)
+                SELECT gen_random_uuid(), 'Category ' || n, m.id, now()
+                FROM merchant m, generate_series(1, 5) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at)
+                SELECT gen_random_uuid(), 'Product ' || row_number() OVER (), 9.99, pc.id, 100, false, now()
+                FROM product_category pc, generate_series(1, 20) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO product_variation (id, name, price, product, quantity, is_deleted, created_at)
+                SELECT gen_random_uuid(), 'Variation ' || n, 10.99, p.id, 10, false, now()
+                FROM product p, generate_series(1, 2) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO service (id, name, price, duration, merchant_id, created_at)
+                SELECT gen_random_uuid(), 'Service ' || n, 20.00, 3600, m.id, now()
+                FROM merchant m, generate_series(1, 10) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO reservation (id, first_name, last_name, phone, appointed_at, ends_at, service_id, employee_id, created_at)
+                SELECT gen_random_uuid(), 'Customer', n::text, '+3706' || lpad(n::text, 7, '0'),
+                       now() - (row_number() OVER () || ' hours')::interval,
+                       now() - (row_number() OVER () - 1 || ' hours')::interval, s.id, '%s', now()
+                FROM service s, generate_series(1, 10) n
+                """.formatted(USER_ID));
+        jdbcTemplate.update("""
+                INSERT INTO "order" (id, status, merchant_id, tip, created_at)
+                SELECT gen_random_uuid(), n % 4, m.id, 0, now() - (n || ' hours')::interval
+                FROM merchant m, generate_series(1, 100) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO order_item (id, order_id, quantity, product_id, created_at)
+                SELECT gen_random_uuid(), o.id, 1, (SELECT id FROM product LIMIT 1), now()
+                FROM "order" o, generate_series(1, 3) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO transaction (id, status, payment_method, amount, order_id, created_at)
+                SELECT gen_random_uuid(), 1, 0, 9.99, o.id, now()
+                FROM "order" o
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO charge (id, type, name, percent, merchant_id, is_active, created_at)
+                SELECT gen_random_uuid(), n % 2, 'Charge ' || n, 21, m.id, true, now()
+                FROM merchant m, generate_series(1, 4) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO inventory_log (id, type, product_id, "user", merchant_id, adjustment, created_at)
+                SELECT gen_random_uuid(), 'PRODUCT', p.id, '%s', pc.merchant_id, 5, now() - (n || ' minutes')::interval
+                FROM product p JOIN product_category pc ON pc.id = p.category, generate_series(1, 3) n
+                """.formatted(USER_ID));
+        jdbcTemplate.update("""
+                INSERT INTO inventory_snapshot (id, merchant_id, snapshot_at, created_at)
+                SELECT gen_random_uuid(), m.id, now() - (n || ' days')::interval, now()
+                FROM merchant m, generate_series(1, 5) n
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO inventory_snapshot_item (id, snapshot_id, product_id, quantity)
+                SELECT gen_random_uuid(), s.id, p.id, 100
+                FROM inventory_snapshot s JOIN product_category pc ON pc.merchant_id = s.merchant_id JOIN product p ON p.category = pc.id
+                """);
+
+        orderIds = jdbcTemplate.queryForList("SELECT id FROM \"order\" WHERE merchant_id = ? LIMIT 20", UUID.class, MERCHANT_ID);
+        productId = jdbcTemplate.queryForObject("""
+                SELECT p.id FROM product p JOIN product_category pc ON pc.id = p.category WHERE pc.merchant_id = ? LIMIT 1
+                """, UUID.class, MERCHANT_ID);
+        productVariationId = jdbcTemplate.queryForObject("SELECT id FROM product_variation WHERE product = ? LIMIT 1", UUID.class, productId);
+        serviceId = jdbcTemplate.queryForObject("SELECT id FROM service WHERE merchant_id = ? LIMIT 1", UUID.class, MERCHANT_ID);
+        snapshotId = jdbcTemplate.queryForObject("SELECT id FROM inventory_snapshot WHERE merchant_id = ? LIMIT 1", UUID.class, MERCHANT_ID);
+
+        jdbcTemplate.execute("ANALYZE");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        // The export services read the merchant of the logged in user
+        POSUserPrincipal principal = new POSUserPrincipal(USER_ID, "employee@example.com", "password", MERCHANT_ID, UserRoles.EMPLOYEE,
+                                                          List.of(new SimpleGrantedAuthority("EMPLOYEE")));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        // Cached queries would be answered without reaching the database
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryUsesIndex(String repositoryQuery, Runnable call) {
+        List<CapturedStatement> statements = StatementCapture.capture(call);
+
+        assertThat(statements).as("Statements sent by %s", repositoryQuery).isNotEmpty();
+        for (CapturedStatement statement : statements) {
+            List<String> plan = explain(statement);
+            assertThat(plan).as("Plan of %s:%n%s%n%s", repositoryQuery, statement.sql(), String.join(System.lineSeparator(), plan))
+                            .noneMatch(line -> line.contains("Seq Scan"));
+        }
+    }
+
+    // *** Helper methods ***
+
+    private static Arguments query(String name, Runnable call) {
+        return Arguments.of(name, call);
+    }
+
+    private static InventoryLogFilterDTO inventoryLogFilter(UUID productId, LocalDateTime from) {
+        InventoryLogFilterDTO filter = new InventoryLogFilterDTO();
+        filter.setProductId(productId);
+        filter.setFrom(from);
+        return filter;
+    }
+
+    // Export queries run when the body is written
+    private static void writeBody(ExportFile exportFile) {
+        try {
+            exportFile.body().writeTo(new ByteArrayOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Explains the statement with the parameters it was sent with, on the test's connection so the session settings apply
+    private List<String> explain(CapturedStatement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                for (ParameterBinding binding : statement.parameters().values()) {
+                    binding.applyTo(explain);
+                }
+                List<String> plan = new ArrayList<>();
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                return plan;
+            }
+        });
+    }
+
+    record CapturedStatement(String sql, Map<Integer, ParameterBinding> parameters) {
+    }
+
+    // One setXxx(index, value, ...) call on a prepared statement, replayed on the EXPLAIN statement
+    record ParameterBinding(Method setter, Object[] args) {
+        void applyTo(PreparedStatement statement) throws SQLException {
+            try {
+                setter.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof SQLException sqlException ? sqlException : new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Records the prepared statements executed on the calling thread while a capture is running
+    static final class StatementCapture {
+        private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+        private StatementCapture() {
+        }
+
+        static List<CapturedStatement> capture(Runnable call) {
+            List<CapturedStatement> statements = new ArrayList<>();
+            CAPTURED.set(statements);
+            try {
+                call.run();
+            } finally {
+                CAPTURED.remove();
+            }
+            return statements;
+        }
+
+        static Connection capturing(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(QueryPlanTests.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                    return capturing(statement, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement capturing(PreparedStatement statement, String sql) {
+            Map<Integer, ParameterBinding> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(QueryPlanTests.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                String name = method.getName();
+                List<CapturedStatement> captured = CAPTURED.get();
+                if (name.startsWith("set") && args != null && args.length >= 2 && method.getParameterTypes()[0] == int.class) {
+                    parameters.put((Integer) args[0], new ParameterBinding(method, args));
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.startsWith("execute") && args == null && captured != null) {
+                    captured.add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Routes every connection of the application through the statement capture
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static class CapturingDataSource extends DelegatingDataSource implements AutoCloseable {
+        CapturingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return StatementCapture.capturing(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return StatementCapture.capturing(super.getConnection(username, password));
+        }
+
+        // Lets the context close the pool it wraps
+        @Override
+        public void close() throws Exception {
+            if (getTargetDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
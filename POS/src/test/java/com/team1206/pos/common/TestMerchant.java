@@ -0,0 +1,86 @@
+package com.team1206.pos.common;
+
+import com.team1206.pos.authentication.security.POSUserPrincipal;
+import com.team1206.pos.common.enums.UserRoles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+
+// A random merchant with one employee and one product category, seeded straight into the database for tests running
+// against the local PostgreSQL. Tests add the rest of their rows themselves, delete() removes everything the merchant owns.
+public class TestMerchant {
+    private static final String ORDERS = "(SELECT id FROM \"order\" WHERE merchant_id = ?)";
+    private static final String USERS = "(SELECT id FROM \"user\" WHERE merchant_id = ?)";
+    private static final String SERVICES = "(SELECT id FROM service WHERE merchant_id = ?)";
+    private static final String CHARGES = "(SELECT id FROM charge WHERE merchant_id = ?)";
+    private static final String CATEGORIES = "(SELECT id FROM product_category WHERE merchant_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UUID id = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+
+    private TestMerchant(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // The name is used for the merchant, the employee and the category, so rows left behind can be traced to their test
+    public static TestMerchant seed(JdbcTemplate jdbcTemplate, String name) {
+        TestMerchant merchant = new TestMerchant(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO merchant (id, name, email, currency, country, created_at) VALUES (?, ?, ?, 'EUR', 'Lithuania', now())",
+                            merchant.id, name, merchant.id + "@example.com");
+        jdbcTemplate.update("INSERT INTO \"user\" (id, first_name, last_name, email, password, merchant_id, role, created_at) VALUES (?, ?, 'Employee', ?, 'password', ?, 'EMPLOYEE', now())",
+                            merchant.userId, name, merchant.userId + "@example.com", merchant.id);
+        jdbcTemplate.update("INSERT INTO product_category (id, name, merchant_id, created_at) VALUES (?, ?, ?, now())",
+                            merchant.categoryId, name, merchant.id);
+        return merchant;
+    }
+
+    public UUID id() {
+        return id;
+    }
+
+    public UUID userId() {
+        return userId;
+    }
+
+    public UUID categoryId() {
+        return categoryId;
+    }
+
+    // Services read the merchant from the logged in user
+    public void logIn() {
+        POSUserPrincipal principal = new POSUserPrincipal(userId, userId + "@example.com", "password", id, UserRoles.EMPLOYEE,
+                                                          List.of(new SimpleGrantedAuthority("EMPLOYEE")));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    // Logs out and deletes the merchant with everything it owns, rows before the rows they reference.
+    // Rollups, register reports and inventory snapshots are deleted with the merchant.
+    public void delete() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("DELETE FROM idempotent_request WHERE user_id IN " + USERS, id);
+        jdbcTemplate.update("DELETE FROM inventory_log WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM transaction WHERE order_id IN " + ORDERS, id);
+        jdbcTemplate.update("DELETE FROM order_item WHERE order_id IN " + ORDERS, id);
+        jdbcTemplate.update("DELETE FROM order_charges_orders WHERE order_id IN " + ORDERS, id);
+        jdbcTemplate.update("DELETE FROM \"order\" WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM order_charge WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM reservation WHERE service_id IN " + SERVICES + " OR employee_id IN " + USERS, id, id);
+        jdbcTemplate.update("DELETE FROM services_users WHERE service_id IN " + SERVICES, id);
+        jdbcTemplate.update("DELETE FROM charges_services WHERE charge_id IN " + CHARGES, id);
+        jdbcTemplate.update("DELETE FROM charges_products WHERE charge_id IN " + CHARGES, id);
+        jdbcTemplate.update("DELETE FROM charge WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM service WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM product_variation WHERE product IN (SELECT id FROM product WHERE category IN " + CATEGORIES + ")", id);
+        jdbcTemplate.update("DELETE FROM product WHERE category IN " + CATEGORIES, id);
+        jdbcTemplate.update("DELETE FROM product_category WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM schedule WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM \"user\" WHERE merchant_id = ?", id);
+        jdbcTemplate.update("DELETE FROM merchant WHERE id = ?", id);
+    }
+}
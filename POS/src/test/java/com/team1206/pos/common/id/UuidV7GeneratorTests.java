@@ -0,0 +1,30 @@
+package com.team1206.pos.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTests {
+    @Test
+    void idsAreVersion7AndCarryTheCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    // Many ids share a millisecond, the counter and borrowed milliseconds keep them increasing
+    @Test
+    void idsKeepIncreasing() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = UuidV7Generator.next();
+            assertThat(id.toString()).isGreaterThan(previous.toString());
+            previous = id;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.team1206.pos.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Inserts the same orders into two copies of the order table, one keyed by random v4 ids and one by UuidV7Generator ids,
+// and reports insert throughput and index sizes. Too slow for every build, run it with
+// mvn test -Dtest=UuidV7InsertBenchmark -Dbenchmark=true [-Dbenchmark.orders=1000000]
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UuidV7InsertBenchmark {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MERCHANTS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void timeOrderedIdsInsertFasterIntoSmallerIndexes() {
+        int orders = Integer.getInteger("benchmark.orders", 1_000_000);
+
+        Result random = run("benchmark_order_v4", orders, UUID::randomUUID);
+        Result timeOrdered = run("benchmark_order_v7", orders, UuidV7Generator::next);
+
+        log.info("""
+                         Inserted {} orders in batches of {}
+                         ids   rows/s     primary key   all indexes
+                         v4    {}   {}     {}
+                         v7    {}   {}     {}""",
+                 orders, BATCH_SIZE,
+                 random.rowsPerSecond(orders), megabytes(random.primaryKeyBytes()), megabytes(random.indexBytes()),
+                 timeOrdered.rowsPerSecond(orders), megabytes(timeOrdered.primaryKeyBytes()), megabytes(timeOrdered.indexBytes()));
+
+        // Appending to the right edge fills primary key pages, random inserts split them and leave them part empty
+        assertThat(timeOrdered.primaryKeyBytes()).isLessThan(random.primaryKeyBytes());
+    }
+
+    private Result run(String table, int orders, Supplier<UUID> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE \"order\" INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING INDEXES)");
+        try {
+            List<UUID> merchantIds = new ArrayList<>();
+            for (int i = 0; i < MERCHANTS; i++) {
+                merchantIds.add(UUID.randomUUID());
+            }
+
+            LocalDateTime createdAt = LocalDateTime.now().minusDays(365);
+            long started = System.nanoTime();
+            for (int inserted = 0; inserted < orders; inserted += BATCH_SIZE) {
+                List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = inserted; i < Math.min(orders, inserted + BATCH_SIZE); i++) {
+                    createdAt = createdAt.plusNanos(30_000_000);
+                    batch.add(new Object[]{ids.get(), i % 4, merchantIds.get(i % MERCHANTS), Timestamp.valueOf(createdAt)});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, status, merchant_id, tip, created_at) VALUES (?, ?, ?, 0, ?)", batch);
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+            Long primaryKeyBytes = jdbcTemplate.queryForObject(
+                    "SELECT pg_relation_size(indexrelid) FROM pg_index WHERE indrelid = CAST(? AS regclass) AND indisprimary", Long.class, table);
+            Long indexBytes = jdbcTemplate.queryForObject("SELECT pg_indexes_size(CAST(? AS regclass))", Long.class, table);
+            return new Result(elapsed, primaryKeyBytes, indexBytes);
+        }
+        finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%8.1f MB", bytes / 1024.0 / 1024.0);
+    }
+
+    private record Result(Duration elapsed, long primaryKeyBytes, long indexBytes) {
+        String rowsPerSecond(int orders) {
+            return String.format("%8.0f", orders / (elapsed.toNanos() / 1e9));
+        }
+    }
+}
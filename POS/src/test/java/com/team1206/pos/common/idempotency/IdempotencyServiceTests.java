@@ -0,0 +1,82 @@
+package com.team1206.pos.common.idempotency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The in-progress timeout is zero, so a key whose request never finished can be claimed again right away
+@SpringBootTest(properties = {
+        "idempotency_cache_size=1",
+        "idempotency_in_progress_timeout_ms=0"
+})
+class IdempotencyServiceTests {
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM idempotent_request WHERE user_id = ?", USER_ID);
+    }
+
+    @Test
+    void completedKeyIsNotClaimedAgain() {
+        LocalDateTime claimedAt = idempotencyService.claim(USER_ID, "key-1", "hash");
+        assertThat(claimedAt).isNotNull();
+        assertThat(idempotencyService.complete(USER_ID, "key-1", claimedAt, "hash", 201, "application/json", "{}".getBytes(StandardCharsets.UTF_8)))
+                .isTrue();
+
+        assertThat(idempotencyService.claim(USER_ID, "key-1", "hash")).isNull();
+        assertThat(idempotencyService.findResponse(USER_ID, "key-1")).satisfies(response -> {
+            assertThat(response.statusCode()).isEqualTo(201);
+            assertThat(response.body()).isEqualTo("{}".getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    @Test
+    void storedResponseSurvivesCacheEviction() {
+        LocalDateTime firstClaimedAt = idempotencyService.claim(USER_ID, "key-1", "hash-1");
+        idempotencyService.complete(USER_ID, "key-1", firstClaimedAt, "hash-1", 200, null, new byte[0]);
+        LocalDateTime secondClaimedAt = idempotencyService.claim(USER_ID, "key-2", "hash-2");
+        idempotencyService.complete(USER_ID, "key-2", secondClaimedAt, "hash-2", 200, null, new byte[0]);
+
+        assertThat(idempotencyService.findResponse(USER_ID, "key-1").requestHash()).isEqualTo("hash-1");
+    }
+
+    @Test
+    void releasedOrUnfinishedKeyCanBeClaimedAgain() {
+        LocalDateTime claimedAt = idempotencyService.claim(USER_ID, "key-1", "hash");
+        idempotencyService.release(USER_ID, "key-1", claimedAt);
+        assertThat(idempotencyService.claim(USER_ID, "key-1", "hash")).isNotNull();
+
+        assertThat(idempotencyService.findResponse(USER_ID, "key-1")).isNull();
+        assertThat(idempotencyService.claim(USER_ID, "key-1", "hash")).isNotNull();
+    }
+
+    @Test
+    void takenOverClaimCannotCompleteOrReleaseTheKey() {
+        LocalDateTime staleClaimedAt = idempotencyService.claim(USER_ID, "key-1", "hash");
+        LocalDateTime claimedAt = idempotencyService.claim(USER_ID, "key-1", "hash");
+        assertThat(claimedAt).isNotNull().isNotEqualTo(staleClaimedAt);
+
+        // The request that ran past the timeout neither stores its response nor frees the key of the request running now
+        assertThat(idempotencyService.complete(USER_ID, "key-1", staleClaimedAt, "hash", 201, null, new byte[0])).isFalse();
+        idempotencyService.release(USER_ID, "key-1", staleClaimedAt);
+        assertThat(idempotencyService.findResponse(USER_ID, "key-1")).isNull();
+
+        assertThat(idempotencyService.complete(USER_ID, "key-1", claimedAt, "hash", 200, null, new byte[0])).isTrue();
+        assertThat(idempotencyService.findResponse(USER_ID, "key-1").statusCode()).isEqualTo(200);
+    }
+}
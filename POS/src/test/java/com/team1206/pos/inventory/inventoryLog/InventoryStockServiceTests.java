@@ -0,0 +1,110 @@
+package com.team1206.pos.inventory.inventoryLog;
+
+import com.team1206.pos.common.TestMerchant;
+import com.team1206.pos.inventory.product.AdjustProductQuantityDTO;
+import com.team1206.pos.inventory.product.CreateProductRequestDTO;
+import com.team1206.pos.inventory.product.ProductService;
+import com.team1206.pos.inventory.product.UpdateProductRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Changes stock around a snapshot and reads it back at points in time and over the period in between
+@SpringBootTest
+class InventoryStockServiceTests {
+    private TestMerchant merchant;
+
+    @Autowired
+    private InventoryStockService inventoryStockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Stock");
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void stockIsSummedFromNearestSnapshot() {
+        LocalDateTime beforeHistory = now();
+        UUID productId = createProduct(10);
+
+        LocalDateTime snapshotAt = now();
+        inventoryStockService.takeSnapshot(merchant.id(), snapshotAt);
+
+        adjustProduct(productId, -3);
+        updateProduct(productId, 20);
+        LocalDateTime afterChanges = now();
+
+        assertThat(inventoryStockService.getStock(snapshotAt, productId, null))
+                .singleElement().extracting(StockLevelResponseDTO::getQuantity).isEqualTo(10L);
+        assertThat(inventoryStockService.getStock(afterChanges, productId, null))
+                .singleElement().extracting(StockLevelResponseDTO::getQuantity).isEqualTo(20L);
+
+        assertThat(inventoryStockService.getMovements(snapshotAt, afterChanges, null, null))
+                .singleElement()
+                .satisfies(movement -> {
+                    assertThat(movement.getProduct()).isEqualTo(productId);
+                    assertThat(movement.getOpeningQuantity()).isEqualTo(10);
+                    assertThat(movement.getAdded()).isEqualTo(13);
+                    assertThat(movement.getTaken()).isEqualTo(3);
+                    assertThat(movement.getClosingQuantity()).isEqualTo(20);
+                });
+
+        // Logs before the first snapshot are not read
+        assertThatThrownBy(() -> inventoryStockService.getStock(beforeHistory, productId, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        inventoryStockService.takeSnapshot(merchant.id(), afterChanges);
+        assertThat(jdbcTemplate.queryForObject("SELECT si.quantity FROM inventory_snapshot_item si JOIN inventory_snapshot s ON s.id = si.snapshot_id " +
+                                               "WHERE s.merchant_id = ? AND s.snapshot_at = ? AND si.product_id = ?",
+                                               Long.class, merchant.id(), afterChanges, productId)).isEqualTo(20L);
+    }
+
+    private UUID createProduct(int quantity) {
+        CreateProductRequestDTO requestDTO = new CreateProductRequestDTO();
+        requestDTO.setName("Beans");
+        requestDTO.setPrice(new BigDecimal("4.50"));
+        requestDTO.setQuantity(quantity);
+        requestDTO.setCategoryId(merchant.categoryId());
+        return productService.createProduct(requestDTO).getId();
+    }
+
+    private void adjustProduct(UUID productId, int adjustment) {
+        AdjustProductQuantityDTO adjustDTO = new AdjustProductQuantityDTO();
+        adjustDTO.setAdjustment(adjustment);
+        productService.adjustProductQuantity(productId, adjustDTO);
+    }
+
+    private void updateProduct(UUID productId, int quantity) {
+        UpdateProductRequestDTO requestDTO = new UpdateProductRequestDTO();
+        requestDTO.setQuantity(quantity);
+        productService.updateProductById(productId, requestDTO);
+    }
+
+    // Postgres keeps microseconds
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,191 @@
+package com.team1206.pos.inventory.product;
+
+import com.team1206.pos.common.TestMerchant;
+import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sells one product from many threads at once and checks that no sale is lost or oversold, also while the product is edited.
+// Edits of the stock are checked against the inventory log.
+@SpringBootTest
+class ProductQuantityConcurrencyTests {
+    private static final int INITIAL_QUANTITY = 100;
+    private static final int THREADS = 16;
+    private static final int SALES = 250;
+
+    private final UUID productId = UUID.randomUUID();
+    private TestMerchant merchant;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Concurrency");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at) VALUES (?, 'Hot SKU', 1.00, ?, ?, false, now())",
+                            productId, merchant.categoryId(), INITIAL_QUANTITY);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void concurrentSalesNeverOversell() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> sales = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            sales.add(executor.submit(() -> {
+                start.await();
+                try {
+                    productService.adjustProductQuantity(productId, -1);
+                    sold.incrementAndGet();
+                }
+                catch (IllegalStateExceptionWithId e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> sale : sales) {
+            sale.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Integer quantity = jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId);
+        assertThat(sold.get()).isEqualTo(INITIAL_QUANTITY);
+        assertThat(rejected.get()).isEqualTo(SALES - INITIAL_QUANTITY);
+        assertThat(quantity).isZero();
+    }
+
+    @Test
+    void concurrentRestocksAndSalesKeepEveryUpdate() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> adjustments = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            int adjustment = i % 2 == 0 ? 1 : -1;
+            adjustments.add(executor.submit(() -> {
+                start.await();
+                productService.adjustProductQuantity(productId, adjustment);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> adjustment : adjustments) {
+            adjustment.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Integer quantity = jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId);
+        assertThat(quantity).isEqualTo(INITIAL_QUANTITY);
+    }
+
+    @Test
+    void salesSurviveConcurrentEdits() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // Half of the tasks sell one unit and half rename the product, so the stock is never exhausted
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < INITIAL_QUANTITY; i++) {
+            boolean sale = i % 2 == 0;
+            String name = "Hot SKU " + i;
+            tasks.add(executor.submit(() -> {
+                start.await();
+                if (sale) {
+                    productService.adjustProductQuantity(productId, -1);
+                }
+                else {
+                    merchant.logIn();
+                    UpdateProductRequestDTO requestDTO = new UpdateProductRequestDTO();
+                    requestDTO.setName(name);
+                    productService.updateProductById(productId, requestDTO);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> task : tasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Integer quantity = jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId);
+        assertThat(quantity).isEqualTo(INITIAL_QUANTITY / 2);
+    }
+
+    @Test
+    void concurrentStockEditsKeepTheLedgerInStep() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> edits = new ArrayList<>();
+        for (int i = 0; i < INITIAL_QUANTITY; i++) {
+            int quantity = INITIAL_QUANTITY + i % 7;
+            edits.add(executor.submit(() -> {
+                start.await();
+                merchant.logIn();
+                UpdateProductRequestDTO requestDTO = new UpdateProductRequestDTO();
+                requestDTO.setQuantity(quantity);
+                productService.updateProductById(productId, requestDTO);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> edit : edits) {
+            edit.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Every logged adjustment is the change its edit made, so together they account for the whole change in stock
+        Integer quantity = jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId);
+        Integer logged = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(adjustment), 0) FROM inventory_log WHERE product_id = ?", Integer.class, productId);
+        assertThat(logged).isEqualTo(quantity - INITIAL_QUANTITY);
+    }
+
+    @Test
+    void batchAdjustmentSurvivesLoadedProduct() {
+        // The product is loaded and edited in the same transaction as the batch, like order items are applied
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product = productService.getProductEntitiesById(List.of(productId)).get(productId);
+            product.setName("Renamed SKU");
+            productService.adjustProductQuantities(Map.of(productId, -3));
+        });
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT name, quantity FROM product WHERE id = ?", productId);
+        assertThat(row.get("name")).isEqualTo("Renamed SKU");
+        assertThat(row.get("quantity")).isEqualTo(INITIAL_QUANTITY - 3);
+    }
+}
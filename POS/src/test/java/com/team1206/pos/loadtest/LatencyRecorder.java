@@ -0,0 +1,73 @@
+package com.team1206.pos.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latencies of every request per endpoint. Requests are counted by endpoint template, e.g. POST /orders/{orderId}/items,
+// so the numbers of different orders add up.
+class LatencyRecorder {
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+        Endpoint recorded = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        recorded.latencies.add(nanos);
+        if (status >= 400) {
+            recorded.errors.incrementAndGet();
+        }
+    }
+
+    // Percentiles are nearest-rank over all recorded requests, throughput is per second of the measured run
+    List<EndpointSummary> summarize(double elapsedSeconds) {
+        List<EndpointSummary> summaries = new ArrayList<>();
+        endpoints.forEach((name, endpoint) -> {
+            long[] latencies = endpoint.latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(latencies);
+            summaries.add(new EndpointSummary(name,
+                                              latencies.length,
+                                              endpoint.errors.get(),
+                                              latencies.length / elapsedSeconds,
+                                              toMillis(Arrays.stream(latencies).average().orElse(0)),
+                                              toMillis(percentile(latencies, 50)),
+                                              toMillis(percentile(latencies, 95)),
+                                              toMillis(percentile(latencies, 99)),
+                                              toMillis(latencies.length == 0 ? 0 : latencies[latencies.length - 1])));
+        });
+        summaries.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+        return summaries;
+    }
+
+    record EndpointSummary(String endpoint,
+                           long requests,
+                           long errors,
+                           double throughputPerSecond,
+                           double meanMs,
+                           double p50Ms,
+                           double p95Ms,
+                           double p99Ms,
+                           double maxMs) {
+    }
+
+    // *** Helper methods ***
+
+    private static class Endpoint {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1_000) / 1_000.0;
+    }
+}
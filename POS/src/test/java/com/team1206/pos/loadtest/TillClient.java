@@ -0,0 +1,130 @@
+package com.team1206.pos.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.UUID;
+
+// HTTP client of one till. Every request is timed and recorded under its method and path template.
+// Mutating requests carry an Idempotency-Key, the way a till that retries on timeouts sends them.
+class TillClient {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private String token;
+
+    TillClient(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, LatencyRecorder recorder) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    void login(String email, String password) {
+        token = null;
+        JsonNode response = post("/auth/login", Map.of("email", email, "password", password));
+        token = response.get("jwt-token").asText();
+    }
+
+    JsonNode get(String template, Object... variables) {
+        return send("GET", template, null, variables);
+    }
+
+    JsonNode post(String template, Object body, Object... variables) {
+        return send("POST", template, body, variables);
+    }
+
+    JsonNode patch(String template, Object body, Object... variables) {
+        return send("PATCH", template, body, variables);
+    }
+
+    // *** Helper methods ***
+
+    private JsonNode send(String method, String template, Object body, Object... variables) {
+        // Query parameters are left out of the endpoint name
+        String endpoint = method + " " + template.split("\\?")[0];
+        HttpRequest request = buildRequest(method, expand(template, variables), body);
+
+        HttpResponse<byte[]> response;
+        long started = System.nanoTime();
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+        catch (IOException e) {
+            // Failures without a response are recorded with a status no server sends
+            recorder.record(endpoint, System.nanoTime() - started, 599);
+            throw new TillRequestException(endpoint + " failed: " + e.getMessage());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TillRequestException(endpoint + " was interrupted");
+        }
+        recorder.record(endpoint, System.nanoTime() - started, response.statusCode());
+
+        if (response.statusCode() >= 400) {
+            throw new TillRequestException(endpoint + " returned " + response.statusCode() + ": " + new String(response.body()));
+        }
+        try {
+            return response.body().length == 0 ? NullNode.getInstance() : objectMapper.readTree(response.body());
+        }
+        catch (IOException e) {
+            throw new TillRequestException(endpoint + " returned a body that is not JSON: " + e.getMessage());
+        }
+    }
+
+    private HttpRequest buildRequest(String method, String path, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                                 .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (!method.equals("GET")) {
+            request.header("Idempotency-Key", UUID.randomUUID().toString());
+        }
+        if (body == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+
+        try {
+            return request.header("Content-Type", "application/json")
+                          .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                          .build();
+        }
+        catch (JsonProcessingException e) {
+            throw new TillRequestException("Could not write the request body: " + e.getMessage());
+        }
+    }
+
+    // Fills the {placeholders} of the template in order
+    private static String expand(String template, Object... variables) {
+        StringBuilder path = new StringBuilder();
+        int variable = 0;
+        int position = 0;
+        while (position < template.length()) {
+            int open = template.indexOf('{', position);
+            if (open < 0) {
+                path.append(template, position, template.length());
+                break;
+            }
+            int close = template.indexOf('}', open);
+            path.append(template, position, open).append(variables[variable++]);
+            position = close + 1;
+        }
+        return path.toString();
+    }
+
+    static class TillRequestException extends RuntimeException {
+        TillRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.team1206.pos.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team1206.pos.common.TestMerchant;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Boots the application on a random port against the local PostgreSQL, seeds merchants with products, charges, a service
+// and one employee per till, then runs every till on its own thread through the sales a cashier rings up:
+// log in, open an order, add items, maybe add an order charge or discount, book a reservation for some sales, pay and close.
+// Every till draws its choices from a random seeded with its number, so runs with the same settings send the same requests.
+// Warm-up sales are run first and left out of the numbers. Throughput and p50/p95/p99 latency per endpoint are logged and
+// written as JSON. The tills run in the same JVM as the application, so compare runs made on the same machine:
+// mvn test -Dtest=TillLoadTest -Dloadtest=true [-Dloadtest.tills=32 -Dloadtest.sales=200 -Dloadtest.output=target/loadtest/run.json]
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                // Printing every statement would measure the console instead of the application
+                properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class TillLoadTest {
+    private static final String PASSWORD = "loadtest-password";
+
+    private final int merchants = Integer.getInteger("loadtest.merchants", 2);
+    private final int tills = Integer.getInteger("loadtest.tills", 16);
+    private final int salesPerTill = Integer.getInteger("loadtest.sales", 100);
+    private final int warmupSalesPerTill = Integer.getInteger("loadtest.warmupSales", 10);
+    private final int productsPerMerchant = Integer.getInteger("loadtest.products", 200);
+    private final int reservationPercent = Integer.getInteger("loadtest.reservationPercent", 10);
+    private final int chargePercent = Integer.getInteger("loadtest.chargePercent", 30);
+    private final int discountPercent = Integer.getInteger("loadtest.discountPercent", 10);
+    private final long seed = Long.getLong("loadtest.seed", 1206);
+    private final Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest/summary.json"));
+
+    private final List<MerchantFixture> merchantFixtures = new ArrayList<>();
+    private final List<Till> tillFixtures = new ArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        for (int i = 0; i < merchants; i++) {
+            merchantFixtures.add(seedMerchant(i));
+        }
+        for (int i = 0; i < tills; i++) {
+            MerchantFixture merchant = merchantFixtures.get(i % merchants);
+            UUID employeeId = UUID.randomUUID();
+            String email = "till" + i + "-" + employeeId + "@example.com";
+            jdbcTemplate.update("INSERT INTO \"user\" (id, first_name, last_name, email, password, merchant_id, role, created_at) VALUES (?, 'Till', ?, ?, ?, ?, 'EMPLOYEE', now())",
+                                employeeId, String.valueOf(i), email, passwordHash, merchant.id());
+            jdbcTemplate.update("INSERT INTO schedule (id, user_id, merchant_id, day_of_week, start_time, end_time, created_at) " +
+                                        "SELECT gen_random_uuid(), ?, ?, d, '08:00', '20:00', now() " +
+                                        "FROM unnest(ARRAY['MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY']) d",
+                                employeeId, merchant.id());
+            jdbcTemplate.update("INSERT INTO services_users (service_id, user_id) VALUES (?, ?)", merchant.serviceId(), employeeId);
+            tillFixtures.add(new Till(i, merchant, employeeId, email, new Random(seed + i)));
+        }
+        jdbcTemplate.execute("ANALYZE product, charges_products, \"user\", schedule, services_users");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (MerchantFixture merchant : merchantFixtures) {
+            merchant.owner().delete();
+        }
+    }
+
+    @Test
+    void tillsRingUpSales() throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                                          .version(HttpClient.Version.HTTP_1_1)
+                                          .connectTimeout(Duration.ofSeconds(10))
+                                          .build();
+
+        runTills(httpClient, warmupSalesPerTill, new LatencyRecorder());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        RunResult result = runTills(httpClient, salesPerTill, recorder);
+        List<LatencyRecorder.EndpointSummary> endpoints = recorder.summarize(result.elapsedSeconds());
+        writeSummary(result, endpoints);
+
+        log.info("{} tills closed {} sales ({} failed, {} with a reservation) in {} s, {} sales/s",
+                 tills, result.sales(), result.failedSales(), result.reservations(),
+                 String.format("%.1f", result.elapsedSeconds()), String.format("%.1f", result.sales() / result.elapsedSeconds()));
+        for (LatencyRecorder.EndpointSummary endpoint : endpoints) {
+            log.info("{}: {} requests, {} errors, {} req/s, p50 {} ms, p95 {} ms, p99 {} ms, max {} ms",
+                     endpoint.endpoint(), endpoint.requests(), endpoint.errors(), String.format("%.1f", endpoint.throughputPerSecond()),
+                     endpoint.p50Ms(), endpoint.p95Ms(), endpoint.p99Ms(), endpoint.maxMs());
+        }
+        log.info("Summary written to {}", output.toAbsolutePath());
+
+        assertThat(result.sales()).isPositive();
+    }
+
+    // *** Helper methods ***
+
+    private record MerchantFixture(TestMerchant owner,
+                                   UUID serviceId,
+                                   UUID orderChargeId,
+                                   UUID discountId,
+                                   List<UUID> productIds) {
+        private UUID id() {
+            return owner.id();
+        }
+    }
+
+    // The booking date moves forward once the employee's day is full, so the till keeps finding free slots
+    private static class Till {
+        private final int number;
+        private final MerchantFixture merchant;
+        private final UUID employeeId;
+        private final String email;
+        private final Random random;
+        private LocalDate bookingDate = LocalDate.now().plusDays(1);
+
+        private Till(int number, MerchantFixture merchant, UUID employeeId, String email, Random random) {
+            this.number = number;
+            this.merchant = merchant;
+            this.employeeId = employeeId;
+            this.email = email;
+            this.random = random;
+        }
+    }
+
+    private record RunResult(double elapsedSeconds, int sales, int failedSales, int reservations) {
+    }
+
+    private MerchantFixture seedMerchant(int number) {
+        TestMerchant owner = TestMerchant.seed(jdbcTemplate, "Load test " + number);
+        UUID merchantId = owner.id();
+        UUID categoryId = owner.categoryId();
+        UUID serviceId = UUID.randomUUID();
+        UUID taxId = UUID.randomUUID();
+        UUID orderChargeId = UUID.randomUUID();
+        UUID discountId = UUID.randomUUID();
+
+        // Stock is high enough that no sale runs out
+        jdbcTemplate.update("INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at) " +
+                                    "SELECT gen_random_uuid(), 'Product ' || n, 1.00 + n % 50, ?, 1000000, false, now() FROM generate_series(1, ?) n",
+                            categoryId, productsPerMerchant);
+        jdbcTemplate.update("INSERT INTO charge (id, type, name, percent, merchant_id, is_active, created_at) VALUES (?, 0, 'VAT', 21, ?, true, now())",
+                            taxId, merchantId);
+        jdbcTemplate.update("INSERT INTO charges_products (charge_id, product_id) SELECT ?, id FROM product WHERE category = ?",
+                            taxId, categoryId);
+        jdbcTemplate.update("INSERT INTO order_charge (id, type, name, percent, merchant_id, created_at) VALUES (?, 0, 'Service', 10, ?, now())",
+                            orderChargeId, merchantId);
+        jdbcTemplate.update("INSERT INTO order_charge (id, type, name, percent, merchant_id, created_at) VALUES (?, 1, 'Loyalty', 5, ?, now())",
+                            discountId, merchantId);
+        jdbcTemplate.update("INSERT INTO service (id, name, price, duration, merchant_id, created_at) VALUES (?, 'Haircut', 20.00, 3600, ?, now())",
+                            serviceId, merchantId);
+
+        List<UUID> productIds = jdbcTemplate.queryForList("SELECT id FROM product WHERE category = ? ORDER BY name", UUID.class, categoryId);
+        return new MerchantFixture(owner, serviceId, orderChargeId, discountId, productIds);
+    }
+
+    // All tills start together, each logs in and rings up its sales one after another
+    private RunResult runTills(HttpClient httpClient, int sales, LatencyRecorder recorder) throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger reservations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tills);
+
+        List<Future<?>> runs = new ArrayList<>();
+        for (Till till : tillFixtures) {
+            runs.add(executor.submit(() -> {
+                TillClient client = new TillClient(httpClient, objectMapper, "http://localhost:" + port, recorder);
+                start.await();
+                client.login(till.email, PASSWORD);
+                for (int i = 0; i < sales; i++) {
+                    try {
+                        if (ringUpSale(client, till)) {
+                            reservations.incrementAndGet();
+                        }
+                        completed.incrementAndGet();
+                    }
+                    catch (TillClient.TillRequestException e) {
+                        failed.incrementAndGet();
+                        log.warn("Sale of till {} failed: {}", till.number, e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> run : runs) {
+            run.get(1, TimeUnit.HOURS);
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        executor.shutdown();
+
+        return new RunResult(elapsedSeconds, completed.get(), failed.get(), reservations.get());
+    }
+
+    // One sale from opening the order to closing it with a payment, returns whether a reservation was booked into it
+    private boolean ringUpSale(TillClient client, Till till) {
+        Random random = till.random;
+        MerchantFixture merchant = till.merchant;
+
+        UUID orderId = id(client.post("/orders", null));
+
+        int lines = 1 + random.nextInt(5);
+        for (int i = 0; i < lines; i++) {
+            UUID productId = merchant.productIds().get(random.nextInt(merchant.productIds().size()));
+            client.post("/orders/{orderId}/items", Map.of("productId", productId, "quantity", 1 + random.nextInt(3)), orderId);
+        }
+
+        boolean booked = random.nextInt(100) < reservationPercent;
+        if (booked) {
+            UUID reservationId = bookReservation(client, till);
+            client.post("/orders/{orderId}/items", Map.of("reservationId", reservationId, "quantity", 1), orderId);
+        }
+
+        if (random.nextInt(100) < chargePercent) {
+            client.post("/orders/{orderId}/charges/{chargeId}", null, orderId, merchant.orderChargeId());
+        }
+        if (random.nextInt(100) < discountPercent) {
+            client.post("/orders/{orderId}/charges/{chargeId}", null, orderId, merchant.discountId());
+        }
+
+        BigDecimal amountDue = client.get("/orders/{orderId}/finalCheckoutAmount", orderId).decimalValue();
+        String paymentMethod = random.nextBoolean() ? "payment_card" : "cash";
+        UUID transactionId = id(client.post("/orders/{orderId}/transactions",
+                                            Map.of("paymentMethodType", paymentMethod, "amount", amountDue), orderId));
+        client.patch("/orders/{orderId}/transactions/{transactionId}/complete", null, orderId, transactionId);
+        return booked;
+    }
+
+    // Picks one of the employee's free slots the way the booking screen does
+    private UUID bookReservation(TillClient client, Till till) {
+        while (true) {
+            JsonNode slots = client.get("/services/{serviceId}/availableSlots?date={date}&userId={userId}",
+                                        till.merchant.serviceId(), till.bookingDate, till.employeeId).get("items");
+            if (slots.isEmpty()) {
+                till.bookingDate = till.bookingDate.plusDays(1);
+                continue;
+            }
+
+            JsonNode slot = slots.get(till.random.nextInt(slots.size()));
+            Map<String, Object> request = Map.of("serviceId", till.merchant.serviceId(),
+                                                 "employeeId", till.employeeId,
+                                                 "appointedAt", slot.get("startTime").asText(),
+                                                 "firstName", "Walk-in",
+                                                 "lastName", "Customer " + till.number);
+            return id(client.post("/reservations", request));
+        }
+    }
+
+    private static UUID id(JsonNode response) {
+        return UUID.fromString(response.get("id").asText());
+    }
+
+    private void writeSummary(RunResult result, List<LatencyRecorder.EndpointSummary> endpoints) throws Exception {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("merchants", merchants);
+        settings.put("tills", tills);
+        settings.put("salesPerTill", salesPerTill);
+        settings.put("warmupSalesPerTill", warmupSalesPerTill);
+        settings.put("productsPerMerchant", productsPerMerchant);
+        settings.put("reservationPercent", reservationPercent);
+        settings.put("chargePercent", chargePercent);
+        settings.put("discountPercent", discountPercent);
+        settings.put("seed", seed);
+
+        long requests = endpoints.stream().mapToLong(LatencyRecorder.EndpointSummary::requests).sum();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("finishedAt", LocalDateTime.now().toString());
+        summary.put("settings", settings);
+        summary.put("elapsedSeconds", result.elapsedSeconds());
+        summary.put("sales", result.sales());
+        summary.put("failedSales", result.failedSales());
+        summary.put("reservations", result.reservations());
+        summary.put("salesPerSecond", result.sales() / result.elapsedSeconds());
+        summary.put("requests", requests);
+        summary.put("requestsPerSecond", requests / result.elapsedSeconds());
+        summary.put("endpoints", endpoints);
+
+        Path directory = output.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), summary);
+    }
+}
@@ -0,0 +1,78 @@
+package com.team1206.pos.order.order;
+
+import com.team1206.pos.common.TestMerchant;
+import com.team1206.pos.payments.transaction.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pays orders of different sizes in full and checks that closing them, inventory logs included, takes the same number of statements
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderCloseQueryCountTests {
+
+    private TestMerchant merchant;
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Close");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at) " +
+                            "SELECT gen_random_uuid(), 'Product ' || n, 1.00, ?, 100, false, now() FROM generate_series(1, 40) n", merchant.categoryId());
+
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void orderSizeDoesNotChangeStatementCount() {
+        // Warms the pricing rules and caches, so both measured closes start from the same state
+        closeOrder(1);
+
+        long smallOrderStatements = closeOrder(5);
+        long largeOrderStatements = closeOrder(40);
+
+        assertThat(largeOrderStatements).isEqualTo(smallOrderStatements);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_log WHERE merchant_id = ? AND adjustment = -1 AND \"order\" IS NOT NULL",
+                                               Integer.class, merchant.id())).isEqualTo(46);
+    }
+
+    private long closeOrder(int lines) {
+        UUID orderId = UUID.randomUUID();
+        UUID transactionId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"order\" (id, status, merchant_id, tip, created_at) VALUES (?, 0, ?, 0, now())", orderId, merchant.id());
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, product_id, created_at) " +
+                            "SELECT gen_random_uuid(), ?, 1, p.id, now() FROM product p WHERE p.category = ? ORDER BY p.id LIMIT ?",
+                            orderId, merchant.categoryId(), lines);
+        jdbcTemplate.update("INSERT INTO transaction (id, status, payment_method, amount, order_id, created_at) VALUES (?, 0, 0, 1000.00, ?, now())",
+                            transactionId, orderId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionService.completeTransaction(orderId, transactionId);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM \"order\" WHERE id = ?", Integer.class, orderId)).isEqualTo(1);
+        return statistics.getPrepareStatementCount();
+    }
+}
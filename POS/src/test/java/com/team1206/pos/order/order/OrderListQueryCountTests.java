@@ -0,0 +1,70 @@
+package com.team1206.pos.order.order;
+
+import com.team1206.pos.common.TestMerchant;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A page of orders with items and transactions is read in the same number of statements whatever its size
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderListQueryCountTests {
+
+    private TestMerchant merchant;
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "List");
+        jdbcTemplate.update("INSERT INTO \"order\" (id, status, merchant_id, tip, created_at) " +
+                            "SELECT gen_random_uuid(), 1, ?, 0, now() - n * interval '1 minute' FROM generate_series(1, 40) n", merchant.id());
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, created_at) " +
+                            "SELECT gen_random_uuid(), o.id, 1, now() FROM \"order\" o, generate_series(1, 3) n WHERE o.merchant_id = ?", merchant.id());
+        jdbcTemplate.update("INSERT INTO transaction (id, status, payment_method, amount, order_id, created_at) " +
+                            "SELECT gen_random_uuid(), 1, 0, 1.00, o.id, now() FROM \"order\" o WHERE o.merchant_id = ?", merchant.id());
+
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void pageSizeDoesNotChangeStatementCount() {
+        long smallPageStatements = countStatements(5);
+        long largePageStatements = countStatements(40);
+
+        assertThat(largePageStatements).isEqualTo(smallPageStatements);
+    }
+
+    private long countStatements(int limit) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<OrderResponseDTO> orders = orderService.getOrders(0, limit, null, null, null);
+
+        assertThat(orders.getContent()).hasSize(limit)
+                                       .allSatisfy(order -> {
+                                           assertThat(order.getItems()).hasSize(3);
+                                           assertThat(order.getTransactions()).hasSize(1);
+                                       });
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,150 @@
+package com.team1206.pos.order.orderItem;
+
+import com.team1206.pos.common.TestMerchant;
+import com.team1206.pos.common.enums.OrderItemOperationType;
+import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
+import com.team1206.pos.exceptions.UnauthorizedActionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Applies batches of item changes to one order and checks stock, lines and the reservation checks
+@SpringBootTest
+class OrderItemBatchTests {
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID keptProductId = UUID.randomUUID();
+    private final UUID removedProductId = UUID.randomUUID();
+    private final UUID addedProductId = UUID.randomUUID();
+    private final UUID keptItemId = UUID.randomUUID();
+    private final UUID removedItemId = UUID.randomUUID();
+    private TestMerchant merchant;
+    private TestMerchant otherMerchant;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Batch");
+        otherMerchant = TestMerchant.seed(jdbcTemplate, "Other batch");
+        for (UUID productId : List.of(keptProductId, removedProductId, addedProductId)) {
+            jdbcTemplate.update("INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at) VALUES (?, 'Product', 2.00, ?, 10, false, now())",
+                                productId, merchant.categoryId());
+        }
+        jdbcTemplate.update("INSERT INTO \"order\" (id, status, merchant_id, tip, created_at) VALUES (?, 0, ?, 0, now())", orderId, merchant.id());
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, product_id, created_at) VALUES (?, ?, 2, ?, now())",
+                            keptItemId, orderId, keptProductId);
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, product_id, created_at) VALUES (?, ?, 1, ?, now())",
+                            removedItemId, orderId, removedProductId);
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+        otherMerchant.delete();
+    }
+
+    @Test
+    void mixedBatchIsAppliedTogether() {
+        orderItemService.applyItemOperations(orderId, batch(
+                operation(OrderItemOperationType.UPDATE, keptItemId, null, 5),
+                operation(OrderItemOperationType.REMOVE, removedItemId, null, null),
+                operation(OrderItemOperationType.ADD, null, addedProductId, 3)
+        ));
+
+        assertThat(getStock(keptProductId)).isEqualTo(7);
+        assertThat(getStock(removedProductId)).isEqualTo(11);
+        assertThat(getStock(addedProductId)).isEqualTo(7);
+        assertThat(jdbcTemplate.queryForList("SELECT product_id || ':' || quantity FROM order_item WHERE order_id = ?", String.class, orderId))
+                .containsExactlyInAnyOrder(keptProductId + ":5", addedProductId + ":3");
+    }
+
+    @Test
+    void insufficientStockRollsBackTheWholeBatch() {
+        assertThatThrownBy(() -> orderItemService.applyItemOperations(orderId, batch(
+                operation(OrderItemOperationType.UPDATE, keptItemId, null, 5),
+                operation(OrderItemOperationType.ADD, null, addedProductId, 100)
+        ))).isInstanceOf(IllegalStateExceptionWithId.class);
+
+        assertThat(getStock(keptProductId)).isEqualTo(10);
+        assertThat(getStock(addedProductId)).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM order_item WHERE id = ?", Integer.class, keptItemId)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_item WHERE order_id = ?", Integer.class, orderId)).isEqualTo(2);
+    }
+
+    @Test
+    void reservationOfAnotherMerchantIsRejected() {
+        UUID reservationId = seedReservation(otherMerchant);
+
+        assertThatThrownBy(() -> orderItemService.applyItemOperations(orderId, batch(addReservation(reservationId))))
+                .isInstanceOf(UnauthorizedActionException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_item WHERE reservation_id = ?", Integer.class, reservationId)).isZero();
+    }
+
+    @Test
+    void reservationOfAnotherOrderIsRejected() {
+        UUID reservationId = seedReservation(merchant);
+        UUID otherOrderId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"order\" (id, status, merchant_id, tip, created_at) VALUES (?, 0, ?, 0, now())", otherOrderId, merchant.id());
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, reservation_id, created_at) VALUES (gen_random_uuid(), ?, 1, ?, now())",
+                            otherOrderId, reservationId);
+
+        assertThatThrownBy(() -> orderItemService.applyItemOperations(orderId, batch(addReservation(reservationId))))
+                .isInstanceOf(IllegalStateExceptionWithId.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_item WHERE order_id = ?", Integer.class, orderId)).isEqualTo(2);
+    }
+
+    // *** Helper methods ***
+
+    private static OrderItemBatchRequestDTO batch(OrderItemOperationDTO... operations) {
+        OrderItemBatchRequestDTO requestDTO = new OrderItemBatchRequestDTO();
+        requestDTO.setOperations(List.of(operations));
+        return requestDTO;
+    }
+
+    private static OrderItemOperationDTO operation(OrderItemOperationType type, UUID orderItemId, UUID productId, Integer quantity) {
+        OrderItemOperationDTO operation = new OrderItemOperationDTO();
+        operation.setType(type);
+        operation.setOrderItemId(orderItemId);
+        operation.setProductId(productId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private static OrderItemOperationDTO addReservation(UUID reservationId) {
+        OrderItemOperationDTO operation = new OrderItemOperationDTO();
+        operation.setType(OrderItemOperationType.ADD);
+        operation.setReservationId(reservationId);
+        return operation;
+    }
+
+    private int getStock(UUID productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId);
+    }
+
+    private UUID seedReservation(TestMerchant owner) {
+        UUID serviceId = UUID.randomUUID();
+        UUID reservationId = UUID.randomUUID();
+        LocalDateTime appointedAt = LocalDateTime.now().plusDays(1).withNano(0);
+        jdbcTemplate.update("INSERT INTO service (id, name, price, duration, merchant_id, created_at) VALUES (?, 'Haircut', 20.00, 3600, ?, now())",
+                            serviceId, owner.id());
+        jdbcTemplate.update("INSERT INTO reservation (id, first_name, last_name, phone, appointed_at, ends_at, service_id, employee_id, created_at) " +
+                                    "VALUES (?, 'Customer', 'Batch', '+37060000000', ?, ?, ?, ?, now())",
+                            reservationId, appointedAt, appointedAt.plusHours(1), serviceId, owner.userId());
+        return reservationId;
+    }
+}
@@ -0,0 +1,127 @@
+package com.team1206.pos.order.orderSync;
+
+import com.team1206.pos.common.TestMerchant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Syncs a batch where stock runs out part way and the same order comes twice, as a till replaying its queue would send it
+@SpringBootTest
+class OrderSyncServiceTests {
+    private final UUID productId = UUID.randomUUID();
+    private TestMerchant merchant;
+
+    @Autowired
+    private OrderSyncService orderSyncService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Sync");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at) VALUES (?, 'Coffee', 2.00, ?, 3, false, now())",
+                            productId, merchant.categoryId());
+
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void syncKeepsStockAndSkipsRepeatedOrders() {
+        LocalDateTime soldAt = LocalDateTime.now().minusHours(2);
+        OfflineOrderDTO first = offlineOrder(soldAt, 2, "4.00");
+        OfflineOrderDTO second = offlineOrder(soldAt.plusMinutes(5), 2, "4.00");
+        OfflineOrderDTO unpaid = offlineOrder(soldAt.plusMinutes(10), 1, "1.00");
+
+        List<OrderSyncResultDTO> results = orderSyncService.syncOrders(request(second, unpaid, first, first));
+
+        assertThat(results).extracting(OrderSyncResultDTO::getStatus)
+                           .containsExactly("REJECTED", "REJECTED", "SYNCED", "DUPLICATE");
+        assertThat(results.get(2).getOrderId()).isNotNull().isEqualTo(results.get(3).getOrderId());
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT amount_paid FROM \"order\" WHERE id = ?", BigDecimal.class, results.get(2).getOrderId()))
+                .isEqualByComparingTo("4.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT adjustment FROM inventory_log WHERE merchant_id = ?", Integer.class, merchant.id())).isEqualTo(-2);
+
+        List<OrderSyncResultDTO> replayed = orderSyncService.syncOrders(request(first));
+
+        assertThat(replayed).singleElement()
+                            .satisfies(result -> {
+                                assertThat(result.getStatus()).isEqualTo("DUPLICATE");
+                                assertThat(result.getOrderId()).isEqualTo(results.get(2).getOrderId());
+                            });
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentReplaysSyncTheOrderOnce() throws Exception {
+        OfflineOrderDTO order = offlineOrder(LocalDateTime.now().minusHours(1), 1, "2.00");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<OrderSyncResultDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> {
+                    merchant.logIn();
+                    start.await();
+                    return orderSyncService.syncOrders(request(order)).get(0);
+                }));
+            }
+            start.countDown();
+
+            List<String> statuses = new ArrayList<>();
+            for (Future<OrderSyncResultDTO> future : futures) {
+                statuses.add(future.get(30, TimeUnit.SECONDS).getStatus());
+            }
+            assertThat(statuses).containsExactlyInAnyOrder("SYNCED", "DUPLICATE");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId)).isEqualTo(2);
+    }
+
+    private OfflineOrderDTO offlineOrder(LocalDateTime createdAt, int quantity, String paid) {
+        OfflineOrderItemDTO item = new OfflineOrderItemDTO();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+
+        OfflineTransactionDTO transaction = new OfflineTransactionDTO();
+        transaction.setPaymentMethodType("cash");
+        transaction.setAmount(new BigDecimal(paid));
+
+        OfflineOrderDTO order = new OfflineOrderDTO();
+        order.setClientOrderId(UUID.randomUUID());
+        order.setCreatedAt(createdAt);
+        order.setItems(List.of(item));
+        order.setTransactions(List.of(transaction));
+        return order;
+    }
+
+    private static OrderSyncRequestDTO request(OfflineOrderDTO... orders) {
+        OrderSyncRequestDTO request = new OrderSyncRequestDTO();
+        request.setOrders(List.of(orders));
+        return request;
+    }
+}
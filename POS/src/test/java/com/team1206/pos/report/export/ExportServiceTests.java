@@ -0,0 +1,97 @@
+package com.team1206.pos.report.export;
+
+import com.team1206.pos.common.TestMerchant;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exports more orders than one fetch from the cursor, once as CSV and once as gzipped NDJSON
+@SpringBootTest
+class ExportServiceTests {
+    private static final int ORDERS = 2500;
+
+    private TestMerchant merchant;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Export");
+        jdbcTemplate.update("""
+                INSERT INTO "order" (id, status, merchant_id, tip, subtotal, amount_due, created_at)
+                SELECT gen_random_uuid(), 1, ?, 0.50, 10.00, 10.50, date_trunc('day', now()) + (n || ' seconds')::interval
+                FROM generate_series(1, ?) n
+                """, merchant.id(), ORDERS);
+        jdbcTemplate.update("""
+                INSERT INTO transaction (id, status, payment_method, amount, order_id, created_at)
+                SELECT gen_random_uuid(), 1, 0, 10.50, o.id, o.created_at FROM "order" o WHERE o.merchant_id = ?
+                """, merchant.id());
+
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void ordersAreExportedAsCsv() throws IOException {
+        LocalDate today = LocalDate.now();
+        ExportFile file = exportService.exportOrders(today, today, "csv", false);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        file.body().writeTo(output);
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertThat(file.fileName()).isEqualTo("orders-" + today + "-" + today + ".csv");
+        assertThat(lines).hasSize(ORDERS + 1);
+        assertThat(lines.get(0)).isEqualTo("id,status,clientOrderId,subtotal,chargeTotal,discountTotal,tip,amountDue,amountPaid,createdAt,updatedAt");
+        assertThat(lines.get(1).split(",", -1)).satisfies(fields -> {
+            assertThat(fields[1]).isEqualTo("CLOSED");
+            assertThat(fields[2]).isEmpty();
+            assertThat(fields[3]).isEqualTo("10.00");
+            assertThat(fields[7]).isEqualTo("10.50");
+        });
+    }
+
+    @Test
+    void transactionsAreExportedAsGzippedNdjson() throws IOException {
+        LocalDate today = LocalDate.now();
+        ExportFile file = exportService.exportTransactions(today.minusDays(1), today, "ndjson", true);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        file.body().writeTo(output);
+        byte[] ndjson = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).readAllBytes();
+        List<String> lines = new String(ndjson, StandardCharsets.UTF_8).lines().toList();
+
+        assertThat(file.fileName()).endsWith(".ndjson.gz");
+        assertThat(lines).hasSize(ORDERS);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(first.get("paymentMethod").asText()).isEqualTo("CASH");
+        assertThat(first.get("amount").isNumber()).isTrue();
+        assertThat(first.get("updatedAt").isNull()).isTrue();
+    }
+}
@@ -0,0 +1,116 @@
+package com.team1206.pos.report.export;
+
+import com.team1206.pos.common.TestMerchant;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exports a few million orders into a stream that only counts lines, while a sampler records the largest heap in use.
+// Run it under a heap far smaller than the export, holding the rows would fail with OutOfMemoryError:
+// mvn test -Dtest=OrderExportBenchmark -Dbenchmark=true -DargLine=-Xmx192m [-Dbenchmark.orders=3000000]
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderExportBenchmark {
+    private final int orders = Integer.getInteger("benchmark.orders", 3_000_000);
+    private TestMerchant merchant;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Export");
+        jdbcTemplate.update("""
+                INSERT INTO "order" (id, status, merchant_id, tip, subtotal, charge_total, discount_total, amount_due, amount_paid, created_at)
+                SELECT gen_random_uuid(), 1, ?, 0, 10.00, 0, 0, 10.00, 10.00, date_trunc('year', now()) + (n || ' seconds')::interval
+                FROM generate_series(1, ?) n
+                """, merchant.id(), orders);
+        jdbcTemplate.execute("ANALYZE \"order\"");
+
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void exportUsesConstantMemory() throws Exception {
+        LocalDate startOfYear = LocalDate.now().withDayOfYear(1);
+        ExportFile file = exportService.exportOrders(startOfYear, startOfYear.plusYears(1).minusDays(1), "csv", false);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peakHeap = new AtomicLong(heapBefore);
+        Thread sampler = Thread.ofVirtual().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(10);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        CountingOutputStream output = new CountingOutputStream();
+        long started = System.nanoTime();
+        file.body().writeTo(output);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        sampler.interrupt();
+        sampler.join();
+
+        log.info("Exported {} orders, {} MB in {} ms, heap in use peaked at {} MB of {} MB (started at {} MB)",
+                 orders, output.bytes / (1024 * 1024), elapsed.toMillis(), peakHeap.get() / (1024 * 1024),
+                 Runtime.getRuntime().maxMemory() / (1024 * 1024), heapBefore / (1024 * 1024));
+
+        // The header and one line per order
+        assertThat(output.lines).isEqualTo(orders + 1);
+        assertThat(output.bytes).as("Run with a heap smaller than the export, e.g. -DargLine=-Xmx192m")
+                                .isGreaterThan(Runtime.getRuntime().maxMemory());
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.team1206.pos.report.registerReport;
+
+import com.team1206.pos.common.TestMerchant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Takes an X- and two Z-reports over orders seeded without stored totals, as orders from before totals were stored look
+@SpringBootTest
+class RegisterReportServiceTests {
+    private final UUID productId = UUID.randomUUID();
+    private final UUID chargeId = UUID.randomUUID();
+    private final UUID closedOrderId = UUID.randomUUID();
+    private final UUID openOrderId = UUID.randomUUID();
+    private TestMerchant merchant;
+
+    @Autowired
+    private RegisterReportService registerReportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Register");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at) VALUES (?, 'Tea', 10.00, ?, 10, false, now())",
+                            productId, merchant.categoryId());
+        jdbcTemplate.update("INSERT INTO charge (id, type, name, percent, merchant_id, is_active, created_at) VALUES (?, 0, 'VAT', 21, ?, true, now())",
+                            chargeId, merchant.id());
+        jdbcTemplate.update("INSERT INTO charges_products (charge_id, product_id) VALUES (?, ?)", chargeId, productId);
+        jdbcTemplate.update("INSERT INTO \"order\" (id, status, merchant_id, tip, closed_at, created_at) VALUES (?, 1, ?, 1.50, now() - interval '2 hours', now() - interval '3 hours')",
+                            closedOrderId, merchant.id());
+        jdbcTemplate.update("INSERT INTO \"order\" (id, status, merchant_id, tip, created_at) VALUES (?, 0, ?, 0, now() - interval '1 hour')",
+                            openOrderId, merchant.id());
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, product_id, created_at) VALUES (?, ?, 2, ?, now())",
+                            UUID.randomUUID(), closedOrderId, productId);
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, product_id, created_at) VALUES (?, ?, 1, ?, now())",
+                            UUID.randomUUID(), openOrderId, productId);
+        jdbcTemplate.update("INSERT INTO transaction (id, status, payment_method, amount, order_id, completed_at, created_at) VALUES (?, 1, 0, 24.20, ?, now() - interval '2 hours', now() - interval '3 hours')",
+                            UUID.randomUUID(), closedOrderId);
+        jdbcTemplate.update("INSERT INTO transaction (id, status, payment_method, amount, order_id, created_at) VALUES (?, 0, 1, 5.00, ?, now() - interval '1 hour')",
+                            UUID.randomUUID(), openOrderId);
+
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void zReportClosesThePeriodAndReportsAreStored() {
+        RegisterReportResponseDTO xReport = registerReportService.createRegisterReport("x");
+        RegisterReportResponseDTO zReport = registerReportService.createRegisterReport("z");
+        RegisterReportResponseDTO nextZReport = registerReportService.createRegisterReport("z");
+
+        assertThat(xReport.getPeriodStart()).isEqualTo(zReport.getPeriodStart());
+        assertThat(zReport.getOrderCount()).isEqualTo(2);
+        assertThat(zReport.getOpenOrderCount()).isEqualTo(1);
+        assertThat(zReport.getClosedOrderCount()).isEqualTo(1);
+        assertThat(zReport.getItemsSold()).isEqualTo(2);
+        assertThat(zReport.getSubtotal()).isEqualByComparingTo("24.20");
+        assertThat(zReport.getTaxTotal()).isEqualByComparingTo("4.20");
+        assertThat(zReport.getTipTotal()).isEqualByComparingTo("1.50");
+        assertThat(zReport.getOpenAmountDue()).isEqualByComparingTo("12.10");
+        assertThat(zReport.getCompletedCount()).isEqualTo(1);
+        assertThat(zReport.getCashAmount()).isEqualByComparingTo("24.20");
+        assertThat(zReport.getPendingCount()).isEqualTo(1);
+        assertThat(zReport.getPendingAmount()).isEqualByComparingTo("5.00");
+
+        assertThat(nextZReport.getPeriodStart()).isEqualTo(zReport.getPeriodEnd());
+        assertThat(nextZReport.getOrderCount()).isZero();
+        assertThat(nextZReport.getCompletedAmount()).isEqualByComparingTo("0");
+
+        assertThat(registerReportService.getRegisterReport(zReport.getId())).isEqualTo(zReport);
+        assertThat(registerReportService.getRegisterReports(10, 0, "z").getContent())
+                .extracting(RegisterReportResponseDTO::getId)
+                .containsExactly(nextZReport.getId(), zReport.getId());
+    }
+
+    @Test
+    void orderClosedAfterZReportCountsInTheNextPeriod() {
+        RegisterReportResponseDTO zReport = registerReportService.createRegisterReport("z");
+        jdbcTemplate.update("UPDATE \"order\" SET status = 1, closed_at = now() WHERE id = ?", openOrderId);
+        jdbcTemplate.update("UPDATE transaction SET status = 1, completed_at = now() WHERE order_id = ?", openOrderId);
+        jdbcTemplate.update("UPDATE transaction SET status = 3, refunded_at = now() WHERE order_id = ?", closedOrderId);
+        RegisterReportResponseDTO nextZReport = registerReportService.createRegisterReport("z");
+
+        assertThat(zReport.getOpenOrderCount()).isEqualTo(1);
+        assertThat(nextZReport.getClosedOrderCount()).isEqualTo(1);
+        assertThat(nextZReport.getItemsSold()).isEqualTo(1);
+        assertThat(nextZReport.getSubtotal()).isEqualByComparingTo("12.10");
+        assertThat(nextZReport.getTaxTotal()).isEqualByComparingTo("2.10");
+        assertThat(nextZReport.getCompletedAmount()).isEqualByComparingTo("5.00");
+        assertThat(nextZReport.getCardAmount()).isEqualByComparingTo("5.00");
+        assertThat(nextZReport.getRefundedAmount()).isEqualByComparingTo("24.20");
+        assertThat(zReport.getCompletedAmount().add(nextZReport.getCompletedAmount()).subtract(nextZReport.getRefundedAmount()))
+                .isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void taxOfClosedOrderKeepsThePricesItClosedWith() {
+        registerReportService.createRegisterReport("x");
+        jdbcTemplate.update("UPDATE product SET price = 20.00 WHERE id = ?", productId);
+        jdbcTemplate.update("UPDATE charge SET percent = 50 WHERE id = ?", chargeId);
+        RegisterReportResponseDTO zReport = registerReportService.createRegisterReport("z");
+
+        assertThat(zReport.getTaxTotal()).isEqualByComparingTo("4.20");
+    }
+}
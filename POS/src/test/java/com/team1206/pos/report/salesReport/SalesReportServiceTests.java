@@ -0,0 +1,96 @@
+package com.team1206.pos.report.salesReport;
+
+import com.team1206.pos.common.TestMerchant;
+import com.team1206.pos.payments.transaction.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pays and refunds an order through the transaction service and reads the sale back from the rollups
+@SpringBootTest
+class SalesReportServiceTests {
+    private final UUID productId = UUID.randomUUID();
+    private final UUID chargeId = UUID.randomUUID();
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID transactionId = UUID.randomUUID();
+    private TestMerchant merchant;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Report");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, category, quantity, is_deleted, created_at) VALUES (?, 'Tea', 10.00, ?, 10, false, now())",
+                            productId, merchant.categoryId());
+        jdbcTemplate.update("INSERT INTO charge (id, type, name, percent, merchant_id, is_active, created_at) VALUES (?, 0, 'VAT', 21, ?, true, now())",
+                            chargeId, merchant.id());
+        jdbcTemplate.update("INSERT INTO charges_products (charge_id, product_id) VALUES (?, ?)", chargeId, productId);
+        jdbcTemplate.update("INSERT INTO \"order\" (id, status, merchant_id, tip, created_at) VALUES (?, 0, ?, 0, now())",
+                            orderId, merchant.id());
+        jdbcTemplate.update("INSERT INTO order_item (id, order_id, quantity, product_id, created_at) VALUES (?, ?, 2, ?, now())",
+                            UUID.randomUUID(), orderId, productId);
+        jdbcTemplate.update("INSERT INTO transaction (id, status, payment_method, amount, order_id, created_at) VALUES (?, 0, 0, 24.20, ?, now())",
+                            transactionId, orderId);
+
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void paidAndRefundedOrderIsReportedFromRollups() {
+        transactionService.completeTransaction(orderId, transactionId);
+        transactionService.refundTransaction(orderId, transactionId);
+
+        LocalDate today = LocalDate.now();
+        List<SalesPeriodDTO> sales = salesReportService.getSales(today.minusDays(7), today, "day");
+
+        assertThat(sales).singleElement().satisfies(day -> {
+            assertThat(day.getPeriodStart()).isEqualTo(today);
+            assertThat(day.getOrderCount()).isEqualTo(1);
+            assertThat(day.getSubtotal()).isEqualByComparingTo("20.00");
+            assertThat(day.getAmountDue()).isEqualByComparingTo("24.20");
+            assertThat(day.getTaxTotal()).isEqualByComparingTo("4.20");
+            assertThat(day.getPayments()).singleElement().satisfies(payment -> {
+                assertThat(payment.getPaymentMethod()).isEqualTo("CASH");
+                assertThat(payment.getCompletedCount()).isEqualTo(1);
+                assertThat(payment.getCompletedAmount()).isEqualByComparingTo("24.20");
+                assertThat(payment.getRefundedCount()).isEqualTo(1);
+                assertThat(payment.getRefundedAmount()).isEqualByComparingTo("24.20");
+            });
+        });
+
+        assertThat(salesReportService.getItemSales(today, today)).singleElement().satisfies(item -> {
+            assertThat(item.getItemType()).isEqualTo("PRODUCT");
+            assertThat(item.getItemId()).isEqualTo(productId);
+            assertThat(item.getQuantity()).isEqualTo(2);
+            assertThat(item.getGrossAmount()).isEqualByComparingTo("20.00");
+            assertThat(item.getTaxAmount()).isEqualByComparingTo("4.20");
+        });
+
+        assertThat(salesReportService.getTaxes(today, today, "month")).singleElement().satisfies(tax -> {
+            assertThat(tax.getPeriodStart()).isEqualTo(today.withDayOfMonth(1));
+            assertThat(tax.getChargeId()).isEqualTo(chargeId);
+            assertThat(tax.getTaxAmount()).isEqualByComparingTo("4.20");
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.team1206.pos.service.reservation;
+
+import com.team1206.pos.common.TestMerchant;
+import com.team1206.pos.exceptions.IllegalStateExceptionWithId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Books the same employee from many threads at once and checks that no overlapping reservations are stored
+@SpringBootTest
+class ReservationConcurrencyTests {
+    private static final int THREADS = 16;
+    private static final long DURATION_SECONDS = 3600;
+
+    private final UUID serviceId = UUID.randomUUID();
+    private final LocalDateTime opening = LocalDate.now().plusDays(1).atTime(8, 0);
+    private TestMerchant merchant;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Concurrency");
+        jdbcTemplate.update("INSERT INTO schedule (id, user_id, merchant_id, day_of_week, start_time, end_time, created_at) " +
+                                    "SELECT gen_random_uuid(), ?, ?, d, '08:00', '20:00', now() " +
+                                    "FROM unnest(ARRAY['MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY']) d",
+                            merchant.userId(), merchant.id());
+        jdbcTemplate.update("INSERT INTO service (id, name, price, duration, merchant_id, created_at) VALUES (?, 'Haircut', 20.00, ?, ?, now())",
+                            serviceId, DURATION_SECONDS, merchant.id());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void sameSlotIsBookedOnce() throws Exception {
+        List<LocalDateTime> requestedTimes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requestedTimes.add(opening.plusHours(2));
+        }
+
+        BookingResults results = bookConcurrently(requestedTimes);
+
+        assertThat(results.booked.get()).isEqualTo(1);
+        assertThat(results.booked.get() + results.rejected.get()).isEqualTo(requestedTimes.size());
+        assertThat(countOverlaps()).isZero();
+    }
+
+    @Test
+    void staggeredSlotsNeverOverlap() throws Exception {
+        List<LocalDateTime> requestedTimes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requestedTimes.add(opening.plusMinutes(15L * (i % 40)));
+        }
+
+        BookingResults results = bookConcurrently(requestedTimes);
+
+        assertThat(results.booked.get()).isPositive();
+        assertThat(results.booked.get() + results.rejected.get()).isEqualTo(requestedTimes.size());
+        assertThat(countOverlaps()).isZero();
+    }
+
+    // *** Helper methods ***
+
+    private BookingResults bookConcurrently(List<LocalDateTime> requestedTimes) throws Exception {
+        BookingResults results = new BookingResults();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> bookings = new ArrayList<>();
+        for (LocalDateTime requestedTime : requestedTimes) {
+            bookings.add(executor.submit(() -> {
+                merchant.logIn();
+                start.await();
+                try {
+                    reservationService.createReservation(request(requestedTime));
+                    results.booked.incrementAndGet();
+                }
+                // Rejected by the availability check or, when racing past it, by the exclusion constraint
+                catch (IllegalArgumentException | IllegalStateExceptionWithId e) {
+                    results.rejected.incrementAndGet();
+                }
+                finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> booking : bookings) {
+            booking.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private ReservationRequestDTO request(LocalDateTime appointedAt) {
+        ReservationRequestDTO request = new ReservationRequestDTO();
+        request.setServiceId(serviceId);
+        request.setEmployeeId(merchant.userId());
+        request.setAppointedAt(appointedAt);
+        request.setFirstName("Race");
+        request.setLastName("Customer");
+        return request;
+    }
+
+    private Integer countOverlaps() {
+        return jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM reservation a
+                JOIN reservation b ON a.employee_id = b.employee_id AND a.id < b.id
+                WHERE a.employee_id = ?
+                  AND a.appointed_at < b.appointed_at + make_interval(secs => ?)
+                  AND b.appointed_at < a.appointed_at + make_interval(secs => ?)
+                """, Integer.class, merchant.userId(), DURATION_SECONDS, DURATION_SECONDS);
+    }
+
+    private static class BookingResults {
+        private final AtomicInteger booked = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+    }
+}
@@ -0,0 +1,56 @@
+package com.team1206.pos.service.service;
+
+import com.team1206.pos.service.reservation.BookedInterval;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityIndexTests {
+    private static final UUID EMPLOYEE_ID = UUID.randomUUID();
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+
+    @Test
+    void overlappingReservationsAreMerged() {
+        AvailabilityIndex index = AvailabilityIndex.of(List.of(
+                booking(10, 0, 3600),
+                booking(10, 30, 3600),
+                booking(14, 0, 1800)
+        ));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.isFree(at(11, 30), at(12, 0))).isTrue();
+        assertThat(index.isFree(at(11, 0), at(11, 45))).isFalse();
+        assertThat(index.isFree(at(9, 30), at(10, 30))).isFalse();
+    }
+
+    @Test
+    void slotsTouchingReservationsAreFree() {
+        AvailabilityIndex index = AvailabilityIndex.of(List.of(booking(10, 0, 3600)));
+
+        assertThat(index.isFree(at(9, 0), at(10, 0))).isTrue();
+        assertThat(index.isFree(at(11, 0), at(12, 0))).isTrue();
+    }
+
+    @Test
+    void freeSlotsSkipBookedTimeAndFillTheWindow() {
+        AvailabilityIndex index = AvailabilityIndex.of(List.of(booking(9, 30, 1800)));
+
+        List<AvailableSlotsResponseDTO.Slot> slots = index.getFreeSlots(at(8, 0), at(11, 0), 3600);
+
+        assertThat(slots).extracting(AvailableSlotsResponseDTO.Slot::getStartTime)
+                         .containsExactly(at(8, 0), at(10, 0));
+    }
+
+    private static BookedInterval booking(int hour, int minute, long durationSeconds) {
+        LocalDateTime start = at(hour, minute);
+        return new BookedInterval(EMPLOYEE_ID, UUID.randomUUID(), start, start.plusSeconds(durationSeconds));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.withHour(hour).withMinute(minute);
+    }
+}
@@ -0,0 +1,76 @@
+package com.team1206.pos.service.service;
+
+import com.team1206.pos.common.TestMerchant;
+import com.team1206.pos.exceptions.UnauthorizedActionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Availability only reveals the schedules of the logged in merchant's staff assigned to the service
+@SpringBootTest
+class ServiceAvailabilityTests {
+    private final UUID serviceId = UUID.randomUUID();
+    private final UUID otherServiceId = UUID.randomUUID();
+    private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+    private TestMerchant merchant;
+    private TestMerchant otherMerchant;
+
+    @Autowired
+    private ServiceService serviceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Availability");
+        otherMerchant = TestMerchant.seed(jdbcTemplate, "Other availability");
+        seedService(merchant, serviceId);
+        seedService(otherMerchant, otherServiceId);
+        merchant.logIn();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+        otherMerchant.delete();
+    }
+
+    @Test
+    void serviceEmployeeIsListed() {
+        ServiceAvailabilityResponseDTO availability = serviceService.getAvailability(serviceId, tomorrow, tomorrow, List.of(merchant.userId()));
+
+        assertThat(availability.getItems()).singleElement()
+                                           .satisfies(employee -> assertThat(employee.getEmployeeId()).isEqualTo(merchant.userId()));
+    }
+
+    @Test
+    void employeeOfAnotherMerchantIsRejected() {
+        assertThatThrownBy(() -> serviceService.getAvailability(serviceId, tomorrow, tomorrow, List.of(otherMerchant.userId())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void serviceOfAnotherMerchantIsRejected() {
+        assertThatThrownBy(() -> serviceService.getAvailability(otherServiceId, tomorrow, tomorrow, null))
+                .isInstanceOf(UnauthorizedActionException.class);
+    }
+
+    // *** Helper methods ***
+
+    private void seedService(TestMerchant owner, UUID id) {
+        jdbcTemplate.update("INSERT INTO service (id, name, price, duration, merchant_id, created_at) VALUES (?, 'Haircut', 20.00, 3600, ?, now())",
+                            id, owner.id());
+        jdbcTemplate.update("INSERT INTO services_users (service_id, user_id) VALUES (?, ?)", id, owner.userId());
+    }
+}
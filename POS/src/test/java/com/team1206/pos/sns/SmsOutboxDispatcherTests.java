@@ -0,0 +1,117 @@
+package com.team1206.pos.sns;
+
+import com.team1206.pos.common.enums.SmsStatus;
+import com.team1206.pos.exceptions.SnsServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the outbox against a recording sender instead of AWS, the scheduled run is pushed out of the way
+@SpringBootTest(properties = {
+        "sms_sender=test",
+        "sms_dispatch_interval_ms=3600000",
+        "sms_max_attempts=2",
+        "sms_initial_backoff_ms=0"
+})
+class SmsOutboxDispatcherTests {
+    @Autowired
+    private SNSService snsService;
+
+    @Autowired
+    private SmsOutboxDispatcher dispatcher;
+
+    @Autowired
+    private SmsOutboxRepository smsOutboxRepository;
+
+    @Autowired
+    private RecordingSmsSender sender;
+
+    @AfterEach
+    void cleanUp() {
+        smsOutboxRepository.deleteAll();
+        sender.sent.clear();
+        sender.failuresLeft.set(0);
+    }
+
+    @Test
+    void queuedSmsIsSentByDispatcher() {
+        snsService.sendSms("+37060000001", "Reservation confirmed");
+
+        assertThat(sender.sent).isEmpty();
+        dispatcher.dispatch();
+
+        assertThat(sender.sent).containsExactly("+37060000001: Reservation confirmed");
+        assertThat(smsOutboxRepository.findAll()).singleElement()
+                                                 .satisfies(sms -> {
+                                                     assertThat(sms.getStatus()).isEqualTo(SmsStatus.SENT);
+                                                     assertThat(sms.getSentAt()).isNotNull();
+                                                 });
+    }
+
+    @Test
+    void failedSmsIsRetriedThenGivenUp() {
+        sender.failuresLeft.set(1);
+        snsService.sendSms("+37060000002", "Reservation updated");
+
+        dispatcher.dispatch();
+        SmsOutbox retried = smsOutboxRepository.findAll().get(0);
+        assertThat(retried.getStatus()).isEqualTo(SmsStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getNextAttemptAt()).isBefore(LocalDateTime.now().plusSeconds(1));
+
+        sender.failuresLeft.set(1);
+        dispatcher.dispatch();
+        SmsOutbox failed = smsOutboxRepository.findAll().get(0);
+        assertThat(failed.getStatus()).isEqualTo(SmsStatus.FAILED);
+        assertThat(failed.getLastError()).isEqualTo("Simulated outage");
+        assertThat(sender.sent).isEmpty();
+    }
+
+    @Test
+    void leasedSmsIsNotClaimedTwice() {
+        snsService.sendSms("+37060000003", "Reservation cancelled");
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(smsOutboxRepository.claimPendingBatch(now, now.plusMinutes(1), 10)).hasSize(1);
+        assertThat(smsOutboxRepository.claimPendingBatch(now, now.plusMinutes(1), 10)).isEmpty();
+        assertThat(smsOutboxRepository.claimPendingBatch(now.plusMinutes(2), now.plusMinutes(3), 10)).hasSize(1);
+    }
+
+    @Test
+    void smsWithoutPhoneIsNotQueued() {
+        snsService.sendSms(null, "Reservation confirmed");
+
+        assertThat(smsOutboxRepository.count()).isZero();
+    }
+
+    @TestConfiguration
+    static class RecordingSenderConfig {
+        @Bean
+        RecordingSmsSender recordingSmsSender() {
+            return new RecordingSmsSender();
+        }
+    }
+
+    static class RecordingSmsSender implements SmsSender {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public void send(String phoneNumber, String message) {
+            if (failuresLeft.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+                throw new SnsServiceException("Simulated outage", null);
+            }
+            sent.add(phoneNumber + ": " + message);
+        }
+    }
+}
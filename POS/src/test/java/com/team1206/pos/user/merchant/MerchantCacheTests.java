@@ -0,0 +1,63 @@
+package com.team1206.pos.user.merchant;
+
+import com.team1206.pos.common.TestMerchant;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Merchants are read from the second-level cache after the first load, and a save through JPA replaces the cached copy
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class MerchantCacheTests {
+    private TestMerchant merchant;
+
+    @Autowired
+    private MerchantService merchantService;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        merchant = TestMerchant.seed(jdbcTemplate, "Cached");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        merchant.delete();
+    }
+
+    @Test
+    void merchantIsServedFromCacheUntilSaved() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics("merchant");
+        long hitsBefore = region.getHitCount();
+
+        merchantService.getMerchantEntityById(merchant.id());
+        long statementsBefore = statistics.getPrepareStatementCount();
+        merchantService.getMerchantEntityById(merchant.id());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+        assertThat(region.getHitCount()).isEqualTo(hitsBefore + 1);
+
+        Merchant cached = merchantService.getMerchantEntityById(merchant.id());
+        cached.setName("Renamed");
+        merchantRepository.save(cached);
+
+        assertThat(merchantService.getMerchantEntityById(merchant.id()).getName()).isEqualTo("Renamed");
+    }
+}
@@ -0,0 +1,42 @@
+package com.team1206.pos.authentication.security;
+
+import com.team1206.pos.benchmark.Fixtures;
+import com.team1206.pos.common.enums.UserRoles;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Token verification done by JWTFilter on every request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil();
+        Fixtures.setField(jwtUtil, "secret", "benchmark-secret-that-is-long-enough-for-hmac256");
+        Fixtures.setField(jwtUtil, "issuer", "POS");
+        Fixtures.setField(jwtUtil, "claimsTtlSeconds", 900L);
+        jwtUtil.init();
+
+        token = jwtUtil.generateToken("employee@benchmark.test", "Benchmark Employee",
+                                      UUID.randomUUID(), UUID.randomUUID(), UserRoles.EMPLOYEE);
+    }
+
+    @Benchmark
+    public String validateTokenAndRetrieveEmail() {
+        return jwtUtil.validateTokenAndRetrieveEmail(token);
+    }
+
+    @Benchmark
+    public POSUserPrincipal validateTokenAndReadPrincipal() {
+        return jwtUtil.toPrincipal(jwtUtil.validateToken(token));
+    }
+}
@@ -0,0 +1,51 @@
+package com.team1206.pos.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// Runs JMH with the usual command line options, results go to results/jmh-<POS version>.json unless -rf or -rff say otherwise,
+// so runs against different releases of POS can be compared with any JMH result viewer
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        String resultFile = commandLine.getResult().orElse("results/jmh-" + readPosVersion() + ".json");
+        Path resultDirectory = Path.of(resultFile).toAbsolutePath().getParent();
+        if (resultDirectory != null) {
+            Files.createDirectories(resultDirectory);
+        }
+
+        Options options = new OptionsBuilder().parent(commandLine)
+                                              .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                                              .result(resultFile)
+                                              .build();
+        new Runner(options).run();
+    }
+
+    // *** Helper methods ***
+
+    // The version of the POS dependency the benchmarks were built against, not of the benchmarks module
+    private static String readPosVersion() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = BenchmarkMain.class.getResourceAsStream("/benchmark.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        }
+        return properties.getProperty("pos.version", "dev");
+    }
+}
@@ -0,0 +1,159 @@
+package com.team1206.pos.benchmark;
+
+import com.team1206.pos.common.enums.ChargeType;
+import com.team1206.pos.common.enums.OrderChargeType;
+import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.inventory.product.Product;
+import com.team1206.pos.inventory.productCategory.ProductCategory;
+import com.team1206.pos.order.order.Order;
+import com.team1206.pos.order.orderCharge.OrderCharge;
+import com.team1206.pos.order.orderItem.OrderItem;
+import com.team1206.pos.payments.charge.Charge;
+import com.team1206.pos.payments.transaction.Transaction;
+import com.team1206.pos.service.service.Service;
+import com.team1206.pos.user.merchant.Merchant;
+import com.team1206.pos.user.user.User;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Entities built in memory the way they come out of the database, so the benchmarks need no database or Spring context
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    public static Merchant merchant() {
+        Merchant merchant = new Merchant();
+        merchant.setId(UUID.randomUUID());
+        merchant.setName("Benchmark merchant");
+        return merchant;
+    }
+
+    public static ProductCategory category(Merchant merchant) {
+        ProductCategory category = new ProductCategory();
+        category.setId(UUID.randomUUID());
+        category.setName("Benchmark category");
+        category.setMerchant(merchant);
+        return category;
+    }
+
+    public static Charge tax(Merchant merchant, int percent) {
+        return charge(merchant, ChargeType.TAX, percent, null);
+    }
+
+    public static Charge serviceCharge(Merchant merchant, BigDecimal amount) {
+        return charge(merchant, ChargeType.SERVICE, null, amount);
+    }
+
+    public static Product product(ProductCategory category, BigDecimal price, List<Charge> charges) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Benchmark product");
+        product.setPrice(price);
+        product.setQuantity(100);
+        product.setCategory(category);
+        product.setVariations(List.of());
+        product.setCharges(charges);
+        product.setUpdatedAt();
+        charges.forEach(charge -> charge.getProducts().add(product));
+        return product;
+    }
+
+    public static Service service(Merchant merchant, BigDecimal price, long durationSeconds, List<User> employees) {
+        Service service = new Service();
+        service.setId(UUID.randomUUID());
+        service.setName("Benchmark service");
+        service.setPrice(price);
+        service.setDuration(durationSeconds);
+        service.setEmployees(employees);
+        service.setCharges(new ArrayList<>());
+        service.setMerchant(merchant);
+        return service;
+    }
+
+    public static User employee(Merchant merchant, int number) {
+        User employee = new User();
+        employee.setId(UUID.randomUUID());
+        employee.setFirstName("Employee");
+        employee.setLastName(String.valueOf(number));
+        employee.setEmail("employee" + number + "@benchmark.test");
+        employee.setMerchant(merchant);
+        return employee;
+    }
+
+    public static OrderCharge orderCharge(Merchant merchant, OrderChargeType type, Integer percent, BigDecimal amount) {
+        OrderCharge orderCharge = new OrderCharge();
+        orderCharge.setId(UUID.randomUUID());
+        orderCharge.setType(type);
+        orderCharge.setName(type.name());
+        orderCharge.setPercent(percent);
+        orderCharge.setAmount(amount);
+        orderCharge.setMerchant(merchant);
+        return orderCharge;
+    }
+
+    public static Order order(Merchant merchant, OrderStatus status, BigDecimal subtotal, List<OrderCharge> charges) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(status);
+        order.setMerchant(merchant);
+        order.setCharges(charges);
+        order.setItems(new ArrayList<>());
+        order.setTransactions(new ArrayList<>());
+        order.setDiscounts(new ArrayList<>());
+        order.setSubtotal(subtotal);
+        order.setChargeTotal(BigDecimal.ZERO);
+        order.setDiscountTotal(BigDecimal.ZERO);
+        order.setAmountDue(subtotal);
+        order.setAmountPaid(BigDecimal.ZERO);
+        return order;
+    }
+
+    public static OrderItem orderItem(Order order, Product product, int quantity) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setId(UUID.randomUUID());
+        orderItem.setOrder(order);
+        orderItem.setProduct(product);
+        orderItem.setQuantity(quantity);
+        order.getItems().add(orderItem);
+        return orderItem;
+    }
+
+    public static Transaction transaction(Order order, BigDecimal amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setOrder(order);
+        transaction.setAmount(amount);
+        order.getTransactions().add(transaction);
+        return transaction;
+    }
+
+    // Sets a field normally injected by Spring
+    public static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set " + name, e);
+        }
+    }
+
+    // *** Helper methods ***
+
+    private static Charge charge(Merchant merchant, ChargeType type, Integer percent, BigDecimal amount) {
+        Charge charge = new Charge();
+        charge.setId(UUID.randomUUID());
+        charge.setType(type);
+        charge.setName(type.name());
+        charge.setPercent(percent);
+        charge.setAmount(amount);
+        charge.setMerchant(merchant);
+        charge.setProducts(new ArrayList<>());
+        charge.setServices(new ArrayList<>());
+        return charge;
+    }
+}
@@ -0,0 +1,38 @@
+package com.team1206.pos.inventory.product;
+
+import com.team1206.pos.benchmark.Fixtures;
+import com.team1206.pos.inventory.productCategory.ProductCategory;
+import com.team1206.pos.user.merchant.Merchant;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Product to response mapping with the product's variations and charges already loaded.
+// The service is built without dependencies, the mapper only reads the entity.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        productService = new ProductService(null, null, null, null, null);
+
+        Merchant merchant = Fixtures.merchant();
+        ProductCategory category = Fixtures.category(merchant);
+        product = Fixtures.product(category, new BigDecimal("4.99"), new ArrayList<>(List.of(Fixtures.tax(merchant, 21))));
+    }
+
+    @Benchmark
+    public ProductResponseDTO product() {
+        return productService.mapToResponseDTO(product);
+    }
+}
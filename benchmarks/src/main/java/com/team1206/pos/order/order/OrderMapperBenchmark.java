@@ -0,0 +1,53 @@
+package com.team1206.pos.order.order;
+
+import com.team1206.pos.benchmark.Fixtures;
+import com.team1206.pos.common.enums.OrderChargeType;
+import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.inventory.product.Product;
+import com.team1206.pos.inventory.productCategory.ProductCategory;
+import com.team1206.pos.payments.charge.Charge;
+import com.team1206.pos.user.merchant.Merchant;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Order to response mapping with the order's lines, charges and transactions already loaded
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMapperBenchmark {
+    // Lines on the order
+    @Param({"5", "50"})
+    private int itemCount;
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        orderService = new OrderService(null, null, null, null, null, null, null, null);
+
+        Merchant merchant = Fixtures.merchant();
+        ProductCategory category = Fixtures.category(merchant);
+        Charge charge = Fixtures.tax(merchant, 21);
+        order = Fixtures.order(merchant, OrderStatus.OPEN, BigDecimal.ZERO,
+                               new ArrayList<>(List.of(Fixtures.orderCharge(merchant, OrderChargeType.CHARGE, 10, null),
+                                                       Fixtures.orderCharge(merchant, OrderChargeType.DISCOUNT, 5, null))));
+        for (int i = 0; i < itemCount; i++) {
+            Product product = Fixtures.product(category, new BigDecimal("4.99"), new ArrayList<>(List.of(charge)));
+            Fixtures.orderItem(order, product, 2);
+        }
+        Fixtures.transaction(order, new BigDecimal("10.00"));
+    }
+
+    @Benchmark
+    public OrderResponseDTO order() {
+        return orderService.mapToResponseDTO(order);
+    }
+}
@@ -0,0 +1,97 @@
+package com.team1206.pos.order.order;
+
+import com.team1206.pos.benchmark.Fixtures;
+import com.team1206.pos.common.enums.OrderChargeType;
+import com.team1206.pos.common.enums.OrderStatus;
+import com.team1206.pos.inventory.product.Product;
+import com.team1206.pos.inventory.productCategory.ProductCategory;
+import com.team1206.pos.order.orderCharge.OrderCharge;
+import com.team1206.pos.payments.charge.Charge;
+import com.team1206.pos.payments.charge.ChargeAssignment;
+import com.team1206.pos.user.merchant.Merchant;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Charge application on prices and order totals. The rules are compiled the same way PricingRuleCache compiles them
+// from the database, here from entities built in memory.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+    // Products in the merchant's catalogue, every product has two taxes and a service charge
+    @Param({"100", "10000"})
+    private int productCount;
+
+    private List<ChargeAssignment> productAssignments;
+    private List<OrderCharge> orderCharges;
+    private MerchantPricingRules rules;
+    private Product[] products;
+    private Order order;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Merchant merchant = Fixtures.merchant();
+        ProductCategory category = Fixtures.category(merchant);
+        List<Charge> charges = List.of(Fixtures.tax(merchant, 21),
+                                       Fixtures.tax(merchant, 5),
+                                       Fixtures.serviceCharge(merchant, new BigDecimal("0.50")));
+
+        products = new Product[productCount];
+        productAssignments = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            products[i] = Fixtures.product(category, BigDecimal.valueOf(100 + i, 2), charges);
+            for (Charge charge : charges) {
+                productAssignments.add(new ChargeAssignment(products[i].getId(), charge));
+            }
+        }
+
+        orderCharges = List.of(Fixtures.orderCharge(merchant, OrderChargeType.CHARGE, 10, null),
+                               Fixtures.orderCharge(merchant, OrderChargeType.CHARGE, null, new BigDecimal("2.00")),
+                               Fixtures.orderCharge(merchant, OrderChargeType.DISCOUNT, 5, null));
+        order = Fixtures.order(merchant, OrderStatus.OPEN, new BigDecimal("84.30"), new ArrayList<>(orderCharges));
+
+        rules = MerchantPricingRules.compile(productAssignments, List.of(), orderCharges);
+    }
+
+    // Price of one product, what ProductService.getFinalPrice used to work out from the product's charges
+    @Benchmark
+    public BigDecimal productPrice() {
+        Product product = nextProduct();
+        return rules.getProductPrice(product.getId(), product.getPrice());
+    }
+
+    @Benchmark
+    public void productTaxes(Blackhole blackhole) {
+        Product product = nextProduct();
+        blackhole.consume(rules.getProductTaxes(product.getId(), product.getPrice()));
+    }
+
+    // What OrderChargeService.applyOrderCharges did per order, the order's charges are read from the entity
+    @Benchmark
+    public BigDecimal applyOrderCharges() {
+        return rules.applyOrderCharges(order, order.getSubtotal());
+    }
+
+    // Paid whenever a charge changes and the merchant's rules are recompiled
+    @Benchmark
+    public MerchantPricingRules compile() {
+        return MerchantPricingRules.compile(productAssignments, List.of(), orderCharges);
+    }
+
+    // *** Helper methods ***
+
+    private Product nextProduct() {
+        Product product = products[next];
+        next = next + 1 == products.length ? 0 : next + 1;
+        return product;
+    }
+}
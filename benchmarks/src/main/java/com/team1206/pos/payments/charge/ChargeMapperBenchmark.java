@@ -0,0 +1,47 @@
+package com.team1206.pos.payments.charge;
+
+import com.team1206.pos.benchmark.Fixtures;
+import com.team1206.pos.inventory.productCategory.ProductCategory;
+import com.team1206.pos.user.merchant.Merchant;
+import com.team1206.pos.user.user.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Charge to response mapping, the ids of every product and service the charge applies to are listed in the response
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChargeMapperBenchmark {
+    // Products and services the charge applies to, as many of each
+    @Param({"5", "50"})
+    private int itemCount;
+
+    private ChargeService chargeService;
+    private Charge charge;
+
+    @Setup
+    public void setUp() {
+        chargeService = new ChargeService(null, null, null, null, null, null, null);
+
+        Merchant merchant = Fixtures.merchant();
+        ProductCategory category = Fixtures.category(merchant);
+        List<User> employees = List.of(Fixtures.employee(merchant, 0));
+        charge = Fixtures.tax(merchant, 21);
+        for (int i = 0; i < itemCount; i++) {
+            Fixtures.product(category, new BigDecimal("4.99"), new ArrayList<>(List.of(charge)));
+            charge.getServices().add(Fixtures.service(merchant, new BigDecimal("25.00"), 3600L, employees));
+        }
+    }
+
+    @Benchmark
+    public ChargeResponseDTO charge() {
+        return chargeService.mapToResponseDTO(charge);
+    }
+}
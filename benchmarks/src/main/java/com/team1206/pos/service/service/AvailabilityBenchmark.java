@@ -0,0 +1,87 @@
+package com.team1206.pos.service.service;
+
+import com.team1206.pos.benchmark.Fixtures;
+import com.team1206.pos.service.reservation.BookedInterval;
+import com.team1206.pos.service.schedule.Schedule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The slot loop of ServiceService.getAvailableSlots for one employee and day, with the bookings read from the database
+// replaced by intervals built in memory
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+    // Reservations of the employee on the day
+    @Param({"0", "20", "200"})
+    private int bookingCount;
+
+    // Length of the service, shorter services give more slots to check
+    @Param({"900", "3600"})
+    private long durationSeconds;
+
+    private final LocalDate date = LocalDate.now().plusDays(1);
+    private ServiceService serviceService;
+    private List<BookedInterval> bookings;
+    private AvailabilityIndex availability;
+    private List<Schedule> schedules;
+
+    @Setup
+    public void setUp() {
+        serviceService = new ServiceService(null, null, null, null, null, null);
+
+        // Fixed seed, so every run books the same intervals
+        Random random = new Random(1206);
+        UUID employeeId = UUID.randomUUID();
+        LocalDateTime dayStart = date.atTime(8, 0);
+        bookings = new ArrayList<>();
+        for (int i = 0; i < bookingCount; i++) {
+            LocalDateTime start = dayStart.plusMinutes(5L * random.nextInt(144));
+            bookings.add(new BookedInterval(employeeId, UUID.randomUUID(), start, start.plusMinutes(5L * (1 + random.nextInt(12)))));
+        }
+        availability = AvailabilityIndex.of(bookings);
+
+        // A split shift, the loop runs once per schedule
+        schedules = List.of(schedule(date.getDayOfWeek(), LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                            schedule(date.getDayOfWeek(), LocalTime.of(13, 0), LocalTime.of(20, 0)));
+    }
+
+    @Benchmark
+    public AvailabilityIndex buildIndex() {
+        return AvailabilityIndex.of(bookings);
+    }
+
+    @Benchmark
+    public List<AvailableSlotsResponseDTO.Slot> freeSlots() {
+        return serviceService.getFreeSlots(availability, schedules, date, durationSeconds);
+    }
+
+    // Both steps, as a request for the employee's slots does them
+    @Benchmark
+    public List<AvailableSlotsResponseDTO.Slot> availableSlots() {
+        return serviceService.getFreeSlots(AvailabilityIndex.of(bookings), schedules, date, durationSeconds);
+    }
+
+    // *** Helper methods ***
+
+    private static Schedule schedule(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        Schedule schedule = new Schedule();
+        schedule.setId(UUID.randomUUID());
+        schedule.setDayOfWeek(dayOfWeek);
+        schedule.setStartTime(startTime);
+        schedule.setEndTime(endTime);
+        return schedule;
+    }
+}
@@ -0,0 +1,40 @@
+package com.team1206.pos.service.service;
+
+import com.team1206.pos.benchmark.Fixtures;
+import com.team1206.pos.user.merchant.Merchant;
+import com.team1206.pos.user.user.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Service to response mapping, the response lists the full names of the employees providing the service
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceMapperBenchmark {
+    private ServiceService serviceService;
+    private Service service;
+
+    @Setup
+    public void setUp() {
+        serviceService = new ServiceService(null, null, null, null, null, null);
+
+        Merchant merchant = Fixtures.merchant();
+        List<User> employees = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            employees.add(Fixtures.employee(merchant, i));
+        }
+        service = Fixtures.service(merchant, new BigDecimal("25.00"), 3600L, employees);
+    }
+
+    @Benchmark
+    public ServiceResponseDTO service() {
+        return serviceService.mapToResponseDTO(service);
+    }
+}